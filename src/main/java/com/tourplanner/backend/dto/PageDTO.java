@@ -0,0 +1,28 @@
+package com.tourplanner.backend.dto;
+
+import java.util.List;
+
+// One page of a keyset-paginated list. nextCursor continues after the last item, null on the last page. Cursors stay
+// valid while the list changes: a page never repeats or skips items that were there when the previous one was read.
+public class PageDTO<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public PageDTO(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
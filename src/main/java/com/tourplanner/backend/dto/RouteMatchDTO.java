@@ -0,0 +1,39 @@
+package com.tourplanner.backend.dto;
+
+// A tour whose route passes near a place, with the point of the route closest to it
+public class RouteMatchDTO {
+
+    private final TourDTO tour;
+    private final double distanceKm;   // from the place to the nearest point
+    private final double latitude;     // nearest point on the route
+    private final double longitude;
+    private final double kmAlongRoute; // from the start of the route to the nearest point
+
+    public RouteMatchDTO(TourDTO tour, double distanceKm, double latitude, double longitude, double kmAlongRoute) {
+        this.tour = tour;
+        this.distanceKm = distanceKm;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.kmAlongRoute = kmAlongRoute;
+    }
+
+    public TourDTO getTour() {
+        return tour;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getKmAlongRoute() {
+        return kmAlongRoute;
+    }
+}
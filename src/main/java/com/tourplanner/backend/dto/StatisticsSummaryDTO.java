@@ -0,0 +1,12 @@
+package com.tourplanner.backend.dto;
+
+// Totals over all tours and all logs, read by TourRepository.findStatisticsSummary. Averages are 0 without data, and
+// count a null log value as 0, as TourStatisticsDTO does.
+public record StatisticsSummaryDTO(long tourCount,
+                                   double averageTourDistance,
+                                   long logCount,
+                                   double averageRating,
+                                   double averageDifficulty,
+                                   double averageDistance,
+                                   double averageTime) {
+}
@@ -11,6 +11,17 @@ public class TourDTO {
     private String transportType;
     private String fromLocation;
     private String toLocation;
+    // Geocoded endpoints, null while unknown
+    private Double fromLatitude;
+    private Double fromLongitude;
+    private Double toLatitude;
+    private Double toLongitude;
+    // Number of logs and averages over them, 0 for a tour without logs
+    private int logCount;
+    private double averageRating;
+    private double averageDifficulty;
+    private double averageDistance;
+    private double averageTime;
 
     // Empty constructor
     public TourDTO() {
@@ -58,6 +69,15 @@ public class TourDTO {
     public String getTransportType() { return transportType; }
     public String getFromLocation() { return fromLocation; }
     public String getToLocation() { return toLocation; }
+    public Double getFromLatitude() { return fromLatitude; }
+    public Double getFromLongitude() { return fromLongitude; }
+    public Double getToLatitude() { return toLatitude; }
+    public Double getToLongitude() { return toLongitude; }
+    public int getLogCount() { return logCount; }
+    public double getAverageRating() { return averageRating; }
+    public double getAverageDifficulty() { return averageDifficulty; }
+    public double getAverageDistance() { return averageDistance; }
+    public double getAverageTime() { return averageTime; }
 
     // Setters
     public void setId (Long i)   { id = i; }
@@ -68,6 +88,15 @@ public class TourDTO {
     public void setTransportType(String t){ transportType = t; }
     public void setFromLocation(String f) { fromLocation = f; }
     public void setToLocation  (String t) { toLocation = t; }
+    public void setFromLatitude (Double l) { fromLatitude = l; }
+    public void setFromLongitude(Double l) { fromLongitude = l; }
+    public void setToLatitude   (Double l) { toLatitude = l; }
+    public void setToLongitude  (Double l) { toLongitude = l; }
+    public void setLogCount        (int c)    { logCount = c; }
+    public void setAverageRating   (double a) { averageRating = a; }
+    public void setAverageDifficulty(double a){ averageDifficulty = a; }
+    public void setAverageDistance (double a) { averageDistance = a; }
+    public void setAverageTime     (double a) { averageTime = a; }
 
     // ListView representation
     @Override public String toString() { return name; }
@@ -0,0 +1,24 @@
+package com.tourplanner.backend.dto;
+
+import java.time.LocalDateTime;
+
+// Statistics of one tour over its logs, read by TourRepository.findTourStatistics from the aggregates stored on the
+// tour. A log value that is null (only possible in databases from before the columns were required) counts as 0, in
+// the averages as well as the minimum and maximum.
+// Averages, minimum and maximum are 0 and lastLog is null for a tour without logs.
+public record TourStatisticsDTO(Long tourId,
+                                String name,
+                                String fromLocation,
+                                String toLocation,
+                                double distance,
+                                String estimatedTime,
+                                String transportType,
+                                long logCount,
+                                double averageRating,
+                                double averageDifficulty,
+                                double averageDistance,
+                                double averageTime,   // hours
+                                double minTime,
+                                double maxTime,
+                                LocalDateTime lastLog) {
+}
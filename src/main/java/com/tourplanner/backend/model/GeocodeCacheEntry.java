@@ -0,0 +1,57 @@
+package com.tourplanner.backend.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// JPA Entity for a cached geocoding result, this is the disk tier of the GeocodeCache.
+
+@Entity
+@Table(name = "geocode_cache")
+public class GeocodeCacheEntry {
+
+    @Id
+    @Column(name = "query_key", length = 255)
+    private String queryKey;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload; // JSON array of {longitude, latitude, label}
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public GeocodeCacheEntry() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public GeocodeCacheEntry(String queryKey, String payload) {
+        this();
+        this.queryKey = queryKey;
+        this.payload = payload;
+    }
+
+    // Getters and Setters
+    public String getQueryKey() {
+        return queryKey;
+    }
+
+    public void setQueryKey(String queryKey) {
+        this.queryKey = queryKey;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
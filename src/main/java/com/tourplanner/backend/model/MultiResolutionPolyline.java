@@ -0,0 +1,185 @@
+package com.tourplanner.backend.model;
+
+import java.util.Arrays;
+
+// Douglas-Peucker simplification of a PackedPolyline for every resolution at once. One pass assigns each point
+// the largest tolerance at which Douglas-Peucker would still keep it (capped by its parent's, so the levels nest);
+// a simplified version for any tolerance or web map zoom is then a single filter over that importance array.
+// Distances are measured in degrees with longitudes scaled by cos(latitude), which is what a map draws.
+public final class MultiResolutionPolyline {
+
+    public static final int MAX_ZOOM = 20;
+    // Points closer than this many pixels to the simplified line are dropped
+    private static final double PIXEL_TOLERANCE = 0.5;
+
+    private final PackedPolyline source;
+    private final double[] importance;
+    private final double lonScale;
+    private final PackedPolyline[] levels = new PackedPolyline[MAX_ZOOM + 1];
+
+    public MultiResolutionPolyline(PackedPolyline source) {
+        this.source = source;
+        // Clamped so routes near the poles do not divide by zero
+        this.lonScale = Math.max(0.01, Math.cos(Math.toRadians(meanLatitude(source))));
+        this.importance = computeImportance(source, lonScale);
+    }
+
+    public PackedPolyline getSource() {
+        return source;
+    }
+
+    // Points needed to draw the route at the given web map zoom level (Leaflet/OSM tiles of 256 px)
+    public synchronized PackedPolyline forZoom(int zoom) {
+        int z = Math.max(0, Math.min(MAX_ZOOM, zoom));
+        if (levels[z] == null) {
+            levels[z] = simplify(toleranceForZoom(z));
+        }
+        return levels[z];
+    }
+
+    // Douglas-Peucker result for the tolerance, in degrees of longitude (the unit web map pixels are constant in)
+    public PackedPolyline simplify(double tolerance) {
+        int[] keep = new int[source.size()];
+        int count = 0;
+        for (int i = 0; i < importance.length; i++) {
+            if (importance[i] > tolerance) {
+                keep[count++] = i;
+            }
+        }
+        return count == source.size() ? source : source.subset(keep, count);
+    }
+
+    // Number of points kept at the zoom level, without building the polyline
+    public int pointCount(int zoom) {
+        double tolerance = toleranceForZoom(Math.max(0, Math.min(MAX_ZOOM, zoom)));
+        int count = 0;
+        for (double value : importance) {
+            if (value > tolerance) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Largest zoom at which the whole route fits into a map of the given size in pixels
+    public int fittingZoom(int widthPixels, int heightPixels) {
+        if (source.isEmpty()) {
+            return 0;
+        }
+        double[] bounds = {Double.MAX_VALUE, -Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE};
+        source.forEach((lat, lon) -> {
+            bounds[0] = Math.min(bounds[0], lat);
+            bounds[1] = Math.max(bounds[1], lat);
+            bounds[2] = Math.min(bounds[2], lon);
+            bounds[3] = Math.max(bounds[3], lon);
+        });
+        double latSpan = Math.max(bounds[1] - bounds[0], 1e-9) / lonScale;
+        double lonSpan = Math.max(bounds[3] - bounds[2], 1e-9);
+        double zoomLon = log2(widthPixels * 360.0 / (256.0 * lonSpan));
+        double zoomLat = log2(heightPixels * 360.0 / (256.0 * latSpan));
+        return Math.max(0, Math.min(MAX_ZOOM, (int) Math.floor(Math.min(zoomLon, zoomLat))));
+    }
+
+    // Half a pixel at the zoom level, in degrees of longitude
+    static double toleranceForZoom(int zoom) {
+        return 360.0 / (256.0 * Math.pow(2, zoom)) * PIXEL_TOLERANCE;
+    }
+
+    // Distance of the point farthest from the segment start-end, its index is returned in farthest[0]
+    private static double farthestPoint(double[] xs, double[] ys, int start, int end, int[] farthest) {
+        double ax = xs[start];
+        double ay = ys[start];
+        double dx = xs[end] - ax;
+        double dy = ys[end] - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double max = -1;
+        for (int i = start + 1; i < end; i++) {
+            double px = xs[i] - ax;
+            double py = ys[i] - ay;
+            double distanceSquared;
+            if (lengthSquared == 0) {
+                distanceSquared = px * px + py * py;
+            } else {
+                // Distance to the segment, not to the infinite line, so back-and-forth detours are kept
+                double t = Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared));
+                double ex = px - t * dx;
+                double ey = py - t * dy;
+                distanceSquared = ex * ex + ey * ey;
+            }
+            if (distanceSquared > max) {
+                max = distanceSquared;
+                farthest[0] = i;
+            }
+        }
+        return Math.sqrt(max);
+    }
+
+    // Iterative Douglas-Peucker over all tolerances: explicit stack of (start, end, cap) instead of recursion
+    private static double[] computeImportance(PackedPolyline p, double lonScale) {
+        int n = p.size();
+        double[] importance = new double[n];
+        if (n == 0) {
+            return importance;
+        }
+        importance[0] = Double.POSITIVE_INFINITY;
+        importance[n - 1] = Double.POSITIVE_INFINITY;
+
+        // Projected once into plain arrays, the inner loop then runs over primitives only
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int[] index = {0};
+        p.forEach((lat, lon) -> {
+            xs[index[0]] = lon * lonScale;
+            ys[index[0]] = lat;
+            index[0]++;
+        });
+
+        int[] ranges = new int[64];
+        double[] caps = new double[32];
+        ranges[0] = 0;
+        ranges[1] = n - 1;
+        caps[0] = Double.POSITIVE_INFINITY;
+        int top = 1;
+        int[] farthest = new int[1];
+        while (top > 0) {
+            top--;
+            int start = ranges[2 * top];
+            int end = ranges[2 * top + 1];
+            double cap = caps[top];
+            if (end - start < 2) {
+                continue;
+            }
+            double distance = farthestPoint(xs, ys, start, end, farthest);
+            int split = farthest[0];
+            // Divided by cos(latitude) into longitude degrees, the unit web map pixels have at every latitude
+            double value = Math.min(distance / lonScale, cap);
+            importance[split] = value;
+            if (2 * (top + 2) > ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+                caps = Arrays.copyOf(caps, caps.length * 2);
+            }
+            ranges[2 * top] = start;
+            ranges[2 * top + 1] = split;
+            caps[top] = value;
+            top++;
+            ranges[2 * top] = split;
+            ranges[2 * top + 1] = end;
+            caps[top] = value;
+            top++;
+        }
+        return importance;
+    }
+
+    private static double meanLatitude(PackedPolyline p) {
+        if (p.isEmpty()) {
+            return 0;
+        }
+        double[] sum = new double[1];
+        p.forEach((lat, lon) -> sum[0] += lat);
+        return sum[0] / p.size();
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / Math.log(2);
+    }
+}
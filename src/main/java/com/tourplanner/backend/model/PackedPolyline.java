@@ -0,0 +1,255 @@
+package com.tourplanner.backend.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+// Immutable route geometry backed by a single primitive array of interleaved latitude/longitude pairs,
+// either as doubles (16 bytes per point) or quantized to 1e-5 degree ints (8 bytes per point, about 1 m).
+// A List<RouteData.Coordinate> costs roughly 36 bytes per point, so this is 2-4.5x smaller in memory.
+// Slices share the backing array, and toBytes() gives a delta + varint encoding of 2-4 bytes per point for storage.
+public final class PackedPolyline {
+
+    public static final double SCALE = 1e5; // quantization: 1 unit = 1e-5 degrees
+
+    private static final PackedPolyline EMPTY = new PackedPolyline(null, new int[0], 0, 0);
+
+    private final double[] values; // interleaved lat, lon; null when quantized
+    private final int[] fixed;     // interleaved lat, lon in 1e-5 degrees; null when full precision
+    private final int offset;      // index of the first point in the backing array
+    private final int size;
+
+    // Receives the points of forEach without allocating a Coordinate per point
+    @FunctionalInterface
+    public interface PointConsumer {
+        void accept(double latitude, double longitude);
+    }
+
+    private PackedPolyline(double[] values, int[] fixed, int offset, int size) {
+        this.values = values;
+        this.fixed = fixed;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    // Full precision polyline from two arrays of equal length
+    public static PackedPolyline of(double[] latitudes, double[] longitudes) {
+        checkLengths(latitudes, longitudes);
+        double[] values = new double[latitudes.length * 2];
+        for (int i = 0; i < latitudes.length; i++) {
+            values[2 * i] = latitudes[i];
+            values[2 * i + 1] = longitudes[i];
+        }
+        return new PackedPolyline(values, null, 0, latitudes.length);
+    }
+
+    // Full precision polyline from coordinate objects
+    public static PackedPolyline of(List<RouteData.Coordinate> coordinates) {
+        double[] values = new double[coordinates.size() * 2];
+        int i = 0;
+        for (RouteData.Coordinate c : coordinates) {
+            values[i++] = c.getLatitude();
+            values[i++] = c.getLongitude();
+        }
+        return new PackedPolyline(values, null, 0, coordinates.size());
+    }
+
+    // Polyline quantized to 1e-5 degrees, half the memory of the full precision form
+    public static PackedPolyline quantized(double[] latitudes, double[] longitudes) {
+        checkLengths(latitudes, longitudes);
+        int[] fixed = new int[latitudes.length * 2];
+        for (int i = 0; i < latitudes.length; i++) {
+            fixed[2 * i] = quantize(latitudes[i]);
+            fixed[2 * i + 1] = quantize(longitudes[i]);
+        }
+        return new PackedPolyline(null, fixed, 0, latitudes.length);
+    }
+
+    public static PackedPolyline empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isQuantized() {
+        return fixed != null;
+    }
+
+    public double latitude(int index) {
+        int i = 2 * (offset + checkIndex(index));
+        return fixed != null ? fixed[i] / SCALE : values[i];
+    }
+
+    public double longitude(int index) {
+        int i = 2 * (offset + checkIndex(index)) + 1;
+        return fixed != null ? fixed[i] / SCALE : values[i];
+    }
+
+    public void forEach(PointConsumer consumer) {
+        int end = 2 * (offset + size);
+        if (fixed != null) {
+            for (int i = 2 * offset; i < end; i += 2) {
+                consumer.accept(fixed[i] / SCALE, fixed[i + 1] / SCALE);
+            }
+        } else {
+            for (int i = 2 * offset; i < end; i += 2) {
+                consumer.accept(values[i], values[i + 1]);
+            }
+        }
+    }
+
+    // Points from (inclusive) to (exclusive), sharing this polyline's backing array
+    public PackedPolyline slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Slice " + from + ".." + to + " of " + size + " points");
+        }
+        return new PackedPolyline(values, fixed, offset + from, to - from);
+    }
+
+    // The points at the given indices (ascending, count of them used), in the same representation as this polyline
+    public PackedPolyline subset(int[] indices, int count) {
+        if (fixed != null) {
+            int[] selected = new int[count * 2];
+            for (int i = 0; i < count; i++) {
+                int k = 2 * (offset + indices[i]);
+                selected[2 * i] = fixed[k];
+                selected[2 * i + 1] = fixed[k + 1];
+            }
+            return new PackedPolyline(null, selected, 0, count);
+        }
+        double[] selected = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            int k = 2 * (offset + indices[i]);
+            selected[2 * i] = values[k];
+            selected[2 * i + 1] = values[k + 1];
+        }
+        return new PackedPolyline(selected, null, 0, count);
+    }
+
+    // Quantized copy of this polyline (or this polyline itself if it already is)
+    public PackedPolyline quantize() {
+        if (fixed != null) {
+            return this;
+        }
+        int[] quantized = new int[size * 2];
+        for (int i = 0; i < quantized.length; i++) {
+            quantized[i] = quantize(values[2 * offset + i]);
+        }
+        return new PackedPolyline(null, quantized, 0, size);
+    }
+
+    // Read-only Coordinate view for existing callers, creates a Coordinate per get()
+    public List<RouteData.Coordinate> asCoordinates() {
+        return new AbstractList<>() {
+            @Override
+            public RouteData.Coordinate get(int index) {
+                return new RouteData.Coordinate(latitude(index), longitude(index));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Binary form for storage: point count, then zig-zag varint deltas of the quantized lat/lon.
+    // Full precision polylines are quantized to 1e-5 degrees on the way.
+    public byte[] toBytes() {
+        byte[] out = new byte[5 + size * 10];
+        int pos = writeVarint(out, 0, size);
+        int prevLat = 0;
+        int prevLon = 0;
+        for (int i = 0; i < size; i++) {
+            int k = 2 * (offset + i);
+            int lat = fixed != null ? fixed[k] : quantize(values[k]);
+            int lon = fixed != null ? fixed[k + 1] : quantize(values[k + 1]);
+            pos = writeVarint(out, pos, zigZag(lat - prevLat));
+            pos = writeVarint(out, pos, zigZag(lon - prevLon));
+            prevLat = lat;
+            prevLon = lon;
+        }
+        return Arrays.copyOf(out, pos);
+    }
+
+    // Reads the form written by toBytes(), the result is quantized
+    public static PackedPolyline fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return EMPTY;
+        }
+        int[] pos = {0};
+        int count = readVarint(bytes, pos);
+        int[] fixed = new int[count * 2];
+        int lat = 0;
+        int lon = 0;
+        for (int i = 0; i < count; i++) {
+            lat += unZigZag(readVarint(bytes, pos));
+            lon += unZigZag(readVarint(bytes, pos));
+            fixed[2 * i] = lat;
+            fixed[2 * i + 1] = lon;
+        }
+        return new PackedPolyline(null, fixed, 0, count);
+    }
+
+    // Approximate heap size of the points, excluding the shared array header
+    public long memoryBytes() {
+        return (long) size * (fixed != null ? 8 : 16);
+    }
+
+    @Override
+    public String toString() {
+        return "PackedPolyline{points=" + size + (fixed != null ? ", quantized" : "") + "}";
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Point " + index + " of " + size);
+        }
+        return index;
+    }
+
+    private static void checkLengths(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Latitude and longitude arrays differ in length");
+        }
+    }
+
+    private static int quantize(double degrees) {
+        return (int) Math.round(degrees * SCALE);
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarint(byte[] out, int pos, int value) {
+        while ((value & ~0x7f) != 0) {
+            out[pos++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static int readVarint(byte[] in, int[] pos) {
+        int result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in[pos[0]++];
+            result |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return result;
+    }
+}
@@ -10,9 +10,13 @@ public class RouteData {
     private String transportType;
     private double distance; // in kilometers
     private double duration; // in hours
-    private List<Coordinate> coordinates;
+    private PackedPolyline geometry; // getCoordinates() is only a view over it
+    private MultiResolutionPolyline levels; // computed on first use
     private String routeImagePath;
     private String summary;
+    private boolean approximate; // true when computed by the haversine fallback instead of ORS
+    private GeoCode fromCoordinates; // geocoded endpoints the route was computed for, null if unknown
+    private GeoCode toCoordinates;
 
     // Constructors
     public RouteData() {}
@@ -30,7 +34,16 @@ public class RouteData {
     public RouteData(String fromLocation, String toLocation, String transportType, 
                     double distance, double duration, List<Coordinate> coordinates) {
         this(fromLocation, toLocation, transportType, distance, duration);
-        this.coordinates = coordinates;
+        if (coordinates != null) {
+            this.geometry = PackedPolyline.of(coordinates);
+        }
+    }
+
+    // Constructor taking the points as a packed polyline
+    public RouteData(String fromLocation, String toLocation, String transportType,
+                    double distance, double duration, PackedPolyline geometry) {
+        this(fromLocation, toLocation, transportType, distance, duration);
+        this.geometry = geometry;
     }
 
     // Getters and Setters
@@ -59,7 +72,24 @@ public class RouteData {
     }
 
     public List<Coordinate> getCoordinates() {
-        return coordinates;
+        return geometry != null ? geometry.asCoordinates() : null;
+    }
+
+    // Packed points of the route, null if it has no geometry
+    public PackedPolyline getGeometry() {
+        return geometry;
+    }
+
+    // Simplified versions of the geometry per map zoom level, null if the route has no geometry
+    public synchronized MultiResolutionPolyline getLevels() {
+        if (levels == null && geometry != null) {
+            levels = new MultiResolutionPolyline(geometry);
+        }
+        return levels;
+    }
+
+    public int getPointCount() {
+        return geometry != null ? geometry.size() : 0;
     }
 
     public String getRouteImagePath() {
@@ -74,6 +104,30 @@ public class RouteData {
         this.summary = summary;
     }
 
+    public boolean isApproximate() {
+        return approximate;
+    }
+
+    public void setApproximate(boolean approximate) {
+        this.approximate = approximate;
+    }
+
+    public GeoCode getFromCoordinates() {
+        return fromCoordinates;
+    }
+
+    public void setFromCoordinates(GeoCode fromCoordinates) {
+        this.fromCoordinates = fromCoordinates;
+    }
+
+    public GeoCode getToCoordinates() {
+        return toCoordinates;
+    }
+
+    public void setToCoordinates(GeoCode toCoordinates) {
+        this.toCoordinates = toCoordinates;
+    }
+
 
     @Override
     public String toString() {
@@ -0,0 +1,165 @@
+package com.tourplanner.backend.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+// JPA Entity for the computed route of a tour, so the map can be drawn without calling ORS again.
+// from/to/transport are stored to detect when the tour changed and the route must be recomputed.
+
+@Entity
+@Table(name = "route_geometries")
+public class RouteGeometry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tour_id", nullable = false, unique = true)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Tour tour;
+
+    @Column(name = "from_location", length = 255)
+    private String fromLocation;
+
+    @Column(name = "to_location", length = 255)
+    private String toLocation;
+
+    @Column(name = "transport_type", length = 50)
+    private String transportType;
+
+    @Column(nullable = false)
+    private Double distance; // in kilometers
+
+    @Column(nullable = false)
+    private Double duration; // in hours
+
+    @Column(columnDefinition = "TEXT")
+    private String polyline; // encoded polyline, see PolylineCodec (routes stored before points existed)
+
+    @Lob
+    @Column(name = "points")
+    private byte[] points; // PackedPolyline.toBytes()
+
+    @Column(name = "point_count")
+    private Integer pointCount;
+
+    @Column(columnDefinition = "TEXT")
+    private String summary;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public RouteGeometry() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public RouteGeometry(Tour tour) {
+        this();
+        this.tour = tour;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public Tour getTour() {
+        return tour;
+    }
+
+    public void setTour(Tour tour) {
+        this.tour = tour;
+    }
+
+    public String getFromLocation() {
+        return fromLocation;
+    }
+
+    public void setFromLocation(String fromLocation) {
+        this.fromLocation = fromLocation;
+    }
+
+    public String getToLocation() {
+        return toLocation;
+    }
+
+    public void setToLocation(String toLocation) {
+        this.toLocation = toLocation;
+    }
+
+    public String getTransportType() {
+        return transportType;
+    }
+
+    public void setTransportType(String transportType) {
+        this.transportType = transportType;
+    }
+
+    public Double getDistance() {
+        return distance;
+    }
+
+    public void setDistance(Double distance) {
+        this.distance = distance;
+    }
+
+    public Double getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Double duration) {
+        this.duration = duration;
+    }
+
+    public String getPolyline() {
+        return polyline;
+    }
+
+    public void setPolyline(String polyline) {
+        this.polyline = polyline;
+    }
+
+    public byte[] getPoints() {
+        return points;
+    }
+
+    public void setPoints(byte[] points) {
+        this.points = points;
+    }
+
+    public Integer getPointCount() {
+        return pointCount;
+    }
+
+    public void setPointCount(Integer pointCount) {
+        this.pointCount = pointCount;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    // True if this geometry was computed for the given route parameters
+    public boolean matches(String fromLocation, String toLocation, String transportType) {
+        return java.util.Objects.equals(this.fromLocation, fromLocation)
+                && java.util.Objects.equals(this.toLocation, toLocation)
+                && java.util.Objects.equals(this.transportType, transportType);
+    }
+}
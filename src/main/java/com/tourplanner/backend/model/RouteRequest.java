@@ -0,0 +1,11 @@
+package com.tourplanner.backend.model;
+
+// One route of a batch request, the same inputs as a single RouteService.getRouteDataAsync call.
+// The coordinates are optional; locations that come with them are not geocoded again.
+public record RouteRequest(String fromLocation, String toLocation, String transportType,
+                           GeoCode fromCoordinates, GeoCode toCoordinates) {
+
+    public RouteRequest(String fromLocation, String toLocation, String transportType) {
+        this(fromLocation, toLocation, transportType, null, null);
+    }
+}
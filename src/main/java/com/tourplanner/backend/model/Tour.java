@@ -1,6 +1,7 @@
 package com.tourplanner.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -8,7 +9,7 @@ import java.util.List;
 // JPA Entity for Tour representing a tour entry in the database.
 
 @Entity
-@Table(name = "tours")
+@Table(name = "tours", indexes = @Index(name = "idx_tours_name_id", columnList = "name, id"))
 public class Tour {
 
     @Id
@@ -36,6 +37,20 @@ public class Tour {
     @Column(name = "to_location", length = 255)
     private String toLocation;
 
+    // Geocoded endpoints, resolved once when the locations are set so routing and the map need no geocoding.
+    // Null while unknown (tours created before they were stored, or locations that could not be geocoded).
+    @Column(name = "from_latitude")
+    private Double fromLatitude;
+
+    @Column(name = "from_longitude")
+    private Double fromLongitude;
+
+    @Column(name = "to_latitude")
+    private Double toLatitude;
+
+    @Column(name = "to_longitude")
+    private Double toLongitude;
+
     @Column(name = "route_image_path", length = 500)
     private String routeImagePath;
 
@@ -48,6 +63,42 @@ public class Tour {
     @OneToMany(mappedBy = "tour", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<TourLog> tourLogs = new ArrayList<>();
 
+    // Count and sums over the tour's logs, kept up to date by TourLogServiceImpl in the transaction that changes a log
+    // (and recomputed by TourAggregateRepair). Only ever written by TourRepository's update queries, so saving a tour
+    // loaded before a log was added cannot put back an old count.
+    @ColumnDefault("0")
+    @Column(name = "log_count", nullable = false, insertable = false, updatable = false)
+    private int logCount;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false, insertable = false, updatable = false)
+    private double ratingSum;
+
+    @ColumnDefault("0")
+    @Column(name = "difficulty_sum", nullable = false, insertable = false, updatable = false)
+    private double difficultySum;
+
+    @ColumnDefault("0")
+    @Column(name = "distance_sum", nullable = false, insertable = false, updatable = false)
+    private double distanceSum;
+
+    @ColumnDefault("0")
+    @Column(name = "time_sum", nullable = false, insertable = false, updatable = false)
+    private double timeSum;
+
+    // Shortest and longest log time and the latest log date, kept up to date and recomputed alongside the sums. The
+    // times are 0 and the date null for a tour without logs.
+    @ColumnDefault("0")
+    @Column(name = "min_time", nullable = false, insertable = false, updatable = false)
+    private double minTime;
+
+    @ColumnDefault("0")
+    @Column(name = "max_time", nullable = false, insertable = false, updatable = false)
+    private double maxTime;
+
+    @Column(name = "last_log", insertable = false, updatable = false)
+    private LocalDateTime lastLog;
+
     // Constructors
     public Tour() {
         this.createdAt = LocalDateTime.now();
@@ -142,6 +193,37 @@ public class Tour {
         this.updatedAt = LocalDateTime.now();
     }
 
+    public Double getFromLatitude() {
+        return fromLatitude;
+    }
+
+    public void setFromLatitude(Double fromLatitude) {
+        this.fromLatitude = fromLatitude;
+    }
+
+    public Double getFromLongitude() {
+        return fromLongitude;
+    }
+
+    public void setFromLongitude(Double fromLongitude) {
+        this.fromLongitude = fromLongitude;
+    }
+
+    public Double getToLatitude() {
+        return toLatitude;
+    }
+
+    public void setToLatitude(Double toLatitude) {
+        this.toLatitude = toLatitude;
+    }
+
+    public Double getToLongitude() {
+        return toLongitude;
+    }
+
+    public void setToLongitude(Double toLongitude) {
+        this.toLongitude = toLongitude;
+    }
 
     public LocalDateTime getCreatedAt() {
         return createdAt;
@@ -168,17 +250,56 @@ public class Tour {
     }
 
     public int getLogCount() {
-        return tourLogs.size();
+        return logCount;
+    }
+
+    public double getRatingSum() {
+        return ratingSum;
+    }
+
+    public double getDifficultySum() {
+        return difficultySum;
+    }
+
+    public double getDistanceSum() {
+        return distanceSum;
+    }
+
+    public double getTimeSum() {
+        return timeSum;
+    }
+
+    public double getMinTime() {
+        return minTime;
+    }
+
+    public double getMaxTime() {
+        return maxTime;
+    }
+
+    public LocalDateTime getLastLog() {
+        return lastLog;
+    }
+
+    // Averages over the tour's logs, 0 for a tour without logs
+    public double getAverageRating() {
+        return average(ratingSum);
+    }
+
+    public double getAverageDifficulty() {
+        return average(difficultySum);
+    }
+
+    public double getAverageDistance() {
+        return average(distanceSum);
     }
 
     public double getAverageTime() {
-        if (tourLogs.isEmpty()) {
-            return 0.0;
-        }
-        return tourLogs.stream()
-                .mapToDouble(TourLog::getTotalTime)
-                .average()
-                .orElse(0.0);
+        return average(timeSum);
+    }
+
+    private double average(double sum) {
+        return logCount > 0 ? sum / logCount : 0.0;
     }
 
     @Override
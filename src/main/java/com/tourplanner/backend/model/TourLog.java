@@ -6,7 +6,14 @@ import java.time.LocalDateTime;
 // JPA Entity for TourLog representing a tour log entry in the database.
 
 @Entity
-@Table(name = "tour_logs")
+// The descending indexes let H2 count back from the end of a tour's logs in index order (a jump to the end of the
+// log table), which it otherwise does by sorting them all
+@Table(name = "tour_logs", indexes = {
+        @Index(name = "idx_tour_logs_date_id", columnList = "date_time, id"),
+        @Index(name = "idx_tour_logs_tour_date_id", columnList = "tour_id, date_time, id"),
+        @Index(name = "idx_tour_logs_date_id_desc", columnList = "date_time DESC, id DESC"),
+        @Index(name = "idx_tour_logs_tour_date_id_desc", columnList = "tour_id DESC, date_time DESC, id DESC")
+})
 public class TourLog {
 
     @Id
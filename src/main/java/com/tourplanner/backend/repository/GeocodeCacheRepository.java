@@ -0,0 +1,24 @@
+package com.tourplanner.backend.repository;
+
+import com.tourplanner.backend.model.GeocodeCacheEntry;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Spring Data repository for the persistent geocode cache.
+@Repository
+public interface GeocodeCacheRepository extends JpaRepository<GeocodeCacheEntry, String> {
+
+    List<GeocodeCacheEntry> findByOrderByCreatedAtAsc(Pageable pageable); // Oldest entries first, used to trim the table
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM GeocodeCacheEntry e WHERE e.createdAt < ?1") // Drop entries older than the disk TTL
+    int deleteOlderThan(LocalDateTime cutoff);
+}
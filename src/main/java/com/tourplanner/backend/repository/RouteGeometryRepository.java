@@ -0,0 +1,22 @@
+package com.tourplanner.backend.repository;
+
+import com.tourplanner.backend.model.RouteGeometry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+// Spring Data repository for stored route geometries.
+@Repository
+public interface RouteGeometryRepository extends JpaRepository<RouteGeometry, Long> {
+
+    Optional<RouteGeometry> findByTourId(Long tourId); // Find the stored route of a specific tour
+
+    // Tour id, points and legacy polyline of the stored routes that still match their tour's locations and transport
+    // type. Used to build RouteCorridorIndex.
+    @Query("select t.id, g.points, g.polyline from RouteGeometry g join g.tour t "
+            + "where g.fromLocation = t.fromLocation and g.toLocation = t.toLocation and g.transportType = t.transportType")
+    List<Object[]> findAllCurrentGeometries();
+}
@@ -1,6 +1,7 @@
 package com.tourplanner.backend.repository;
 
 import com.tourplanner.backend.model.TourLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -22,18 +23,60 @@ public interface TourLogRepository extends JpaRepository<TourLog, Long> {
 
     List<TourLog> findByRatingGreaterThanEqual(Double minRating); // Find tour logs by minimum rating
 
-    // Queries
-    @Query("SELECT AVG(tl.rating) FROM TourLog tl WHERE tl.tour.id = ?1") // Get average rating for a specific tour
-    Double getAverageRatingByTourId(Long tourId);
+    // Per-tour averages are kept on the tour itself (Tour.getAverageRating etc.)
 
-    @Query("SELECT AVG(tl.difficulty) FROM TourLog tl WHERE tl.tour.id = ?1") // Get average difficulty for a specific tour
-    Double getAverageDifficultyByTourId(Long tourId);
+    // Keyset pages ordered by date and id (see PageCursor), of all logs or of one tour's. The plain dateTime >= bound
+    // is redundant but lets H2 start the index range at the cursor instead of filtering from the first row, and H2
+    // only reads a tour's logs in index order (instead of sorting all of them) when the order names tour_id too.
+    @Query("SELECT tl FROM TourLog tl ORDER BY tl.dateTime, tl.id")
+    List<TourLog> findFirstPage(Pageable page);
 
-    @Query("SELECT AVG(tl.totalDistance) FROM TourLog tl WHERE tl.tour.id = ?1") //Get average distance for a specific tour
-    Double getAverageDistanceByTourId(Long tourId);
+    @Query("SELECT tl FROM TourLog tl WHERE tl.dateTime >= ?1 AND (tl.dateTime > ?1 OR tl.id > ?2) "
+            + "ORDER BY tl.dateTime, tl.id")
+    List<TourLog> findPageAfter(LocalDateTime dateTime, Long id, Pageable page);
 
-    @Query("SELECT AVG(tl.totalTime) FROM TourLog tl WHERE tl.tour.id = ?1") //Get average time for a specific tour
-    Double getAverageTimeByTourId(Long tourId);
+    @Query("SELECT tl FROM TourLog tl WHERE tl.tour.id = ?1 ORDER BY tl.tour.id, tl.dateTime, tl.id")
+    List<TourLog> findFirstPageByTourId(Long tourId, Pageable page);
+
+    @Query("SELECT tl FROM TourLog tl WHERE tl.tour.id = ?1 "
+            + "AND tl.dateTime >= ?2 AND (tl.dateTime > ?2 OR tl.id > ?3) ORDER BY tl.tour.id, tl.dateTime, tl.id")
+    List<TourLog> findPageAfterByTourId(Long tourId, LocalDateTime dateTime, Long id, Pageable page);
+
+    // Date and id of the rows in the same order, and in reverse from the end, for walking to a cursor far from the
+    // current one without loading the rows in between; row [dateTime, id]. Keyset ranges like the pages.
+    @Query("SELECT tl.dateTime, tl.id FROM TourLog tl ORDER BY tl.dateTime, tl.id")
+    List<Object[]> findKeys(Pageable page);
+
+    @Query("SELECT tl.dateTime, tl.id FROM TourLog tl WHERE tl.dateTime >= ?1 AND (tl.dateTime > ?1 OR tl.id > ?2) "
+            + "ORDER BY tl.dateTime, tl.id")
+    List<Object[]> findKeysAfter(LocalDateTime dateTime, Long id, Pageable page);
+
+    @Query("SELECT tl.dateTime, tl.id FROM TourLog tl WHERE tl.tour.id = ?1 ORDER BY tl.tour.id, tl.dateTime, tl.id")
+    List<Object[]> findKeysByTourId(Long tourId, Pageable page);
+
+    @Query("SELECT tl.dateTime, tl.id FROM TourLog tl WHERE tl.tour.id = ?1 "
+            + "AND tl.dateTime >= ?2 AND (tl.dateTime > ?2 OR tl.id > ?3) ORDER BY tl.tour.id, tl.dateTime, tl.id")
+    List<Object[]> findKeysAfterByTourId(Long tourId, LocalDateTime dateTime, Long id, Pageable page);
+
+    @Query("SELECT tl.dateTime, tl.id FROM TourLog tl ORDER BY tl.dateTime DESC, tl.id DESC")
+    List<Object[]> findLastKeys(Pageable page);
+
+    @Query("SELECT tl.dateTime, tl.id FROM TourLog tl WHERE tl.dateTime <= ?1 AND (tl.dateTime < ?1 OR tl.id < ?2) "
+            + "ORDER BY tl.dateTime DESC, tl.id DESC")
+    List<Object[]> findKeysBefore(LocalDateTime dateTime, Long id, Pageable page);
+
+    @Query("SELECT tl.dateTime, tl.id FROM TourLog tl WHERE tl.tour.id = ?1 "
+            + "ORDER BY tl.tour.id DESC, tl.dateTime DESC, tl.id DESC")
+    List<Object[]> findLastKeysByTourId(Long tourId, Pageable page);
+
+    @Query("SELECT tl.dateTime, tl.id FROM TourLog tl WHERE tl.tour.id = ?1 "
+            + "AND tl.dateTime <= ?2 AND (tl.dateTime < ?2 OR tl.id < ?3) "
+            + "ORDER BY tl.tour.id DESC, tl.dateTime DESC, tl.id DESC")
+    List<Object[]> findKeysBeforeByTourId(Long tourId, LocalDateTime dateTime, Long id, Pageable page);
+
+    // Id, tour id and comment of the logs after the given id, by id. Used to build TourTextIndex in batches.
+    @Query("SELECT tl.id, tl.tour.id, tl.comment FROM TourLog tl WHERE tl.id > ?1 ORDER BY tl.id")
+    List<Object[]> findCommentsAfter(Long id, Pageable page);
 
     Long countByTourId(Long tourId); // Count tour logs for a specific tour
 } 
\ No newline at end of file
@@ -1,9 +1,16 @@
 package com.tourplanner.backend.repository;
 
+import com.tourplanner.backend.dto.StatisticsSummaryDTO;
+import com.tourplanner.backend.dto.TourStatisticsDTO;
 import com.tourplanner.backend.model.Tour;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 // Simple Spring Data repository for Tour entity.
@@ -12,4 +19,106 @@ public interface TourRepository extends JpaRepository<Tour, Long> {
 
     // Simple search by name containing the given text.
     List<Tour> findByNameContainingIgnoreCase(String searchText);
+
+    // Keyset pages ordered by name and id (see PageCursor); the page size comes from the Pageable. The plain name >=
+    // bound is redundant but lets H2 start the index range at the cursor instead of filtering from the first row.
+    @Query("SELECT t FROM Tour t ORDER BY t.name, t.id")
+    List<Tour> findFirstPage(Pageable page);
+
+    @Query("SELECT t FROM Tour t WHERE t.name >= ?1 AND (t.name > ?1 OR t.id > ?2) ORDER BY t.name, t.id")
+    List<Tour> findPageAfter(String name, Long id, Pageable page);
+
+    // Pages of the tours whose lower-cased name matches the LIKE pattern (with a backslash as escape character)
+    @Query("SELECT t FROM Tour t WHERE LOWER(t.name) LIKE ?1 ESCAPE '\\' ORDER BY t.name, t.id")
+    List<Tour> searchFirstPage(String pattern, Pageable page);
+
+    @Query("SELECT t FROM Tour t WHERE LOWER(t.name) LIKE ?1 ESCAPE '\\' "
+            + "AND t.name >= ?2 AND (t.name > ?2 OR t.id > ?3) ORDER BY t.name, t.id")
+    List<Tour> searchPageAfter(String pattern, String name, Long id, Pageable page);
+
+    // Id and endpoint coordinates (from latitude, from longitude, to latitude, to longitude) of every tour that has
+    // any, without loading the entities. Used to build TourSpatialIndex.
+    @Query("select t.id, t.fromLatitude, t.fromLongitude, t.toLatitude, t.toLongitude from Tour t "
+            + "where t.fromLatitude is not null or t.toLatitude is not null")
+    List<Object[]> findAllEndpoints();
+
+    // Id, name and description of every tour. Used to build TourTextIndex.
+    @Query("select t.id, t.name, t.description from Tour t")
+    List<Object[]> findAllTexts();
+
+    // Statistics of every tour from its stored log aggregates, ordered by tour name; reads no logs
+    @Query("SELECT new com.tourplanner.backend.dto.TourStatisticsDTO(t.id, t.name, t.fromLocation, t.toLocation, "
+            + "t.distance, t.estimatedTime, t.transportType, t.logCount, "
+            + "CASE WHEN t.logCount > 0 THEN t.ratingSum / t.logCount ELSE 0.0 END, "
+            + "CASE WHEN t.logCount > 0 THEN t.difficultySum / t.logCount ELSE 0.0 END, "
+            + "CASE WHEN t.logCount > 0 THEN t.distanceSum / t.logCount ELSE 0.0 END, "
+            + "CASE WHEN t.logCount > 0 THEN t.timeSum / t.logCount ELSE 0.0 END, "
+            + "t.minTime, t.maxTime, t.lastLog) "
+            + "FROM Tour t ORDER BY t.name, t.id")
+    List<TourStatisticsDTO> findTourStatistics();
+
+    // Totals over all tours and, from their stored aggregates, all logs, one statement
+    @Query("SELECT new com.tourplanner.backend.dto.StatisticsSummaryDTO(COUNT(t), COALESCE(AVG(t.distance), 0.0), "
+            + "COALESCE(SUM(t.logCount), 0), "
+            + "CASE WHEN SUM(t.logCount) > 0 THEN SUM(t.ratingSum) / SUM(t.logCount) ELSE 0.0 END, "
+            + "CASE WHEN SUM(t.logCount) > 0 THEN SUM(t.difficultySum) / SUM(t.logCount) ELSE 0.0 END, "
+            + "CASE WHEN SUM(t.logCount) > 0 THEN SUM(t.distanceSum) / SUM(t.logCount) ELSE 0.0 END, "
+            + "CASE WHEN SUM(t.logCount) > 0 THEN SUM(t.timeSum) / SUM(t.logCount) ELSE 0.0 END) "
+            + "FROM Tour t")
+    StatisticsSummaryDTO findStatisticsSummary();
+
+    // Log counts from the stored aggregates, of one tour (null if there is no such tour) and of all tours
+    @Query("SELECT t.logCount FROM Tour t WHERE t.id = ?1")
+    Integer findLogCount(Long tourId);
+
+    @Query("SELECT COALESCE(SUM(t.logCount), 0) FROM Tour t")
+    Long sumLogCounts();
+
+    // Adds to the log aggregates of a tour (count, then the sums of rating, difficulty, distance and time); negative
+    // values take a log out. One atomic statement, so concurrent log changes on the same tour are not lost.
+    // Native, as Hibernate renders the parameters in this JPQL as casts H2 does not accept.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE tours SET log_count = log_count + ?2, rating_sum = rating_sum + ?3, "
+            + "difficulty_sum = difficulty_sum + ?4, distance_sum = distance_sum + ?5, time_sum = time_sum + ?6 "
+            + "WHERE id = ?1", nativeQuery = true)
+    int addToLogAggregates(Long tourId, int count, double rating, double difficulty, double distance, double time);
+
+    // Widens the shortest and longest time and the latest date of a tour to a log just added to it (after
+    // addToLogAggregates counted it, so a count of 1 means it is the first)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE tours SET "
+            + "min_time = CASE WHEN log_count = 1 THEN ?2 ELSE LEAST(min_time, ?2) END, "
+            + "max_time = CASE WHEN log_count = 1 THEN ?2 ELSE GREATEST(max_time, ?2) END, "
+            + "last_log = CASE WHEN last_log IS NULL OR ?3 > last_log THEN ?3 ELSE last_log END "
+            + "WHERE id = ?1", nativeQuery = true)
+    int addToLogExtremes(Long tourId, double time, LocalDateTime dateTime);
+
+    // Recomputes the shortest and longest time and the latest date of one tour from its logs, which a changed or
+    // removed log may have set
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Tour t SET "
+            + "t.minTime = (SELECT COALESCE(MIN(COALESCE(l.totalTime, 0.0)), 0.0) FROM TourLog l WHERE l.tour = t), "
+            + "t.maxTime = (SELECT COALESCE(MAX(COALESCE(l.totalTime, 0.0)), 0.0) FROM TourLog l WHERE l.tour = t), "
+            + "t.lastLog = (SELECT MAX(l.dateTime) FROM TourLog l WHERE l.tour = t) "
+            + "WHERE t.id = ?1")
+    int recomputeLogExtremes(Long tourId);
+
+    // Ids of tours that have logs but a stored log count of 0, as in databases from before the count was stored.
+    // Probes the logs of tours without a count by tour id, so asking for one row does not read every log.
+    @Query("SELECT t.id FROM Tour t WHERE t.logCount = 0 AND EXISTS (SELECT l.id FROM TourLog l WHERE l.tour = t)")
+    List<Long> findIdsWithUncountedLogs(Pageable page);
+
+    // Recomputes the log aggregates of every tour from its logs
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Tour t SET "
+            + "t.logCount = (SELECT COUNT(l) FROM TourLog l WHERE l.tour = t), "
+            + "t.ratingSum = (SELECT COALESCE(SUM(l.rating), 0.0) FROM TourLog l WHERE l.tour = t), "
+            + "t.difficultySum = (SELECT COALESCE(SUM(l.difficulty), 0.0) FROM TourLog l WHERE l.tour = t), "
+            + "t.distanceSum = (SELECT COALESCE(SUM(l.totalDistance), 0.0) FROM TourLog l WHERE l.tour = t), "
+            + "t.timeSum = (SELECT COALESCE(SUM(l.totalTime), 0.0) FROM TourLog l WHERE l.tour = t), "
+            + "t.minTime = (SELECT COALESCE(MIN(COALESCE(l.totalTime, 0.0)), 0.0) FROM TourLog l WHERE l.tour = t), "
+            + "t.maxTime = (SELECT COALESCE(MAX(COALESCE(l.totalTime, 0.0)), 0.0) FROM TourLog l WHERE l.tour = t), "
+            + "t.lastLog = (SELECT MAX(l.dateTime) FROM TourLog l WHERE l.tour = t)")
+    int recomputeLogAggregates();
 } 
\ No newline at end of file
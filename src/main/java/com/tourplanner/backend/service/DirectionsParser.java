@@ -0,0 +1,237 @@
+package com.tourplanner.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+// Streaming parser for ORS directions GeoJSON. Reads the body token by token straight into packed
+// latitude/longitude arrays and extracts only distance, duration and summary of the first route,
+// so no JSON tree and no per-point objects are built. The coordinate buffers are reused per thread,
+// leaving the two result arrays as the only allocation that grows with the route length.
+public final class DirectionsParser {
+
+    private static final JsonFactory factory = new JsonFactory();
+    // Powers of ten that are exact doubles, used by the allocation-free number parsing
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+    private DirectionsParser() {
+    }
+
+    // Parsed first route of the response. Distance is in meters, duration in seconds, as sent by ORS.
+    public record Result(double distance, double duration, String summary, double[] latitudes, double[] longitudes) {
+        public int pointCount() {
+            return latitudes.length;
+        }
+    }
+
+    public static Result parse(InputStream in) throws IOException {
+        try (JsonParser parser = factory.createParser(in)) {
+            return parse(parser);
+        }
+    }
+
+    public static Result parse(byte[] json) throws IOException {
+        try (JsonParser parser = factory.createParser(json)) {
+            return parse(parser);
+        }
+    }
+
+    private static Result parse(JsonParser parser) throws IOException {
+        Buffer buffer = buffers.get();
+        buffer.size = 0;
+        Route route = new Route();
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("features".equals(field) && value == JsonToken.START_ARRAY) {
+                readFeatures(parser, route, buffer);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Result(route.distance, route.duration, route.summary,
+                Arrays.copyOf(buffer.latitudes, buffer.size), Arrays.copyOf(buffer.longitudes, buffer.size));
+    }
+
+    // Only the first feature is the requested route, alternatives after it are skipped
+    private static void readFeatures(JsonParser parser, Route route, Buffer buffer) throws IOException {
+        boolean first = true;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (first && token == JsonToken.START_OBJECT) {
+                readFeature(parser, route, buffer);
+                first = false;
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readFeature(JsonParser parser, Route route, Buffer buffer) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("geometry".equals(field) && value == JsonToken.START_OBJECT) {
+                readGeometry(parser, buffer);
+            } else if ("properties".equals(field) && value == JsonToken.START_OBJECT) {
+                readProperties(parser, route);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readGeometry(JsonParser parser, Buffer buffer) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("coordinates".equals(field) && value == JsonToken.START_ARRAY) {
+                // LineString positions: [lon, lat] or [lon, lat, elevation]
+                while (parser.nextToken() == JsonToken.START_ARRAY) {
+                    parser.nextToken();
+                    double lon = readDouble(parser);
+                    parser.nextToken();
+                    double lat = readDouble(parser);
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        parser.skipChildren();
+                    }
+                    buffer.add(lat, lon);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readProperties(JsonParser parser, Route route) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("segments".equals(field) && value == JsonToken.START_ARRAY) {
+                readFirstSegment(parser, route);
+            } else if ("summary".equals(field)) {
+                route.summary = copyStructure(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readFirstSegment(JsonParser parser, Route route) throws IOException {
+        boolean first = true;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (!first || token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            first = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("distance".equals(field)) {
+                    route.distance = parser.getValueAsDouble();
+                } else if ("duration".equals(field)) {
+                    route.duration = parser.getValueAsDouble();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    // Jackson's getDoubleValue() creates a String per number; reading the token's characters directly does not
+    private static double readDouble(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_NUMBER_INT) {
+            throw new IOException("Unexpected coordinate value " + token);
+        }
+        return parseDouble(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    // Exact for decimals with up to 15 significant digits and small exponents (all ORS coordinates):
+    // both the digits and the power of ten are exact doubles, so one division or multiplication rounds correctly.
+    // Anything else goes through Double.parseDouble.
+    static double parseDouble(char[] chars, int offset, int length) {
+        int i = offset;
+        int end = offset + length;
+        boolean negative = i < end && chars[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                if (digits > 0 || c != '0') {
+                    digits++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (fraction) {
+                    scale++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (i < end || digits > 15 || scale >= POWERS_OF_TEN.length) {
+            // Exponent notation, too many digits or not a plain decimal
+            return Double.parseDouble(new String(chars, offset, length));
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    // Re-serializes the current value, the summary is kept as the JSON text ORS sent
+    private static String copyStructure(JsonParser parser) throws IOException {
+        StringWriter out = new StringWriter(64);
+        try (JsonGenerator generator = factory.createGenerator(out)) {
+            generator.copyCurrentStructure(parser);
+        }
+        return out.toString();
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected directions response, expected " + expected + " but got " + actual);
+        }
+    }
+
+    private static final class Route {
+        double distance;
+        double duration;
+        String summary;
+    }
+
+    // Growable coordinate buffer, kept per thread so its capacity is reused across requests
+    private static final class Buffer {
+        double[] latitudes = new double[1024];
+        double[] longitudes = new double[1024];
+        int size;
+
+        void add(double lat, double lon) {
+            if (size == latitudes.length) {
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            latitudes[size] = lat;
+            longitudes[size] = lon;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.GeoCode;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Offline place-name index loaded from a GeoNames-style TSV file (geonameid, name, asciiname, alternatenames,
+// latitude, longitude, ..., country code at column 8, admin1 code at column 10, ..., population at column 14).
+// The file is memory-mapped and never turned into Strings while loading: every row is kept as offsets into the
+// mapping plus a few primitive columns, and an int[] of row numbers sorted by lower-cased asciiname serves as the
+// prefix index (binary search for the range of matches). The largest population of every block of 64 sorted rows
+// lets the most populated matches be found without scanning a long range. Alternate names are not indexed.
+//
+// Text after the first comma qualifies the place ("Paris, TX", "Vienna, Austria", "Vienna, US"): every part must
+// name the country (ISO code, English or German name) or the admin1 code (e.g. a US state) of a match. A part the
+// gazetteer cannot resolve leaves no match, so callers ask the online geocoder instead of guessing.
+@Component
+public class Gazetteer {
+    private static final Logger log = LogManager.getLogger(Gazetteer.class);
+    private static final int BLOCK = 64;
+    private static final int NAME_COL = 1, KEY_COL = 2, LAT_COL = 4, LON_COL = 5, COUNTRY_COL = 8, ADMIN1_COL = 10,
+            POPULATION_COL = 14;
+    // Normalized country names and codes to country codes packed as in Index.country
+    private static final Map<String, Short> COUNTRIES = countries();
+
+    @Value("${app.gazetteer.path:}")
+    private String path;
+
+    private volatile Index index;
+
+    @PostConstruct
+    void start() {
+        if (path == null || path.isBlank()) {
+            return;
+        }
+        Path file = Path.of(path.trim());
+        if (!Files.isReadable(file)) {
+            log.warn("Gazetteer file {} not found, offline geocoding is disabled", file);
+            return;
+        }
+        // Load in the background so the application start is not delayed by big files
+        Thread loader = new Thread(() -> {
+            try {
+                load(file);
+            } catch (Exception e) {
+                log.error("Could not load gazetteer {}", file, e);
+            }
+        }, "gazetteer-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    public int size() {
+        Index current = index;
+        return current != null ? current.count : 0;
+    }
+
+    public void load(Path file) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Gazetteer files larger than 2 GB are not supported: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Index loaded = Index.build(buffer);
+            this.index = loaded;
+            log.info("Loaded gazetteer {} with {} places in {} ms", file, loaded.count, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // Best matches for the prefix that satisfy its qualifier, ordered by population; empty if not loaded
+    public List<GeoCode> suggest(String text, int limit) {
+        Index current = index;
+        Query query = Query.parse(text);
+        if (current == null || query.name.length == 0) {
+            return List.of();
+        }
+        int[] best = current.prefixMatches(query, limit);
+        List<GeoCode> results = new ArrayList<>(best.length);
+        for (int row : best) {
+            results.add(current.toGeoCode(row));
+        }
+        return results;
+    }
+
+    // Most populated place of exactly that name that satisfies the qualifier; null if there is none
+    public GeoCode lookup(String text) {
+        Index current = index;
+        Query query = Query.parse(text);
+        if (current == null || query.name.length == 0) {
+            return null;
+        }
+        int[] exact = current.exactMatches(query, 1);
+        return exact.length > 0 ? current.toGeoCode(exact[0]) : null;
+    }
+
+    // Like lookup, but falls back to the most populated prefix match when no name matches exactly. For offline use,
+    // where there is nobody else to ask.
+    public GeoCode lookupClosest(String text) {
+        GeoCode exact = lookup(text);
+        if (exact != null) {
+            return exact;
+        }
+        List<GeoCode> prefix = suggest(text, 1);
+        return prefix.isEmpty() ? null : prefix.get(0);
+    }
+
+    // Only the part before the first comma is the place name ("Vienna, Austria" -> "vienna"), diacritics are dropped
+    // to match the asciiname column.
+    static byte[] normalize(String text) {
+        if (text == null) {
+            return new byte[0];
+        }
+        int comma = text.indexOf(',');
+        return ascii(comma >= 0 ? text.substring(0, comma) : text).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String ascii(String text) {
+        String name = text.trim().replaceAll("\\s+", " ");
+        return Normalizer.normalize(name, Normalizer.Form.NFD).replaceAll("[^\\p{ASCII}]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static short countryCode(String code) {
+        return (short) ((code.charAt(0) << 8) | code.charAt(1));
+    }
+
+    private static Map<String, Short> countries() {
+        Map<String, Short> countries = new HashMap<>();
+        for (String code : Locale.getISOCountries()) {
+            Locale country = new Locale.Builder().setRegion(code).build();
+            short packed = countryCode(code);
+            countries.put(code.toLowerCase(Locale.ROOT), packed);
+            countries.put(country.getISO3Country().toLowerCase(Locale.ROOT), packed);
+            countries.put(ascii(country.getDisplayCountry(Locale.ENGLISH)), packed);
+            countries.put(ascii(country.getDisplayCountry(Locale.GERMAN)), packed);
+        }
+        countries.put("uk", countryCode("GB"));
+        return countries;
+    }
+
+    // Place name and qualifier parts of a lookup text. Each part is a country (0 if it names none) and the
+    // upper-cased text to compare with the admin1 code.
+    private record Query(byte[] name, short[] countries, byte[][] admin1) {
+        static Query parse(String text) {
+            byte[] name = normalize(text);
+            int comma = text != null ? text.indexOf(',') : -1;
+            List<String> parts = new ArrayList<>();
+            if (comma >= 0) {
+                for (String part : text.substring(comma + 1).split(",")) {
+                    String normalized = ascii(part);
+                    if (!normalized.isEmpty()) {
+                        parts.add(normalized);
+                    }
+                }
+            }
+            short[] countries = new short[parts.size()];
+            byte[][] admin1 = new byte[parts.size()][];
+            for (int i = 0; i < parts.size(); i++) {
+                countries[i] = COUNTRIES.getOrDefault(parts.get(i), (short) 0);
+                admin1[i] = parts.get(i).toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+            }
+            return new Query(name, countries, admin1);
+        }
+    }
+
+    // Column-oriented, read-only view of the gazetteer file
+    private static final class Index {
+        private final MappedByteBuffer buffer;
+        private int count;
+        private int[] nameOffset = new int[1024];
+        private short[] nameLength = new short[1024];
+        private int[] keyOffset = new int[1024];
+        private short[] keyLength = new short[1024];
+        private float[] latitude = new float[1024];
+        private float[] longitude = new float[1024];
+        private int[] population = new int[1024];
+        private short[] country = new short[1024];
+        private int[] admin1Offset = new int[1024];
+        private byte[] admin1Length = new byte[1024];
+        private int maxAdmin1Length;
+        private int[] sorted;
+        private int[] blockPopulation; // largest population among sorted[b * BLOCK ..< (b + 1) * BLOCK]
+
+        private Index(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        static Index build(MappedByteBuffer buffer) {
+            Index index = new Index(buffer);
+            index.parse();
+            index.sorted = new int[index.count];
+            for (int i = 0; i < index.count; i++) {
+                index.sorted[i] = i;
+            }
+            index.sort(0, index.count - 1, 0);
+            index.blockPopulation = new int[(index.count + BLOCK - 1) / BLOCK];
+            for (int i = 0; i < index.count; i++) {
+                int block = i / BLOCK;
+                index.blockPopulation[block] = Math.max(index.blockPopulation[block], index.population[index.sorted[i]]);
+            }
+            return index;
+        }
+
+        private void parse() {
+            int limit = buffer.limit();
+            int[] tabs = new int[POPULATION_COL + 1];
+            int pos = 0;
+            while (pos < limit) {
+                int lineStart = pos;
+                int tabCount = 0;
+                while (pos < limit && buffer.get(pos) != '\n') {
+                    if (buffer.get(pos) == '\t' && tabCount < tabs.length) {
+                        tabs[tabCount++] = pos;
+                    }
+                    pos++;
+                }
+                int lineEnd = pos;
+                pos++; // skip the newline
+                if (tabCount < POPULATION_COL || buffer.get(lineStart) == '#') {
+                    continue; // comment or malformed row
+                }
+                int populationEnd = tabCount > POPULATION_COL ? tabs[POPULATION_COL] : lineEnd;
+                add(tabs, populationEnd);
+            }
+        }
+
+        private void add(int[] tabs, int populationEnd) {
+            if (count == nameOffset.length) {
+                grow();
+            }
+            int nameStart = tabs[NAME_COL - 1] + 1;
+            int keyStart = tabs[KEY_COL - 1] + 1;
+            int countryStart = tabs[COUNTRY_COL - 1] + 1;
+            nameOffset[count] = nameStart;
+            nameLength[count] = (short) Math.min(Short.MAX_VALUE, tabs[NAME_COL] - nameStart);
+            keyOffset[count] = keyStart;
+            keyLength[count] = (short) Math.min(Short.MAX_VALUE, tabs[KEY_COL] - keyStart);
+            latitude[count] = (float) parseDouble(tabs[LAT_COL - 1] + 1, tabs[LAT_COL]);
+            longitude[count] = (float) parseDouble(tabs[LON_COL - 1] + 1, tabs[LON_COL]);
+            population[count] = (int) Math.min(Integer.MAX_VALUE, parseLong(tabs[POPULATION_COL - 1] + 1, populationEnd));
+            country[count] = tabs[COUNTRY_COL] - countryStart == 2
+                    ? (short) ((buffer.get(countryStart) << 8) | buffer.get(countryStart + 1)) : 0;
+            int admin1Start = tabs[ADMIN1_COL - 1] + 1;
+            int admin1 = Math.min(Byte.MAX_VALUE, tabs[ADMIN1_COL] - admin1Start);
+            admin1Offset[count] = admin1Start;
+            admin1Length[count] = (byte) admin1;
+            maxAdmin1Length = Math.max(maxAdmin1Length, admin1);
+            count++;
+        }
+
+        private void grow() {
+            int size = nameOffset.length * 2;
+            nameOffset = Arrays.copyOf(nameOffset, size);
+            nameLength = Arrays.copyOf(nameLength, size);
+            keyOffset = Arrays.copyOf(keyOffset, size);
+            keyLength = Arrays.copyOf(keyLength, size);
+            latitude = Arrays.copyOf(latitude, size);
+            longitude = Arrays.copyOf(longitude, size);
+            population = Arrays.copyOf(population, size);
+            country = Arrays.copyOf(country, size);
+            admin1Offset = Arrays.copyOf(admin1Offset, size);
+            admin1Length = Arrays.copyOf(admin1Length, size);
+        }
+
+        // Lower-cased key byte of a row at the given depth, -1 past the end
+        private int keyByte(int row, int depth) {
+            if (depth >= keyLength[row]) {
+                return -1;
+            }
+            int b = buffer.get(keyOffset[row] + depth) & 0xff;
+            return b >= 'A' && b <= 'Z' ? b + 32 : b;
+        }
+
+        // Three-way radix quicksort (multikey quicksort) on the row numbers, handles many equal names well
+        private void sort(int lo, int hi, int depth) {
+            while (hi - lo >= 16) {
+                int pivot = keyByte(sorted[lo + (hi - lo) / 2], depth);
+                int lt = lo, gt = hi, i = lo;
+                while (i <= gt) {
+                    int b = keyByte(sorted[i], depth);
+                    if (b < pivot) {
+                        swap(lt++, i++);
+                    } else if (b > pivot) {
+                        swap(i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                sort(lo, lt - 1, depth);
+                sort(gt + 1, hi, depth);
+                if (pivot < 0) {
+                    return; // all remaining keys ended here and are equal
+                }
+                lo = lt;
+                hi = gt;
+                depth++;
+            }
+            insertionSort(lo, hi, depth);
+        }
+
+        private void insertionSort(int lo, int hi, int depth) {
+            for (int i = lo + 1; i <= hi; i++) {
+                for (int j = i; j > lo && compareRows(sorted[j], sorted[j - 1], depth) < 0; j--) {
+                    swap(j, j - 1);
+                }
+            }
+        }
+
+        private int compareRows(int a, int b, int depth) {
+            for (int d = depth; ; d++) {
+                int x = keyByte(a, d);
+                int y = keyByte(b, d);
+                if (x != y || x < 0) {
+                    return x - y;
+                }
+            }
+        }
+
+        private void swap(int i, int j) {
+            int tmp = sorted[i];
+            sorted[i] = sorted[j];
+            sorted[j] = tmp;
+        }
+
+        // Compares a row key against a prefix, looking only at the first prefix.length bytes
+        private int comparePrefix(int row, byte[] prefix) {
+            for (int d = 0; d < prefix.length; d++) {
+                int x = keyByte(row, d);
+                if (x != prefix[d]) {
+                    return x - prefix[d];
+                }
+            }
+            return 0;
+        }
+
+        private int lowerBound(byte[] prefix) {
+            int lo = 0, hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (comparePrefix(sorted[mid], prefix) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // First sorted position whose key starts with more than the prefix
+        private int upperBound(byte[] prefix) {
+            int lo = 0, hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (comparePrefix(sorted[mid], prefix) <= 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // Rows whose key is exactly the query name, the most populated first. They sort before the longer keys with
+        // the same prefix, so they are the start of the prefix range.
+        int[] exactMatches(Query query, int limit) {
+            int start = lowerBound(query.name), lo = start, hi = upperBound(query.name);
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keyLength[sorted[mid]] <= query.name.length) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return top(query, start, lo, limit);
+        }
+
+        // Rows whose key starts with the query name, the most populated first
+        int[] prefixMatches(Query query, int limit) {
+            return top(query, lowerBound(query.name), upperBound(query.name), limit);
+        }
+
+        // The most populated rows of sorted[from..<to] that satisfy the qualifier. Blocks are visited by their
+        // largest population and the search stops once no block left can beat the results.
+        private int[] top(Query query, int from, int to, int limit) {
+            if (limit <= 0 || from >= to || !satisfiable(query)) {
+                return new int[0];
+            }
+            int[] best = new int[limit];
+            int found = 0;
+            int firstBlock = (from + BLOCK - 1) / BLOCK, lastBlock = to / BLOCK;
+            if (firstBlock >= lastBlock) {
+                for (int i = from; i < to; i++) {
+                    found = offer(best, found, sorted[i], query);
+                }
+                return Arrays.copyOf(best, found);
+            }
+            for (int i = from; i < firstBlock * BLOCK; i++) {
+                found = offer(best, found, sorted[i], query);
+            }
+            for (int i = lastBlock * BLOCK; i < to; i++) {
+                found = offer(best, found, sorted[i], query);
+            }
+            long[] blocks = new long[lastBlock - firstBlock];
+            for (int b = firstBlock; b < lastBlock; b++) {
+                blocks[b - firstBlock] = ((long) blockPopulation[b] << 32) | b;
+            }
+            Arrays.sort(blocks);
+            for (int i = blocks.length - 1; i >= 0; i--) {
+                if (found == limit && (int) (blocks[i] >>> 32) <= population[best[limit - 1]]) {
+                    break;
+                }
+                int block = (int) blocks[i];
+                for (int j = block * BLOCK; j < (block + 1) * BLOCK; j++) {
+                    found = offer(best, found, sorted[j], query);
+                }
+            }
+            return Arrays.copyOf(best, found);
+        }
+
+        // Inserts the row into best (ordered by population) if it satisfies the qualifier and belongs there; returns
+        // the new number of results
+        private int offer(int[] best, int found, int row, Query query) {
+            if (!satisfies(row, query)) {
+                return found;
+            }
+            int limit = best.length;
+            int pos = found < limit ? found++ : limit;
+            while (pos > 0 && population[best[pos - 1]] < population[row]) {
+                if (pos < limit) {
+                    best[pos] = best[pos - 1];
+                }
+                pos--;
+            }
+            if (pos < limit) {
+                best[pos] = row;
+            }
+            return found;
+        }
+
+        // False if a qualifier part names no country and is too long for any admin1 code
+        private boolean satisfiable(Query query) {
+            for (int i = 0; i < query.countries.length; i++) {
+                if (query.countries[i] == 0 && query.admin1[i].length > maxAdmin1Length) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean satisfies(int row, Query query) {
+            for (int i = 0; i < query.countries.length; i++) {
+                if (query.countries[i] != country[row] && !admin1Equals(row, query.admin1[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean admin1Equals(int row, byte[] code) {
+            if (admin1Length[row] != code.length) {
+                return false;
+            }
+            for (int i = 0; i < code.length; i++) {
+                int b = buffer.get(admin1Offset[row] + i) & 0xff;
+                if ((b >= 'a' && b <= 'z' ? b - 32 : b) != code[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        GeoCode toGeoCode(int row) {
+            byte[] name = new byte[nameLength[row]];
+            buffer.get(nameOffset[row], name);
+            String label = new String(name, StandardCharsets.UTF_8);
+            // Letter admin1 codes (US states, ...) tell places of the same name apart and can be looked up again
+            byte[] admin1 = new byte[admin1Length[row]];
+            buffer.get(admin1Offset[row], admin1);
+            if (admin1.length > 0 && new String(admin1, StandardCharsets.US_ASCII).chars().allMatch(Character::isLetter)) {
+                label += ", " + new String(admin1, StandardCharsets.US_ASCII);
+            }
+            if (country[row] != 0) {
+                label += ", " + (char) (country[row] >> 8) + (char) (country[row] & 0xff);
+            }
+            return new GeoCode(longitude[row], latitude[row], label);
+        }
+
+        // Plain decimal parser ("-12.34567") working on the mapped bytes
+        private double parseDouble(int from, int to) {
+            boolean negative = from < to && buffer.get(from) == '-';
+            long digits = 0;
+            int scale = 0;
+            boolean fraction = false;
+            for (int i = negative ? from + 1 : from; i < to; i++) {
+                int b = buffer.get(i);
+                if (b == '.') {
+                    fraction = true;
+                } else if (b >= '0' && b <= '9' && scale < 15) {
+                    digits = digits * 10 + (b - '0');
+                    if (fraction) {
+                        scale++;
+                    }
+                } else {
+                    break;
+                }
+            }
+            double value = digits / Math.pow(10, scale);
+            return negative ? -value : value;
+        }
+
+        private long parseLong(int from, int to) {
+            long value = 0;
+            for (int i = from; i < to; i++) {
+                int b = buffer.get(i);
+                if (b < '0' || b > '9') {
+                    break;
+                }
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.GeoCode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+// MapService answering from the offline Gazetteer, selected by app.gazetteer.mode:
+//  off         - every call goes to OpenRouteServicesAPI (default)
+//  local-first - the gazetteer answers when it has an exact match for the name and its qualifier ("Paris, TX"),
+//                OpenRouteServicesAPI is asked otherwise
+//  primary     - only the gazetteer is used, so geocoding works without network
+@Service
+@Primary
+public class GazetteerMapService implements MapService {
+    private static final Logger log = LogManager.getLogger(GazetteerMapService.class);
+    private static final int SUGGESTION_LIMIT = 10;
+
+    private final Gazetteer gazetteer;
+    private final OpenRouteServicesAPI openRouteServices;
+
+    @Value("${app.gazetteer.mode:off}")
+    private String mode;
+
+    @Autowired
+    public GazetteerMapService(Gazetteer gazetteer, OpenRouteServicesAPI openRouteServices) {
+        this.gazetteer = gazetteer;
+        this.openRouteServices = openRouteServices;
+    }
+
+    @Override
+    public CompletableFuture<GeoCode> geocode(String location) {
+        if (useGazetteer()) {
+            // Offline the closest name is the best answer there is; otherwise an inexact name goes to ORS
+            GeoCode local = isPrimary() ? gazetteer.lookupClosest(location) : gazetteer.lookup(location);
+            if (local != null || isPrimary()) {
+                log.debug("Gazetteer geocode for '{}': {}", location, local);
+                return CompletableFuture.completedFuture(local);
+            }
+        }
+        return openRouteServices.geocode(location);
+    }
+
+    @Override
+    public CompletableFuture<List<GeoCode>> geocodeRoute(String from, String to) {
+        CompletableFuture<GeoCode> first = geocode(from);
+        CompletableFuture<GeoCode> second = geocode(to);
+        return CompletableFuture.allOf(first, second)
+                .thenApply(v -> {
+                    List<GeoCode> results = new ArrayList<>();
+                    results.add(first.join());
+                    results.add(second.join());
+                    return results;
+                });
+    }
+
+    @Override
+    public CompletableFuture<List<GeoCode>> geocodeSuggestions(String location) {
+        if (useGazetteer()) {
+            List<GeoCode> local = gazetteer.suggest(location, SUGGESTION_LIMIT);
+            if (!local.isEmpty() || isPrimary()) {
+                return CompletableFuture.completedFuture(local);
+            }
+        }
+        return openRouteServices.geocodeSuggestions(location);
+    }
+
+    private boolean useGazetteer() {
+        return !"off".equals(normalizedMode()) && gazetteer.isReady();
+    }
+
+    private boolean isPrimary() {
+        return "primary".equals(normalizedMode());
+    }
+
+    private String normalizedMode() {
+        return mode != null ? mode.trim().toLowerCase(Locale.ROOT) : "off";
+    }
+}
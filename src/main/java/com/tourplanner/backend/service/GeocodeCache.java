@@ -0,0 +1,284 @@
+package com.tourplanner.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tourplanner.backend.model.GeoCode;
+import com.tourplanner.backend.model.GeocodeCacheEntry;
+import com.tourplanner.backend.repository.GeocodeCacheRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Two-tier cache for geocoding results: a bounded in-memory LRU with TTL in front of
+// the geocode_cache table, which lives in the H2 file under app.base-directory and survives restarts.
+// Every result goes to memory (empty ones with a short TTL, so a place added later is found soon); only committed
+// lookups (geocoding a tour's location, not every autocomplete prefix) with results are written to the table.
+// The table is read and written on one background thread, so callers never wait for the disk.
+@Component
+public class GeocodeCache {
+    private static final Logger log = LogManager.getLogger(GeocodeCache.class);
+    private static final int TRIM_EVERY_WRITES = 100;
+
+    private final GeocodeCacheRepository repository;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int maxSize;
+    private final int diskMaxSize;
+    private final Duration ttl;
+    private final Duration diskTtl;
+    private final Duration emptyTtl;
+    private final Map<String, CachedResult> memory;
+    private final ExecutorService disk = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "geocode-cache-worker-1");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicInteger writesSinceTrim = new AtomicInteger();
+
+    @Autowired
+    public GeocodeCache(GeocodeCacheRepository repository,
+                        @Value("${app.geocode-cache.max-size:500}") int maxSize,
+                        @Value("${app.geocode-cache.ttl-minutes:720}") long ttlMinutes,
+                        @Value("${app.geocode-cache.disk-max-size:10000}") int diskMaxSize,
+                        @Value("${app.geocode-cache.disk-ttl-days:30}") long diskTtlDays,
+                        @Value("${app.geocode-cache.empty-ttl-minutes:10}") long emptyTtlMinutes) {
+        this.repository = repository;
+        this.maxSize = Math.max(1, maxSize);
+        this.diskMaxSize = Math.max(1, diskMaxSize);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.diskTtl = Duration.ofDays(diskTtlDays);
+        this.emptyTtl = Duration.ofMinutes(Math.min(ttlMinutes, emptyTtlMinutes));
+        // Access-ordered LinkedHashMap gives us LRU eviction for free
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                if (size() > GeocodeCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @PostConstruct
+    void trimOnStartup() {
+        disk.execute(this::trimDisk);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        disk.shutdownNow();
+    }
+
+    // Returns the results held in memory for the query, or null; never reads the disk
+    public List<GeoCode> peek(String query) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return null;
+        }
+        CachedResult cached = fromMemory(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached.results;
+        }
+        return null;
+    }
+
+    // Completes with the cached results for the query, or null on a miss. A memory miss is looked up in the table
+    // on the cache's own thread.
+    public CompletableFuture<List<GeoCode>> get(String query) {
+        String key = normalize(query);
+        if (key.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<GeoCode> inMemory = peek(query);
+        if (inMemory != null) {
+            return CompletableFuture.completedFuture(inMemory);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            List<GeoCode> fromDisk = readFromDisk(key);
+            if (fromDisk != null) {
+                diskHits.incrementAndGet();
+                putInMemory(key, new CachedResult(fromDisk, System.currentTimeMillis() + ttl.toMillis(), true));
+                return fromDisk;
+            }
+            misses.incrementAndGet();
+            return null;
+        }, disk);
+    }
+
+    // Keeps results of a successful lookup in memory only, e.g. for an autocomplete prefix
+    public void put(String query, List<GeoCode> results) {
+        String key = normalize(query);
+        if (key.isEmpty() || results == null) {
+            return;
+        }
+        List<GeoCode> copy = List.copyOf(results);
+        long expiresAt = System.currentTimeMillis() + (copy.isEmpty() ? emptyTtl : ttl).toMillis();
+        putInMemory(key, new CachedResult(copy, expiresAt, false));
+    }
+
+    // Keeps the results of a committed lookup in memory and, unless empty or already there, in the table
+    public void commit(String query, List<GeoCode> results) {
+        String key = normalize(query);
+        if (key.isEmpty() || results == null || results.isEmpty()) {
+            put(query, results);
+            return;
+        }
+        List<GeoCode> copy = List.copyOf(results);
+        synchronized (memory) {
+            CachedResult cached = memory.get(key);
+            if (cached != null && cached.persisted) {
+                return;
+            }
+            memory.put(key, new CachedResult(copy, System.currentTimeMillis() + ttl.toMillis(), true));
+        }
+        disk.execute(() -> writeToDisk(key, copy));
+    }
+
+    // Drops the in-memory tier only; the disk tier is kept.
+    public void clearMemory() {
+        synchronized (memory) {
+            memory.clear();
+        }
+    }
+
+    public CacheStats getStats() {
+        int size;
+        synchronized (memory) {
+            size = memory.size();
+        }
+        return new CacheStats(hits.get(), diskHits.get(), misses.get(), evictions.get(), size);
+    }
+
+    // Lower-cases and collapses whitespace, so "Vienna,  Austria" and "vienna, austria" share an entry.
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        String key = query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return key.length() > 255 ? key.substring(0, 255) : key;
+    }
+
+    // The unexpired memory entry of the key, or null
+    private CachedResult fromMemory(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (memory) {
+            CachedResult cached = memory.get(key);
+            if (cached == null || cached.expiresAt > now) {
+                return cached;
+            }
+            memory.remove(key);
+            evictions.incrementAndGet();
+            return null;
+        }
+    }
+
+    private void putInMemory(String key, CachedResult result) {
+        synchronized (memory) {
+            memory.put(key, result);
+        }
+    }
+
+    private List<GeoCode> readFromDisk(String key) {
+        try {
+            GeocodeCacheEntry entry = repository.findById(key).orElse(null);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.getCreatedAt().isBefore(LocalDateTime.now().minus(diskTtl))) {
+                repository.delete(entry);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return decode(entry.getPayload());
+        } catch (Exception e) {
+            log.warn("Could not read geocode cache entry for '{}'", key, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, List<GeoCode> results) {
+        try {
+            repository.save(new GeocodeCacheEntry(key, encode(results)));
+            if (writesSinceTrim.incrementAndGet() >= TRIM_EVERY_WRITES) {
+                writesSinceTrim.set(0);
+                trimDisk();
+            }
+        } catch (Exception e) {
+            log.warn("Could not persist geocode cache entry for '{}'", key, e);
+        }
+    }
+
+    // Removes expired rows and keeps the table below diskMaxSize by dropping the oldest ones.
+    private void trimDisk() {
+        try {
+            int expired = repository.deleteOlderThan(LocalDateTime.now().minus(diskTtl));
+            long overflow = repository.count() - diskMaxSize;
+            if (overflow > 0) {
+                List<GeocodeCacheEntry> oldest = repository.findByOrderByCreatedAtAsc(PageRequest.of(0, (int) overflow));
+                repository.deleteAll(oldest);
+            }
+            long removed = expired + Math.max(0, overflow);
+            if (removed > 0) {
+                evictions.addAndGet(removed);
+                log.debug("Trimmed {} geocode cache entries from disk", removed);
+            }
+        } catch (Exception e) {
+            log.warn("Could not trim geocode cache table", e);
+        }
+    }
+
+    private String encode(List<GeoCode> results) throws Exception {
+        ArrayNode array = objectMapper.createArrayNode();
+        for (GeoCode geo : results) {
+            ObjectNode node = array.addObject();
+            node.put("longitude", geo.getLongitude());
+            node.put("latitude", geo.getLatitude());
+            if (geo.getLabel() != null) {
+                node.put("label", geo.getLabel());
+            }
+        }
+        return objectMapper.writeValueAsString(array);
+    }
+
+    private List<GeoCode> decode(String payload) throws Exception {
+        List<GeoCode> results = new ArrayList<>();
+        for (JsonNode node : objectMapper.readTree(payload)) {
+            String label = node.hasNonNull("label") ? node.get("label").asText() : null;
+            results.add(new GeoCode(node.get("longitude").asDouble(), node.get("latitude").asDouble(), label));
+        }
+        return List.copyOf(results);
+    }
+
+    // persisted: the results are in the table as well
+    private record CachedResult(List<GeoCode> results, long expiresAt, boolean persisted) { }
+
+    // Snapshot of the cache counters
+    public record CacheStats(long hits, long diskHits, long misses, long evictions, int size) { }
+}
@@ -0,0 +1,76 @@
+package com.tourplanner.backend.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free latency histogram with fixed millisecond buckets, cheap enough to record every request.
+// Percentiles are reported as the upper bound of the bucket they fall into.
+public class LatencyHistogram {
+
+    // Upper bounds (inclusive) of the buckets in milliseconds, the last bucket takes everything above
+    private static final long[] BOUNDS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long millis, boolean failed) {
+        long value = Math.max(0, millis);
+        buckets[bucketOf(value)].increment();
+        count.increment();
+        totalMillis.add(value);
+        maxMillis.accumulateAndGet(value, Math::max);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        long max = maxMillis.get();
+        return new Snapshot(total, errors.sum(), total > 0 ? totalMillis.sum() / total : 0,
+                percentile(counts, total, 0.50, max), percentile(counts, total, 0.95, max),
+                percentile(counts, total, 0.99, max), max);
+    }
+
+    private static int bucketOf(long millis) {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (millis <= BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS.length;
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // The bucket bound may overstate the latency, the observed maximum never does
+                return i < BOUNDS.length ? Math.min(BOUNDS[i], max) : max;
+            }
+        }
+        return max;
+    }
+
+    public record Snapshot(long count, long errors, long averageMillis, long p50Millis, long p95Millis,
+                           long p99Millis, long maxMillis) { }
+}
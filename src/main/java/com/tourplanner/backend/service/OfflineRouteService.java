@@ -0,0 +1,218 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.GeoCode;
+import com.tourplanner.backend.model.PackedPolyline;
+import com.tourplanner.backend.model.RouteData;
+import com.tourplanner.backend.model.RouteRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// RouteService answering from an offline road graph (see RoadGraph), selected by app.road-graph.mode:
+//  off         - every route comes from RouteServiceImpl, i.e. OpenRouteService (default)
+//  local-first - the graph answers when both locations snap to it and are connected, RouteServiceImpl otherwise
+//  primary     - only the graph is used, routes it cannot answer get the approximate fallback
+// Until the graph has loaded every mode behaves like off. Locations are still geocoded through MapService, only the
+// routing itself is local.
+@Service
+@Primary
+public class OfflineRouteService implements RouteService {
+    private static final Logger log = LogManager.getLogger(OfflineRouteService.class);
+
+    private final RouteServiceImpl online;
+    private final ExecutorService executor;
+
+    @Value("${app.road-graph.path:}")
+    private String path;
+
+    @Value("${app.road-graph.mode:off}")
+    private String mode;
+
+    // Same search radius ORS gets in the directions requests
+    @Value("${app.road-graph.snap-meters:5000}")
+    private double snapMeters;
+
+    private volatile RoadGraphRouter router;
+
+    @Autowired
+    public OfflineRouteService(RouteServiceImpl online,
+                               @Value("${app.routing.threads:4}") int threads) {
+        this.online = online;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "offline-route-worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PostConstruct
+    void start() {
+        if ("off".equals(normalizedMode()) || path == null || path.isBlank()) {
+            return;
+        }
+        Path file = Path.of(path.trim());
+        if (!Files.isReadable(file)) {
+            log.warn("Road graph {} not found, routes come from OpenRouteService", file);
+            return;
+        }
+        // Load in the background so the application start is not delayed by big graphs
+        Thread loader = new Thread(() -> {
+            try {
+                long start = System.nanoTime();
+                RoadGraph graph = RoadGraph.load(file);
+                this.router = new RoadGraphRouter(graph);
+                log.info("Loaded road graph {} ({} nodes, {} arcs) in {} ms", file, graph.nodeCount(), graph.arcCount(),
+                        (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                log.error("Could not load road graph {}", file, e);
+            }
+        }, "road-graph-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Uses the given graph instead of the configured file
+    void setGraph(RoadGraph graph) {
+        this.router = new RoadGraphRouter(graph);
+    }
+
+    public boolean isReady() {
+        return router != null;
+    }
+
+    @Override
+    public RouteData getRouteData(String fromLocation, String toLocation, String transportType) {
+        return getRouteDataAsync(fromLocation, toLocation, transportType).join();
+    }
+
+    @Override
+    public CompletableFuture<RouteData> getRouteDataAsync(String fromLocation, String toLocation, String transportType) {
+        return getRouteDataAsync(fromLocation, toLocation, transportType, null, null);
+    }
+
+    @Override
+    public CompletableFuture<RouteData> getRouteDataAsync(String fromLocation, String toLocation, String transportType,
+                                                          GeoCode fromCoordinates, GeoCode toCoordinates) {
+        if (!useGraph()) {
+            return online.getRouteDataAsync(fromLocation, toLocation, transportType, fromCoordinates, toCoordinates);
+        }
+        return routeLocally(new RouteRequest(fromLocation, toLocation, transportType, fromCoordinates, toCoordinates), true);
+    }
+
+    @Override
+    public CompletableFuture<List<RouteData>> getRouteDataBatch(List<RouteRequest> requests) {
+        if (!useGraph()) {
+            return online.getRouteDataBatch(requests);
+        }
+        // Local queries are cheap, so the batch is just the single routes; like the matrix results they carry no geometry
+        List<CompletableFuture<RouteData>> routes = new ArrayList<>(requests.size());
+        for (RouteRequest request : requests) {
+            routes.add(routeLocally(request, false));
+        }
+        return CompletableFuture.allOf(routes.toArray(CompletableFuture[]::new))
+                .thenApply(v -> {
+                    List<RouteData> results = new ArrayList<>(routes.size());
+                    routes.forEach(route -> results.add(route.join()));
+                    return results;
+                });
+    }
+
+    @Override
+    public double[] geocode(String address) {
+        return online.geocode(address);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<RouteData> routeLocally(RouteRequest request, boolean withGeometry) {
+        String fromLocation = request.fromLocation();
+        String toLocation = request.toLocation();
+        String transportType = request.transportType();
+        CompletableFuture<GeoCode> fromFuture = online.geocodeUnlessKnown(fromLocation, request.fromCoordinates());
+        CompletableFuture<GeoCode> toFuture = online.geocodeUnlessKnown(toLocation, request.toCoordinates());
+        return fromFuture.thenCombine(toFuture, (from, to) -> new GeoCode[]{from, to})
+                .thenComposeAsync(points -> {
+                    if (points[0] == null || points[1] == null) {
+                        log.error("Could not geocode one or both locations: {} -> {}", fromLocation, toLocation);
+                        return CompletableFuture.completedFuture((RouteData) null);
+                    }
+                    RouteData local = route(fromLocation, toLocation, transportType, points[0], points[1], withGeometry);
+                    if (local != null) {
+                        return CompletableFuture.completedFuture(local);
+                    }
+                    if (isPrimary()) {
+                        return CompletableFuture.completedFuture(
+                                online.createFallbackRouteData(fromLocation, toLocation, transportType, points[0], points[1]));
+                    }
+                    return online.getRouteDataAsync(fromLocation, toLocation, transportType, points[0], points[1]);
+                }, executor)
+                .exceptionally(e -> {
+                    log.error("Error routing offline from '{}' to '{}'", fromLocation, toLocation, e);
+                    return online.createFallbackRouteData(fromLocation, toLocation, transportType,
+                            RouteServiceImpl.geocoded(fromFuture), RouteServiceImpl.geocoded(toFuture));
+                });
+    }
+
+    // Route on the graph, null if an endpoint is too far from the roads of the profile or the two are not connected
+    private RouteData route(String fromLocation, String toLocation, String transportType, GeoCode from, GeoCode to,
+                            boolean withGeometry) {
+        RoadGraphRouter current = router;
+        RoadGraph graph = current.graph();
+        RoadGraphRouter.Profile profile = RoadGraphRouter.Profile.of(RouteServiceImpl.getProfile(transportType));
+        int source = graph.nearestNode(from.getLatitude(), from.getLongitude(), profile.access(), snapMeters);
+        int target = graph.nearestNode(to.getLatitude(), to.getLongitude(), profile.access(), snapMeters);
+        if (source < 0 || target < 0) {
+            log.debug("No {} road within {} m of {} or {}", profile.id(), snapMeters, fromLocation, toLocation);
+            return null;
+        }
+        long start = System.nanoTime();
+        RoadGraphRouter.Path path = current.route(source, target, profile);
+        if (path == null) {
+            log.debug("No {} route in the road graph from {} to {}", profile.id(), fromLocation, toLocation);
+            return null;
+        }
+        log.debug("Offline route {} -> {}: {} nodes, {} settled in {} µs", fromLocation, toLocation, path.nodes().length,
+                current.lastSettledCount(), (System.nanoTime() - start) / 1000);
+        double km = path.meters() / 1000.0;
+        double hours = path.millis() / 3_600_000.0;
+        RouteData data = withGeometry
+                ? new RouteData(fromLocation, toLocation, transportType, km, hours,
+                        PackedPolyline.quantized(path.latitudes(graph), path.longitudes(graph)))
+                : new RouteData(fromLocation, toLocation, transportType, km, hours);
+        data.setSummary("Offline route (" + profile.id() + ")");
+        data.setFromCoordinates(from);
+        data.setToCoordinates(to);
+        return data;
+    }
+
+    private boolean useGraph() {
+        return !"off".equals(normalizedMode()) && router != null;
+    }
+
+    private boolean isPrimary() {
+        return "primary".equals(normalizedMode());
+    }
+
+    private String normalizedMode() {
+        return mode != null ? mode.trim().toLowerCase(Locale.ROOT) : "off";
+    }
+}
@@ -7,70 +7,47 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tourplanner.backend.model.GeoCode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class OpenRouteServicesAPI implements MapService {
     private static final Logger log = LogManager.getLogger(OpenRouteServicesAPI.class);
-    private static final HttpClient client = HttpClient.newBuilder()
-            .connectTimeout(java.time.Duration.ofSeconds(5))
-            .build();
+    // Marks a lookup whose caller cancelled before its request was sent
+    private static final CompletableFuture<List<GeoCode>> NOT_NEEDED = new CompletableFuture<>();
 
     @Value("${openrouteservice.api.key}")
     private String apiKey;
 
+    private final GeocodeCache geocodeCache;
+    private final OrsHttpClient httpClient;
+    private final SingleFlight<String, List<GeoCode>> inFlight = new SingleFlight<>();
+
+    @Autowired
+    public OpenRouteServicesAPI(GeocodeCache geocodeCache, OrsHttpClient httpClient) {
+        this.geocodeCache = geocodeCache;
+        this.httpClient = httpClient;
+    }
+
     @Override
     public CompletableFuture<GeoCode> geocode(String location) {
         log.debug("Getting GeoCode for '{}'", location);
-
-        // Build the request URL
-        String encodedLocation = URLEncoder.encode(location, StandardCharsets.UTF_8);
-        String key = apiKey != null ? apiKey.trim() : "";
-        String uri = String.format("https://api.openrouteservice.org/geocode/search?api_key=%s&text=%s", key, encodedLocation);
-
-        log.info("Geocode request URL: {}", uri);
-        log.info("Geocode request headers: Accept=application/json, User-Agent=TourPlanner/1.0");
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(uri))
-                .header("Accept", "application/json")
-                .header("User-Agent", "TourPlanner/1.0")
-                .GET()
-                .build();
-
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                .thenApply(response -> {
-
-                    // If the response code is not 200
-                    if (response.statusCode() != 200) {
-                        log.error("Geocoding API error: HTTP {} - {}", response.statusCode(), response.body());
-                        return null;
-                    }
-                    ObjectMapper mapper = new ObjectMapper();
-                    mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-                    try {
-                        OpenRouteServicesResponse res = mapper.readValue(response.body(), new TypeReference<>() {});
-                        return res.convertToGeoCode();
-                    } catch (JsonProcessingException e) {
-                        log.error("Error parsing geocoding response", e);
-                        return null;
-                    }
-                })
-                .exceptionally(e -> {
-                    log.error("Error in geocoding request", e);
-                    return null;
-                });
+        // A location geocoded for a tour is kept on disk, unlike the prefixes typed on the way to it
+        return search(location).thenApply(results -> {
+            geocodeCache.commit(location, results);
+            return results.isEmpty() ? null : results.get(0);
+        });
     }
 
     @Override
@@ -90,40 +67,101 @@ public class OpenRouteServicesAPI implements MapService {
     @Override
     public CompletableFuture<List<GeoCode>> geocodeSuggestions(String location) {
         log.debug("Getting GeoCode suggestions for '{}'", location);
+        return search(location);
+    }
+
+    // geocode and geocodeSuggestions hit the same endpoint, so both are answered from one cached result list
+    private CompletableFuture<List<GeoCode>> search(String location) {
+        List<GeoCode> cached = geocodeCache.peek(location);
+        if (cached != null) {
+            log.debug("Geocode cache hit for '{}'", location);
+            return CompletableFuture.completedFuture(cached);
+        }
+        // Concurrent lookups of the same location share one disk lookup and, if that misses, one request
+        return inFlight.execute(GeocodeCache.normalize(location), () -> readOrFetch(location));
+    }
+
+    // The results stored on disk, or else those of a request; cancelling it before the request is sent keeps it unsent
+    private CompletableFuture<List<GeoCode>> readOrFetch(String location) {
+        AtomicReference<CompletableFuture<List<GeoCode>>> request = new AtomicReference<>();
+        CompletableFuture<List<GeoCode>> result = geocodeCache.get(location).thenCompose(stored -> {
+            if (stored != null) {
+                return CompletableFuture.completedFuture(stored);
+            }
+            CompletableFuture<List<GeoCode>> sent = fetch(location);
+            if (!request.compareAndSet(null, sent)) {
+                sent.cancel(true);
+            }
+            return sent;
+        });
+        result.whenComplete((results, error) -> {
+            if (result.isCancelled()) {
+                CompletableFuture<List<GeoCode>> sent = request.getAndSet(NOT_NEEDED);
+                if (sent != null) {
+                    sent.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    // Stats of the in-flight request deduplication
+    public SingleFlight.Stats getInFlightStats() {
+        return inFlight.getStats();
+    }
+
+    private CompletableFuture<List<GeoCode>> fetch(String location) {
+        // Build the request URL
         String encodedLocation = URLEncoder.encode(location, StandardCharsets.UTF_8);
         String key = apiKey != null ? apiKey.trim() : "";
         String uri = String.format("https://api.openrouteservice.org/geocode/search?api_key=%s&text=%s", key, encodedLocation);
 
         log.info("Geocode request URL: {}", uri);
-        log.info("Geocode request headers: Accept=application/json, User-Agent=TourPlanner/1.0");
 
-        HttpRequest request = HttpRequest.newBuilder()
+        HttpRequest.Builder request = HttpRequest.newBuilder()
                 .uri(URI.create(uri))
                 .header("Accept", "application/json")
-                .header("User-Agent", "TourPlanner/1.0")
-                .GET()
-                .build();
+                .GET();
 
-        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        CompletableFuture<HttpResponse<String>> http = httpClient.sendAsync("geocode/search", request);
+        CompletableFuture<List<GeoCode>> result = http
                 .thenApply(response -> {
+
+                    // If the response code is not 200
                     if (response.statusCode() != 200) {
                         log.error("Geocoding API error: HTTP {} - {}", response.statusCode(), response.body());
-                        return new java.util.ArrayList<GeoCode>();
+                        return new ArrayList<GeoCode>();
                     }
                     ObjectMapper mapper = new ObjectMapper();
                     mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
                     try {
                         OpenRouteServicesResponse res = mapper.readValue(response.body(), new TypeReference<OpenRouteServicesResponse>() {});
-                        return res.toGeoCodeList();
+                        List<GeoCode> results = res.toGeoCodeList();
+                        // Only successful responses are cached, errors are retried on the next call. They stay in
+                        // memory; geocode() writes the committed ones to disk.
+                        geocodeCache.put(location, results);
+                        return results;
                     } catch (JsonProcessingException e) {
                         log.error("Error parsing geocoding response", e);
-                        return new java.util.ArrayList<GeoCode>();
+                        return new ArrayList<GeoCode>();
                     }
                 })
                 .exceptionally(e -> {
-                    log.error("Error in geocoding request", e);
-                    return new java.util.ArrayList<GeoCode>();
+                    if (e.getCause() instanceof IllegalStateException) {
+                        // Rejected by the open circuit breaker, already logged there
+                        log.debug("Geocoding of '{}' skipped: {}", location, e.getCause().getMessage());
+                    } else {
+                        log.error("Error in geocoding request", e);
+                    }
+                    return new ArrayList<GeoCode>();
                 });
+        // Cancelling the result (e.g. when every coalesced caller gave up) aborts the HTTP exchange as well
+        result.whenComplete((v, e) -> {
+            if (result.isCancelled()) {
+                http.cancel(true);
+            }
+        });
+        return result;
     }
 
     // Inner class for mapping the OpenRouteService response
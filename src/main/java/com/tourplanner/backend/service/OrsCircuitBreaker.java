@@ -0,0 +1,192 @@
+package com.tourplanner.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Circuit breaker in front of OpenRouteService. After a run of failed requests (no connection, timeouts, 5xx) it opens
+// and OrsHttpClient rejects requests immediately, so callers get their fallback at once instead of each waiting out
+// the timeouts. While open, a background probe checks whether ORS is back (half-open); the breaker closes when the
+// probe succeeds and stays open twice as long when it fails.
+@Component
+public class OrsCircuitBreaker {
+    private static final Logger log = LogManager.getLogger(OrsCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration minOpenDuration;
+    private final Duration maxOpenDuration;
+    private final ScheduledExecutorService scheduler;
+    private final List<Consumer<State>> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Duration openDuration;
+    private Instant since = Instant.now();
+    private Supplier<CompletableFuture<Boolean>> probe = () -> CompletableFuture.completedFuture(true);
+
+    public OrsCircuitBreaker(@Value("${app.ors.breaker.failure-threshold:5}") int failureThreshold,
+                             @Value("${app.ors.breaker.open-seconds:15}") long openSeconds,
+                             @Value("${app.ors.breaker.max-open-seconds:300}") long maxOpenSeconds) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.minOpenDuration = Duration.ofSeconds(Math.max(1, openSeconds));
+        this.maxOpenDuration = Duration.ofSeconds(Math.max(openSeconds, maxOpenSeconds));
+        this.openDuration = minOpenDuration;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ors-breaker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Check whether ORS is reachable again, completes with true if it is. Set by OrsHttpClient.
+    void setProbe(Supplier<CompletableFuture<Boolean>> probe) {
+        this.probe = probe;
+    }
+
+    // Whether a request may be sent now. Rejected requests are counted as short-circuited.
+    public boolean allowRequest() {
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+        }
+        shortCircuited.increment();
+        return false;
+    }
+
+    // ORS answered (any status below 500, including 429: the service is up, just busy)
+    public void recordSuccess() {
+        synchronized (this) {
+            consecutiveFailures = 0;
+        }
+    }
+
+    // A request got no usable answer: connection error, timeout or 5xx
+    public void recordFailure() {
+        synchronized (this) {
+            consecutiveFailures++;
+            if (state != State.CLOSED || consecutiveFailures < failureThreshold) {
+                return;
+            }
+            log.warn("OpenRouteService failed {} times in a row, routes fall back to estimates for {} s",
+                    consecutiveFailures, openDuration.toSeconds());
+            opened.increment();
+            changeState(State.OPEN);
+        }
+        notifyListeners(State.OPEN);
+        scheduleProbe();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    // Called with the new state on every change, on the breaker's own thread or the failing request's thread
+    public void addListener(Consumer<State> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<State> listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(state, consecutiveFailures, opened.sum(), shortCircuited.sum(), since);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("Circuit breaker: {}", getStats());
+        scheduler.shutdownNow();
+    }
+
+    private void scheduleProbe() {
+        Duration wait;
+        synchronized (this) {
+            wait = openDuration;
+        }
+        scheduler.schedule(this::runProbe, wait.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void runProbe() {
+        transition(State.HALF_OPEN);
+        CompletableFuture<Boolean> result;
+        try {
+            result = probe.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((reachable, error) -> {
+            if (error == null && Boolean.TRUE.equals(reachable)) {
+                synchronized (this) {
+                    consecutiveFailures = 0;
+                    openDuration = minOpenDuration;
+                }
+                log.info("OpenRouteService is reachable again");
+                transition(State.CLOSED);
+            } else {
+                Duration next;
+                synchronized (this) {
+                    Duration doubled = openDuration.multipliedBy(2);
+                    next = doubled.compareTo(maxOpenDuration) > 0 ? maxOpenDuration : doubled;
+                    openDuration = next;
+                }
+                log.warn("OpenRouteService still unreachable, next check in {} s", next.toSeconds());
+                transition(State.OPEN);
+                scheduleProbe();
+            }
+        });
+    }
+
+    private void transition(State next) {
+        boolean changed;
+        synchronized (this) {
+            changed = changeState(next);
+        }
+        if (changed) {
+            notifyListeners(next);
+        }
+    }
+
+    // Caller holds the lock
+    private boolean changeState(State next) {
+        if (state == next) {
+            return false;
+        }
+        state = next;
+        since = Instant.now();
+        return true;
+    }
+
+    private void notifyListeners(State next) {
+        for (Consumer<State> listener : listeners) {
+            try {
+                listener.accept(next);
+            } catch (RuntimeException e) {
+                log.error("Circuit breaker listener failed", e);
+            }
+        }
+    }
+
+    // state: current state; consecutiveFailures: failed requests since the last answer; opened: times the breaker opened;
+    // shortCircuited: requests rejected without being sent; since: time of the last state change
+    public record Stats(State state, int consecutiveFailures, long opened, long shortCircuited, Instant since) { }
+}
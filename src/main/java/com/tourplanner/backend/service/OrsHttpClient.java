@@ -0,0 +1,276 @@
+package com.tourplanner.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+// The one outbound HTTP client for all OpenRouteService traffic. Sharing it keeps connections, TLS sessions
+// and HTTP/2 streams reused across geocoding and directions requests. Responses are requested gzip-compressed
+// and decoded transparently, and the latency of every request is recorded per endpoint. Requests wait for the
+// OrsRateLimiter's token of their API before they are sent, and throttled or failed requests are retried.
+// While the OrsCircuitBreaker is open, requests fail at once with an IllegalStateException instead of being sent.
+@Component
+public class OrsHttpClient {
+    private static final Logger log = LogManager.getLogger(OrsHttpClient.class);
+    private static final String USER_AGENT = "TourPlanner/1.0";
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Duration requestTimeout;
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final OrsRateLimiter rateLimiter;
+    private final OrsCircuitBreaker circuitBreaker;
+    private final URI probeUri;
+
+    public OrsHttpClient(OrsRateLimiter rateLimiter, OrsCircuitBreaker circuitBreaker,
+                         @Value("${app.ors.probe-url:https://api.openrouteservice.org/}") String probeUrl,
+                         @Value("${app.http.connect-timeout-seconds:5}") long connectTimeoutSeconds,
+                         @Value("${app.http.request-timeout-seconds:15}") long requestTimeoutSeconds,
+                         @Value("${app.http.threads:4}") int threads) {
+        this.rateLimiter = rateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.probeUri = URI.create(probeUrl);
+        this.requestTimeout = Duration.ofSeconds(requestTimeoutSeconds);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "ors-http-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+        circuitBreaker.setProbe(this::probe);
+    }
+
+    // Sends the request asynchronously. The endpoint name (e.g. "geocode/search") keys the latency histogram.
+    public CompletableFuture<HttpResponse<String>> sendAsync(String endpoint, HttpRequest.Builder request) {
+        return send(endpoint, request, decodingHandler());
+    }
+
+    // Sends the request asynchronously and completes as soon as the headers arrived, so large bodies can be parsed
+    // while they stream in. Read the body through decodedBody(); the latency recorded here is the time to headers.
+    public CompletableFuture<HttpResponse<InputStream>> sendAsyncStream(String endpoint, HttpRequest.Builder request) {
+        return send(endpoint, request, HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    // Body of a streamed response, gunzipped on the fly when the server compressed it
+    public static InputStream decodedBody(HttpResponse<InputStream> response) throws IOException {
+        return isGzip(response.headers()) ? new GZIPInputStream(response.body(), 8192) : response.body();
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(String endpoint, HttpRequest.Builder request,
+                                                         HttpResponse.BodyHandler<T> handler) {
+        HttpRequest built = request
+                .timeout(requestTimeout)
+                .header("Accept-Encoding", "gzip")
+                .header("User-Agent", USER_AGENT)
+                .build();
+        Exchange<T> exchange = new Exchange<>(endpoint, built, handler,
+                latencies.computeIfAbsent(endpoint, e -> new LatencyHistogram()), rateLimiter.forEndpoint(endpoint));
+        // Cancelling the result aborts the attempt that is waiting for its token or running
+        exchange.result.whenComplete((r, e) -> {
+            CompletableFuture<?> current = exchange.current;
+            if (exchange.result.isCancelled() && current != null) {
+                current.cancel(true);
+            }
+        });
+        attempt(exchange, 0);
+        return exchange.result;
+    }
+
+    // Waits for a token of the endpoint's API, sends the request and decides whether the answer is retried
+    private <T> void attempt(Exchange<T> exchange, int retries) {
+        if (!circuitBreaker.allowRequest()) {
+            exchange.result.completeExceptionally(new IllegalStateException("OpenRouteService is unavailable"));
+            return;
+        }
+        long wait = exchange.limit.acquire();
+        Runnable send = () -> {
+            if (wait > 0) {
+                exchange.limit.dequeued();
+            }
+            if (exchange.result.isDone()) {
+                return; // cancelled while waiting
+            }
+            long start = System.nanoTime();
+            CompletableFuture<HttpResponse<T>> http = client.sendAsync(exchange.request, exchange.handler);
+            exchange.current = http;
+            if (exchange.result.isCancelled()) {
+                http.cancel(true);
+            }
+            http.whenComplete((response, error) -> {
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                exchange.histogram.record(millis, error != null || response.statusCode() >= 400);
+                log.debug("{} answered in {} ms", exchange.endpoint, millis);
+                recordOutcome(response, error);
+                handle(exchange, retries, response, error);
+            });
+        };
+        if (wait > 0) {
+            CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS, executor).execute(send);
+        } else {
+            send.run();
+        }
+    }
+
+    private <T> void handle(Exchange<T> exchange, int retries, HttpResponse<T> response, Throwable error) {
+        if (exchange.result.isDone()) {
+            discard(response);
+            return;
+        }
+        long delay = error != null
+                ? rateLimiter.retryDelay(retries + 1, error)
+                : rateLimiter.retryDelay(retries + 1, response.statusCode(), response.headers());
+        if (delay < 0) {
+            if (error != null) {
+                exchange.result.completeExceptionally(error);
+            } else {
+                if (response.statusCode() < 400) {
+                    exchange.limit.succeeded();
+                }
+                exchange.result.complete(response);
+            }
+            return;
+        }
+        discard(response);
+        if (response != null && response.statusCode() == 429) {
+            // The paused bucket holds back this retry and every other request to the API
+            log.warn("{} throttled by the server, retry {} in {} ms", exchange.endpoint, retries + 1, delay);
+            exchange.limit.throttled(delay);
+            attempt(exchange, retries + 1);
+        } else {
+            log.warn("{} failed ({}), retry {} in {} ms", exchange.endpoint,
+                    error != null ? error.toString() : "HTTP " + response.statusCode(), retries + 1, delay);
+            exchange.limit.retried();
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor)
+                    .execute(() -> attempt(exchange, retries + 1));
+        }
+    }
+
+    // Feeds the circuit breaker; cancelled requests say nothing about ORS
+    private void recordOutcome(HttpResponse<?> response, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof IOException) {
+                circuitBreaker.recordFailure();
+            }
+        } else if (response.statusCode() >= 500) {
+            circuitBreaker.recordFailure();
+        } else {
+            circuitBreaker.recordSuccess();
+        }
+    }
+
+    // Background check of the open circuit breaker: any answer below 500 from the ORS host means it is reachable.
+    // Bypasses the rate limiter, the probe runs at most every few seconds.
+    private CompletableFuture<Boolean> probe() {
+        HttpRequest request = HttpRequest.newBuilder(probeUri)
+                .timeout(requestTimeout)
+                .header("User-Agent", USER_AGENT)
+                .GET()
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> response.statusCode() < 500);
+    }
+
+    // Streamed bodies of answers nobody reads have to be closed, or the connection is not released
+    private static void discard(HttpResponse<?> response) {
+        if (response != null && response.body() instanceof InputStream body) {
+            try {
+                body.close();
+            } catch (IOException e) {
+                log.debug("Could not close discarded response body", e);
+            }
+        }
+    }
+
+    // Queue depth and throttling per ORS API
+    public Map<String, OrsRateLimiter.Stats> getRateLimitStats() {
+        return rateLimiter.getStats();
+    }
+
+    // Latency snapshot per endpoint, sorted by endpoint name
+    public Map<String, LatencyHistogram.Snapshot> getLatencyStats() {
+        Map<String, LatencyHistogram.Snapshot> stats = new TreeMap<>();
+        latencies.forEach((endpoint, histogram) -> stats.put(endpoint, histogram.snapshot()));
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        getLatencyStats().forEach((endpoint, stats) -> log.info("HTTP latency {}: {}", endpoint, stats));
+        getRateLimitStats().forEach((api, stats) -> log.info("Rate limit {}: {}", api, stats));
+        executor.shutdownNow();
+    }
+
+    // One logical request across its attempts
+    private static final class Exchange<T> {
+        final String endpoint;
+        final HttpRequest request;
+        final HttpResponse.BodyHandler<T> handler;
+        final LatencyHistogram histogram;
+        final OrsRateLimiter.Limit limit;
+        final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        volatile CompletableFuture<?> current;
+
+        Exchange(String endpoint, HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                 LatencyHistogram histogram, OrsRateLimiter.Limit limit) {
+            this.endpoint = endpoint;
+            this.request = request;
+            this.handler = handler;
+            this.histogram = histogram;
+            this.limit = limit;
+        }
+    }
+
+    // String body handler that gunzips the body when the server compressed it
+    private static HttpResponse.BodyHandler<String> decodingHandler() {
+        return info -> {
+            boolean gzip = isGzip(info.headers());
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(),
+                    bytes -> gzip ? gunzip(bytes) : new String(bytes, StandardCharsets.UTF_8));
+        };
+    }
+
+    private static boolean isGzip(HttpHeaders headers) {
+        return headers.firstValue("Content-Encoding")
+                .map(value -> value.trim().equalsIgnoreCase("gzip"))
+                .orElse(false);
+    }
+
+    private static String gunzip(byte[] bytes) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decode gzip response", e);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.tourplanner.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Client-side quota for OpenRouteService: one token bucket per API, sized to the requests per minute of the ORS plan,
+// and the retry policy for throttled (429) and failed (5xx, I/O) requests. Retries wait with jittered exponential
+// backoff, or as long as the server's Retry-After asks for.
+@Component
+public class OrsRateLimiter {
+
+    private final Map<String, Limit> limits = new TreeMap<>();
+    private final Limit other;
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    public OrsRateLimiter(@Value("${app.ors.rate.directions-per-minute:40}") int directionsPerMinute,
+                          @Value("${app.ors.rate.geocode-per-minute:100}") int geocodePerMinute,
+                          @Value("${app.ors.rate.matrix-per-minute:40}") int matrixPerMinute,
+                          @Value("${app.http.max-retries:3}") int maxRetries,
+                          @Value("${app.http.retry-base-millis:500}") long baseDelayMillis,
+                          @Value("${app.http.max-retry-delay-seconds:60}") long maxDelaySeconds) {
+        limits.put("directions", new Limit(directionsPerMinute));
+        limits.put("geocode", new Limit(geocodePerMinute));
+        limits.put("matrix", new Limit(matrixPerMinute));
+        this.other = new Limit(Math.min(directionsPerMinute, geocodePerMinute));
+        limits.put("other", other);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+        this.maxDelayMillis = TimeUnit.SECONDS.toMillis(maxDelaySeconds);
+    }
+
+    // Limit of the API the endpoint belongs to, e.g. "directions" for "directions/driving-car"
+    public Limit forEndpoint(String endpoint) {
+        int slash = endpoint.indexOf('/');
+        return limits.getOrDefault(slash > 0 ? endpoint.substring(0, slash) : endpoint, other);
+    }
+
+    // Whether the API has headroom for optional work such as prefetching: nothing is waiting for a token and at least
+    // half of the burst is left, so the request does not delay one the user is waiting for
+    public boolean hasSpareCapacity(String endpoint) {
+        return forEndpoint(endpoint).hasSpareCapacity();
+    }
+
+    // Milliseconds to wait before retry number `retry` (1 = first retry) of an answer with this status, -1 for no retry.
+    // A Retry-After longer than the maximum delay is not waited for, the answer goes to the caller instead.
+    public long retryDelay(int retry, int status, HttpHeaders headers) {
+        if (retry > maxRetries || (status != 429 && status < 500)) {
+            return -1;
+        }
+        long retryAfter = headers.firstValue("Retry-After").map(value -> parseRetryAfter(value, Instant.now())).orElse(-1L);
+        if (retryAfter >= 0) {
+            return retryAfter <= maxDelayMillis ? retryAfter : -1;
+        }
+        return backoff(retry);
+    }
+
+    // Same for a request that failed without an answer; only I/O errors (connection, timeout) are retried
+    public long retryDelay(int retry, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return retry <= maxRetries && cause instanceof IOException ? backoff(retry) : -1;
+    }
+
+    // Queue depth and throttling per API, sorted by name
+    public Map<String, Stats> getStats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        limits.forEach((api, limit) -> stats.put(api, limit.stats()));
+        return stats;
+    }
+
+    // Exponential backoff with equal jitter: half the step is fixed, the other half random, so retries spread out
+    private long backoff(int retry) {
+        long step = Math.min(maxDelayMillis, baseDelayMillis << Math.min(retry - 1, 20));
+        return step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1);
+    }
+
+    // Retry-After is either delta seconds or an HTTP date; -1 if it is neither
+    static long parseRetryAfter(String value, Instant now) {
+        String trimmed = value.trim();
+        try {
+            return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            try {
+                Instant at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                return Math.max(0, Duration.between(now, at).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return -1;
+            }
+        }
+    }
+
+    // Token bucket of one API plus its counters
+    public static final class Limit {
+        private final TokenBucket bucket;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder waitedMillis = new LongAdder();
+
+        Limit(int permitsPerMinute) {
+            // A burst of ten seconds' worth of requests, the rest is spread over the minute
+            this.bucket = new TokenBucket(permitsPerMinute, Math.max(1, permitsPerMinute / 6.0));
+        }
+
+        // Reserves a request, returns the nanoseconds to wait before sending it. Waiting requests count as queued
+        // until dequeued() is called.
+        public long acquire() {
+            long wait = bucket.reserve();
+            if (wait > 0) {
+                queued.incrementAndGet();
+                waitedMillis.add(TimeUnit.NANOSECONDS.toMillis(wait));
+            }
+            return wait;
+        }
+
+        public boolean hasSpareCapacity() {
+            return queued.get() == 0 && bucket.available() >= bucket.getCapacity() / 2;
+        }
+
+        public void dequeued() {
+            queued.decrementAndGet();
+        }
+
+        public void throttled(long retryAfterMillis) {
+            throttled.increment();
+            retries.increment();
+            bucket.throttle(TimeUnit.MILLISECONDS.toNanos(retryAfterMillis));
+        }
+
+        public void retried() {
+            retries.increment();
+        }
+
+        public void succeeded() {
+            bucket.succeeded();
+        }
+
+        Stats stats() {
+            return new Stats(queued.get(), Math.round(bucket.getPermitsPerMinute()), throttled.sum(), retries.sum(),
+                    waitedMillis.sum());
+        }
+    }
+
+    // queued: requests waiting for a token right now; permitsPerMinute: current (adapted) rate;
+    // throttled: 429 answers; retries: all retried requests; waitedMillis: total time requests waited for tokens
+    public record Stats(int queued, long permitsPerMinute, long throttled, long retries, long waitedMillis) { }
+}
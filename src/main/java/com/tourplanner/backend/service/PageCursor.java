@@ -0,0 +1,58 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.dto.PageDTO;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Position in a list ordered by (key, id): the sort key and id of the last item of a page. The next page is read with
+// "key > ? OR (key = ? AND id > ?)", an index range scan however deep the page is. Handed out as an opaque string.
+record PageCursor(String key, long id) {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((id + ":" + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null for a null cursor (the first page)
+    static PageCursor decode(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            return new PageCursor(value.substring(separator + 1), Long.parseLong(value.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+
+    // One more row than the page holds, which tells whether there is a next page
+    static Pageable limit(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        return PageRequest.of(0, Math.min(size, MAX_PAGE_SIZE) + 1);
+    }
+
+    // The page from rows read with limit(size), its cursor taken from the last row on it
+    static <E, D> PageDTO<D> page(List<E> rows, int size, Function<E, D> convert, Function<E, PageCursor> cursorOf) {
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        boolean more = rows.size() > pageSize;
+        List<E> onPage = more ? rows.subList(0, pageSize) : rows;
+        List<D> items = new ArrayList<>(onPage.size());
+        for (E row : onPage) {
+            items.add(convert.apply(row));
+        }
+        String next = more ? cursorOf.apply(onPage.get(onPage.size() - 1)).encode() : null;
+        return new PageDTO<>(items, next);
+    }
+}
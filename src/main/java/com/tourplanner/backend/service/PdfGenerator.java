@@ -12,13 +12,14 @@ import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import com.itextpdf.layout.Document;
 
+import com.tourplanner.backend.dto.StatisticsSummaryDTO;
 import com.tourplanner.backend.dto.TourDTO;
 import com.tourplanner.backend.dto.TourLogDTO;
+import com.tourplanner.backend.dto.TourStatisticsDTO;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
 public class PdfGenerator {
     public static void generateTourReport(File file, TourDTO tour, List<TourLogDTO> logs, byte[] imageBytes) throws IOException {
@@ -85,7 +86,7 @@ public class PdfGenerator {
         document.close();
     }
 
-    public static void generateSummaryReport(File file, Map<TourDTO, ? extends Object> tourStatsMap) throws IOException {
+    public static void generateSummaryReport(File file, StatisticsSummaryDTO summary, List<TourStatisticsDTO> tourStats) throws IOException {
         PdfWriter writer = new PdfWriter(file.getAbsolutePath());
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
@@ -96,13 +97,20 @@ public class PdfGenerator {
                 .setMarginBottom(20);
         document.add(title);
 
+        if (summary != null) {
+            document.add(new Paragraph(String.format("%d tours, average distance %.2f km. %d logs, average rating %.2f, "
+                            + "average difficulty %.2f, average time %.2f h.", summary.tourCount(), summary.averageTourDistance(),
+                    summary.logCount(), summary.averageRating(), summary.averageDifficulty(), summary.averageTime()))
+                    .setMarginBottom(10));
+        }
+
         document.add(new Paragraph("Overview and Statistics per Tour")
                 .setFontSize(18)
                 .setUnderline()
                 .setMarginBottom(10)
         );
 
-        Table tourTable = new Table(UnitValue.createPercentArray(new float[]{3, 3, 2, 2, 2, 2, 2, 2}))
+        Table tourTable = new Table(UnitValue.createPercentArray(new float[]{3, 3, 2, 2, 2, 1, 2, 2, 2}))
                 .useAllAvailableWidth()
                 .setMarginBottom(20);
         tourTable.addHeaderCell(new Cell().add(new Paragraph("Name")));
@@ -110,31 +118,22 @@ public class PdfGenerator {
         tourTable.addHeaderCell(new Cell().add(new Paragraph("Distance (km)")));
         tourTable.addHeaderCell(new Cell().add(new Paragraph("Estimated Time")));
         tourTable.addHeaderCell(new Cell().add(new Paragraph("Transport Type")));
+        tourTable.addHeaderCell(new Cell().add(new Paragraph("Logs")));
         tourTable.addHeaderCell(new Cell().add(new Paragraph("Avg Time (h)")));
         tourTable.addHeaderCell(new Cell().add(new Paragraph("Avg Distance (km)")));
         tourTable.addHeaderCell(new Cell().add(new Paragraph("Avg Rating")));
-        for (Map.Entry<TourDTO, ? extends Object> entry : tourStatsMap.entrySet()) {
-            TourDTO tour = entry.getKey();
-            Object statsObj = entry.getValue();
-            double avgTime = 0, avgDistance = 0, avgRating = 0;
-            if (statsObj != null) {
-                try {
-                    var stats = (com.tourplanner.ui.viewmodel.TourStatisticsViewModel.TourStats) statsObj;
-                    avgTime = stats.avgTime;
-                    avgDistance = stats.avgDistance;
-                    avgRating = stats.avgRating;
-                } catch (Exception ignored) {}
-            }
-            tourTable.addCell(new Cell().add(new Paragraph(tour.getName() != null ? tour.getName() : "")));
-            tourTable.addCell(new Cell().add(new Paragraph((tour.getFromLocation() != null ? tour.getFromLocation() : "") + " to " + (tour.getToLocation() != null ? tour.getToLocation() : ""))));
-            tourTable.addCell(new Cell().add(new Paragraph(String.valueOf(tour.getDistance()))));
-            tourTable.addCell(new Cell().add(new Paragraph(tour.getEstimatedTime() != null ? tour.getEstimatedTime() : "")));
-            tourTable.addCell(new Cell().add(new Paragraph(tour.getTransportType() != null ? tour.getTransportType() : "")));
-            tourTable.addCell(new Cell().add(new Paragraph(String.format("%.2f", avgTime))));
-            tourTable.addCell(new Cell().add(new Paragraph(String.format("%.2f", avgDistance))));
-            tourTable.addCell(new Cell().add(new Paragraph(String.format("%.2f", avgRating))));
+        for (TourStatisticsDTO stats : tourStats) {
+            tourTable.addCell(new Cell().add(new Paragraph(stats.name() != null ? stats.name() : "")));
+            tourTable.addCell(new Cell().add(new Paragraph((stats.fromLocation() != null ? stats.fromLocation() : "") + " to " + (stats.toLocation() != null ? stats.toLocation() : ""))));
+            tourTable.addCell(new Cell().add(new Paragraph(String.valueOf(stats.distance()))));
+            tourTable.addCell(new Cell().add(new Paragraph(stats.estimatedTime() != null ? stats.estimatedTime() : "")));
+            tourTable.addCell(new Cell().add(new Paragraph(stats.transportType() != null ? stats.transportType() : "")));
+            tourTable.addCell(new Cell().add(new Paragraph(String.valueOf(stats.logCount()))));
+            tourTable.addCell(new Cell().add(new Paragraph(String.format("%.2f", stats.averageTime()))));
+            tourTable.addCell(new Cell().add(new Paragraph(String.format("%.2f", stats.averageDistance()))));
+            tourTable.addCell(new Cell().add(new Paragraph(String.format("%.2f", stats.averageRating()))));
         }
         document.add(tourTable);
         document.close();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.RouteData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Encodes route coordinates with the Google encoded polyline algorithm (precision 1e-5 degrees),
+// which keeps stored routes compact: each point is stored as a delta to the previous one.
+// New routes are stored with PackedPolyline.toBytes(), this codec still reads routes stored before.
+public final class PolylineCodec {
+
+    private static final double PRECISION = 1e5;
+
+    private PolylineCodec() {
+    }
+
+    public static String encode(List<RouteData.Coordinate> coordinates) {
+        StringBuilder out = new StringBuilder();
+        if (coordinates == null) {
+            return "";
+        }
+        long prevLat = 0;
+        long prevLon = 0;
+        for (RouteData.Coordinate c : coordinates) {
+            long lat = Math.round(c.getLatitude() * PRECISION);
+            long lon = Math.round(c.getLongitude() * PRECISION);
+            encodeValue(lat - prevLat, out);
+            encodeValue(lon - prevLon, out);
+            prevLat = lat;
+            prevLon = lon;
+        }
+        return out.toString();
+    }
+
+    public static List<RouteData.Coordinate> decode(String encoded) {
+        List<RouteData.Coordinate> coordinates = new ArrayList<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return coordinates;
+        }
+        int[] index = {0};
+        long lat = 0;
+        long lon = 0;
+        while (index[0] < encoded.length()) {
+            lat += decodeValue(encoded, index);
+            lon += decodeValue(encoded, index);
+            coordinates.add(new RouteData.Coordinate(lat / PRECISION, lon / PRECISION));
+        }
+        return coordinates;
+    }
+
+    private static void encodeValue(long value, StringBuilder out) {
+        // Zig-zag the sign into the lowest bit, then emit 5-bit chunks
+        long v = value < 0 ? ~(value << 1) : (value << 1);
+        while (v >= 0x20) {
+            out.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        out.append((char) (v + 63));
+    }
+
+    private static long decodeValue(String encoded, int[] index) {
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = encoded.charAt(index[0]++) - 63;
+            result |= (long) (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+    }
+}
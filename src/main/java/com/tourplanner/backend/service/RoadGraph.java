@@ -0,0 +1,415 @@
+package com.tourplanner.backend.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Road network in compressed sparse row (CSR) form, read straight from a memory-mapped file. Nodes are numbered
+// 0..n-1; the outgoing arcs of node u are outTarget[outStart[u] .. outStart[u+1]), and a second CSR over the
+// incoming arcs serves the backward half of bidirectional searches. Every arc has a length in decimeters and one
+// flags byte: bits 0-2 say which profiles may use it in this direction (CAR, BICYCLE, FOOT), bits 3-5 hold the road
+// class that RoadGraphRouter turns into a speed. All arrays are views on the mapping, so loading a graph copies
+// nothing onto the heap apart from the small grid used to find the node nearest to a coordinate.
+//
+// File layout (little endian): magic, version, node count n, arc count m, then int arrays latitude[n] and
+// longitude[n] (1e-6 degrees), outStart[n+1], outTarget[m], length[m], inStart[n+1], inSource[m], inArc[m]
+// (index of the incoming arc in the out arrays), and finally the flags byte[m].
+public final class RoadGraph {
+
+    public static final int CAR = 1;
+    public static final int BICYCLE = 2;
+    public static final int FOOT = 4;
+    public static final int ALL = CAR | BICYCLE | FOOT;
+
+    static final int MAGIC = 0x47525054; // "TPRG"
+    static final int VERSION = 1;
+    private static final int HEADER_INTS = 4;
+    private static final double SCALE = 1e6;
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    private final ByteBuffer data;
+    private final int nodeCount;
+    private final int arcCount;
+    private final IntBuffer latitudes;
+    private final IntBuffer longitudes;
+    private final IntBuffer outStart;
+    private final IntBuffer outTarget;
+    private final IntBuffer arcLength;
+    private final IntBuffer inStart;
+    private final IntBuffer inSource;
+    private final IntBuffer inArc;
+    private final ByteBuffer flags;
+    private final NodeGrid grid;
+
+    private RoadGraph(ByteBuffer data) throws IOException {
+        this.data = data.order(ByteOrder.LITTLE_ENDIAN);
+        if (data.capacity() < HEADER_INTS * 4 || data.getInt(0) != MAGIC) {
+            throw new IOException("Not a road graph file");
+        }
+        if (data.getInt(4) != VERSION) {
+            throw new IOException("Unsupported road graph version " + data.getInt(4));
+        }
+        this.nodeCount = data.getInt(8);
+        this.arcCount = data.getInt(12);
+        long expected = byteSize(nodeCount, arcCount);
+        if (nodeCount < 0 || arcCount < 0 || expected != data.capacity()) {
+            throw new IOException("Road graph file is truncated or corrupt: " + data.capacity() + " bytes, expected " + expected);
+        }
+        int offset = HEADER_INTS * 4;
+        latitudes = ints(offset, nodeCount);
+        offset += nodeCount * 4;
+        longitudes = ints(offset, nodeCount);
+        offset += nodeCount * 4;
+        outStart = ints(offset, nodeCount + 1);
+        offset += (nodeCount + 1) * 4;
+        outTarget = ints(offset, arcCount);
+        offset += arcCount * 4;
+        arcLength = ints(offset, arcCount);
+        offset += arcCount * 4;
+        inStart = ints(offset, nodeCount + 1);
+        offset += (nodeCount + 1) * 4;
+        inSource = ints(offset, arcCount);
+        offset += arcCount * 4;
+        inArc = ints(offset, arcCount);
+        offset += arcCount * 4;
+        flags = data.slice(offset, arcCount);
+        this.grid = new NodeGrid(this);
+    }
+
+    // Maps the file read-only. The mapping stays valid after the channel is closed.
+    public static RoadGraph load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Road graph files larger than 2 GB are not supported: " + file);
+            }
+            return new RoadGraph(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = data.duplicate().clear();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int arcCount() {
+        return arcCount;
+    }
+
+    public double latitude(int node) {
+        return latitudes.get(node) / SCALE;
+    }
+
+    public double longitude(int node) {
+        return longitudes.get(node) / SCALE;
+    }
+
+    // Outgoing arcs of a node are the indices firstOut(node) until firstOut(node + 1)
+    public int firstOut(int node) {
+        return outStart.get(node);
+    }
+
+    public int target(int arc) {
+        return outTarget.get(arc);
+    }
+
+    // Incoming arcs of a node are the positions firstIn(node) until firstIn(node + 1)
+    public int firstIn(int node) {
+        return inStart.get(node);
+    }
+
+    public int inSource(int position) {
+        return inSource.get(position);
+    }
+
+    // Arc index (usable with lengthDecimeters, access, roadClass) of an incoming position
+    public int inArc(int position) {
+        return inArc.get(position);
+    }
+
+    public int lengthDecimeters(int arc) {
+        return arcLength.get(arc);
+    }
+
+    public int access(int arc) {
+        return flags.get(arc) & ALL;
+    }
+
+    public int roadClass(int arc) {
+        return (flags.get(arc) >>> 3) & 7;
+    }
+
+    // Whether the node has an arc, in or out, that the profile may use
+    public boolean isAccessible(int node, int accessMask) {
+        for (int arc = firstOut(node), end = firstOut(node + 1); arc < end; arc++) {
+            if ((access(arc) & accessMask) != 0) {
+                return true;
+            }
+        }
+        for (int i = firstIn(node), end = firstIn(node + 1); i < end; i++) {
+            if ((access(inArc(i)) & accessMask) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Node closest to the coordinate that the profile can use, -1 if there is none within maxMeters
+    public int nearestNode(double latitude, double longitude, int accessMask, double maxMeters) {
+        return grid.nearest(latitude, longitude, accessMask, maxMeters);
+    }
+
+    // Equirectangular distance, accurate to well below a percent over the distances routed here
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double x = Math.toRadians(lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = Math.toRadians(lat2 - lat1);
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_METERS;
+    }
+
+    // Size of the graph data in bytes (the mapping, not heap)
+    public long byteSize() {
+        return data.capacity();
+    }
+
+    @Override
+    public String toString() {
+        return "RoadGraph{nodes=" + nodeCount + ", arcs=" + arcCount + "}";
+    }
+
+    private IntBuffer ints(int offset, int count) {
+        return data.slice(offset, count * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static long byteSize(long nodes, long arcs) {
+        return (HEADER_INTS + 2 * nodes + 2 * (nodes + 1) + 4 * arcs) * 4L + arcs;
+    }
+
+    // Collects nodes and arcs and lays them out in the file format. Arcs may be added in any order.
+    public static final class Builder {
+        private int[] lat = new int[1024];
+        private int[] lon = new int[1024];
+        private int nodes;
+        private int[] from = new int[1024];
+        private int[] to = new int[1024];
+        private int[] length = new int[1024];
+        private byte[] flag = new byte[1024];
+        private int arcs;
+
+        public int addNode(double latitude, double longitude) {
+            if (nodes == lat.length) {
+                lat = Arrays.copyOf(lat, nodes * 2);
+                lon = Arrays.copyOf(lon, nodes * 2);
+            }
+            lat[nodes] = (int) Math.round(latitude * SCALE);
+            lon[nodes] = (int) Math.round(longitude * SCALE);
+            return nodes++;
+        }
+
+        // One directed arc, its length taken from the coordinates of its end nodes
+        public void addArc(int fromNode, int toNode, int roadClass, int access) {
+            double meters = distanceMeters(lat[fromNode] / SCALE, lon[fromNode] / SCALE, lat[toNode] / SCALE, lon[toNode] / SCALE);
+            addArc(fromNode, toNode, meters, roadClass, access);
+        }
+
+        public void addArc(int fromNode, int toNode, double meters, int roadClass, int access) {
+            if (fromNode < 0 || fromNode >= nodes || toNode < 0 || toNode >= nodes) {
+                throw new IllegalArgumentException("Arc " + fromNode + " -> " + toNode + " references an unknown node");
+            }
+            if (arcs == from.length) {
+                from = Arrays.copyOf(from, arcs * 2);
+                to = Arrays.copyOf(to, arcs * 2);
+                length = Arrays.copyOf(length, arcs * 2);
+                flag = Arrays.copyOf(flag, arcs * 2);
+            }
+            from[arcs] = fromNode;
+            to[arcs] = toNode;
+            length[arcs] = (int) Math.round(meters * 10);
+            flag[arcs] = (byte) ((access & ALL) | (roadClass & 7) << 3);
+            arcs++;
+        }
+
+        // A road usable in both directions, except that one-way roads can only be walked against their direction
+        public void addRoad(int a, int b, int roadClass, int access, boolean oneway) {
+            addArc(a, b, roadClass, access);
+            int reverse = oneway ? access & FOOT : access;
+            if (reverse != 0) {
+                addArc(b, a, roadClass, reverse);
+            }
+        }
+
+        public RoadGraph build() {
+            ByteBuffer out = ByteBuffer.allocate(Math.toIntExact(byteSize(nodes, arcs))).order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC).putInt(VERSION).putInt(nodes).putInt(arcs);
+            // Counting sort of the arcs by source node (out CSR) and by target node (in CSR)
+            int[] outStart = starts(from);
+            int[] inStart = starts(to);
+            int[] outOrder = new int[arcs];
+            int[] position = Arrays.copyOf(outStart, nodes);
+            for (int arc = 0; arc < arcs; arc++) {
+                outOrder[position[from[arc]]++] = arc;
+            }
+            // Index of every arc in the out arrays, referenced by the in CSR
+            int[] outIndex = new int[arcs];
+            for (int i = 0; i < arcs; i++) {
+                outIndex[outOrder[i]] = i;
+            }
+            int[] inOrder = new int[arcs];
+            position = Arrays.copyOf(inStart, nodes);
+            for (int arc = 0; arc < arcs; arc++) {
+                inOrder[position[to[arc]]++] = arc;
+            }
+            for (int i = 0; i < nodes; i++) out.putInt(lat[i]);
+            for (int i = 0; i < nodes; i++) out.putInt(lon[i]);
+            for (int start : outStart) out.putInt(start);
+            for (int arc : outOrder) out.putInt(to[arc]);
+            for (int arc : outOrder) out.putInt(length[arc]);
+            for (int start : inStart) out.putInt(start);
+            for (int arc : inOrder) out.putInt(from[arc]);
+            for (int arc : inOrder) out.putInt(outIndex[arc]);
+            for (int arc : outOrder) out.put(flag[arc]);
+            try {
+                return new RoadGraph(out.clear());
+            } catch (IOException e) {
+                throw new IllegalStateException("Built an invalid road graph", e);
+            }
+        }
+
+        // CSR start offsets for the arcs grouped by the given end node
+        private int[] starts(int[] endpoints) {
+            int[] starts = new int[nodes + 1];
+            for (int arc = 0; arc < arcs; arc++) {
+                starts[endpoints[arc] + 1]++;
+            }
+            for (int i = 0; i < nodes; i++) {
+                starts[i + 1] += starts[i];
+            }
+            return starts;
+        }
+    }
+
+    // Uniform grid over the bounding box of the nodes, about eight nodes per cell, for nearest-node lookups.
+    // Two int arrays (counting sort of the nodes by cell), so it costs 4 bytes per node plus 4 per cell.
+    private static final class NodeGrid {
+        private final RoadGraph graph;
+        private final double minLat, minLon, cellLat, cellLon;
+        private final int rows, cols;
+        private final int[] cellStart;
+        private final int[] cellNodes;
+
+        NodeGrid(RoadGraph graph) {
+            this.graph = graph;
+            int n = graph.nodeCount;
+            double loLat = Double.MAX_VALUE, hiLat = -Double.MAX_VALUE, loLon = Double.MAX_VALUE, hiLon = -Double.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                double lat = graph.latitude(i);
+                double lon = graph.longitude(i);
+                loLat = Math.min(loLat, lat);
+                hiLat = Math.max(hiLat, lat);
+                loLon = Math.min(loLon, lon);
+                hiLon = Math.max(hiLon, lon);
+            }
+            if (n == 0) {
+                loLat = hiLat = loLon = hiLon = 0;
+            }
+            double height = Math.max(hiLat - loLat, 1e-6);
+            double width = Math.max(hiLon - loLon, 1e-6);
+            double cells = Math.max(1, n / 8.0);
+            int c = (int) Math.max(1, Math.min(4096, Math.round(Math.sqrt(cells * width / height))));
+            int r = (int) Math.max(1, Math.min(4096, Math.round(cells / c)));
+            this.minLat = loLat;
+            this.minLon = loLon;
+            this.rows = r;
+            this.cols = c;
+            this.cellLat = height / r;
+            this.cellLon = width / c;
+
+            cellStart = new int[rows * cols + 1];
+            int[] cellOf = new int[n];
+            for (int i = 0; i < n; i++) {
+                cellOf[i] = cell(row(graph.latitude(i)), col(graph.longitude(i)));
+                cellStart[cellOf[i] + 1]++;
+            }
+            for (int i = 0; i < rows * cols; i++) {
+                cellStart[i + 1] += cellStart[i];
+            }
+            cellNodes = new int[n];
+            int[] position = Arrays.copyOf(cellStart, rows * cols);
+            for (int i = 0; i < n; i++) {
+                cellNodes[position[cellOf[i]]++] = i;
+            }
+        }
+
+        // Scans rings of cells around the coordinate until no closer node can exist
+        int nearest(double latitude, double longitude, int accessMask, double maxMeters) {
+            if (graph.nodeCount == 0) {
+                return -1;
+            }
+            int row = row(latitude);
+            int col = col(longitude);
+            double cellMeters = Math.min(cellLat, cellLon * Math.cos(Math.toRadians(latitude))) * Math.toRadians(1) * EARTH_RADIUS_METERS;
+            int best = -1;
+            double bestMeters = maxMeters;
+            int maxRing = Math.max(rows, cols);
+            for (int ring = 0; ring <= maxRing; ring++) {
+                // Nodes in this ring are at least (ring - 1) cells away, unless the coordinate lies outside the grid
+                if (ring > 1 && (ring - 1) * cellMeters > bestMeters && inside(latitude, longitude)) {
+                    break;
+                }
+                for (int r = row - ring; r <= row + ring; r++) {
+                    if (r < 0 || r >= rows) {
+                        continue;
+                    }
+                    boolean edgeRow = r == row - ring || r == row + ring;
+                    for (int c = col - ring; c <= col + ring; c += edgeRow ? 1 : 2 * ring) {
+                        if (c < 0 || c >= cols) {
+                            continue;
+                        }
+                        int cell = cell(r, c);
+                        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                            int node = cellNodes[i];
+                            double meters = distanceMeters(latitude, longitude, graph.latitude(node), graph.longitude(node));
+                            if (meters <= bestMeters && (best < 0 || meters < bestMeters) && graph.isAccessible(node, accessMask)) {
+                                best = node;
+                                bestMeters = meters;
+                            }
+                        }
+                        if (ring == 0) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        private boolean inside(double latitude, double longitude) {
+            return latitude >= minLat && latitude <= minLat + rows * cellLat
+                    && longitude >= minLon && longitude <= minLon + cols * cellLon;
+        }
+
+        private int row(double latitude) {
+            return (int) Math.max(0, Math.min(rows - 1, Math.floor((latitude - minLat) / cellLat)));
+        }
+
+        private int col(double longitude) {
+            return (int) Math.max(0, Math.min(cols - 1, Math.floor((longitude - minLon) / cellLon)));
+        }
+
+        private int cell(int row, int col) {
+            return row * cols + col;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.tourplanner.backend.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Shortest (fastest) paths on a RoadGraph by bidirectional A*. Both searches use the average potential
+// pf(v) = (dist(v, target) - dist(source, v)) / 2 in travel time at the profile's top speed, so the forward and the
+// backward search see consistent reduced arc costs and the search can stop as soon as the smallest keys of both
+// queues add up to the best path found so far. Compared with a plain Dijkstra this settles the nodes in an ellipse
+// around source and target instead of a circle around the source.
+// Search state is kept per thread and reset with generation stamps, so a query allocates nothing but its result.
+public final class RoadGraphRouter {
+
+    // Routing profiles, named like the ORS profiles RouteServiceImpl.getProfile picks. The speeds in km/h are per road
+    // class: 0 motorway, 1 trunk/primary, 2 secondary, 3 tertiary, 4 residential, 5 service/track, 6 cycleway, 7 footway.
+    // A speed of 0 means the profile does not use that class.
+    public enum Profile {
+        CAR("driving-car", RoadGraph.CAR, new double[]{120, 80, 60, 40, 20, 0, 0, 0}),
+        BICYCLE("cycling-regular", RoadGraph.BICYCLE, new double[]{0, 18, 18, 16, 14, 12, 18, 0}),
+        FOOT("foot-walking", RoadGraph.FOOT, new double[]{0, 5, 5, 5, 5, 4.5, 5, 4.5});
+
+        private final String id;
+        private final int access;
+        private final double[] speeds;
+        private final double maxSpeed;
+
+        Profile(String id, int access, double[] speeds) {
+            this.id = id;
+            this.access = access;
+            this.speeds = speeds;
+            this.maxSpeed = Arrays.stream(speeds).max().orElse(1);
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public int access() {
+            return access;
+        }
+
+        // Profile with the given ORS name, CAR for unknown names
+        public static Profile of(String id) {
+            String normalized = id != null ? id.trim().toLowerCase(Locale.ROOT) : "";
+            for (Profile profile : values()) {
+                if (profile.id.equals(normalized)) {
+                    return profile;
+                }
+            }
+            return CAR;
+        }
+    }
+
+    // A route: the nodes from source to target, its length and its travel time
+    public record Path(int[] nodes, double meters, long millis) {
+        public double[] latitudes(RoadGraph graph) {
+            double[] values = new double[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                values[i] = graph.latitude(nodes[i]);
+            }
+            return values;
+        }
+
+        public double[] longitudes(RoadGraph graph) {
+            double[] values = new double[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                values[i] = graph.longitude(nodes[i]);
+            }
+            return values;
+        }
+    }
+
+    private static final int UNREACHED = Integer.MAX_VALUE;
+    // Slightly below the true lower bound so rounded arc costs never make the potentials inconsistent
+    private static final double HEURISTIC_FACTOR = 0.99;
+
+    private final RoadGraph graph;
+    private final double[] maxSpeeds; // per profile, fastest road class that occurs in the graph
+    private final ThreadLocal<Search> searches;
+
+    public RoadGraphRouter(RoadGraph graph) {
+        this.graph = graph;
+        this.maxSpeeds = maxSpeeds(graph);
+        this.searches = ThreadLocal.withInitial(() -> new Search(graph.nodeCount()));
+    }
+
+    public RoadGraph graph() {
+        return graph;
+    }
+
+    // Fastest path between two nodes, null if the target cannot be reached with the profile
+    public Path route(int source, int target, Profile profile) {
+        if (source < 0 || source >= graph.nodeCount() || target < 0 || target >= graph.nodeCount()) {
+            throw new IllegalArgumentException("Node out of range: " + source + " -> " + target);
+        }
+        return searches.get().run(source, target, profile);
+    }
+
+    // Nodes settled by the last query on this thread, both directions together
+    public int lastSettledCount() {
+        return searches.get().settled;
+    }
+
+    // The potentials divide distances by the top speed, so a graph without motorways should not be bounded by the
+    // motorway speed: that would make the estimates several times too low and the search nearly a Dijkstra
+    private static double[] maxSpeeds(RoadGraph graph) {
+        boolean[][] used = new boolean[8][8]; // [access bit][road class]
+        for (int arc = 0; arc < graph.arcCount(); arc++) {
+            int access = graph.access(arc);
+            int roadClass = graph.roadClass(arc);
+            for (int bit = 0; bit < 3; bit++) {
+                if ((access & 1 << bit) != 0) {
+                    used[1 << bit][roadClass] = true;
+                }
+            }
+        }
+        double[] speeds = new double[Profile.values().length];
+        for (Profile profile : Profile.values()) {
+            for (int roadClass = 0; roadClass < 8; roadClass++) {
+                if (used[profile.access][roadClass]) {
+                    speeds[profile.ordinal()] = Math.max(speeds[profile.ordinal()], profile.speeds[roadClass]);
+                }
+            }
+            if (speeds[profile.ordinal()] <= 0) {
+                speeds[profile.ordinal()] = profile.maxSpeed;
+            }
+        }
+        return speeds;
+    }
+
+    // Travel time of an arc in milliseconds, -1 if the profile cannot use it
+    static int arcMillis(RoadGraph graph, int arc, Profile profile) {
+        if ((graph.access(arc) & profile.access) == 0) {
+            return -1;
+        }
+        double speed = profile.speeds[graph.roadClass(arc)];
+        if (speed <= 0) {
+            return -1;
+        }
+        // decimeters / (km/h) -> ms: dm * 0.1 m / (speed / 3.6 m/s) * 1000
+        return (int) Math.round(graph.lengthDecimeters(arc) * 360.0 / speed);
+    }
+
+    // Reusable per-thread state of one bidirectional search
+    private final class Search {
+        private final int[] stamp;           // generation in which distance, parent and potential of a node were set
+        private final int[] distance;        // forward at 2v, backward at 2v + 1
+        private final int[] parentNode;
+        private final int[] parentArc;
+        private final double[] potential;
+        private final Heap forward = new Heap();
+        private final Heap backward = new Heap();
+        private int generation;
+        private int settled;
+        private double sourceLat, sourceLon, targetLat, targetLon, msPerMeter;
+
+        Search(int nodes) {
+            stamp = new int[nodes];
+            distance = new int[nodes * 2];
+            parentNode = new int[nodes * 2];
+            parentArc = new int[nodes * 2];
+            potential = new double[nodes];
+        }
+
+        Path run(int source, int target, Profile profile) {
+            if (++generation == 0) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+            forward.clear();
+            backward.clear();
+            settled = 0;
+            sourceLat = graph.latitude(source);
+            sourceLon = graph.longitude(source);
+            targetLat = graph.latitude(target);
+            targetLon = graph.longitude(target);
+            msPerMeter = 3600.0 / maxSpeeds[profile.ordinal()] * HEURISTIC_FACTOR;
+
+            reach(source, 0, 0, -1, -1);
+            reach(target, 1, 0, -1, -1);
+            forward.push(potential(source), source, 0);
+            backward.push(-potential(target), target, 0);
+
+            long best = source == target ? 0 : Long.MAX_VALUE;
+            int meeting = source == target ? source : -1;
+            while (!forward.isEmpty() && !backward.isEmpty()) {
+                if (best != Long.MAX_VALUE && forward.topKey() + backward.topKey() >= best) {
+                    break;
+                }
+                // Expand the side with the smaller queue, which balances the two search spaces
+                boolean forwardStep = forward.size() <= backward.size();
+                Heap heap = forwardStep ? forward : backward;
+                int side = forwardStep ? 0 : 1;
+                int g = heap.topDistance();
+                int u = heap.pop();
+                if (g != distance[2 * u + side]) {
+                    continue; // stale entry, the node was reached more cheaply since
+                }
+                settled++;
+                if (forwardStep) {
+                    for (int arc = graph.firstOut(u), end = graph.firstOut(u + 1); arc < end; arc++) {
+                        int cost = arcMillis(graph, arc, profile);
+                        if (cost >= 0) {
+                            int v = graph.target(arc);
+                            long through = relax(v, 0, g + cost, u, arc, forward);
+                            if (through < best) {
+                                best = through;
+                                meeting = v;
+                            }
+                        }
+                    }
+                } else {
+                    for (int i = graph.firstIn(u), end = graph.firstIn(u + 1); i < end; i++) {
+                        int arc = graph.inArc(i);
+                        int cost = arcMillis(graph, arc, profile);
+                        if (cost >= 0) {
+                            int v = graph.inSource(i);
+                            long through = relax(v, 1, g + cost, u, arc, backward);
+                            if (through < best) {
+                                best = through;
+                                meeting = v;
+                            }
+                        }
+                    }
+                }
+            }
+            return meeting < 0 ? null : path(source, target, meeting, best);
+        }
+
+        // Offers a new distance to a node; returns the length of the path through it if the other side reached it too
+        private long relax(int v, int side, long g, int from, int arc, Heap heap) {
+            if (g >= UNREACHED) {
+                return Long.MAX_VALUE;
+            }
+            int index = 2 * v + side;
+            if (stamp[v] != generation) {
+                reach(v, side, (int) g, from, arc);
+            } else if (g < distance[index]) {
+                distance[index] = (int) g;
+                parentNode[index] = from;
+                parentArc[index] = arc;
+            } else {
+                return Long.MAX_VALUE;
+            }
+            heap.push(side == 0 ? g + potential(v) : g - potential(v), v, (int) g);
+            int other = distance[2 * v + 1 - side];
+            return other == UNREACHED ? Long.MAX_VALUE : g + other;
+        }
+
+        // First time this generation that a node is touched: initialise both directions
+        private void reach(int v, int side, int g, int from, int arc) {
+            if (stamp[v] != generation) {
+                stamp[v] = generation;
+                distance[2 * v] = UNREACHED;
+                distance[2 * v + 1] = UNREACHED;
+                potential[v] = Double.NaN;
+            }
+            distance[2 * v + side] = g;
+            parentNode[2 * v + side] = from;
+            parentArc[2 * v + side] = arc;
+        }
+
+        // Average potential, cached per node; only called for nodes already stamped in this generation
+        private double potential(int v) {
+            double p = potential[v];
+            if (Double.isNaN(p)) {
+                double lat = graph.latitude(v);
+                double lon = graph.longitude(v);
+                double toTarget = RoadGraph.distanceMeters(lat, lon, targetLat, targetLon);
+                double fromSource = RoadGraph.distanceMeters(sourceLat, sourceLon, lat, lon);
+                p = (toTarget - fromSource) / 2 * msPerMeter;
+                potential[v] = p;
+            }
+            return p;
+        }
+
+        private Path path(int source, int target, int meeting, long millis) {
+            int forwardCount = 0;
+            for (int v = meeting; v != source; v = parentNode[2 * v]) {
+                forwardCount++;
+            }
+            int backwardCount = 0;
+            for (int v = meeting; v != target; v = parentNode[2 * v + 1]) {
+                backwardCount++;
+            }
+            int[] nodes = new int[forwardCount + backwardCount + 1];
+            long decimeters = 0;
+            int i = forwardCount;
+            for (int v = meeting; v != source; v = parentNode[2 * v]) {
+                nodes[i--] = v;
+                decimeters += graph.lengthDecimeters(parentArc[2 * v]);
+            }
+            nodes[0] = source;
+            i = forwardCount;
+            for (int v = meeting; v != target; v = parentNode[2 * v + 1]) {
+                decimeters += graph.lengthDecimeters(parentArc[2 * v + 1]);
+                nodes[++i] = parentNode[2 * v + 1];
+            }
+            return new Path(nodes, decimeters / 10.0, millis);
+        }
+    }
+
+    // Binary min-heap of (key, node, distance) in parallel primitive arrays. Nodes are pushed again instead of
+    // decreasing their key; outdated entries are recognised by their distance when popped.
+    private static final class Heap {
+        private double[] keys = new double[256];
+        private int[] nodes = new int[256];
+        private int[] distances = new int[256];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        double topKey() {
+            return keys[0];
+        }
+
+        int topDistance() {
+            return distances[0];
+        }
+
+        void push(double key, int node, int distance) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                move(parent, i);
+                i = parent;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+            distances[i] = distance;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            size--;
+            if (size > 0) {
+                double key = keys[size];
+                int node = nodes[size];
+                int distance = distances[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && keys[child + 1] < keys[child]) {
+                        child++;
+                    }
+                    if (key <= keys[child]) {
+                        break;
+                    }
+                    move(child, i);
+                    i = child;
+                }
+                keys[i] = key;
+                nodes[i] = node;
+                distances[i] = distance;
+            }
+            return top;
+        }
+
+        private void move(int from, int to) {
+            keys[to] = keys[from];
+            nodes[to] = nodes[from];
+            distances[to] = distances[from];
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.MultiResolutionPolyline;
+import com.tourplanner.backend.model.PackedPolyline;
+import com.tourplanner.backend.repository.RouteGeometryRepository;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory index over the segments of the stored route geometries, for "tours passing near here" queries.
+// Each route is kept once as quantized coordinates (simplified to the given zoom level, which only drops points
+// closer than a few meters to the line); the grid cells of cellDegrees hold references (route slot, segment) for
+// every cell the bounding box of a segment overlaps. A query visits the cells around its point, rejects segments
+// whose bounding box is outside the search box and projects the point onto the rest, so its cost depends on the
+// route segments nearby and not on the total number of route points.
+// TourServiceImpl keeps it in sync with the geometries it stores; those already stored are read on a background thread
+// at startup (or by the first query), and writes made while they are read are applied after them.
+@Component
+public class RouteCorridorIndex {
+    private static final Logger log = LogManager.getLogger(RouteCorridorIndex.class);
+    private static final double SCALE = PackedPolyline.SCALE;
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * 6_371_000;
+
+    // Nearest point of a tour's route to the query point, and how far along the route it lies
+    public record Match(long tourId, double distanceMeters, double latitude, double longitude, double metersAlong) {
+    }
+
+    private final RouteGeometryRepository routeGeometryRepository;
+    private final double cellDegrees;
+    private final int columns;
+    private final int zoom;
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Route[] routes = new Route[16];
+    private int usedSlots;
+    private long segmentCount;
+    private final boolean loadOnStartup;
+    private volatile boolean loaded;
+    // While the stored routes are read: the writes made meanwhile, in order, and the tours they touch, whose stored
+    // rows the load skips as it may have read them before the write. Null otherwise. Guarded by the lock.
+    private List<Runnable> pending;
+    private final Set<Long> pendingTours = new HashSet<>();
+
+    @Autowired
+    public RouteCorridorIndex(RouteGeometryRepository routeGeometryRepository,
+                              @Value("${app.corridor-index.cell-degrees:0.05}") double cellDegrees,
+                              @Value("${app.corridor-index.zoom:14}") int zoom,
+                              @Value("${app.corridor-index.load-on-startup:true}") boolean loadOnStartup) {
+        if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+            throw new IllegalArgumentException("Cell size must be between 0 and 90 degrees: " + cellDegrees);
+        }
+        this.routeGeometryRepository = routeGeometryRepository;
+        this.cellDegrees = cellDegrees;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+        this.zoom = Math.max(0, Math.min(MultiResolutionPolyline.MAX_ZOOM, zoom));
+        this.loadOnStartup = loadOnStartup;
+    }
+
+    // Index without a repository, empty and ready to use
+    RouteCorridorIndex(double cellDegrees, int zoom) {
+        this(null, cellDegrees, zoom, false);
+        this.loaded = true;
+    }
+
+    @PostConstruct
+    void loadOnStartup() {
+        if (!loadOnStartup) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                ensureLoaded();
+            } catch (RuntimeException e) {
+                log.warn("Could not index the stored routes, the first corridor query tries again", e);
+            }
+        }, "corridor-index-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Adds or replaces the route of a tour; an empty polyline removes it
+    public void put(long tourId, PackedPolyline points) {
+        Route route = points != null && !points.isEmpty() ? Route.of(tourId, simplified(points)) : null;
+        lock.writeLock().lock();
+        try {
+            apply(tourId, () -> replaceRoute(tourId, route));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long tourId) {
+        lock.writeLock().lock();
+        try {
+            apply(tourId, () -> removeRoute(tourId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Applies a write now, or after the stored routes while they are being read; the caller holds the write lock
+    private void apply(long tourId, Runnable write) {
+        if (pending != null) {
+            pendingTours.add(tourId);
+            pending.add(write);
+        } else {
+            write.run();
+        }
+    }
+
+    // At most `limit` tours whose route passes within radiusMeters of the point, nearest first. Distances are measured
+    // in a plane tangent at the point, which is accurate to well under 1 % for radii up to a few hundred kilometers.
+    // Segments are not split at the antimeridian.
+    public List<Match> near(double latitude, double longitude, double radiusMeters, int limit) {
+        ensureLoaded();
+        double latSpan = radiusMeters / METERS_PER_DEGREE;
+        double cos = Math.max(1e-6, Math.cos(Math.toRadians(latitude)));
+        double lonSpan = Math.min(180, latSpan / cos);
+        // Query box in quantized units, for the bounding box test of the segments
+        int minLat = (int) Math.floor((latitude - latSpan) * SCALE), maxLat = (int) Math.ceil((latitude + latSpan) * SCALE);
+        int minLon = (int) Math.floor((longitude - lonSpan) * SCALE), maxLon = (int) Math.ceil((longitude + lonSpan) * SCALE);
+        double spanSquared = latSpan * latSpan;
+        Map<Integer, Nearest> nearest = new HashMap<>();
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            forEachCell(latitude - latSpan, longitude - lonSpan, latitude + latSpan, longitude + lonSpan, cell -> {
+                for (int i = 0; i < cell.count; i++) {
+                    int slot = (int) (cell.refs[i] >>> 32);
+                    int segment = (int) cell.refs[i];
+                    Route route = routes[slot];
+                    int a = segment, b = Math.min(segment + 1, route.lats.length - 1);
+                    int aLat = route.lats[a], bLat = route.lats[b], aLon = route.lons[a], bLon = route.lons[b];
+                    if (Math.max(aLat, bLat) < minLat || Math.min(aLat, bLat) > maxLat
+                            || Math.max(aLon, bLon) < minLon || Math.min(aLon, bLon) > maxLon) {
+                        continue;
+                    }
+                    // Project onto the segment in degrees of latitude, longitudes scaled by the cosine at the point
+                    double ax = (aLon / SCALE - longitude) * cos, ay = aLat / SCALE - latitude;
+                    double dx = (bLon - aLon) / SCALE * cos, dy = (bLat - aLat) / SCALE;
+                    double lengthSquared = dx * dx + dy * dy;
+                    double t = lengthSquared > 0 ? Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared)) : 0;
+                    double x = ax + t * dx, y = ay + t * dy;
+                    double distanceSquared = x * x + y * y;
+                    if (distanceSquared <= spanSquared) {
+                        Nearest best = nearest.computeIfAbsent(slot, s -> new Nearest());
+                        if (distanceSquared < best.distanceSquared) {
+                            best.distanceSquared = distanceSquared;
+                            best.segment = segment;
+                            best.fraction = t;
+                        }
+                    }
+                }
+            });
+            nearest.entrySet().stream()
+                    .sorted(Comparator.comparingDouble(entry -> entry.getValue().distanceSquared))
+                    .limit(Math.max(0, limit))
+                    // The along-route distance is only worked out for the returned tours
+                    .forEach(entry -> matches.add(routes[entry.getKey()].match(entry.getValue())));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    // Number of indexed routes
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of indexed segments
+    public long segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segmentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Reads the stored routes that still belong to their tour's locations once. A row read by then may be older than
+    // a write made meanwhile, so the rows of the tours written are skipped and the queued writes applied after the
+    // rows instead. If reading fails, the index is left empty for the next query to try again.
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            boolean done = false;
+            try {
+                List<Object[]> rows = readGeometries();
+                // Decoded and simplified outside the lock, so queries and writes only wait for the cell updates
+                List<Route> stored = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    PackedPolyline points = row[1] != null
+                            ? PackedPolyline.fromBytes((byte[]) row[1])
+                            : row[2] != null ? PackedPolyline.of(PolylineCodec.decode((String) row[2])) : null;
+                    if (points != null && !points.isEmpty()) {
+                        stored.add(Route.of((Long) row[0], simplified(points)));
+                    }
+                }
+                lock.writeLock().lock();
+                try {
+                    for (Route route : stored) {
+                        if (!pendingTours.contains(route.tourId)) {
+                            replaceRoute(route.tourId, route);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                done = true;
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (done) {
+                        pending.forEach(Runnable::run);
+                    } else {
+                        cells.clear();
+                        slots.clear();
+                        freeSlots.clear();
+                        Arrays.fill(routes, null);
+                        usedSlots = 0;
+                        segmentCount = 0;
+                    }
+                    pending = null;
+                    pendingTours.clear();
+                    loaded = done;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Indexed {} routes with {} segments in {} cells in {} ms", size(), segmentCount(), cells.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // Rows [tour id, packed geometry, encoded polyline] of the stored routes that match their tour's locations
+    List<Object[]> readGeometries() {
+        return routeGeometryRepository.findAllCurrentGeometries();
+    }
+
+    private PackedPolyline simplified(PackedPolyline points) {
+        return zoom < MultiResolutionPolyline.MAX_ZOOM ? new MultiResolutionPolyline(points).forZoom(zoom) : points;
+    }
+
+    // Caller holds the write lock
+    private void replaceRoute(long tourId, Route route) {
+        removeRoute(tourId);
+        if (route != null) {
+            addRoute(route);
+        }
+    }
+
+    // Caller holds the write lock
+    private void addRoute(Route route) {
+        Integer free = freeSlots.poll();
+        int slot = free != null ? free : usedSlots++;
+        if (slot == routes.length) {
+            routes = Arrays.copyOf(routes, slot * 2);
+        }
+        routes[slot] = route;
+        slots.put(route.tourId, slot);
+        for (int segment = 0; segment < route.segments(); segment++) {
+            long ref = (long) slot << 32 | segment;
+            route.forEachCell(segment, this, key -> cells.computeIfAbsent(key, k -> new Cell()).add(ref));
+        }
+        segmentCount += route.segments();
+    }
+
+    // Caller holds the write lock
+    private void removeRoute(long tourId) {
+        Integer slot = slots.remove(tourId);
+        if (slot == null) {
+            return;
+        }
+        Route route = routes[slot];
+        Set<Long> keys = new HashSet<>();
+        for (int segment = 0; segment < route.segments(); segment++) {
+            route.forEachCell(segment, this, keys::add);
+        }
+        for (Long key : keys) {
+            Cell cell = cells.get(key);
+            if (cell != null && cell.removeSlot(slot) && cell.count == 0) {
+                cells.remove(key);
+            }
+        }
+        segmentCount -= route.segments();
+        routes[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    // Caller holds the read lock
+    private void forEachCell(double south, double west, double north, double east, CellVisitor visitor) {
+        int minRow = row(Math.max(-90, south));
+        int maxRow = row(Math.min(90, north));
+        int minCol = column(Math.max(-180, west));
+        int maxCol = column(Math.min(180, east));
+        long boxCells = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        if (boxCells > cells.size()) {
+            cells.forEach((key, cell) -> {
+                int row = (int) (key / columns);
+                int col = (int) (key % columns);
+                if (row >= minRow && row <= maxRow && col >= minCol && col <= maxCol) {
+                    visitor.visit(cell);
+                }
+            });
+            return;
+        }
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                Cell cell = cells.get((long) row * columns + col);
+                if (cell != null) {
+                    visitor.visit(cell);
+                }
+            }
+        }
+    }
+
+    private int row(double lat) {
+        return Math.min((int) Math.ceil(180 / cellDegrees) - 1, (int) Math.floor((lat + 90) / cellDegrees));
+    }
+
+    private int column(double lon) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((lon + 180) / cellDegrees)));
+    }
+
+    private interface CellVisitor {
+        void visit(Cell cell);
+    }
+
+    private interface KeyConsumer {
+        void accept(long key);
+    }
+
+    // Closest segment of a route found so far, squared distance in degrees of latitude
+    private static final class Nearest {
+        double distanceSquared = Double.MAX_VALUE;
+        int segment;
+        double fraction;
+    }
+
+    // Quantized points of one route; a single point counts as one segment of length zero
+    private static final class Route {
+        final long tourId;
+        final int[] lats;
+        final int[] lons;
+
+        private Route(long tourId, int[] lats, int[] lons) {
+            this.tourId = tourId;
+            this.lats = lats;
+            this.lons = lons;
+        }
+
+        static Route of(long tourId, PackedPolyline points) {
+            int[] lats = new int[points.size()];
+            int[] lons = new int[points.size()];
+            for (int i = 0; i < lats.length; i++) {
+                lats[i] = (int) Math.round(points.latitude(i) * SCALE);
+                lons[i] = (int) Math.round(points.longitude(i) * SCALE);
+            }
+            return new Route(tourId, lats, lons);
+        }
+
+        int segments() {
+            return Math.max(1, lats.length - 1);
+        }
+
+        // Keys of the cells overlapping the bounding box of the segment
+        void forEachCell(int segment, RouteCorridorIndex index, KeyConsumer consumer) {
+            int b = Math.min(segment + 1, lats.length - 1);
+            int minRow = index.row(Math.min(lats[segment], lats[b]) / SCALE);
+            int maxRow = index.row(Math.max(lats[segment], lats[b]) / SCALE);
+            int minCol = index.column(Math.min(lons[segment], lons[b]) / SCALE);
+            int maxCol = index.column(Math.max(lons[segment], lons[b]) / SCALE);
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    consumer.accept((long) row * index.columns + col);
+                }
+            }
+        }
+
+        // Match at the nearest point found on the route
+        Match match(Nearest nearest) {
+            int a = nearest.segment, b = Math.min(a + 1, lats.length - 1);
+            double lat = (lats[a] + nearest.fraction * (lats[b] - lats[a])) / SCALE;
+            double lon = (lons[a] + nearest.fraction * (lons[b] - lons[a])) / SCALE;
+            double along = 0;
+            for (int i = 0; i < a; i++) {
+                along += RoadGraph.distanceMeters(lats[i] / SCALE, lons[i] / SCALE, lats[i + 1] / SCALE, lons[i + 1] / SCALE);
+            }
+            along += RoadGraph.distanceMeters(lats[a] / SCALE, lons[a] / SCALE, lat, lon);
+            return new Match(tourId, Math.sqrt(nearest.distanceSquared) * METERS_PER_DEGREE, lat, lon, along);
+        }
+    }
+
+    // Segment references of one cell, (slot << 32 | segment)
+    private static final class Cell {
+        private long[] refs = new long[8];
+        private int count;
+
+        void add(long ref) {
+            if (count == refs.length) {
+                refs = Arrays.copyOf(refs, count * 2);
+            }
+            refs[count++] = ref;
+        }
+
+        // Drops every reference to the slot, returns whether there were any
+        boolean removeSlot(int slot) {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if ((int) (refs[i] >>> 32) != slot) {
+                    refs[kept++] = refs[i];
+                }
+            }
+            boolean removed = kept < count;
+            count = kept;
+            return removed;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.tourplanner.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tourplanner.backend.model.GeoCode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Plans and parses ORS matrix requests for a batch of routes. One matrix call answers every source x destination
+// combination of one profile, so a batch needs a handful of calls instead of one directions request per route.
+// Routes are split into chunks whose sources x destinations stay within the API's cell limit.
+final class RouteMatrix {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private RouteMatrix() {
+    }
+
+    // One matrix call. Locations are ids into the batch's distinct locations, sources and destinations are
+    // positions in the call's own location list, and for each route its row and column in the answer.
+    static final class Chunk {
+        private final Map<Integer, Integer> locations = new LinkedHashMap<>();
+        private final Map<Integer, Integer> sources = new LinkedHashMap<>();
+        private final Map<Integer, Integer> destinations = new LinkedHashMap<>();
+        private final List<Integer> routes = new ArrayList<>();
+        private final List<int[]> cells = new ArrayList<>();
+
+        // Cells of the matrix if the route from -> to was added
+        int cellsWith(int from, int to) {
+            int rows = sources.size() + (sources.containsKey(from) ? 0 : 1);
+            int columns = destinations.size() + (destinations.containsKey(to) ? 0 : 1);
+            return rows * columns;
+        }
+
+        void add(int route, int from, int to) {
+            locations.putIfAbsent(from, locations.size());
+            locations.putIfAbsent(to, locations.size());
+            int row = sources.computeIfAbsent(from, id -> sources.size());
+            int column = destinations.computeIfAbsent(to, id -> destinations.size());
+            routes.add(route);
+            cells.add(new int[]{row, column});
+        }
+
+        boolean isEmpty() {
+            return routes.isEmpty();
+        }
+
+        // Route ids of the chunk, in the order of cell()
+        List<Integer> routes() {
+            return routes;
+        }
+
+        // Row and column of the i-th route in the answer
+        int[] cell(int i) {
+            return cells.get(i);
+        }
+
+        int sourceCount() {
+            return sources.size();
+        }
+
+        int destinationCount() {
+            return destinations.size();
+        }
+
+        // Request body, coordinates holds the geocode of every location id used in the chunk
+        String requestBody(GeoCode[] coordinates) {
+            StringBuilder body = new StringBuilder(32 + locations.size() * 48);
+            body.append("{\"locations\":[");
+            boolean first = true;
+            for (int id : locations.keySet()) {
+                GeoCode geo = coordinates[id];
+                body.append(first ? "" : ",")
+                        .append(String.format(Locale.US, "[%f,%f]", geo.getLongitude(), geo.getLatitude()));
+                first = false;
+            }
+            body.append("],\"sources\":");
+            appendPositions(body, sources);
+            body.append(",\"destinations\":");
+            appendPositions(body, destinations);
+            body.append(",\"metrics\":[\"distance\",\"duration\"],\"units\":\"km\"}");
+            return body.toString();
+        }
+
+        private void appendPositions(StringBuilder body, Map<Integer, Integer> ids) {
+            body.append('[');
+            boolean first = true;
+            for (int id : ids.keySet()) {
+                body.append(first ? "" : ",").append(locations.get(id));
+                first = false;
+            }
+            body.append(']');
+        }
+    }
+
+    // Answer of one matrix call: distances in km, durations in seconds, NaN where ORS found no route
+    record Table(double[][] distances, double[][] durations) {
+        double distance(int row, int column) {
+            return distances[row][column];
+        }
+
+        double duration(int row, int column) {
+            return durations[row][column];
+        }
+    }
+
+    // Splits routes (pairs of location ids, routes[i] = {from, to}) into chunks of at most maxCells cells.
+    // Routes sharing a source or destination land in the same chunk while it has room, which keeps the matrices dense.
+    static List<Chunk> plan(int[][] routes, List<Integer> routeIds, int maxCells) {
+        List<Chunk> chunks = new ArrayList<>();
+        Chunk current = new Chunk();
+        for (int route : routeIds) {
+            int from = routes[route][0];
+            int to = routes[route][1];
+            if (!current.isEmpty() && current.cellsWith(from, to) > maxCells) {
+                chunks.add(current);
+                current = new Chunk();
+            }
+            current.add(route, from, to);
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    static Table parse(String json, int rows, int columns) throws IOException {
+        JsonNode root = mapper.readTree(json);
+        return new Table(readMatrix(root.path("distances"), rows, columns), readMatrix(root.path("durations"), rows, columns));
+    }
+
+    private static double[][] readMatrix(JsonNode node, int rows, int columns) {
+        double[][] values = new double[rows][columns];
+        for (int row = 0; row < rows; row++) {
+            JsonNode line = node.path(row);
+            for (int column = 0; column < columns; column++) {
+                JsonNode value = line.path(column);
+                values[row][column] = value.isNumber() ? value.asDouble() : Double.NaN;
+            }
+        }
+        return values;
+    }
+}
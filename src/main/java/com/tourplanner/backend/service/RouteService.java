@@ -1,12 +1,31 @@
 package com.tourplanner.backend.service;
 
+import com.tourplanner.backend.model.GeoCode;
 import com.tourplanner.backend.model.RouteData;
+import com.tourplanner.backend.model.RouteRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 // Service interface for route-related operations, which integrates with external APIs for route data.
 public interface RouteService {
 
     RouteData getRouteData(String fromLocation, String toLocation, String transportType);
 
+    // Non-blocking variant of getRouteData. Completes on the route service's own executor, never on the caller's thread,
+    // and cancelling the returned future aborts the geocoding and directions requests.
+    CompletableFuture<RouteData> getRouteDataAsync(String fromLocation, String toLocation, String transportType);
+
+    // Same with already geocoded endpoints: a location whose coordinates are given (not null) is not geocoded again.
+    // The result carries the coordinates it was computed for, so callers can store them.
+    CompletableFuture<RouteData> getRouteDataAsync(String fromLocation, String toLocation, String transportType,
+                                                   GeoCode fromCoordinates, GeoCode toCoordinates);
+
+    // Distance and duration of many routes at once, in request order. Duplicate locations are geocoded once and the
+    // routes come from ORS matrix calls, so the results carry no geometry; routes that fail get the approximate fallback.
+    // Coordinates given in the requests are used instead of geocoding.
+    CompletableFuture<List<RouteData>> getRouteDataBatch(List<RouteRequest> requests);
+
     //Geocode an address to coordinates (latitude, longitude).
     double[] geocode(String address);
 } 
\ No newline at end of file
@@ -1,9 +1,10 @@
 package com.tourplanner.backend.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tourplanner.backend.model.PackedPolyline;
 import com.tourplanner.backend.model.RouteData;
 import com.tourplanner.backend.model.GeoCode;
+import com.tourplanner.backend.model.RouteRequest;
+import jakarta.annotation.PreDestroy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,13 +12,25 @@ import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class RouteServiceImpl implements RouteService {
@@ -27,41 +40,49 @@ public class RouteServiceImpl implements RouteService {
     private String apiKey;
 
     private static final String API_URL = "https://api.openrouteservice.org/v2/directions/";
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String MATRIX_URL = "https://api.openrouteservice.org/v2/matrix/";
 
     private final MapService mapService;
+    private final SingleFlight<String, RouteData> inFlight = new SingleFlight<>();
+    // Routing work (parsing and continuations) runs here, never on the caller's (UI) thread
+    private final ExecutorService executor;
+    private final OrsHttpClient httpClient;
+    private final OrsCircuitBreaker circuitBreaker;
+    private final Duration timeout;
+    private final int batchGeocodeParallelism;
+    private final int matrixMaxCells;
 
     @Autowired
-    public RouteServiceImpl(@Autowired MapService mapService) {
+    public RouteServiceImpl(@Autowired MapService mapService, OrsHttpClient httpClient, OrsCircuitBreaker circuitBreaker,
+                            @Value("${app.routing.threads:4}") int threads,
+                            @Value("${app.routing.timeout-seconds:20}") long timeoutSeconds,
+                            @Value("${app.routing.batch-geocode-parallelism:8}") int batchGeocodeParallelism,
+                            @Value("${app.routing.matrix-max-cells:3500}") int matrixMaxCells) {
         this.mapService = mapService;
+        this.httpClient = httpClient;
+        this.circuitBreaker = circuitBreaker;
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.batchGeocodeParallelism = Math.max(1, batchGeocodeParallelism);
+        this.matrixMaxCells = Math.max(1, matrixMaxCells);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "route-worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     @Override
+    // Goes through MapService so the lookup is answered from the geocode cache when possible
     public double[] geocode(String address) {
         try {
-            String key = apiKey != null ? apiKey.trim() : "";
-            String url = "https://api.openrouteservice.org/geocode/search?api_key=" + key + "&text=" + java.net.URLEncoder.encode(address, java.nio.charset.StandardCharsets.UTF_8);
-
-            // Build the HTTP request
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Accept", "application/json")
-                    .GET()
-                    .build();
-            HttpClient client = HttpClient.newHttpClient();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() == 200) {
-                JsonNode root = objectMapper.readTree(response.body());
-                JsonNode features = root.get("features");
-                if (features != null && features.isArray() && features.size() > 0) {
-                    JsonNode coords = features.get(0).get("geometry").get("coordinates");
-                    double lon = coords.get(0).asDouble();
-                    double lat = coords.get(1).asDouble();
-                    return new double[]{lat, lon};
-                }
-            } else {
-                logger.error("Geocoding API error: HTTP {} - {}", response.statusCode(), response.body());
+            GeoCode geo = mapService.geocode(address).get();
+            if (geo != null) {
+                return new double[]{geo.getLatitude(), geo.getLongitude()};
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Interrupted while geocoding '{}'", address, e);
         } catch (Exception e) {
             logger.error("Error calling geocoding API", e);
         }
@@ -70,74 +91,310 @@ public class RouteServiceImpl implements RouteService {
 
     @Override
     public RouteData getRouteData(String fromLocation, String toLocation, String transportType) {
-        logger.info("Requesting route from '{}' to '{}' by '{}'", fromLocation, toLocation, transportType);
-        try {
-            // Use MapService to geocode addresses
-            GeoCode fromCoords = mapService.geocode(fromLocation).get();
-            GeoCode toCoords = mapService.geocode(toLocation).get();
-            if (fromCoords == null || toCoords == null) {
-                logger.error("Could not geocode one or both locations: {} -> {}", fromLocation, toLocation);
-                return null;
+        return getRouteDataAsync(fromLocation, toLocation, transportType).join();
+    }
+
+    @Override
+    public CompletableFuture<RouteData> getRouteDataAsync(String fromLocation, String toLocation, String transportType) {
+        return getRouteDataAsync(fromLocation, toLocation, transportType, null, null);
+    }
+
+    @Override
+    public CompletableFuture<RouteData> getRouteDataAsync(String fromLocation, String toLocation, String transportType,
+                                                          GeoCode fromCoordinates, GeoCode toCoordinates) {
+        // Concurrent requests for the same route wait for the first one instead of sending their own requests
+        String key = routeKey(fromLocation, toLocation, transportType);
+        return inFlight.execute(key, () -> loadRouteData(fromLocation, toLocation, transportType, fromCoordinates, toCoordinates));
+    }
+
+    @Override
+    public CompletableFuture<List<RouteData>> getRouteDataBatch(List<RouteRequest> requests) {
+        if (requests.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        // Distinct routes and distinct locations, so duplicates are geocoded and routed only once
+        Map<String, Integer> routeIds = new LinkedHashMap<>();
+        Map<String, Integer> locationIds = new LinkedHashMap<>();
+        List<RouteRequest> routes = new ArrayList<>();
+        List<String> locations = new ArrayList<>();
+        int[] routeOfRequest = new int[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            RouteRequest request = requests.get(i);
+            routeOfRequest[i] = routeIds.computeIfAbsent(
+                    routeKey(request.fromLocation(), request.toLocation(), request.transportType()), key -> {
+                        routes.add(request);
+                        return routes.size() - 1;
+                    });
+        }
+        int[][] endpoints = new int[routes.size()][];
+        Map<Integer, GeoCode> known = new HashMap<>();
+        for (int i = 0; i < routes.size(); i++) {
+            RouteRequest route = routes.get(i);
+            endpoints[i] = new int[]{
+                    locationId(route.fromLocation(), locationIds, locations),
+                    locationId(route.toLocation(), locationIds, locations)};
+            if (route.fromCoordinates() != null) {
+                known.put(endpoints[i][0], route.fromCoordinates());
             }
-            String profile = getProfile(transportType);
-            String url = API_URL + profile + "/geojson";
-            
-            // Debug: Log the coordinates
-            logger.info("From coordinates: lon={}, lat={}", fromCoords.getLongitude(), fromCoords.getLatitude());
-            logger.info("To coordinates: lon={}, lat={}", toCoords.getLongitude(), toCoords.getLatitude());
-            
-            String body = String.format(java.util.Locale.US,
-                    "{\"coordinates\":[[%f,%f],[%f,%f]],\"radiuses\":[5000,5000]}",
-                    fromCoords.getLongitude(), fromCoords.getLatitude(), toCoords.getLongitude(), toCoords.getLatitude());
-            
-            // Log the request body
-            logger.info("Request body: {}", body);
-            
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Authorization", apiKey)
-                    .header("Content-Type", "application/json")
-                    .header("User-Agent", "TourPlanner/1.0")
-                    .POST(HttpRequest.BodyPublishers.ofString(body))
-                    .build();
-            HttpClient client = HttpClient.newBuilder()
-                    .connectTimeout(java.time.Duration.ofSeconds(10))
-                    .build();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            logger.info("ORS API response status: {}", response.statusCode());
-            logger.debug("ORS API response: {}", response.body());
-
-            if (response.statusCode() == 200) {
-                JsonNode root = objectMapper.readTree(response.body());
-                double distance = root.at("/features/0/properties/segments/0/distance").asDouble() / 1000.0;
-                double duration = root.at("/features/0/properties/segments/0/duration").asDouble() / 3600.0;
-                List<RouteData.Coordinate> coords = new ArrayList<>();
-                for (JsonNode coord : root.at("/features/0/geometry/coordinates")) {
-                    coords.add(new RouteData.Coordinate(coord.get(1).asDouble(), coord.get(0).asDouble()));
-                }
-                logger.info("Parsed {} coordinates from ORS response", coords.size());
-                for (RouteData.Coordinate c : coords) {
-                    logger.info("Coordinate: lat={}, lon={}", c.getLatitude(), c.getLongitude());
+            if (route.toCoordinates() != null) {
+                known.put(endpoints[i][1], route.toCoordinates());
+            }
+        }
+        logger.info("Batch of {} routes: {} distinct routes between {} distinct locations, {} already geocoded",
+                requests.size(), routes.size(), locations.size(), known.size());
+
+        return geocodeAll(locations, known)
+                .thenComposeAsync(geocodes -> matrixRoutes(routes, endpoints, geocodes), executor)
+                .thenApply(results -> {
+                    List<RouteData> ordered = new ArrayList<>(requests.size());
+                    for (int route : routeOfRequest) {
+                        ordered.add(results[route]);
+                    }
+                    return ordered;
+                });
+    }
+
+    // Geocodes the locations with at most batchGeocodeParallelism lookups in flight; failed lookups stay null.
+    // Locations with known coordinates (by location id) are not looked up.
+    private CompletableFuture<GeoCode[]> geocodeAll(List<String> locations, Map<Integer, GeoCode> known) {
+        GeoCode[] results = new GeoCode[locations.size()];
+        known.forEach((id, geo) -> results[id] = geo);
+        AtomicInteger next = new AtomicInteger();
+        int missing = locations.size() - known.size();
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(batchGeocodeParallelism, missing)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = geocodeNext(locations, results, next);
+        }
+        return CompletableFuture.allOf(lanes).thenApply(v -> results);
+    }
+
+    // One lane of geocodeAll: takes the next location once its previous lookup finished
+    private CompletableFuture<Void> geocodeNext(List<String> locations, GeoCode[] results, AtomicInteger next) {
+        int claimed = next.getAndIncrement();
+        while (claimed < locations.size() && results[claimed] != null) {
+            claimed = next.getAndIncrement();
+        }
+        int index = claimed;
+        if (index >= locations.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return mapService.geocode(locations.get(index))
+                .handle((geo, error) -> {
+                    if (error != null) {
+                        logger.error("Error geocoding '{}'", locations.get(index), error);
+                    }
+                    results[index] = geo;
+                    return (Void) null;
+                })
+                // Async, so a long run of cache hits does not grow the stack
+                .thenComposeAsync(v -> geocodeNext(locations, results, next), executor);
+    }
+
+    // Distance and duration of every route, one group of matrix calls per routing profile
+    private CompletableFuture<RouteData[]> matrixRoutes(List<RouteRequest> routes, int[][] endpoints, GeoCode[] geocodes) {
+        RouteData[] results = new RouteData[routes.size()];
+        Map<String, List<Integer>> byProfile = new HashMap<>();
+        // While ORS is down every route gets the estimate, without sending matrix requests
+        boolean available = circuitBreaker.getState() == OrsCircuitBreaker.State.CLOSED;
+        for (int i = 0; available && i < routes.size(); i++) {
+            if (geocodes[endpoints[i][0]] == null || geocodes[endpoints[i][1]] == null) {
+                logger.error("Could not geocode one or both locations: {} -> {}", routes.get(i).fromLocation(), routes.get(i).toLocation());
+                continue;
+            }
+            byProfile.computeIfAbsent(getProfile(routes.get(i).transportType()), p -> new ArrayList<>()).add(i);
+        }
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        byProfile.forEach((profile, routeIds) -> {
+            for (RouteMatrix.Chunk chunk : RouteMatrix.plan(endpoints, routeIds, matrixMaxCells)) {
+                calls.add(requestMatrix(profile, chunk, routes, geocodes, results));
+            }
+        });
+        logger.info("Requesting {} routes in {} matrix calls", routes.size(), calls.size());
+        return CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+            // Whatever the matrix could not answer gets the approximate route
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    RouteRequest route = routes.get(i);
+                    results[i] = createFallbackRouteData(route.fromLocation(), route.toLocation(), route.transportType(),
+                            geocodes[endpoints[i][0]], geocodes[endpoints[i][1]]);
                 }
-                RouteData data = new RouteData(fromLocation, toLocation, transportType, distance, duration, coords);
-                data.setSummary(root.at("/features/0/properties/summary").toString());
-                return data;
+                results[i].setFromCoordinates(geocodes[endpoints[i][0]]);
+                results[i].setToCoordinates(geocodes[endpoints[i][1]]);
+            }
+            return results;
+        });
+    }
+
+    // One matrix call, writes the routes it answered into results. Never completes exceptionally.
+    private CompletableFuture<Void> requestMatrix(String profile, RouteMatrix.Chunk chunk, List<RouteRequest> routes,
+                                                  GeoCode[] geocodes, RouteData[] results) {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(MATRIX_URL + profile))
+                .header("Authorization", apiKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(chunk.requestBody(geocodes)));
+        return httpClient.sendAsync("matrix/" + profile, request)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .thenAcceptAsync(response -> {
+                    if (response.statusCode() != 200) {
+                        logger.error("ORS matrix error: HTTP {} - {}", response.statusCode(), response.body());
+                        return;
+                    }
+                    try {
+                        RouteMatrix.Table table = RouteMatrix.parse(response.body(), chunk.sourceCount(), chunk.destinationCount());
+                        for (int i = 0; i < chunk.routes().size(); i++) {
+                            int[] cell = chunk.cell(i);
+                            double distance = table.distance(cell[0], cell[1]);
+                            double duration = table.duration(cell[0], cell[1]);
+                            if (Double.isNaN(distance) || Double.isNaN(duration)) {
+                                continue;
+                            }
+                            RouteRequest route = routes.get(chunk.routes().get(i));
+                            // Matrix distances are requested in km, durations come in seconds
+                            results[chunk.routes().get(i)] = new RouteData(route.fromLocation(), route.toLocation(),
+                                    route.transportType(), distance, duration / 3600.0);
+                        }
+                    } catch (IOException e) {
+                        logger.error("Error parsing matrix response", e);
+                    }
+                }, executor)
+                .exceptionally(e -> {
+                    logger.error("Matrix request for {} routes failed", chunk.routes().size(), e);
+                    return null;
+                });
+    }
+
+    private static int locationId(String location, Map<String, Integer> ids, List<String> locations) {
+        return ids.computeIfAbsent(GeocodeCache.normalize(location), key -> {
+            locations.add(location);
+            return locations.size() - 1;
+        });
+    }
+
+    private static String routeKey(String fromLocation, String toLocation, String transportType) {
+        return GeocodeCache.normalize(fromLocation) + "|" + GeocodeCache.normalize(toLocation) + "|" + GeocodeCache.normalize(transportType);
+    }
+
+    // Stats of the in-flight request deduplication
+    public SingleFlight.Stats getInFlightStats() {
+        return inFlight.getStats();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Geocodes both locations in parallel, then requests the directions. Errors and timeouts end in the fallback route.
+    private CompletableFuture<RouteData> loadRouteData(String fromLocation, String toLocation, String transportType,
+                                                       GeoCode fromCoordinates, GeoCode toCoordinates) {
+        logger.info("Requesting route from '{}' to '{}' by '{}'", fromLocation, toLocation, transportType);
+        CompletableFuture<GeoCode> fromFuture = geocodeUnlessKnown(fromLocation, fromCoordinates);
+        CompletableFuture<GeoCode> toFuture = geocodeUnlessKnown(toLocation, toCoordinates);
+        AtomicReference<CompletableFuture<HttpResponse<InputStream>>> http = new AtomicReference<>();
+
+        CompletableFuture<RouteData> route = fromFuture.thenCombine(toFuture, (from, to) -> new GeoCode[]{from, to})
+                .thenComposeAsync(points -> {
+                    if (points[0] == null || points[1] == null) {
+                        logger.error("Could not geocode one or both locations: {} -> {}", fromLocation, toLocation);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    if (circuitBreaker.getState() != OrsCircuitBreaker.State.CLOSED) {
+                        // ORS is down, the estimate is returned right away instead of after a failed request
+                        return CompletableFuture.completedFuture(
+                                createFallbackRouteData(fromLocation, toLocation, transportType, points[0], points[1]));
+                    }
+                    return requestRoute(fromLocation, toLocation, transportType, points[0], points[1], http);
+                }, executor)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        CompletableFuture<RouteData> result = route.exceptionallyAsync(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof TimeoutException) {
+                logger.error("Route request from '{}' to '{}' timed out after {}", fromLocation, toLocation, timeout);
             } else {
-                logger.error("ORS API error: HTTP {} - {}", response.statusCode(), response.body());
+                logger.error("Error getting route data", cause);
+            }
+            return createFallbackRouteData(fromLocation, toLocation, transportType, geocoded(fromFuture), geocoded(toFuture));
+        }, executor);
+        // Once the result is settled (done, timed out or cancelled) nothing still running is needed any more
+        result.whenComplete((data, error) -> {
+            fromFuture.cancel(true);
+            toFuture.cancel(true);
+            route.cancel(true);
+            CompletableFuture<HttpResponse<InputStream>> request = http.get();
+            if (request != null) {
+                request.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<RouteData> requestRoute(String fromLocation, String toLocation, String transportType,
+                                                      GeoCode fromCoords, GeoCode toCoords,
+                                                      AtomicReference<CompletableFuture<HttpResponse<InputStream>>> http) {
+        String profile = getProfile(transportType);
+        String url = API_URL + profile + "/geojson";
+
+        // Debug: Log the coordinates
+        logger.info("From coordinates: lon={}, lat={}", fromCoords.getLongitude(), fromCoords.getLatitude());
+        logger.info("To coordinates: lon={}, lat={}", toCoords.getLongitude(), toCoords.getLatitude());
+
+        String body = String.format(java.util.Locale.US,
+                "{\"coordinates\":[[%f,%f],[%f,%f]],\"radiuses\":[5000,5000]}",
+                fromCoords.getLongitude(), fromCoords.getLatitude(), toCoords.getLongitude(), toCoords.getLatitude());
+
+        // Log the request body
+        logger.info("Request body: {}", body);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Authorization", apiKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        CompletableFuture<HttpResponse<InputStream>> sent = httpClient.sendAsyncStream("directions/" + profile, request);
+        http.set(sent);
+        return sent.thenApplyAsync(response ->
+                parseRoute(response, fromLocation, toLocation, transportType, fromCoords, toCoords), executor);
+    }
+
+    // Parses the directions response while it streams in, straight into packed coordinate arrays
+    private RouteData parseRoute(HttpResponse<InputStream> response, String fromLocation, String toLocation, String transportType,
+                                 GeoCode fromCoords, GeoCode toCoords) {
+        logger.info("ORS API response status: {}", response.statusCode());
+        try (InputStream body = OrsHttpClient.decodedBody(response)) {
+            if (response.statusCode() != 200) {
+                logger.error("ORS API error: HTTP {} - {}", response.statusCode(), new String(body.readAllBytes(), StandardCharsets.UTF_8));
                 // Fallback: calculate approximate distance using Haversine formula
                 return createFallbackRouteData(fromLocation, toLocation, transportType, fromCoords, toCoords);
             }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Error geocoding locations", e);
-            Thread.currentThread().interrupt();
-            return createFallbackRouteData(fromLocation, toLocation, transportType, null, null);
-        } catch (Exception e) {
-            logger.error("Error getting route data", e);
-            return createFallbackRouteData(fromLocation, toLocation, transportType, null, null);
+            DirectionsParser.Result parsed = DirectionsParser.parse(body);
+            logger.info("Parsed {} coordinates from ORS response", parsed.pointCount());
+            RouteData data = new RouteData(fromLocation, toLocation, transportType,
+                    parsed.distance() / 1000.0, parsed.duration() / 3600.0,
+                    PackedPolyline.quantized(parsed.latitudes(), parsed.longitudes()));
+            data.setSummary(parsed.summary());
+            data.setFromCoordinates(fromCoords);
+            data.setToCoordinates(toCoords);
+            return data;
+        } catch (IOException e) {
+            logger.error("Error parsing route data", e);
+            return createFallbackRouteData(fromLocation, toLocation, transportType, fromCoords, toCoords);
         }
     }
 
-    private String getProfile(String transportType) {
+    // Given coordinates, or the geocode of the location (also used by OfflineRouteService)
+    CompletableFuture<GeoCode> geocodeUnlessKnown(String location, GeoCode coordinates) {
+        return coordinates != null ? CompletableFuture.completedFuture(coordinates) : mapService.geocode(location);
+    }
+
+    // Result of a finished geocode future, or null if it failed or is still running
+    static GeoCode geocoded(CompletableFuture<GeoCode> future) {
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+    }
+
+    // ORS profile of a transport type, also the profile OfflineRouteService routes with
+    static String getProfile(String transportType) {
         if (transportType == null) return "driving-car";
         switch (transportType.toLowerCase()) {
             case "foot": return "foot-walking";
@@ -148,7 +405,7 @@ public class RouteServiceImpl implements RouteService {
     }
     
     //Create fallback route data when API fails, using approximate calculations.
-    private RouteData createFallbackRouteData(String fromLocation, String toLocation, String transportType, 
+    RouteData createFallbackRouteData(String fromLocation, String toLocation, String transportType, 
                                              GeoCode fromCoords, GeoCode toCoords) {
         double distance = 0.0;
         double duration = 0.0;
@@ -189,6 +446,9 @@ public class RouteServiceImpl implements RouteService {
         
         RouteData data = new RouteData(fromLocation, toLocation, transportType, distance, duration, coords);
         data.setSummary("Approximate route (API unavailable)");
+        data.setApproximate(true);
+        data.setFromCoordinates(fromCoords);
+        data.setToCoordinates(toCoords);
         return data;
     }
     
@@ -0,0 +1,109 @@
+package com.tourplanner.backend.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Deduplicates concurrent requests for the same key: while a call is in flight, further callers share its result
+// instead of starting their own. Failed calls are not remembered, the next caller after completion starts a new one.
+// Every caller gets its own future, so cancelling it only detaches that caller. The underlying call is only
+// cancelled once every caller has cancelled.
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Call<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        calls.incrementAndGet();
+        while (true) {
+            Call<V> call = inFlight.get(key);
+            if (call == null) {
+                Call<V> created = new Call<>();
+                Call<V> existing = inFlight.putIfAbsent(key, created);
+                if (existing == null) {
+                    CompletableFuture<V> result = created.subscribe();
+                    start(key, created, loader);
+                    return result;
+                }
+                call = existing;
+            }
+            CompletableFuture<V> result = call.subscribe();
+            if (result != null) {
+                coalesced.incrementAndGet();
+                return result;
+            }
+            // Every caller of this call cancelled in the meantime, so it is being torn down; start a fresh one
+            inFlight.remove(key, call);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(calls.get(), coalesced.get(), inFlight.size());
+    }
+
+    private void start(K key, Call<V> call, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> source;
+        try {
+            source = loader.get();
+        } catch (Throwable e) {
+            inFlight.remove(key, call);
+            call.shared.completeExceptionally(e);
+            return;
+        }
+        call.attach(source);
+        source.whenComplete((value, error) -> {
+            // Remove first, so callers arriving after completion do not get a stale result
+            inFlight.remove(key, call);
+            if (error != null) {
+                call.shared.completeExceptionally(error);
+            } else {
+                call.shared.complete(value);
+            }
+        });
+    }
+
+    private static final class Call<V> {
+        private final CompletableFuture<V> shared = new CompletableFuture<>();
+        private CompletableFuture<V> source;
+        private int subscribers;
+        private boolean abandoned;
+
+        // Returns a caller-owned view of the shared result, or null if the call was abandoned
+        synchronized CompletableFuture<V> subscribe() {
+            if (abandoned) {
+                return null;
+            }
+            subscribers++;
+            CompletableFuture<V> view = shared.copy();
+            view.whenComplete((value, error) -> {
+                if (view.isCancelled()) {
+                    unsubscribe();
+                }
+            });
+            return view;
+        }
+
+        synchronized void attach(CompletableFuture<V> source) {
+            this.source = source;
+            if (abandoned) {
+                source.cancel(true);
+            }
+        }
+
+        private synchronized void unsubscribe() {
+            subscribers--;
+            if (subscribers == 0 && !shared.isDone()) {
+                abandoned = true;
+                if (source != null) {
+                    source.cancel(true);
+                }
+                shared.cancel(false);
+            }
+        }
+    }
+
+    // calls: total requests, coalesced: requests that joined an in-flight call, inFlight: calls currently running
+    public record Stats(long calls, long coalesced, int inFlight) { }
+}
@@ -0,0 +1,203 @@
+package com.tourplanner.backend.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// On-disk cache of map tiles in {z}/{x}/{y}.png files, limited to maxBytes. The least recently used tiles are
+// deleted first; the order is kept in memory and in the files' modification times, so it survives restarts.
+// Tiles are written to a temporary file and moved into place, so a crash never leaves a half-written tile.
+public class TileCache {
+    private static final Logger log = LogManager.getLogger(TileCache.class);
+    // A hit only updates the file time once it is this old, most hits then cost no write at all
+    private static final long TOUCH_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static final class Entry {
+        final long bytes;
+        long touched;
+
+        Entry(long bytes, long touched) {
+            this.bytes = bytes;
+            this.touched = touched;
+        }
+    }
+
+    // Opens the cache in the directory, picking up the tiles already there
+    public TileCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        scan();
+    }
+
+    // The tile, null if it is not cached
+    public byte[] get(int zoom, int x, int y) {
+        String key = key(zoom, x, y);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        Path file = directory.resolve(key);
+        try {
+            byte[] tile = Files.readAllBytes(file);
+            long now = System.currentTimeMillis();
+            if (now - entry.touched > TOUCH_MILLIS) {
+                entry.touched = now;
+                Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+            }
+            hits.incrementAndGet();
+            return tile;
+        } catch (NoSuchFileException e) {
+            // Evicted in the meantime, or deleted by hand
+            forget(key, entry);
+        } catch (IOException e) {
+            log.warn("Could not read cached tile {}", file, e);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(int zoom, int x, int y, byte[] tile) {
+        String key = key(zoom, x, y);
+        Path file = directory.resolve(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), y + "-", ".tmp");
+            Files.write(temp, tile);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            log.warn("Could not cache tile {}", file, e);
+            return;
+        }
+        List<String> evicted;
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(tile.length, System.currentTimeMillis()));
+            totalBytes += tile.length - (previous != null ? previous.bytes : 0);
+            evicted = evict(key);
+        }
+        delete(evicted);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(entries.size(), totalBytes, maxBytes, hits.get(), misses.get(), evictions.get());
+    }
+
+    // Loads the tiles on disk, least recently used first, and drops leftovers of interrupted writes
+    private void scan() throws IOException {
+        long start = System.nanoTime();
+        List<Path> tiles = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    delete(List.of(directory.relativize(file).toString()));
+                } else if (file.getFileName().toString().endsWith(".png")) {
+                    tiles.add(file);
+                }
+            });
+        }
+        record Found(String key, long modified, long bytes) { }
+        List<Found> found = new ArrayList<>(tiles.size());
+        for (Path file : tiles) {
+            String key = directory.relativize(file).toString().replace('\\', '/');
+            found.add(new Found(key, Files.getLastModifiedTime(file).toMillis(), Files.size(file)));
+        }
+        found.sort(Comparator.comparingLong(Found::modified));
+        List<String> evicted;
+        synchronized (this) {
+            for (Found f : found) {
+                entries.put(f.key(), new Entry(f.bytes(), f.modified()));
+                totalBytes += f.bytes();
+            }
+            evicted = evict(null);
+        }
+        delete(evicted);
+        log.info("Tile cache {}: {} tiles, {} KB in {} ms", directory, size(), totalBytes() / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Caller holds the lock. Drops the least recently used tiles (except `keep`) until the cache fits again,
+    // returns their keys for deleting the files outside the lock.
+    private List<String> evict(String keep) {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            iterator.remove();
+            totalBytes -= eldest.getValue().bytes;
+            evicted.add(eldest.getKey());
+            evictions.incrementAndGet();
+        }
+        return evicted;
+    }
+
+    private synchronized void forget(String key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            totalBytes -= entry.bytes;
+        }
+    }
+
+    private void delete(List<String> keys) {
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(directory.resolve(key));
+            } catch (IOException e) {
+                log.warn("Could not delete cached tile {}", key, e);
+            }
+        }
+    }
+
+    private static String key(int zoom, int x, int y) {
+        return zoom + "/" + x + "/" + y + ".png";
+    }
+
+    // tiles and bytes: current content; hits/misses of get; evictions: tiles deleted to stay below maxBytes
+    public record Stats(int tiles, long bytes, long maxBytes, long hits, long misses, long evictions) { }
+}
@@ -0,0 +1,278 @@
+package com.tourplanner.backend.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Local HTTP endpoint for the map page, so opening a map reads from disk instead of unpkg and the OSM tile servers:
+//  /leaflet/<file>          Leaflet's script, stylesheet and images: from the jar (com/tourplanner/leaflet), else
+//                           from the asset directory, else downloaded once from app.leaflet.upstream into it
+//  /tiles/{z}/{x}/{y}.png   tiles from the pre-seeded directory, else from the TileCache, else from the upstream
+//                           tile server (then cached)
+// With no upstream configured (app.tiles.upstream empty) only seeded and cached tiles are served, without network.
+// The server listens on the loopback interface only and is started on first use.
+@Component
+public class TileServer {
+    private static final Logger log = LogManager.getLogger(TileServer.class);
+    private static final Pattern TILE_PATH = Pattern.compile("/tiles/(\\d{1,2})/(\\d{1,7})/(\\d{1,7})\\.png");
+    private static final Pattern ASSET_PATH = Pattern.compile("/leaflet/((?:images/)?[A-Za-z0-9_-]+(?:\\.[A-Za-z0-9]+)+)");
+    private static final int MAX_ZOOM = 20;
+    // Tiles and assets do not change while the application runs, so the WebView may keep them for the session
+    private static final String CACHE_CONTROL = "public, max-age=86400";
+
+    private final SingleFlight<String, byte[]> fetches = new SingleFlight<>();
+    private final String cacheDirectory;
+    private final long cacheMaxBytes;
+    private final int port;
+    private TileSource seed;
+    private TileSource upstream;
+    private Path assetDirectory;
+    private String assetUpstream;
+    private TileCache cache;
+    private HttpServer server;
+    private ExecutorService executor;
+    private HttpClient assetClient;
+
+    @Autowired
+    public TileServer(@Value("${app.tiles.cache-dir:./tourplanner-data/tiles}") String cacheDirectory,
+                      @Value("${app.tiles.cache-max-mb:256}") long cacheMaxMb,
+                      @Value("${app.tiles.seed-dir:}") String seedDirectory,
+                      @Value("${app.tiles.upstream:https://tile.openstreetmap.org/{z}/{x}/{y}.png}") String upstream,
+                      @Value("${app.leaflet.dir:./tourplanner-data/leaflet}") String assetDirectory,
+                      @Value("${app.leaflet.upstream:https://unpkg.com/leaflet@1.9.4/dist/}") String assetUpstream,
+                      @Value("${app.tiles.port:0}") int port) {
+        this.cacheDirectory = cacheDirectory;
+        this.cacheMaxBytes = cacheMaxMb * 1024 * 1024;
+        this.port = port;
+        this.seed = seedDirectory == null || seedDirectory.isBlank() ? null : TileSource.directory(Path.of(seedDirectory.trim()));
+        this.upstream = upstream == null || upstream.isBlank() ? null : TileSource.http(upstream.trim());
+        this.assetDirectory = Path.of(assetDirectory);
+        this.assetUpstream = assetUpstream == null || assetUpstream.isBlank() ? null : assetUpstream.trim();
+    }
+
+    // Server over the given cache and sources (either may be null), on a free port
+    TileServer(TileCache cache, TileSource seed, TileSource upstream, Path assetDirectory, String assetUpstream) {
+        this(null, 1, null, null, assetDirectory.toString(), assetUpstream, 0);
+        this.cache = cache;
+        this.seed = seed;
+        this.upstream = upstream;
+    }
+
+    // http://127.0.0.1:<port>, starting the server if needed; null if it cannot be started
+    public synchronized String getBaseUrl() {
+        if (server == null && !start()) {
+            return null;
+        }
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public TileCache.Stats getCacheStats() {
+        TileCache current;
+        synchronized (this) {
+            current = cache;
+        }
+        return current != null ? current.getStats() : null;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    // Caller holds the lock
+    private boolean start() {
+        try {
+            if (cache == null) {
+                cache = new TileCache(Path.of(cacheDirectory), cacheMaxBytes);
+            }
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(4, r -> {
+                Thread t = new Thread(r, "tile-server-" + threadCount.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/tiles/", this::handleTile);
+            server.createContext("/leaflet/", this::handleAsset);
+            server.setExecutor(executor);
+            server.start();
+            log.info("Tile server listening on port {}, upstream {}", server.getAddress().getPort(),
+                    upstream != null ? "enabled" : "disabled");
+            return true;
+        } catch (IOException e) {
+            log.error("Could not start the tile server, the map loads from the internet", e);
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+            server = null;
+            return false;
+        }
+    }
+
+    private void handleTile(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Matcher matcher = TILE_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!"GET".equals(exchange.getRequestMethod()) || !matcher.matches()) {
+                send(exchange, 404, null, null);
+                return;
+            }
+            int zoom = Integer.parseInt(matcher.group(1));
+            int x = Integer.parseInt(matcher.group(2));
+            int y = Integer.parseInt(matcher.group(3));
+            if (zoom > MAX_ZOOM || x >= 1 << zoom || y >= 1 << zoom) {
+                send(exchange, 404, null, null);
+                return;
+            }
+            try {
+                byte[] tile = tile(zoom, x, y);
+                send(exchange, tile != null ? 200 : 404, "image/png", tile);
+            } catch (IOException | CompletionException e) {
+                log.debug("Could not load tile {}/{}/{}", zoom, x, y, e);
+                send(exchange, 502, null, null);
+            }
+        }
+    }
+
+    // Seeded, cached or fetched tile; concurrent requests for the same missing tile share one download
+    byte[] tile(int zoom, int x, int y) throws IOException {
+        if (seed != null) {
+            byte[] tile = seed.fetch(zoom, x, y);
+            if (tile != null) {
+                return tile;
+            }
+        }
+        byte[] cached = cache.get(zoom, x, y);
+        if (cached != null || upstream == null) {
+            return cached;
+        }
+        return fetches.execute(zoom + "/" + x + "/" + y, () -> {
+            try {
+                byte[] tile = upstream.fetch(zoom, x, y);
+                if (tile != null) {
+                    cache.put(zoom, x, y, tile);
+                }
+                return CompletableFuture.completedFuture(tile);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }).join();
+    }
+
+    private void handleAsset(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Matcher matcher = ASSET_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!"GET".equals(exchange.getRequestMethod()) || !matcher.matches()) {
+                send(exchange, 404, null, null);
+                return;
+            }
+            String name = matcher.group(1);
+            byte[] asset = asset(name);
+            send(exchange, asset != null ? 200 : 404, contentType(name), asset);
+        }
+    }
+
+    // Leaflet file from the jar, the asset directory or (stored there once downloaded) the upstream
+    private byte[] asset(String name) {
+        try (InputStream bundled = TileServer.class.getResourceAsStream("/com/tourplanner/leaflet/" + name)) {
+            if (bundled != null) {
+                return bundled.readAllBytes();
+            }
+            Path file = assetDirectory.resolve(name);
+            if (Files.isRegularFile(file)) {
+                return Files.readAllBytes(file);
+            }
+            if (assetUpstream == null) {
+                return null;
+            }
+            byte[] downloaded = downloadAsset(name);
+            if (downloaded != null) {
+                Files.createDirectories(file.getParent());
+                Path temp = Files.createTempFile(file.getParent(), "asset-", ".tmp");
+                Files.write(temp, downloaded);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                log.info("Downloaded Leaflet asset {}", name);
+            }
+            return downloaded;
+        } catch (IOException e) {
+            log.warn("Could not load Leaflet asset {}", name, e);
+            return null;
+        }
+    }
+
+    private byte[] downloadAsset(String name) throws IOException {
+        synchronized (this) {
+            if (assetClient == null) {
+                assetClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5))
+                        .followRedirects(HttpClient.Redirect.NORMAL).build();
+            }
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(assetUpstream + name))
+                .timeout(Duration.ofSeconds(15))
+                .header("User-Agent", TileSource.USER_AGENT)
+                .GET()
+                .build();
+        try {
+            HttpResponse<byte[]> response = assetClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            return response.statusCode() == 200 ? response.body() : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading " + name, e);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Cache-Control", CACHE_CONTROL);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String contentType(String name) {
+        if (name.endsWith(".js")) {
+            return "application/javascript";
+        } else if (name.endsWith(".css")) {
+            return "text/css";
+        } else if (name.endsWith(".png")) {
+            return "image/png";
+        } else if (name.endsWith(".svg")) {
+            return "image/svg+xml";
+        }
+        return "application/octet-stream";
+    }
+}
@@ -0,0 +1,64 @@
+package com.tourplanner.backend.service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Where TileServer gets map tiles it does not have cached: a tile server upstream, or a directory of pre-seeded tiles
+// in the usual {z}/{x}/{y}.png layout (which a copy of the tile cache also has).
+@FunctionalInterface
+public interface TileSource {
+
+    String USER_AGENT = "TourPlanner/1.0";
+
+    // The PNG of the tile, null if the source has none
+    byte[] fetch(int zoom, int x, int y) throws IOException;
+
+    static TileSource directory(Path root) {
+        return (zoom, x, y) -> {
+            try {
+                return Files.readAllBytes(root.resolve(zoom + "/" + x + "/" + y + ".png"));
+            } catch (NoSuchFileException e) {
+                return null;
+            }
+        };
+    }
+
+    // Tile server with a URL template like https://tile.openstreetmap.org/{z}/{x}/{y}.png. Tile servers want the
+    // application named in the User-Agent.
+    static TileSource http(String urlTemplate) {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        return (zoom, x, y) -> {
+            String url = urlTemplate.replace("{z}", String.valueOf(zoom))
+                    .replace("{x}", String.valueOf(x))
+                    .replace("{y}", String.valueOf(y));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(15))
+                    .header("User-Agent", USER_AGENT)
+                    .GET()
+                    .build();
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() == 404) {
+                    return null;
+                }
+                if (response.statusCode() != 200) {
+                    throw new IOException("Tile server answered " + response.statusCode() + " for " + url);
+                }
+                return response.body();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + url, e);
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.tourplanner.backend.service;
+
+import java.util.function.LongSupplier;
+
+// Token bucket that hands out reservations instead of blocking. reserve() takes a token, going into debt when none
+// is left, and returns how long the caller has to wait before using it, so waiting callers line up in time order.
+// The rate adapts to the server: a throttled answer halves it and pauses the bucket, every success wins a bit back.
+public class TokenBucket {
+
+    private static final double NANOS_PER_MINUTE = 60e9;
+
+    private final double maxRate;  // tokens per nanosecond
+    private final double minRate;
+    private final double capacity;
+    private final LongSupplier clock;
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    public TokenBucket(double permitsPerMinute, double burst) {
+        this(permitsPerMinute, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerMinute, double burst, LongSupplier clock) {
+        if (permitsPerMinute <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.maxRate = permitsPerMinute / NANOS_PER_MINUTE;
+        // Never slower than a tenth of the plan, so the bucket recovers in reasonable time
+        this.minRate = maxRate / 10;
+        this.capacity = burst;
+        this.clock = clock;
+        this.rate = maxRate;
+        this.tokens = burst;
+        this.lastRefill = clock.getAsLong();
+        this.pausedUntil = lastRefill;
+    }
+
+    // Takes a token and returns the nanoseconds to wait before it may be used (0 if it is available right away)
+    public synchronized long reserve() {
+        long now = clock.getAsLong();
+        refill(now);
+        tokens -= 1;
+        long paused = Math.max(0, pausedUntil - now);
+        long debt = tokens < 0 ? (long) Math.ceil(-tokens / rate) : 0;
+        return paused + debt;
+    }
+
+    // The server rejected a request for exceeding the quota: a single token once it allows requests again, then half the rate
+    public synchronized void throttle(long retryAfterNanos) {
+        long now = clock.getAsLong();
+        refill(now);
+        tokens = Math.min(tokens, 1);
+        rate = Math.max(minRate, rate / 2);
+        pausedUntil = Math.max(pausedUntil, now + retryAfterNanos);
+    }
+
+    // A request went through: additive increase back towards the configured rate
+    public synchronized void succeeded() {
+        rate = Math.min(maxRate, rate + maxRate / 20);
+    }
+
+    // Tokens left right now without taking one, negative while reservations are in debt, zero while paused
+    public synchronized double available() {
+        long now = clock.getAsLong();
+        refill(now);
+        return now < pausedUntil ? Math.min(0, tokens) : tokens;
+    }
+
+    // Burst size the bucket refills up to
+    public double getCapacity() {
+        return capacity;
+    }
+
+    public synchronized double getPermitsPerMinute() {
+        return rate * NANOS_PER_MINUTE;
+    }
+
+    private void refill(long now) {
+        long from = Math.max(lastRefill, pausedUntil);
+        if (now > from) {
+            tokens = Math.min(capacity, tokens + (now - from) * rate);
+        }
+        lastRefill = Math.max(lastRefill, now);
+    }
+}
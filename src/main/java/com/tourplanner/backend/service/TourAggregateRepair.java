@@ -0,0 +1,50 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.repository.TourRepository;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+// Recomputes the log count, sums, time range and latest date stored on every tour from the tour logs, in one
+// statement. TourLogServiceImpl keeps them current, so this only matters for databases from before they were stored,
+// logs changed outside the application, and the rounding that adding and subtracting sums builds up over time.
+// Recomputing reads every log, so on startup it only runs for a database whose tours have logs but no stored count
+// (unless repair-on-startup asks for it every time); otherwise call repair() when needed.
+@Component
+public class TourAggregateRepair {
+    private static final Logger log = LogManager.getLogger(TourAggregateRepair.class);
+
+    private final TourRepository tourRepository;
+    private final boolean onStartup;
+
+    @Autowired
+    public TourAggregateRepair(TourRepository tourRepository,
+                               @Value("${app.tour-aggregates.repair-on-startup:false}") boolean onStartup) {
+        this.tourRepository = tourRepository;
+        this.onStartup = onStartup;
+    }
+
+    @PostConstruct
+    void repairOnStartup() {
+        if (onStartup || needsRepair()) {
+            repair();
+        }
+    }
+
+    // Whether some tour has logs but no stored count, looking for one such tour only
+    public boolean needsRepair() {
+        return !tourRepository.findIdsWithUncountedLogs(PageRequest.of(0, 1)).isEmpty();
+    }
+
+    // Returns the number of tours recomputed
+    public int repair() {
+        long start = System.nanoTime();
+        int tours = tourRepository.recomputeLogAggregates();
+        log.info("Recomputed log aggregates of {} tours in {} ms", tours, (System.nanoTime() - start) / 1_000_000);
+        return tours;
+    }
+}
@@ -1,5 +1,6 @@
 package com.tourplanner.backend.service;
 
+import com.tourplanner.backend.dto.PageDTO;
 import com.tourplanner.backend.dto.TourLogDTO;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -11,6 +12,17 @@ public interface TourLogService {
 
     List<TourLogDTO> getTourLogsByTourId(Long tourId);
 
+    // Keyset-paginated variants, ordered by date then id: pass null for the first page, then the page's nextCursor.
+    // size is capped at 1000.
+    PageDTO<TourLogDTO> getTourLogsPage(String cursor, int size);
+    PageDTO<TourLogDTO> getTourLogsPageByTourId(Long tourId, String cursor, int size);
+
+    // For jumping into the middle (tourId null for all logs): the cursor rows (> 0) rows on from the given one (null:
+    // the start), and the cursor after which only the last rows logs come. Null if there are not that many logs. Skips
+    // the keys in between, so the cost grows with rows: start from the nearest cursor known, or from the end.
+    String getTourLogsCursorAfter(Long tourId, String cursor, long rows);
+    String getTourLogsCursorBeforeLast(Long tourId, long rows);
+
     TourLogDTO createTourLog(TourLogDTO tourLog);
 
     TourLogDTO updateTourLog(TourLogDTO tourLog);
@@ -20,5 +32,12 @@ public interface TourLogService {
 
     List<TourLogDTO> searchTourLogs(String searchText);
 
+    // Ranked full-text search over the comments (see TourTextIndex): the (at most limit) logs of the tour, or of all
+    // tours for null, containing every word of the query as a word or the start of one, best match first
+    List<TourLogDTO> searchTourLogsRanked(Long tourId, String query, int limit);
+
+    // Counts from the log aggregates stored on the tours, without counting log rows
     Long getTourLogCountByTourId(Long tourId);
+
+    Long getTourLogCount();
 } 
\ No newline at end of file
@@ -2,25 +2,38 @@ package com.tourplanner.backend.service;
 
 import com.tourplanner.backend.model.Tour;
 import com.tourplanner.backend.model.TourLog;
+import com.tourplanner.backend.dto.PageDTO;
 import com.tourplanner.backend.dto.TourLogDTO;
 import com.tourplanner.backend.repository.TourLogRepository;
 import com.tourplanner.backend.repository.TourRepository;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @Service
 public class TourLogServiceImpl implements TourLogService {
     private final TourLogRepository tourLogRepository;
     private final TourRepository tourRepository;
+    private final TourTextIndex textIndex;
 
     @Autowired
-    public TourLogServiceImpl(TourLogRepository tourLogRepository, TourRepository tourRepository) {
+    public TourLogServiceImpl(TourLogRepository tourLogRepository, TourRepository tourRepository,
+                              TourTextIndex textIndex) {
         this.tourLogRepository = tourLogRepository;
         this.tourRepository = tourRepository;
+        this.textIndex = textIndex;
     }
 
     @Override
@@ -34,17 +47,102 @@ public class TourLogServiceImpl implements TourLogService {
     }
 
     @Override
+    public PageDTO<TourLogDTO> getTourLogsPage(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<TourLog> logs = after == null
+                ? tourLogRepository.findFirstPage(PageCursor.limit(size))
+                : tourLogRepository.findPageAfter(dateTime(after), after.id(), PageCursor.limit(size));
+        return PageCursor.page(logs, size, this::toDTO, this::cursorOf);
+    }
+
+    @Override
+    public PageDTO<TourLogDTO> getTourLogsPageByTourId(Long tourId, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<TourLog> logs = after == null
+                ? tourLogRepository.findFirstPageByTourId(tourId, PageCursor.limit(size))
+                : tourLogRepository.findPageAfterByTourId(tourId, dateTime(after), after.id(), PageCursor.limit(size));
+        return PageCursor.page(logs, size, this::toDTO, this::cursorOf);
+    }
+
+    @Override
+    public String getTourLogsCursorAfter(Long tourId, String cursor, long rows) {
+        return walkKeys(PageCursor.decode(cursor), rows, (at, row) -> {
+            if (at == null) {
+                return tourId == null ? tourLogRepository.findKeys(row) : tourLogRepository.findKeysByTourId(tourId, row);
+            }
+            return tourId == null
+                    ? tourLogRepository.findKeysAfter(dateTime(at), at.id(), row)
+                    : tourLogRepository.findKeysAfterByTourId(tourId, dateTime(at), at.id(), row);
+        });
+    }
+
+    @Override
+    public String getTourLogsCursorBeforeLast(Long tourId, long rows) {
+        // The key of the row just before the last rows ones, counted backwards
+        return walkKeys(null, rows + 1, (at, row) -> {
+            if (at == null) {
+                return tourId == null ? tourLogRepository.findLastKeys(row) : tourLogRepository.findLastKeysByTourId(tourId, row);
+            }
+            return tourId == null
+                    ? tourLogRepository.findKeysBefore(dateTime(at), at.id(), row)
+                    : tourLogRepository.findKeysBeforeByTourId(tourId, dateTime(at), at.id(), row);
+        });
+    }
+
+    // Skips rows keys from the given one (keys only, no entities) and returns the cursor of the last; null if there
+    // are fewer. The query starts at the given key as an index range and skips with OFFSET, which H2 does row by row,
+    // so the cost grows with rows, not with where the key is. An OFFSET is an int; beyond that it goes on in steps.
+    private static String walkKeys(PageCursor from, long rows, BiFunction<PageCursor, Pageable, List<Object[]>> keysFrom) {
+        if (rows < 1) {
+            throw new IllegalArgumentException("Invalid row count: " + rows);
+        }
+        PageCursor at = from;
+        for (long left = rows; left > 0; ) {
+            int skip = (int) Math.min(left, Integer.MAX_VALUE);
+            List<Object[]> keys = keysFrom.apply(at, PageRequest.of(skip - 1, 1));
+            if (keys.isEmpty()) {
+                return null;
+            }
+            at = new PageCursor(keys.get(0)[0].toString(), (Long) keys.get(0)[1]);
+            left -= skip;
+        }
+        return at.encode();
+    }
+
+    private PageCursor cursorOf(TourLog log) {
+        return new PageCursor(log.getDateTime().toString(), log.getId());
+    }
+
+    private static LocalDateTime dateTime(PageCursor cursor) {
+        try {
+            return LocalDateTime.parse(cursor.key());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    // Each change to a log also updates the log aggregates of its tour (Tour.getLogCount etc.) in the same transaction
+    @Override
+    @Transactional
     public TourLogDTO createTourLog(TourLogDTO dto) {
         Tour tour = tourRepository.findById(dto.getTourId()).orElseThrow(() -> new IllegalArgumentException("Tour not found"));
         TourLog log = toEntity(dto);
         log.setTour(tour);
         TourLog saved = tourLogRepository.save(log);
-        return toDTO(saved);
+        TourLogDTO result = toDTO(saved);
+        addToAggregates(tour.getId(), 1, saved);
+        tourRepository.addToLogExtremes(tour.getId(), value(saved.getTotalTime()), saved.getDateTime());
+        textIndex.updateLog(saved.getId(), TourTextIndex.LogText.NONE, TourTextIndex.LogText.of(saved));
+        return result;
     }
 
     @Override
+    @Transactional
     public TourLogDTO updateTourLog(TourLogDTO dto) {
         TourLog log = tourLogRepository.findById(dto.getId()).orElseThrow(() -> new IllegalArgumentException("TourLog not found"));
+        Long oldTourId = log.getTour() != null ? log.getTour().getId() : null;
+        TourLog old = new TourLog(null, log.getDateTime(), null, log.getDifficulty(), log.getTotalDistance(), log.getTotalTime(), log.getRating());
+        TourTextIndex.LogText textBefore = TourTextIndex.LogText.of(log);
         
         // Update all fields
         log.setDateTime(dto.getDateTime());
@@ -61,12 +159,39 @@ public class TourLogServiceImpl implements TourLogService {
         }
         
         TourLog saved = tourLogRepository.save(log);
-        return toDTO(saved);
+        TourLogDTO result = toDTO(saved);
+        Long newTourId = saved.getTour().getId();
+        if (newTourId.equals(oldTourId)) {
+            tourRepository.addToLogAggregates(newTourId, 0,
+                    value(saved.getRating()) - value(old.getRating()),
+                    value(saved.getDifficulty()) - value(old.getDifficulty()),
+                    value(saved.getTotalDistance()) - value(old.getTotalDistance()),
+                    value(saved.getTotalTime()) - value(old.getTotalTime()));
+            if (value(saved.getTotalTime()) != value(old.getTotalTime()) || !Objects.equals(saved.getDateTime(), old.getDateTime())) {
+                tourRepository.recomputeLogExtremes(newTourId);
+            }
+        } else {
+            if (oldTourId != null) {
+                addToAggregates(oldTourId, -1, old);
+                tourRepository.recomputeLogExtremes(oldTourId);
+            }
+            addToAggregates(newTourId, 1, saved);
+            tourRepository.addToLogExtremes(newTourId, value(saved.getTotalTime()), saved.getDateTime());
+        }
+        textIndex.updateLog(saved.getId(), textBefore, TourTextIndex.LogText.of(saved));
+        return result;
     }
 
     @Override
+    @Transactional
     public void deleteTourLog(Long id) {
-        tourLogRepository.deleteById(id);
+        tourLogRepository.findById(id).ifPresent(log -> {
+            Long tourId = log.getTour().getId();
+            tourLogRepository.delete(log);
+            addToAggregates(tourId, -1, log);
+            tourRepository.recomputeLogExtremes(tourId);
+            textIndex.removeLog(id, TourTextIndex.LogText.of(log));
+        });
     }
 
     @Override
@@ -74,12 +199,43 @@ public class TourLogServiceImpl implements TourLogService {
         return tourLogRepository.findByCommentContainingIgnoreCase(searchText).stream().map(this::toDTO).collect(Collectors.toList());
     }
 
+    @Override
+    public List<TourLogDTO> searchTourLogsRanked(Long tourId, String query, int limit) {
+        long[] ids = textIndex.searchLogs(query, tourId, limit);
+        List<Long> idList = Arrays.stream(ids).boxed().toList();
+        Map<Long, TourLog> logs = new HashMap<>();
+        for (TourLog log : tourLogRepository.findAllById(idList)) {
+            logs.put(log.getId(), log);
+        }
+        // In the order of the index, skipping ids it still has for logs that are gone (a write that was rolled back)
+        return idList.stream()
+                .map(logs::get)
+                .filter(Objects::nonNull)
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Long getTourLogCountByTourId(Long tourId) {
-        Long count = tourLogRepository.countByTourId(tourId);
+        Integer count = tourRepository.findLogCount(tourId);
         return count != null ? count : 0L;
     }
 
+    @Override
+    public Long getTourLogCount() {
+        return tourRepository.sumLogCounts();
+    }
+
+    // Adds the log's values to (sign 1) or takes them out of (sign -1) the tour's aggregates
+    private void addToAggregates(Long tourId, int sign, TourLog log) {
+        tourRepository.addToLogAggregates(tourId, sign, sign * value(log.getRating()), sign * value(log.getDifficulty()),
+                sign * value(log.getTotalDistance()), sign * value(log.getTotalTime()));
+    }
+
+    private static double value(Double d) {
+        return d != null ? d : 0.0;
+    }
+
     // --- Helper conversion methods ---
     private TourLogDTO toDTO(TourLog log) {
         return new TourLogDTO(
@@ -1,7 +1,13 @@
 package com.tourplanner.backend.service;
 
+import com.tourplanner.backend.dto.PageDTO;
+import com.tourplanner.backend.dto.RouteMatchDTO;
+import com.tourplanner.backend.dto.StatisticsSummaryDTO;
 import com.tourplanner.backend.dto.TourDTO;
+import com.tourplanner.backend.dto.TourStatisticsDTO;
+import com.tourplanner.backend.model.RouteData;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 // Service interface for tour business operations.
 public interface TourService {
@@ -12,4 +18,48 @@ public interface TourService {
     TourDTO updateTour(TourDTO tour);
     void deleteTour(Long id);
     List<TourDTO> searchTours(String searchText);
+
+    // Ranked full-text search (see TourTextIndex): the (at most limit) tours whose name or description contain every
+    // word of the query, as a word or the start of one, best match first; the second also finds tours through the
+    // comments of their logs. If nothing matches that way, the tours whose name contains the query anywhere, ordered
+    // by name. limit must be positive.
+    List<TourDTO> searchToursRanked(String query, int limit);
+    List<TourDTO> searchToursWithLogs(String query, int limit);
+
+    // Whether the ranked search answers without first reading every stored text; if not, that reading is started in
+    // the background and the caller can use searchTours meanwhile
+    boolean prepareTextSearch();
+
+    // Keyset-paginated variants, ordered by name then id: pass null for the first page, then the page's nextCursor.
+    // size is capped at 1000.
+    PageDTO<TourDTO> getToursPage(String cursor, int size);
+    PageDTO<TourDTO> searchToursPage(String searchText, String cursor, int size);
+
+    // Stored route of a tour, recomputed only when its locations or transport type changed
+    RouteData getTourRoute(Long tourId);
+
+    // Non-blocking variants for the UI, the route is requested asynchronously and the tour saved once it arrived
+    CompletableFuture<TourDTO> createTourAsync(TourDTO tour);
+    CompletableFuture<TourDTO> updateTourAsync(TourDTO tour);
+    CompletableFuture<RouteData> getTourRouteAsync(Long tourId);
+
+    // Bulk variants (import, route refresh): the routes of all tours are requested as one batch and the tours saved
+    // together. Only distance and time are updated, the route geometry is fetched when a tour is first shown.
+    CompletableFuture<List<TourDTO>> createToursAsync(List<TourDTO> tours);
+    CompletableFuture<List<TourDTO>> refreshRoutesAsync(List<Long> tourIds);
+
+    // The (at most limit) tours starting or ending closest to the point within radiusKm, nearest first.
+    // Tours without coordinates are not found.
+    List<TourDTO> findToursNear(double latitude, double longitude, double radiusKm, int limit);
+
+    // Tours starting or ending inside the box (e.g. the map viewport); west > east for boxes across the antimeridian
+    List<TourDTO> findToursInArea(double south, double west, double north, double east);
+
+    // The (at most limit) tours whose stored route passes within radiusKm of the point, closest first, each with the
+    // nearest point of its route. Only routes that were fetched and stored are searched.
+    List<RouteMatchDTO> findToursPassingNear(double latitude, double longitude, double radiusKm, int limit);
+
+    // Statistics of every tour over its logs (ordered by name) and totals over everything, each from one query
+    List<TourStatisticsDTO> getTourStatistics();
+    StatisticsSummaryDTO getStatisticsSummary();
 }
\ No newline at end of file
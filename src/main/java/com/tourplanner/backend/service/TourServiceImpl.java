@@ -1,26 +1,77 @@
 package com.tourplanner.backend.service;
 
+import com.tourplanner.backend.model.GeoCode;
+import com.tourplanner.backend.model.PackedPolyline;
+import com.tourplanner.backend.model.RouteData;
+import com.tourplanner.backend.model.RouteGeometry;
+import com.tourplanner.backend.model.RouteRequest;
 import com.tourplanner.backend.model.Tour;
+import com.tourplanner.backend.dto.PageDTO;
+import com.tourplanner.backend.dto.RouteMatchDTO;
+import com.tourplanner.backend.dto.StatisticsSummaryDTO;
 import com.tourplanner.backend.dto.TourDTO;
+import com.tourplanner.backend.dto.TourStatisticsDTO;
+import com.tourplanner.backend.repository.RouteGeometryRepository;
 import com.tourplanner.backend.repository.TourRepository;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 // Implementation of TourService using JPA entities and repositories.
 @Service
 public class TourServiceImpl implements TourService {
 
+    private static final int STORED_ZOOM = 18;
+    // Marks a route lookup whose caller cancelled it before its route request was sent
+    private static final CompletableFuture<RouteData> NOT_NEEDED = new CompletableFuture<>();
+
     private final TourRepository tourRepository;
     private final RouteService routeService;
+    private final RouteGeometryRepository routeGeometryRepository;
+    private final TourSpatialIndex spatialIndex;
+    private final RouteCorridorIndex corridorIndex;
+    private final TourTextIndex textIndex;
+    // Database work of the non-blocking variants runs here, never on the caller's (UI) thread
+    private final ExecutorService executor;
 
     @Autowired
-    public TourServiceImpl(TourRepository tourRepository, RouteService routeService) {
+    public TourServiceImpl(TourRepository tourRepository, RouteService routeService,
+                           RouteGeometryRepository routeGeometryRepository, TourSpatialIndex spatialIndex,
+                           RouteCorridorIndex corridorIndex, TourTextIndex textIndex,
+                           @Value("${app.tours.threads:2}") int threads) {
         this.tourRepository = tourRepository;
         this.routeService = routeService;
+        this.routeGeometryRepository = routeGeometryRepository;
+        this.spatialIndex = spatialIndex;
+        this.corridorIndex = corridorIndex;
+        this.textIndex = textIndex;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "tour-worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
     }
 
     @Override
@@ -42,64 +93,54 @@ public class TourServiceImpl implements TourService {
     public TourDTO createTour(TourDTO tourDTO) {
         Tour tour = convertToEntity(tourDTO);
 
-        // Call RouteService to get distance and estimated time
-        if (tour.getFromLocation() != null && tour.getToLocation() != null && tour.getTransportType() != null) {
-            var route = routeService.getRouteData(tour.getFromLocation(), tour.getToLocation(), tour.getTransportType());
-            if (route != null) {
-                tour.setDistance(route.getDistance());
-                double hours = Math.floor(route.getDuration());
-                double minutes = Math.round((route.getDuration() - hours) * 60);
-                String formattedTime = (int)hours + "h " + (int)minutes + "m";
-                tour.setEstimatedTime(formattedTime);
-            }
-        }
-        Tour savedTour = tourRepository.save(tour);
-        return convertToDTO(savedTour);
+        // Call RouteService to get distance, estimated time and the coordinates of both endpoints
+        RouteData route = requestRoute(tour).join();
+        return saveWithRoute(tour, route, TourSpatialIndex.Endpoints.NONE, TourTextIndex.TourText.NONE);
+    }
+
+    @Override
+    public CompletableFuture<TourDTO> createTourAsync(TourDTO tourDTO) {
+        Tour tour = convertToEntity(tourDTO);
+        return requestRoute(tour).thenApply(route ->
+                saveWithRoute(tour, route, TourSpatialIndex.Endpoints.NONE, TourTextIndex.TourText.NONE));
     }
 
     @Override
     public TourDTO updateTour(TourDTO tourDTO) {
-        if (tourDTO.getId() == null) {
-            throw new IllegalArgumentException("Tour ID cannot be null for update");
-        }
-        
-        Optional<Tour> existingTour = tourRepository.findById(tourDTO.getId());
-        if (existingTour.isEmpty()) {
-            throw new IllegalArgumentException("Tour not found with ID: " + tourDTO.getId());
-        }
-        
-        Tour tour = existingTour.get();
+        Tour tour = findForUpdate(tourDTO);
+        TourSpatialIndex.Endpoints before = TourSpatialIndex.Endpoints.of(tour);
+        TourTextIndex.TourText textBefore = TourTextIndex.TourText.of(tour);
 
         // Detect whether route fields changed
-        boolean recalc = false;
-        if (!equalsOrNull(tour.getFromLocation(), tourDTO.getFromLocation()) ||
-            !equalsOrNull(tour.getToLocation(), tourDTO.getToLocation()) ||
-            !equalsOrNull(tour.getTransportType(), tourDTO.getTransportType())) {
-            recalc = true;
-        }
+        boolean recalc = routeChanged(tour, tourDTO);
         updateTourFromDTO(tour, tourDTO);
 
         // If route-relevant fields changed and are all present, re-query the route service
-        if (recalc && tour.getFromLocation() != null && tour.getToLocation() != null && tour.getTransportType() != null) {
-            var route = routeService.getRouteData(tour.getFromLocation(), tour.getToLocation(), tour.getTransportType());
-            if (route != null) {
-                tour.setDistance(route.getDistance());
-                double hours = Math.floor(route.getDuration());
-                double minutes = Math.round((route.getDuration() - hours) * 60);
-                String formattedTime = (int)hours + "h " + (int)minutes + "m";
-                tour.setEstimatedTime(formattedTime);
-            }
-        }
-        Tour savedTour = tourRepository.save(tour);
-        return convertToDTO(savedTour);
+        RouteData route = recalc ? requestRoute(tour).join() : null;
+        return saveWithRoute(tour, route, before, textBefore);
+    }
+
+    @Override
+    public CompletableFuture<TourDTO> updateTourAsync(TourDTO tourDTO) {
+        // The stored tour is read on the executor, so the caller (the UI thread) never waits for the database
+        return CompletableFuture.supplyAsync(() -> findForUpdate(tourDTO), executor).thenCompose(tour -> {
+            TourSpatialIndex.Endpoints before = TourSpatialIndex.Endpoints.of(tour);
+            TourTextIndex.TourText textBefore = TourTextIndex.TourText.of(tour);
+            boolean recalc = routeChanged(tour, tourDTO);
+            updateTourFromDTO(tour, tourDTO);
+            CompletableFuture<RouteData> route = recalc ? requestRoute(tour) : CompletableFuture.completedFuture(null);
+            return route.thenApply(data -> saveWithRoute(tour, data, before, textBefore));
+        });
     }
 
     @Override
     public void deleteTour(Long id) {
-        if (!tourRepository.existsById(id)) {
-            throw new IllegalArgumentException("Tour not found with ID: " + id);
-        }
+        Tour tour = tourRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Tour not found with ID: " + id));
         tourRepository.deleteById(id);
+        spatialIndex.remove(id, TourSpatialIndex.Endpoints.of(tour));
+        corridorIndex.remove(id);
+        textIndex.removeTour(id, TourTextIndex.TourText.of(tour));
     }
 
     @Override
@@ -114,6 +155,380 @@ public class TourServiceImpl implements TourService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<TourDTO> searchToursRanked(String query, int limit) {
+        return rankedOrContaining(textIndex.searchTours(query, limit), query, limit);
+    }
+
+    @Override
+    public List<TourDTO> searchToursWithLogs(String query, int limit) {
+        return rankedOrContaining(textIndex.searchToursWithLogs(query, limit), query, limit);
+    }
+
+    @Override
+    public boolean prepareTextSearch() {
+        if (textIndex.isLoaded()) {
+            return true;
+        }
+        textIndex.loadInBackground();
+        return false;
+    }
+
+    // The ranked matches, or if there are none the tours whose name contains the query anywhere, as the plain search
+    // finds them ("burg" matches no word start of "Salzburg", but is part of it)
+    private List<TourDTO> rankedOrContaining(long[] ids, String query, int limit) {
+        if (ids.length > 0 || query == null || query.isBlank()) {
+            return loadInOrder(ids);
+        }
+        return searchToursPage(query, null, limit).getItems();
+    }
+
+    @Override
+    public PageDTO<TourDTO> getToursPage(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        List<Tour> tours = after == null
+                ? tourRepository.findFirstPage(PageCursor.limit(size))
+                : tourRepository.findPageAfter(after.key(), after.id(), PageCursor.limit(size));
+        return PageCursor.page(tours, size, this::convertToDTO, this::cursorOf);
+    }
+
+    @Override
+    public PageDTO<TourDTO> searchToursPage(String searchText, String cursor, int size) {
+        if (searchText == null || searchText.trim().isEmpty()) {
+            return getToursPage(cursor, size);
+        }
+        String pattern = "%" + escapeLike(searchText.trim().toLowerCase(Locale.ROOT)) + "%";
+        PageCursor after = PageCursor.decode(cursor);
+        List<Tour> tours = after == null
+                ? tourRepository.searchFirstPage(pattern, PageCursor.limit(size))
+                : tourRepository.searchPageAfter(pattern, after.key(), after.id(), PageCursor.limit(size));
+        return PageCursor.page(tours, size, this::convertToDTO, this::cursorOf);
+    }
+
+    private PageCursor cursorOf(Tour tour) {
+        return new PageCursor(tour.getName(), tour.getId());
+    }
+
+    // The text matched literally, as findByNameContainingIgnoreCase does
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public List<TourDTO> findToursNear(double latitude, double longitude, double radiusKm, int limit) {
+        return loadInOrder(spatialIndex.withinRadius(latitude, longitude, radiusKm * 1000, limit));
+    }
+
+    @Override
+    public List<TourDTO> findToursInArea(double south, double west, double north, double east) {
+        return loadInOrder(spatialIndex.withinBox(south, west, north, east));
+    }
+
+    @Override
+    public List<RouteMatchDTO> findToursPassingNear(double latitude, double longitude, double radiusKm, int limit) {
+        List<RouteCorridorIndex.Match> matches = corridorIndex.near(latitude, longitude, radiusKm * 1000, limit);
+        long[] ids = matches.stream().mapToLong(RouteCorridorIndex.Match::tourId).toArray();
+        Map<Long, TourDTO> tours = new HashMap<>();
+        for (TourDTO tour : loadInOrder(ids)) {
+            tours.put(tour.getId(), tour);
+        }
+        List<RouteMatchDTO> result = new ArrayList<>(matches.size());
+        for (RouteCorridorIndex.Match match : matches) {
+            TourDTO tour = tours.get(match.tourId());
+            if (tour != null) {
+                result.add(new RouteMatchDTO(tour, match.distanceMeters() / 1000, match.latitude(), match.longitude(),
+                        match.metersAlong() / 1000));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<TourStatisticsDTO> getTourStatistics() {
+        return tourRepository.findTourStatistics();
+    }
+
+    @Override
+    public StatisticsSummaryDTO getStatisticsSummary() {
+        return tourRepository.findStatisticsSummary();
+    }
+
+    // Tours with the given ids in that order; ids of tours deleted meanwhile are skipped
+    private List<TourDTO> loadInOrder(long[] ids) {
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, Tour> tours = new HashMap<>();
+        for (Tour tour : tourRepository.findAllById(idList)) {
+            tours.put(tour.getId(), tour);
+        }
+        return idList.stream()
+                .map(tours::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    // Returns the stored route of the tour, only calling the route service if from/to/transport changed since it was stored
+    public RouteData getTourRoute(Long tourId) {
+        Optional<Tour> existingTour = tourRepository.findById(tourId);
+        if (existingTour.isEmpty() || !hasRoute(existingTour.get())) {
+            return null;
+        }
+        Tour tour = existingTour.get();
+
+        RouteData stored = storedRoute(tour);
+        if (stored != null) {
+            return stored;
+        }
+
+        RouteData route = requestRoute(tour).join();
+        saveCoordinates(tour, route);
+        saveRouteGeometry(tour, route);
+        return route;
+    }
+
+    @Override
+    public CompletableFuture<RouteData> getTourRouteAsync(Long tourId) {
+        // The tour and its stored route are read on the executor too; a route request is sent only if they are not enough
+        AtomicReference<CompletableFuture<RouteData>> request = new AtomicReference<>();
+        CompletableFuture<RouteData> result = CompletableFuture.supplyAsync(() -> tourRepository.findById(tourId), executor)
+                .thenCompose(existingTour -> {
+                    if (existingTour.isEmpty() || !hasRoute(existingTour.get())) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    Tour tour = existingTour.get();
+                    RouteData stored = storedRoute(tour);
+                    if (stored != null) {
+                        return CompletableFuture.completedFuture(stored);
+                    }
+                    CompletableFuture<RouteData> sent = requestRoute(tour);
+                    if (!request.compareAndSet(null, sent)) {
+                        sent.cancel(true);
+                    }
+                    return sent.thenApply(route -> {
+                        saveCoordinates(tour, route);
+                        saveRouteGeometry(tour, route);
+                        return route;
+                    });
+                });
+        // A caller that is no longer interested (e.g. another tour got selected) cancels the route request as well,
+        // or keeps it from being sent if the tour is still being read
+        result.whenComplete((route, error) -> {
+            if (result.isCancelled()) {
+                CompletableFuture<RouteData> sent = request.getAndSet(NOT_NEEDED);
+                if (sent != null) {
+                    sent.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    // The route stored for the tour, if it was computed for the tour's current locations and transport type
+    private RouteData storedRoute(Tour tour) {
+        Optional<RouteGeometry> stored = routeGeometryRepository.findByTourId(tour.getId());
+        if (stored.isPresent() && stored.get().matches(tour.getFromLocation(), tour.getToLocation(), tour.getTransportType())) {
+            return convertToRouteData(stored.get());
+        }
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<List<TourDTO>> createToursAsync(List<TourDTO> tourDTOs) {
+        List<Tour> tours = tourDTOs.stream()
+                .map(this::convertToEntity)
+                .collect(Collectors.toList());
+        return requestRoutes(tours).thenApply(routes -> saveAllWithRoutes(tours, routes));
+    }
+
+    @Override
+    public CompletableFuture<List<TourDTO>> refreshRoutesAsync(List<Long> tourIds) {
+        // The tours are read on the executor, then their routes requested as one batch
+        return CompletableFuture.supplyAsync(() -> tourRepository.findAllById(tourIds), executor)
+                .thenCompose(tours -> requestRoutes(tours).thenApply(routes -> saveAllWithRoutes(tours, routes)));
+    }
+
+    private Tour findForUpdate(TourDTO tourDTO) {
+        if (tourDTO.getId() == null) {
+            throw new IllegalArgumentException("Tour ID cannot be null for update");
+        }
+        
+        Optional<Tour> existingTour = tourRepository.findById(tourDTO.getId());
+        if (existingTour.isEmpty()) {
+            throw new IllegalArgumentException("Tour not found with ID: " + tourDTO.getId());
+        }
+        return existingTour.get();
+    }
+
+    private boolean routeChanged(Tour tour, TourDTO tourDTO) {
+        return !equalsOrNull(tour.getFromLocation(), tourDTO.getFromLocation()) ||
+               !equalsOrNull(tour.getToLocation(), tourDTO.getToLocation()) ||
+               !equalsOrNull(tour.getTransportType(), tourDTO.getTransportType());
+    }
+
+    private CompletableFuture<RouteData> requestRoute(Tour tour) {
+        if (!hasRoute(tour)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return routeService.getRouteDataAsync(tour.getFromLocation(), tour.getToLocation(), tour.getTransportType(),
+                fromCoordinates(tour), toCoordinates(tour));
+    }
+
+    // Routes of the tours from one batch request, null for tours without locations
+    private CompletableFuture<List<RouteData>> requestRoutes(List<Tour> tours) {
+        List<RouteRequest> requests = new ArrayList<>();
+        for (Tour tour : tours) {
+            if (hasRoute(tour)) {
+                requests.add(new RouteRequest(tour.getFromLocation(), tour.getToLocation(), tour.getTransportType(),
+                        fromCoordinates(tour), toCoordinates(tour)));
+            }
+        }
+        return routeService.getRouteDataBatch(requests).thenApply(batch -> {
+            Iterator<RouteData> results = batch.iterator();
+            List<RouteData> routes = new ArrayList<>(tours.size());
+            for (Tour tour : tours) {
+                routes.add(hasRoute(tour) ? results.next() : null);
+            }
+            return routes;
+        });
+    }
+
+    // Apply the routes to the tours and save them in one go. Batch routes have no geometry, so none is stored.
+    private List<TourDTO> saveAllWithRoutes(List<Tour> tours, List<RouteData> routes) {
+        List<TourSpatialIndex.Endpoints> before = new ArrayList<>(tours.size());
+        List<TourTextIndex.TourText> textBefore = new ArrayList<>(tours.size());
+        for (int i = 0; i < tours.size(); i++) {
+            // New tours are not indexed yet, whatever coordinates they came with
+            Tour tour = tours.get(i);
+            before.add(tour.getId() != null ? TourSpatialIndex.Endpoints.of(tour) : TourSpatialIndex.Endpoints.NONE);
+            textBefore.add(tour.getId() != null ? TourTextIndex.TourText.of(tour) : TourTextIndex.TourText.NONE);
+            applyRoute(tour, routes.get(i));
+        }
+        List<Tour> saved = tourRepository.saveAll(tours);
+        for (int i = 0; i < saved.size(); i++) {
+            spatialIndex.update(saved.get(i).getId(), before.get(i), TourSpatialIndex.Endpoints.of(saved.get(i)));
+            textIndex.updateTour(saved.get(i).getId(), textBefore.get(i), TourTextIndex.TourText.of(saved.get(i)));
+        }
+        return saved.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    // Apply the route (if any) to the tour, then save the tour and its route geometry. before and textBefore are
+    // what the spatial and text indexes had for the tour.
+    private TourDTO saveWithRoute(Tour tour, RouteData route, TourSpatialIndex.Endpoints before,
+                                  TourTextIndex.TourText textBefore) {
+        applyRoute(tour, route);
+        Tour savedTour = tourRepository.save(tour);
+        spatialIndex.update(savedTour.getId(), before, TourSpatialIndex.Endpoints.of(savedTour));
+        textIndex.updateTour(savedTour.getId(), textBefore, TourTextIndex.TourText.of(savedTour));
+        saveRouteGeometry(savedTour, route);
+        return convertToDTO(savedTour);
+    }
+
+    private boolean hasRoute(Tour tour) {
+        return tour.getFromLocation() != null && tour.getToLocation() != null && tour.getTransportType() != null;
+    }
+
+    // Copy distance, formatted duration and the geocoded endpoints of the route onto the tour
+    private void applyRoute(Tour tour, RouteData route) {
+        applyCoordinates(tour, route);
+        if (route != null) {
+            tour.setDistance(route.getDistance());
+            double hours = Math.floor(route.getDuration());
+            double minutes = Math.round((route.getDuration() - hours) * 60);
+            String formattedTime = (int)hours + "h " + (int)minutes + "m";
+            tour.setEstimatedTime(formattedTime);
+        }
+    }
+
+    // Fill in endpoint coordinates the tour does not have yet from those the route was computed for.
+    // Returns whether any were added.
+    private boolean applyCoordinates(Tour tour, RouteData route) {
+        if (route == null) {
+            return false;
+        }
+        boolean changed = false;
+        if (fromCoordinates(tour) == null && route.getFromCoordinates() != null) {
+            tour.setFromLatitude(route.getFromCoordinates().getLatitude());
+            tour.setFromLongitude(route.getFromCoordinates().getLongitude());
+            changed = true;
+        }
+        if (toCoordinates(tour) == null && route.getToCoordinates() != null) {
+            tour.setToLatitude(route.getToCoordinates().getLatitude());
+            tour.setToLongitude(route.getToCoordinates().getLongitude());
+            changed = true;
+        }
+        return changed;
+    }
+
+    // Tours stored before coordinates were kept get them the first time their route is requested
+    private void saveCoordinates(Tour tour, RouteData route) {
+        TourSpatialIndex.Endpoints before = TourSpatialIndex.Endpoints.of(tour);
+        if (applyCoordinates(tour, route)) {
+            tourRepository.save(tour);
+            spatialIndex.update(tour.getId(), before, TourSpatialIndex.Endpoints.of(tour));
+        }
+    }
+
+    private static GeoCode fromCoordinates(Tour tour) {
+        return coordinates(tour.getFromLatitude(), tour.getFromLongitude());
+    }
+
+    private static GeoCode toCoordinates(Tour tour) {
+        return coordinates(tour.getToLatitude(), tour.getToLongitude());
+    }
+
+    private static GeoCode coordinates(Double latitude, Double longitude) {
+        return latitude != null && longitude != null ? new GeoCode(longitude, latitude) : null;
+    }
+
+    // Store the route next to the tour. Fallback routes are not stored, so they are retried on the next request;
+    // until then the tour's previous route (if any) is out of date and left out of corridor searches.
+    private void saveRouteGeometry(Tour tour, RouteData route) {
+        if (route == null) {
+            return;
+        }
+        if (route.isApproximate()) {
+            corridorIndex.remove(tour.getId());
+            return;
+        }
+        RouteGeometry geometry = routeGeometryRepository.findByTourId(tour.getId())
+                .orElseGet(() -> new RouteGeometry(tour));
+        geometry.setFromLocation(tour.getFromLocation());
+        geometry.setToLocation(tour.getToLocation());
+        geometry.setTransportType(tour.getTransportType());
+        geometry.setDistance(route.getDistance());
+        geometry.setDuration(route.getDuration());
+        // Stored at the map's maximum zoom, which only drops points that no zoom level can show apart
+        PackedPolyline points = route.getLevels() != null ? route.getLevels().forZoom(STORED_ZOOM) : null;
+        geometry.setPoints(points != null ? points.toBytes() : null);
+        geometry.setPolyline(null);
+        geometry.setPointCount(points != null ? points.size() : 0);
+        geometry.setSummary(route.getSummary());
+        geometry.setUpdatedAt(java.time.LocalDateTime.now());
+        routeGeometryRepository.save(geometry);
+        corridorIndex.put(tour.getId(), points);
+    }
+
+    private RouteData convertToRouteData(RouteGeometry geometry) {
+        RouteData data = new RouteData(
+                geometry.getFromLocation(),
+                geometry.getToLocation(),
+                geometry.getTransportType(),
+                geometry.getDistance(),
+                geometry.getDuration(),
+                geometry.getPoints() != null
+                        ? PackedPolyline.fromBytes(geometry.getPoints())
+                        : PackedPolyline.of(PolylineCodec.decode(geometry.getPolyline()))
+        );
+        data.setSummary(geometry.getSummary());
+        return data;
+    }
+
     // Conversion methods
     private TourDTO convertToDTO(Tour tour) {
         TourDTO dto = new TourDTO(
@@ -126,6 +541,15 @@ public class TourServiceImpl implements TourService {
                 tour.getFromLocation(),
                 tour.getToLocation()
         );
+        dto.setFromLatitude(tour.getFromLatitude());
+        dto.setFromLongitude(tour.getFromLongitude());
+        dto.setToLatitude(tour.getToLatitude());
+        dto.setToLongitude(tour.getToLongitude());
+        dto.setLogCount(tour.getLogCount());
+        dto.setAverageRating(tour.getAverageRating());
+        dto.setAverageDifficulty(tour.getAverageDifficulty());
+        dto.setAverageDistance(tour.getAverageDistance());
+        dto.setAverageTime(tour.getAverageTime());
         return dto;
     }
 
@@ -142,10 +566,24 @@ public class TourServiceImpl implements TourService {
         if (dto.getId() != null) {
             tour.setId(dto.getId());
         }
+        tour.setFromLatitude(dto.getFromLatitude());
+        tour.setFromLongitude(dto.getFromLongitude());
+        tour.setToLatitude(dto.getToLatitude());
+        tour.setToLongitude(dto.getToLongitude());
         return tour;
     }
 
     private void updateTourFromDTO(Tour tour, TourDTO dto) {
+        // Coordinates belong to their location: kept while it stays the same (the editor does not send them),
+        // replaced by the DTO's (usually none, so it gets geocoded again) when it changes
+        if (!equalsOrNull(tour.getFromLocation(), dto.getFromLocation()) || dto.getFromLatitude() != null) {
+            tour.setFromLatitude(dto.getFromLatitude());
+            tour.setFromLongitude(dto.getFromLongitude());
+        }
+        if (!equalsOrNull(tour.getToLocation(), dto.getToLocation()) || dto.getToLatitude() != null) {
+            tour.setToLatitude(dto.getToLatitude());
+            tour.setToLongitude(dto.getToLongitude());
+        }
         tour.setName(dto.getName());
         tour.setDescription(dto.getDescription());
         tour.setDistance(dto.getDistance());
@@ -0,0 +1,475 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.Tour;
+import com.tourplanner.backend.repository.TourRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory grid index over the start and end points of all tours, for "tours near here" and map viewport queries.
+// The world is cut into square cells of cellDegrees; each non-empty cell holds its points in primitive arrays
+// (tour id and endpoint packed into one long, coordinates in 1e-6 degrees), 16 bytes per point. A query only
+// visits the cells overlapping its box, so its cost depends on the points around it, not on the number of tours.
+// TourServiceImpl keeps it in sync with its writes; the tours already stored are read on the first query, and writes
+// made while they are read are applied after them.
+@Component
+public class TourSpatialIndex {
+    private static final Logger log = LogManager.getLogger(TourSpatialIndex.class);
+    private static final double SCALE = 1e6;
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_METERS;
+    private static final int FROM = 0, TO = 1;
+    // Up to this radius the equirectangular distance is within 0.1 % of the great-circle distance
+    private static final double FLAT_RADIUS_METERS = 200_000;
+
+    // Coordinates of a tour's endpoints as stored on the entity, any of them may be null
+    public record Endpoints(Double fromLatitude, Double fromLongitude, Double toLatitude, Double toLongitude) {
+        public static final Endpoints NONE = new Endpoints(null, null, null, null);
+
+        public static Endpoints of(Tour tour) {
+            return new Endpoints(tour.getFromLatitude(), tour.getFromLongitude(), tour.getToLatitude(), tour.getToLongitude());
+        }
+    }
+
+    private final TourRepository tourRepository;
+    private final double cellDegrees;
+    private final int columns;
+    private final double[] rowCosines; // cosine of the latitude in the middle of each row of cells
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+    private int size;
+    // While the stored tours are read: the writes made meanwhile, in order, and the tours they touch, whose stored
+    // rows the load skips as it may have read them before the write. Null otherwise. Guarded by the lock.
+    private List<Runnable> pending;
+    private final Set<Long> pendingTours = new HashSet<>();
+
+    @Autowired
+    public TourSpatialIndex(TourRepository tourRepository,
+                            @Value("${app.spatial-index.cell-degrees:0.0625}") double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+            throw new IllegalArgumentException("Cell size must be between 0 and 90 degrees: " + cellDegrees);
+        }
+        this.tourRepository = tourRepository;
+        this.cellDegrees = cellDegrees;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+        this.rowCosines = new double[(int) Math.ceil(180 / cellDegrees) + 1];
+        for (int row = 0; row < rowCosines.length; row++) {
+            rowCosines[row] = Math.cos(Math.toRadians(Math.min(90, -90 + (row + 0.5) * cellDegrees)));
+        }
+    }
+
+    // Index without a repository, empty and ready to use
+    TourSpatialIndex(double cellDegrees) {
+        this(null, cellDegrees);
+        this.loaded = true;
+    }
+
+    // Adds or moves the endpoints of a tour. before are its previously indexed coordinates (NONE for a new tour).
+    public void update(long tourId, Endpoints before, Endpoints after) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pendingTours.add(tourId);
+                pending.add(() -> move(tourId, before, after));
+            } else {
+                move(tourId, before, after);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long tourId, Endpoints endpoints) {
+        update(tourId, endpoints, Endpoints.NONE);
+    }
+
+    // Ids of at most `limit` tours with an endpoint within radiusMeters of the point, nearest first
+    public long[] withinRadius(double latitude, double longitude, double radiusMeters, int limit) {
+        ensureLoaded();
+        double latSpan = radiusMeters / METERS_PER_DEGREE;
+        double cos = Math.cos(Math.toRadians(latitude));
+        // Close to the poles the circle covers all longitudes
+        double lonSpan = cos * 180 > latSpan ? latSpan / cos : 180;
+        double radians = radiusMeters / EARTH_RADIUS_METERS;
+        Hits hits = new Hits();
+        lock.readLock().lock();
+        try {
+            double west = lonSpan >= 180 ? -180 : normalize(longitude - lonSpan);
+            double east = lonSpan >= 180 ? 180 : normalize(longitude + lonSpan);
+            if (radiusMeters <= FLAT_RADIUS_METERS) {
+                // No trigonometry per point: the cosine of a point's latitude comes from its row of cells
+                double radiansSquared = radians * radians;
+                forEachInBox(latitude - latSpan, west, latitude + latSpan, east, (entry, lat, lon) -> {
+                    double dLon = lon - longitude;
+                    dLon = dLon > 180 ? dLon - 360 : dLon < -180 ? dLon + 360 : dLon;
+                    double x = Math.toRadians(dLon) * (cos + rowCosines[row(lat)]) / 2;
+                    double y = Math.toRadians(lat - latitude);
+                    double distanceSquared = x * x + y * y;
+                    if (distanceSquared <= radiansSquared) {
+                        hits.add(entry >>> 1, distanceSquared);
+                    }
+                });
+            } else {
+                forEachInBox(latitude - latSpan, west, latitude + latSpan, east, (entry, lat, lon) -> {
+                    double distance = angularDistance(latitude, longitude, lat, lon);
+                    if (distance <= radians) {
+                        hits.add(entry >>> 1, distance);
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits.nearestFirst(limit);
+    }
+
+    // Ids of the tours with an endpoint inside the box, in no particular order. A box with west > east crosses the
+    // antimeridian.
+    public long[] withinBox(double south, double west, double north, double east) {
+        ensureLoaded();
+        Hits hits = new Hits();
+        lock.readLock().lock();
+        try {
+            forEachInBox(south, west, north, east, (entry, lat, lon) -> hits.add(entry >>> 1, 0));
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits.distinctIds();
+    }
+
+    // Number of indexed endpoints
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Reads the coordinates of every stored tour once. A row read by then may be older than a write made meanwhile,
+    // so the rows of the tours written are skipped and the queued writes applied after the rows instead. If reading
+    // fails, the index is left empty for the next query to try again.
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            boolean done = false;
+            try {
+                List<Object[]> rows = readEndpoints();
+                lock.writeLock().lock();
+                try {
+                    for (Object[] row : rows) {
+                        long tourId = (Long) row[0];
+                        if (!pendingTours.contains(tourId)) {
+                            move(tourId, Endpoints.NONE,
+                                    new Endpoints((Double) row[1], (Double) row[2], (Double) row[3], (Double) row[4]));
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                done = true;
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (done) {
+                        pending.forEach(Runnable::run);
+                    } else {
+                        cells.clear();
+                        size = 0;
+                    }
+                    pending = null;
+                    pendingTours.clear();
+                    loaded = done;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Indexed {} tour endpoints in {} cells in {} ms", size(), cells.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // Rows [id, from latitude, from longitude, to latitude, to longitude] of the stored tours
+    List<Object[]> readEndpoints() {
+        return tourRepository.findAllEndpoints();
+    }
+
+    // Caller holds the write lock
+    private void move(long tourId, Endpoints before, Endpoints after) {
+        move(tourId, FROM, before.fromLatitude(), before.fromLongitude(), after.fromLatitude(), after.fromLongitude());
+        move(tourId, TO, before.toLatitude(), before.toLongitude(), after.toLatitude(), after.toLongitude());
+    }
+
+    // Caller holds the write lock
+    private void move(long tourId, int endpoint, Double oldLat, Double oldLon, Double newLat, Double newLon) {
+        long entry = tourId << 1 | endpoint;
+        if (oldLat != null && oldLon != null) {
+            removeEntry(entry, oldLat, oldLon);
+        }
+        if (newLat != null && newLon != null) {
+            // Also drops a stale copy, so adding is idempotent
+            removeEntry(entry, newLat, newLon);
+            cells.computeIfAbsent(cellKey(newLat, newLon), key -> new Cell())
+                    .add(entry, (int) Math.round(newLat * SCALE), (int) Math.round(newLon * SCALE));
+            size++;
+        }
+    }
+
+    private void removeEntry(long entry, double lat, double lon) {
+        long key = cellKey(lat, lon);
+        Cell cell = cells.get(key);
+        if (cell != null && cell.remove(entry)) {
+            size--;
+            if (cell.count == 0) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    // Caller holds the read lock. A box with west > east is split at the antimeridian.
+    private void forEachInBox(double south, double west, double north, double east, PointVisitor visitor) {
+        if (west > east) {
+            forEachInPlainBox(south, west, north, 180, visitor);
+            forEachInPlainBox(south, -180, north, east, visitor);
+        } else {
+            forEachInPlainBox(south, west, north, east, visitor);
+        }
+    }
+
+    // Visits the cells overlapping the box and passes on the points inside it
+    private void forEachInPlainBox(double south, double west, double north, double east, PointVisitor visitor) {
+        int minRow = row(Math.max(-90, south));
+        int maxRow = row(Math.min(90, north));
+        int minCol = column(Math.max(-180, west));
+        int maxCol = column(Math.min(180, east));
+        int minLat = (int) Math.floor(south * SCALE), maxLat = (int) Math.ceil(north * SCALE);
+        int minLon = (int) Math.floor(west * SCALE), maxLon = (int) Math.ceil(east * SCALE);
+        long boxCells = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        if (boxCells > cells.size()) {
+            // Large box over a sparse index: cheaper to look at the occupied cells than at every cell of the box
+            cells.forEach((key, cell) -> {
+                int row = (int) (key / columns);
+                int col = (int) (key % columns);
+                if (row >= minRow && row <= maxRow && col >= minCol && col <= maxCol) {
+                    cell.visit(minLat, minLon, maxLat, maxLon, visitor);
+                }
+            });
+            return;
+        }
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                Cell cell = cells.get((long) row * columns + col);
+                if (cell != null) {
+                    cell.visit(minLat, minLon, maxLat, maxLon, visitor);
+                }
+            }
+        }
+    }
+
+    private long cellKey(double lat, double lon) {
+        return (long) row(lat) * columns + column(lon);
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat + 90) / cellDegrees);
+    }
+
+    private int column(double lon) {
+        return Math.min(columns - 1, (int) Math.floor((lon + 180) / cellDegrees));
+    }
+
+    // Longitude in [-180, 180)
+    private static double normalize(double lon) {
+        return ((lon + 180) % 360 + 360) % 360 - 180;
+    }
+
+    // Haversine distance in radians
+    private static double angularDistance(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private interface PointVisitor {
+        void visit(long entry, double latitude, double longitude);
+    }
+
+    // Points of one cell; removal moves the last point into the gap
+    private static final class Cell {
+        private long[] entries = new long[4];
+        private int[] lats = new int[4];
+        private int[] lons = new int[4];
+        private int count;
+
+        void add(long entry, int lat, int lon) {
+            if (count == entries.length) {
+                entries = Arrays.copyOf(entries, count * 2);
+                lats = Arrays.copyOf(lats, count * 2);
+                lons = Arrays.copyOf(lons, count * 2);
+            }
+            entries[count] = entry;
+            lats[count] = lat;
+            lons[count] = lon;
+            count++;
+        }
+
+        boolean remove(long entry) {
+            for (int i = 0; i < count; i++) {
+                if (entries[i] == entry) {
+                    count--;
+                    entries[i] = entries[count];
+                    lats[i] = lats[count];
+                    lons[i] = lons[count];
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void visit(int minLat, int minLon, int maxLat, int maxLon, PointVisitor visitor) {
+            for (int i = 0; i < count; i++) {
+                int lat = lats[i];
+                int lon = lons[i];
+                if (lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon) {
+                    visitor.visit(entries[i], lat / SCALE, lon / SCALE);
+                }
+            }
+        }
+    }
+
+    // Growable list of (tour id, distance) pairs
+    private static final class Hits {
+        private long[] ids = new long[16];
+        private double[] distances = new double[16];
+        private int count;
+
+        void add(long id, double distance) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                distances = Arrays.copyOf(distances, count * 2);
+            }
+            ids[count] = id;
+            distances[count] = distance;
+            count++;
+        }
+
+        // Ids without duplicates (a tour can match with both endpoints), in no particular order
+        long[] distinctIds() {
+            IdSet seen = new IdSet(count);
+            long[] result = new long[count];
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                if (seen.add(ids[i])) {
+                    result[unique++] = ids[i];
+                }
+            }
+            return Arrays.copyOf(result, unique);
+        }
+
+        // The `limit` ids whose nearest endpoint is closest, by distance (or any measure growing with it). Works on
+        // (distance, position) pairs packed into longs, a non-negative float's bits order like the float itself.
+        // As every tour has at most two endpoints, the 2 * limit closest hits contain the result, so only those
+        // are sorted after a linear-time selection.
+        long[] nearestFirst(int limit) {
+            long[] order = new long[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = (long) Float.floatToIntBits((float) distances[i]) << 32 | i;
+            }
+            int candidates = (int) Math.min(count, 2L * limit);
+            if (candidates < count) {
+                select(order, candidates);
+            }
+            Arrays.sort(order, 0, candidates);
+            IdSet seen = new IdSet(candidates);
+            long[] result = new long[Math.min(limit, candidates)];
+            int unique = 0;
+            for (int i = 0; i < candidates && unique < result.length; i++) {
+                long id = ids[(int) order[i]];
+                if (seen.add(id)) {
+                    result[unique++] = id;
+                }
+            }
+            return Arrays.copyOf(result, unique);
+        }
+
+        // Quickselect: moves the k smallest values to the front, in any order
+        private static void select(long[] values, int k) {
+            int left = 0;
+            int right = values.length - 1;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (left < right) {
+                long pivot = values[left + random.nextInt(right - left + 1)];
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (values[i] < pivot) i++;
+                    while (values[j] > pivot) j--;
+                    if (i <= j) {
+                        long swap = values[i];
+                        values[i++] = values[j];
+                        values[j--] = swap;
+                    }
+                }
+                if (k - 1 <= j) {
+                    right = j;
+                } else if (k - 1 >= i) {
+                    left = i;
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Open addressing set of tour ids (never negative), kept at most half full
+    private static final class IdSet {
+        private final long[] slots;
+        private final int mask;
+
+        IdSet(int expected) {
+            slots = new long[Integer.highestOneBit(Math.max(1, expected)) << 2];
+            Arrays.fill(slots, -1);
+            mask = slots.length - 1;
+        }
+
+        boolean add(long id) {
+            int slot = (int) (id * 0x9E3779B97F4A7C15L >>> 40) & mask;
+            while (slots[slot] != -1) {
+                if (slots[slot] == id) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,711 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.Tour;
+import com.tourplanner.backend.model.TourLog;
+import com.tourplanner.backend.repository.TourLogRepository;
+import com.tourplanner.backend.repository.TourRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// In-memory inverted index over tour names and descriptions and tour log comments, for ranked full-text search
+// instead of LIKE '%text%' scans. Text is cut into words (letters and digits, lower-cased, accents dropped), and each
+// word maps to postings sorted by document id that hold the document's tour, the word's frequency and the document's
+// length, 20 bytes per word and document. A query word matches a whole word or the start of one (for less), and
+// every query word has to match, so "alp hik" finds "Alpine hiking". Hits are ranked with BM25, where a word in a
+// tour's name counts NAME_WEIGHT times one in its description.
+// TourServiceImpl and TourLogServiceImpl keep it in sync with their writes. The stored texts are read on a
+// background thread at startup (or by the first query if that is off); writes made while they are read are queued and
+// applied after them, and a query made meanwhile waits for the load.
+@Component
+public class TourTextIndex {
+    private static final Logger log = LogManager.getLogger(TourTextIndex.class);
+    static final int NAME_WEIGHT = 3;
+    // Weight of a word matched by its start, and of a tour's best log in searchToursWithLogs
+    static final double PREFIX_WEIGHT = 0.5;
+    static final double LOG_WEIGHT = 0.5;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final long ANY = Long.MIN_VALUE;
+    private static final int LOAD_BATCH = 10_000;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    // Indexed text of a tour, either may be null
+    public record TourText(String name, String description) {
+        public static final TourText NONE = new TourText(null, null);
+
+        public static TourText of(Tour tour) {
+            return new TourText(tour.getName(), tour.getDescription());
+        }
+    }
+
+    // Indexed text of a tour log and the tour it belongs to
+    public record LogText(Long tourId, String comment) {
+        public static final LogText NONE = new LogText(null, null);
+
+        public static LogText of(TourLog tourLog) {
+            return new LogText(tourLog.getTour() != null ? tourLog.getTour().getId() : null, tourLog.getComment());
+        }
+    }
+
+    private final TourRepository tourRepository;
+    private final TourLogRepository tourLogRepository;
+    private final Documents tours = new Documents();
+    private final Documents logs = new Documents();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final boolean loadOnStartup;
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private volatile boolean loaded;
+    // While the stored texts are read: the writes made meanwhile, in order, and the tours and logs they touch, whose
+    // stored rows the load skips as it may have read them before the write. Null otherwise. Guarded by the lock.
+    private List<Runnable> pending;
+    private final Set<Long> pendingTours = new HashSet<>();
+    private final Set<Long> pendingLogs = new HashSet<>();
+
+    @Autowired
+    public TourTextIndex(TourRepository tourRepository, TourLogRepository tourLogRepository,
+                         @Value("${app.text-index.load-on-startup:true}") boolean loadOnStartup) {
+        this.tourRepository = tourRepository;
+        this.tourLogRepository = tourLogRepository;
+        this.loadOnStartup = loadOnStartup;
+    }
+
+    // Index without repositories, empty and ready to use
+    TourTextIndex() {
+        this(null, null, false);
+        this.loaded = true;
+    }
+
+    @PostConstruct
+    void loadOnStartup() {
+        if (loadOnStartup) {
+            loadInBackground();
+        }
+    }
+
+    // Whether the stored texts were read, so a search answers without waiting for them
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Starts reading the stored texts on a background thread, unless they were read or are being read already
+    public void loadInBackground() {
+        if (loaded || !loading.compareAndSet(false, true)) {
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                ensureLoaded();
+            } catch (RuntimeException e) {
+                log.warn("Could not index the stored tour texts, the next search tries again", e);
+            } finally {
+                loading.set(false);
+            }
+        }, "text-index-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    // Indexes the new text of a tour. before is the text indexed so far (NONE for a new tour).
+    public void updateTour(long tourId, TourText before, TourText after) {
+        Words old = tourWords(before);
+        Words now = tourWords(after);
+        lock.writeLock().lock();
+        try {
+            apply(pendingTours, tourId, () -> tours.update(tourId, old, tourId, now));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Removes a tour and, as they are deleted with it, all its logs
+    public void removeTour(long tourId, TourText text) {
+        Words old = tourWords(text);
+        lock.writeLock().lock();
+        try {
+            apply(pendingTours, tourId, () -> {
+                tours.update(tourId, old, tourId, Words.NONE);
+                logs.removeGroup(tourId);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Indexes the new comment (or tour) of a log. before is what was indexed so far (NONE for a new log).
+    public void updateLog(long logId, LogText before, LogText after) {
+        Words old = Words.of(before.comment(), 1);
+        Words now = Words.of(after.comment(), 1);
+        lock.writeLock().lock();
+        try {
+            apply(pendingLogs, logId, () -> logs.update(logId, old, after.tourId() != null ? after.tourId() : ANY, now));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeLog(long logId, LogText text) {
+        updateLog(logId, text, LogText.NONE);
+    }
+
+    // Applies a write now, or after the stored texts while they are being read; the caller holds the write lock
+    private void apply(Set<Long> pendingIds, long id, Runnable write) {
+        if (pending != null) {
+            pendingIds.add(id);
+            pending.add(write);
+        } else {
+            write.run();
+        }
+    }
+
+    // Ids of at most `limit` tours whose name or description match the query, best first
+    public long[] searchTours(String query, int limit) {
+        List<String> words = queryWords(query, limit);
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return tours.match(words, ANY).best(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of at most `limit` logs whose comment matches the query, best first; of one tour, or of all for null
+    public long[] searchLogs(String query, Long tourId, int limit) {
+        List<String> words = queryWords(query, limit);
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return logs.match(words, tourId != null ? tourId : ANY).best(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of at most `limit` tours that match the query with their own text or with one of their logs, best first.
+    // A tour scores its own match plus LOG_WEIGHT times that of its best log.
+    public long[] searchToursWithLogs(String query, int limit) {
+        List<String> words = queryWords(query, limit);
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Scores combined = tours.match(words, ANY);
+            Scores logHits = logs.match(words, ANY);
+            Scores bestLogs = new Scores(logHits.size);
+            logHits.forEach((logId, tourId, score) -> bestLogs.max(tourId, tourId, score));
+            bestLogs.forEach((tourId, group, score) -> combined.add(tourId, tourId, LOG_WEIGHT * score));
+            return combined.best(limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of indexed tours and logs
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return tours.count + logs.count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static List<String> queryWords(String query, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive: " + limit);
+        }
+        return List.copyOf(Words.of(query, 1).counts.keySet());
+    }
+
+    private static Words tourWords(TourText text) {
+        return Words.of(text.name(), NAME_WEIGHT).plus(Words.of(text.description(), 1));
+    }
+
+    // Reads the text of every stored tour and log once, the logs in batches by id. A row read by then may be older
+    // than a write made meanwhile, so the rows of the tours and logs written are skipped and the queued writes
+    // applied after the rows instead. If reading fails, the index is left empty for the next query to try again.
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            boolean done = false;
+            try {
+                loadStored();
+                done = true;
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (done) {
+                        pending.forEach(Runnable::run);
+                    } else {
+                        tours.clear();
+                        logs.clear();
+                    }
+                    pending = null;
+                    pendingTours.clear();
+                    pendingLogs.clear();
+                    loaded = done;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            log.info("Indexed {} tours and {} tour logs ({} words) in {} ms", tours.count, logs.count,
+                    tours.words.size() + logs.words.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void loadStored() {
+        List<Object[]> tourRows = readTours();
+        for (int from = 0; from < tourRows.size(); from += LOAD_BATCH) {
+            List<Object[]> batch = tourRows.subList(from, Math.min(tourRows.size(), from + LOAD_BATCH));
+            List<Words> texts = batch.stream().map(row -> tourWords(new TourText((String) row[1], (String) row[2]))).toList();
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    long tourId = (Long) batch.get(i)[0];
+                    if (!pendingTours.contains(tourId)) {
+                        tours.update(tourId, Words.NONE, tourId, texts.get(i));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        long after = 0;
+        List<Object[]> rows;
+        do {
+            rows = readLogs(after, LOAD_BATCH);
+            List<Words> texts = rows.stream().map(row -> Words.of((String) row[2], 1)).toList();
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < rows.size(); i++) {
+                    long logId = (Long) rows.get(i)[0];
+                    Long tourId = (Long) rows.get(i)[1];
+                    if (!pendingLogs.contains(logId)) {
+                        logs.update(logId, Words.NONE, tourId != null ? tourId : ANY, texts.get(i));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!rows.isEmpty()) {
+                after = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } while (rows.size() == LOAD_BATCH);
+    }
+
+    // Stored texts: rows [id, name, description] of every tour, and [id, tour id, comment] of the logs after an id
+    List<Object[]> readTours() {
+        return tourRepository.findAllTexts();
+    }
+
+    List<Object[]> readLogs(long after, int limit) {
+        return tourLogRepository.findCommentsAfter(after, PageRequest.of(0, limit));
+    }
+
+    // Words of a text with their (weighted) frequencies, and its (weighted) length in words
+    static final class Words {
+        static final Words NONE = new Words(Map.of(), 0);
+
+        final Map<String, Integer> counts;
+        final int length;
+
+        private Words(Map<String, Integer> counts, int length) {
+            this.counts = counts;
+            this.length = length;
+        }
+
+        static Words of(String text, int weight) {
+            if (text == null || text.isEmpty()) {
+                return NONE;
+            }
+            String plain = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                    .toLowerCase(Locale.ROOT);
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            int length = 0;
+            int start = -1;
+            for (int i = 0; i <= plain.length(); i++) {
+                boolean inWord = i < plain.length() && Character.isLetterOrDigit(plain.charAt(i));
+                if (inWord && start < 0) {
+                    start = i;
+                } else if (!inWord && start >= 0) {
+                    counts.merge(plain.substring(start, i), weight, Integer::sum);
+                    length += weight;
+                    start = -1;
+                }
+            }
+            return length == 0 ? NONE : new Words(counts, length);
+        }
+
+        Words plus(Words other) {
+            if (other.length == 0) {
+                return this;
+            }
+            if (length == 0) {
+                return other;
+            }
+            Map<String, Integer> merged = new LinkedHashMap<>(counts);
+            other.counts.forEach((word, count) -> merged.merge(word, count, Integer::sum));
+            return new Words(merged, length + other.length);
+        }
+    }
+
+    // One kind of document (tours or logs); the caller holds the lock
+    private static final class Documents {
+        final TreeMap<String, Postings> words = new TreeMap<>();
+        int count;
+        long totalLength;
+
+        void clear() {
+            words.clear();
+            count = 0;
+            totalLength = 0;
+        }
+
+        void update(long doc, Words before, long group, Words after) {
+            boolean removed = false;
+            for (String word : before.counts.keySet()) {
+                Postings postings = words.get(word);
+                if (postings != null && postings.remove(doc)) {
+                    removed = true;
+                    if (postings.count == 0) {
+                        words.remove(word);
+                    }
+                }
+            }
+            if (removed) {
+                count--;
+                totalLength -= before.length;
+            }
+            boolean added = false;
+            for (Map.Entry<String, Integer> word : after.counts.entrySet()) {
+                added |= words.computeIfAbsent(word.getKey(), key -> new Postings())
+                        .put(doc, group, word.getValue(), after.length);
+            }
+            if (added) {
+                count++;
+                totalLength += after.length;
+            }
+        }
+
+        // Drops the documents of a group from every posting list
+        void removeGroup(long group) {
+            Scores removed = new Scores(16);
+            Iterator<Postings> lists = words.values().iterator();
+            while (lists.hasNext()) {
+                Postings postings = lists.next();
+                postings.removeGroup(group, removed);
+                if (postings.count == 0) {
+                    lists.remove();
+                }
+            }
+            removed.forEach((doc, g, length) -> {
+                count--;
+                totalLength -= (long) length;
+            });
+        }
+
+        // Documents (of the group, or of any for ANY) matching every query word, with their BM25 score. The rarest
+        // query word goes first, so the later ones only look up the candidates left.
+        Scores match(List<String> query, long group) {
+            if (query.isEmpty() || count == 0) {
+                return new Scores(16);
+            }
+            List<SortedMap<String, Postings>> expansions = new ArrayList<>(query.size());
+            long[] order = new long[query.size()];
+            for (int q = 0; q < query.size(); q++) {
+                String word = query.get(q);
+                SortedMap<String, Postings> matching = words.subMap(word, word + Character.MAX_VALUE);
+                long postings = 0;
+                for (Postings list : matching.values()) {
+                    postings += list.count;
+                }
+                expansions.add(matching);
+                order[q] = postings << 8 | q;
+            }
+            Arrays.sort(order);
+            double averageLength = (double) totalLength / count;
+            Scores result = null;
+            for (long entry : order) {
+                int q = (int) (entry & 0xFF);
+                Scores word = new Scores(result != null ? result.size : (int) Math.min(entry >>> 8, 1 << 20));
+                for (Map.Entry<String, Postings> expansion : expansions.get(q).entrySet()) {
+                    Postings list = expansion.getValue();
+                    double idf = Math.log(1 + (count - list.count + 0.5) / (list.count + 0.5));
+                    double weight = expansion.getKey().equals(query.get(q)) ? idf : idf * PREFIX_WEIGHT;
+                    list.score(group, result, weight, averageLength, word);
+                }
+                if (result != null) {
+                    Scores previous = result;
+                    word.forEach((doc, g, score) -> word.add(doc, g, previous.get(doc)));
+                }
+                result = word;
+                if (result.size == 0) {
+                    break;
+                }
+            }
+            return result;
+        }
+    }
+
+    // Documents containing one word, sorted by id: tour, frequency (8 bits) and document length (24 bits) of each
+    private static final class Postings {
+        private long[] docs = new long[2];
+        private long[] groups = new long[2];
+        private int[] stats = new int[2];
+        private int count;
+
+        // Returns whether the document was not in the list yet
+        boolean put(long doc, long group, int frequency, int length) {
+            int stat = Math.min(frequency, 0xFF) << 24 | Math.min(length, 0xFFFFFF);
+            int i = Arrays.binarySearch(docs, 0, count, doc);
+            if (i >= 0) {
+                groups[i] = group;
+                stats[i] = stat;
+                return false;
+            }
+            i = -i - 1;
+            if (count == docs.length) {
+                docs = Arrays.copyOf(docs, count * 2);
+                groups = Arrays.copyOf(groups, count * 2);
+                stats = Arrays.copyOf(stats, count * 2);
+            }
+            System.arraycopy(docs, i, docs, i + 1, count - i);
+            System.arraycopy(groups, i, groups, i + 1, count - i);
+            System.arraycopy(stats, i, stats, i + 1, count - i);
+            docs[i] = doc;
+            groups[i] = group;
+            stats[i] = stat;
+            count++;
+            return true;
+        }
+
+        boolean remove(long doc) {
+            int i = Arrays.binarySearch(docs, 0, count, doc);
+            if (i < 0) {
+                return false;
+            }
+            count--;
+            System.arraycopy(docs, i + 1, docs, i, count - i);
+            System.arraycopy(groups, i + 1, groups, i, count - i);
+            System.arraycopy(stats, i + 1, stats, i, count - i);
+            return true;
+        }
+
+        // Removes the documents of the group, recording each with its length in removed
+        void removeGroup(long group, Scores removed) {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (groups[i] == group) {
+                    removed.max(docs[i], group, stats[i] & 0xFFFFFF);
+                } else {
+                    docs[kept] = docs[i];
+                    groups[kept] = groups[i];
+                    stats[kept] = stats[i];
+                    kept++;
+                }
+            }
+            count = kept;
+        }
+
+        // Adds the BM25 score of this word to each document of the group that is among the candidates (all for
+        // null); a document matching several words of one query word keeps the best.
+        void score(long group, Scores candidates, double weight, double averageLength, Scores into) {
+            for (int i = 0; i < count; i++) {
+                long doc = docs[i];
+                if ((group != ANY && groups[i] != group) || (candidates != null && !candidates.contains(doc))) {
+                    continue;
+                }
+                int frequency = stats[i] >>> 24;
+                int length = stats[i] & 0xFFFFFF;
+                double score = weight * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+                into.max(doc, groups[i], score);
+            }
+        }
+    }
+
+    private interface ScoreVisitor {
+        void visit(long doc, long group, double score);
+    }
+
+    // Open addressing map from document id (never negative) to its group and score, kept at most half full
+    static final class Scores {
+        private long[] docs;
+        private long[] groups;
+        private double[] scores;
+        private int mask;
+        private int size;
+
+        Scores(int expected) {
+            allocate(Integer.highestOneBit(Math.max(1, expected)) << 2);
+        }
+
+        private void allocate(int slots) {
+            docs = new long[slots];
+            Arrays.fill(docs, -1);
+            groups = new long[slots];
+            scores = new double[slots];
+            mask = slots - 1;
+        }
+
+        boolean contains(long doc) {
+            return docs[slot(doc)] == doc;
+        }
+
+        double get(long doc) {
+            int slot = slot(doc);
+            return docs[slot] == doc ? scores[slot] : 0;
+        }
+
+        void max(long doc, long group, double score) {
+            int slot = insert(doc, group);
+            scores[slot] = Math.max(scores[slot], score);
+        }
+
+        void add(long doc, long group, double score) {
+            // Not scores[insert(...)]: the array would be read before insert replaces it when growing
+            int slot = insert(doc, group);
+            scores[slot] += score;
+        }
+
+        void forEach(ScoreVisitor visitor) {
+            for (int slot = 0; slot < docs.length; slot++) {
+                if (docs[slot] != -1) {
+                    visitor.visit(docs[slot], groups[slot], scores[slot]);
+                }
+            }
+        }
+
+        // The `limit` documents with the highest scores, highest first and by id among equal scores. Keeps a min-heap
+        // of the best slots seen, so a common word costs one pass and no sort of every hit.
+        long[] best(int limit) {
+            int[] heap = new int[Math.min(limit, size)];
+            int filled = 0;
+            for (int slot = 0; slot < docs.length; slot++) {
+                if (docs[slot] == -1) {
+                    continue;
+                }
+                if (filled < heap.length) {
+                    heap[filled] = slot;
+                    siftUp(heap, filled++);
+                } else if (heap.length > 0 && better(slot, heap[0])) {
+                    heap[0] = slot;
+                    siftDown(heap, filled);
+                }
+            }
+            long[] result = new long[filled];
+            for (int i = filled - 1; i >= 0; i--) {
+                result[i] = docs[heap[0]];
+                heap[0] = heap[i];
+                siftDown(heap, i);
+            }
+            return result;
+        }
+
+        private boolean better(int a, int b) {
+            return scores[a] > scores[b] || (scores[a] == scores[b] && docs[a] < docs[b]);
+        }
+
+        private void siftUp(int[] heap, int i) {
+            while (i > 0 && better(heap[(i - 1) / 2], heap[i])) {
+                swap(heap, i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void siftDown(int[] heap, int size) {
+            int i = 0;
+            while (true) {
+                int worst = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && better(heap[worst], heap[left])) {
+                    worst = left;
+                }
+                if (right < size && better(heap[worst], heap[right])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(heap, i, worst);
+                i = worst;
+            }
+        }
+
+        private static void swap(int[] heap, int a, int b) {
+            int t = heap[a];
+            heap[a] = heap[b];
+            heap[b] = t;
+        }
+
+        private int slot(long doc) {
+            int slot = (int) (doc * 0x9E3779B97F4A7C15L >>> 40) & mask;
+            while (docs[slot] != -1 && docs[slot] != doc) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private int insert(long doc, long group) {
+            int slot = slot(doc);
+            if (docs[slot] == -1) {
+                if (2 * (size + 1) > docs.length) {
+                    grow();
+                    slot = slot(doc);
+                }
+                docs[slot] = doc;
+                groups[slot] = group;
+                size++;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldDocs = docs;
+            long[] oldGroups = groups;
+            double[] oldScores = scores;
+            allocate(oldDocs.length * 2);
+            for (int i = 0; i < oldDocs.length; i++) {
+                if (oldDocs[i] != -1) {
+                    int slot = slot(oldDocs[i]);
+                    docs[slot] = oldDocs[i];
+                    groups[slot] = oldGroups[i];
+                    scores[slot] = oldScores[i];
+                }
+            }
+        }
+    }
+}
@@ -21,8 +21,11 @@ import com.tourplanner.backend.service.RouteService;
 import com.tourplanner.ui.viewmodel.TourStatisticsViewModel;
 import com.tourplanner.backend.service.TourService;
 import com.tourplanner.backend.service.MapService;
-import com.tourplanner.backend.service.OpenRouteServicesAPI;
 import com.tourplanner.backend.service.ImportExportService;
+import com.tourplanner.backend.service.OrsCircuitBreaker;
+import com.tourplanner.backend.service.OrsRateLimiter;
+import com.tourplanner.backend.service.TileServer;
+import com.tourplanner.ui.viewmodel.RoutePrefetcher;
 
 // ViewFactory responsible for creating and managing JavaFX views using the MVVM pattern.
 public class ViewFactory {
@@ -34,8 +37,12 @@ public class ViewFactory {
     private final ConfigurableApplicationContext applicationContext;
     private final MapService mapService;
     private final ImportExportService importExportService;
+    private final OrsCircuitBreaker circuitBreaker;
+    private final OrsRateLimiter rateLimiter;
+    private final TileServer tileServer;
     private TourLogViewModel tourLogViewModel;
     private TourStatisticsViewModel tourStatisticsViewModel;
+    private RoutePrefetcher routePrefetcher;
 
     public ViewFactory(ConfigurableApplicationContext applicationContext, TourLogService tourLogService, TourService tourService, RouteService routeService, ImportExportService importExportService) {
         this.applicationContext = applicationContext;
@@ -43,7 +50,10 @@ public class ViewFactory {
         this.tourService = tourService;
         this.routeService = routeService;
         this.importExportService = importExportService;
-        this.mapService = applicationContext.getBean(OpenRouteServicesAPI.class);
+        this.mapService = applicationContext.getBean(MapService.class);
+        this.circuitBreaker = applicationContext.getBean(OrsCircuitBreaker.class);
+        this.rateLimiter = applicationContext.getBean(OrsRateLimiter.class);
+        this.tileServer = applicationContext.getBean(TileServer.class);
     }
 
     // Creates a view without a ViewModel
@@ -63,6 +73,9 @@ public class ViewFactory {
                     // Inject RouteService if controller is TourDetailsView
                     if (controller instanceof com.tourplanner.ui.view.TourDetailsView) {
                         ((com.tourplanner.ui.view.TourDetailsView) controller).setRouteService(routeService);
+                        ((com.tourplanner.ui.view.TourDetailsView) controller).setTourService(tourService);
+                        ((com.tourplanner.ui.view.TourDetailsView) controller).setRoutePrefetcher(getRoutePrefetcher());
+                        ((com.tourplanner.ui.view.TourDetailsView) controller).setTileServer(tileServer);
                     }
                     // Inject MapService if controller is TourListView
                     if (controller instanceof com.tourplanner.ui.view.TourListView) {
@@ -103,6 +116,9 @@ public class ViewFactory {
                     // Inject RouteService if controller is TourDetailsView
                     if (controller instanceof com.tourplanner.ui.view.TourDetailsView) {
                         ((com.tourplanner.ui.view.TourDetailsView) controller).setRouteService(routeService);
+                        ((com.tourplanner.ui.view.TourDetailsView) controller).setTourService(tourService);
+                        ((com.tourplanner.ui.view.TourDetailsView) controller).setRoutePrefetcher(getRoutePrefetcher());
+                        ((com.tourplanner.ui.view.TourDetailsView) controller).setTileServer(tileServer);
                     }
                     // Inject MapService if controller is TourListView
                     if (controller instanceof com.tourplanner.ui.view.TourListView) {
@@ -192,6 +208,22 @@ public class ViewFactory {
         return tourStatisticsViewModel;
     }
 
+    // Returns the prefetcher for the routes of the tours around the selected one. Prefetches only go out while
+    // OpenRouteService is reachable and its directions quota has headroom.
+    public RoutePrefetcher getRoutePrefetcher() {
+        if (routePrefetcher == null) {
+            routePrefetcher = new RoutePrefetcher(tourService::getTourRouteAsync,
+                    () -> circuitBreaker.getState() == OrsCircuitBreaker.State.CLOSED
+                            && rateLimiter.hasSpareCapacity("directions"), 3);
+        }
+        return routePrefetcher;
+    }
+
+    // Returns the circuit breaker of the routing service, for showing whether routes are exact or estimated
+    public OrsCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
     // Returns the Main View
     public MainView getMainView() {
         try {
@@ -233,5 +265,9 @@ public class ViewFactory {
             tourStatisticsViewModel.dispose();
             tourStatisticsViewModel = null;
         }
+        if (routePrefetcher != null) {
+            routePrefetcher.dispose();
+            routePrefetcher = null;
+        }
     }
 }
@@ -1,14 +1,17 @@
 package com.tourplanner.ui.view;
 
+import com.tourplanner.backend.service.OrsCircuitBreaker;
 import com.tourplanner.ui.ViewFactory;
 import com.tourplanner.ui.viewmodel.TourLogViewModel;
 import com.tourplanner.ui.viewmodel.TourStatisticsViewModel;
 import com.tourplanner.ui.view.TourStatisticsView;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.BorderPane;
@@ -20,6 +23,7 @@ public class MainView {
     @FXML private BorderPane root;
     @FXML private AnchorPane leftContainer;
     @FXML private AnchorPane centerContainer;
+    @FXML private Label routingStatus;
 
     private ViewFactory viewFactory;
     private TourListView tourListView;
@@ -95,6 +99,8 @@ public class MainView {
             
             // Connect tour selection to tour details, but only auto-switch if on Home
             connectTourSelectionToConditionalDetails();
+
+            bindRoutingStatus();
             
         } catch (Exception e) {
             new Alert(Alert.AlertType.ERROR, "Failed to initialize views: " + e.getMessage()).showAndWait();
@@ -109,6 +115,35 @@ public class MainView {
                 }
             });
             tourDetailsView.bindTo(tourListView.selectedTourProperty());
+            // Registered after the details view, so the selected tour's route is requested before its neighbours'
+            tourListView.selectedTourProperty().addListener((obs, oldVal, newVal) -> {
+                var list = tourListView.getTourList();
+                viewFactory.getRoutePrefetcher().prefetchAround(list.getItems(), list.getSelectionModel().getSelectedIndex());
+            });
+        }
+    }
+
+    // Shows in the toolbar whether routes come from OpenRouteService or are estimated while it is unreachable
+    private void bindRoutingStatus() {
+        OrsCircuitBreaker breaker = viewFactory.getCircuitBreaker();
+        if (routingStatus == null || breaker == null) {
+            return;
+        }
+        showRoutingStatus(breaker.getState());
+        breaker.addListener(state -> Platform.runLater(() -> showRoutingStatus(state)));
+    }
+
+    private void showRoutingStatus(OrsCircuitBreaker.State state) {
+        switch (state) {
+            case CLOSED -> routingStatus.setText("");
+            case OPEN -> {
+                routingStatus.setText("Routing offline - distances are estimated");
+                routingStatus.setStyle("-fx-padding: 0 0 0 12; -fx-text-fill: #c62828;");
+            }
+            case HALF_OPEN -> {
+                routingStatus.setText("Routing offline - checking connection...");
+                routingStatus.setStyle("-fx-padding: 0 0 0 12; -fx-text-fill: #ef6c00;");
+            }
         }
     }
 
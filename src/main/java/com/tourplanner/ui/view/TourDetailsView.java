@@ -1,15 +1,28 @@
 package com.tourplanner.ui.view;
 
 import com.tourplanner.backend.dto.TourDTO;
+import com.tourplanner.backend.model.GeoCode;
+import com.tourplanner.backend.model.MultiResolutionPolyline;
+import com.tourplanner.backend.model.PackedPolyline;
 import com.tourplanner.backend.model.RouteData;
 import com.tourplanner.backend.service.RouteService;
+import com.tourplanner.backend.service.TileServer;
+import com.tourplanner.backend.service.TourService;
+import com.tourplanner.ui.viewmodel.RoutePrefetcher;
+import javafx.application.Platform;
+import javafx.concurrent.Worker;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
 import javafx.scene.layout.Pane;
+import netscape.javascript.JSException;
+import netscape.javascript.JSObject;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 
@@ -17,6 +30,10 @@ import java.util.logging.Level;
 public class TourDetailsView {
 
     private static final Logger logger = Logger.getLogger(TourDetailsView.class.getName());
+    private static final int MAP_WIDTH = 600;
+    private static final int MAP_HEIGHT = 400;
+    private static final int MAX_MAP_ZOOM = 18;
+    private static final String ROUTE_UNAVAILABLE = "<div style='color:red;font-size:16px;padding:20px;'>Could not load route map. No route or coordinates found for these locations. Check your OpenRouteService API key, internet connection, or try different locations.</div>";
 
     @FXML private Label tourNameLabel;
     @FXML private Label descriptionLabel;
@@ -27,8 +44,17 @@ public class TourDetailsView {
     @FXML private Pane mapContainer;
 
     private RouteService routeService;
+    private TourService tourService;
+    private RoutePrefetcher routePrefetcher;
+    private TileServer tileServer;
     private WebView mapView;
     private RouteData currentRoute;
+    private CompletableFuture<RouteData> pendingRoute;
+    private RouteLevels routeLevels;
+    private boolean mapPageRequested;
+    private boolean mapPageLoaded;
+    private Runnable pendingMapUpdate; // latest update made before the page finished loading
+    private long selectedAt;           // System.nanoTime() of the selection the map is loading for
 
     // No-arg constructor required for FXML loading.
     public TourDetailsView() {
@@ -45,14 +71,48 @@ public class TourDetailsView {
         this.routeService = routeService;
     }
 
+    // Set the TourService dependency, used to read the stored route of a tour (called by ViewFactory).
+    public void setTourService(TourService tourService) {
+        this.tourService = tourService;
+    }
+
+    // Set the prefetcher that holds the routes of the neighbouring tours in the list (called by ViewFactory).
+    public void setRoutePrefetcher(RoutePrefetcher routePrefetcher) {
+        this.routePrefetcher = routePrefetcher;
+    }
+
+    // Set the local server for Leaflet and the map tiles (called by ViewFactory). Without it both come from the internet.
+    public void setTileServer(TileServer tileServer) {
+        this.tileServer = tileServer;
+    }
+
     @FXML
     private void initialize() {
         try {
             // Initialize WebView for interactive map
             if (mapContainer != null) {
                 mapView = new WebView();
-                mapView.setPrefSize(600, 400);
+                mapView.setPrefSize(MAP_WIDTH, MAP_HEIGHT);
                 mapContainer.getChildren().add(mapView);
+                // The map page is loaded once; updates made before it is ready are applied when it is. If it does not
+                // load, the placeholder image comes back and the next update loads the page again.
+                mapView.getEngine().getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
+                    if (newState == Worker.State.SUCCEEDED) {
+                        mapPageLoaded = true;
+                        if (pendingMapUpdate != null) {
+                            Runnable update = pendingMapUpdate;
+                            pendingMapUpdate = null;
+                            runMapUpdate(update);
+                        }
+                    } else if (newState == Worker.State.FAILED || newState == Worker.State.CANCELLED) {
+                        logger.log(Level.WARNING, "Map page did not load: " + newState,
+                                mapView.getEngine().getLoadWorker().getException());
+                        mapPageRequested = false;
+                        pendingMapUpdate = null;
+                        mapView.setVisible(false);
+                        mapImage.setVisible(true);
+                    }
+                });
                 mapView.setVisible(false);
             }
             logger.fine("TourDetailsView initialized");
@@ -70,6 +130,7 @@ public class TourDetailsView {
 
     // Clear all tour details display.
     private void clear() {
+        cancelPendingRoute();
         tourNameLabel.setText("Select a tour to view details");
         descriptionLabel.setText("Description: No tour selected");
         transportLabel.setText("Transport: --");
@@ -92,7 +153,7 @@ public class TourDetailsView {
             timeLabel.setText("Estimated Time: " + tour.getEstimatedTime());
             
             // Show interactive map if route service is available
-            if (routeService != null && mapView != null) {
+            if ((routeService != null || tourService != null) && mapView != null) {
                 showInteractiveMap(tour);
             }
             logger.fine("Displayed tour details for: " + tour.getName());
@@ -102,72 +163,223 @@ public class TourDetailsView {
         }
     }
 
-    // Show interactive map for the tour
+    // Show interactive map for the tour. The route is requested asynchronously, so the FX thread never waits on routing.
     private void showInteractiveMap(TourDTO tour) {
+        cancelPendingRoute();
+        selectedAt = System.nanoTime();
         try {
             String fromLocation = tour.getFromLocation() != null ? tour.getFromLocation() : "Vienna, Austria";
             String toLocation = tour.getToLocation() != null ? tour.getToLocation() : "Salzburg, Austria";
             String transportType = tour.getTransportType() != null ? tour.getTransportType() : "Car";
-            logger.info(String.format("Requesting route for map: %s -> %s by %s", fromLocation, toLocation, transportType));
-            currentRoute = routeService.getRouteData(fromLocation, toLocation, transportType);
-            if (currentRoute != null && currentRoute.getCoordinates() != null && !currentRoute.getCoordinates().isEmpty()) {
-                logger.info(String.format("RouteData received: %d coordinates", currentRoute.getCoordinates().size()));
-                for (var c : currentRoute.getCoordinates()) {
-                    logger.info(String.format("Coordinate: lat=%f, lon=%f", c.getLatitude(), c.getLongitude()));
-                }
-                String leafletHtml = buildLeafletHtml(currentRoute);
-                WebEngine engine = mapView.getEngine();
-                engine.loadContent(leafletHtml);
-                mapView.setVisible(true);
-                mapImage.setVisible(false);
-                logger.info(String.format("Map loaded successfully for tour: %s", tour.getName()));
+            CompletableFuture<RouteData> request;
+            if (routePrefetcher != null && RoutePrefetcher.supports(tour)) {
+                // Usually already loaded while the user was on a neighbouring tour
+                request = routePrefetcher.route(tour);
+            } else if (tourService != null && tour.getId() != null
+                    && tour.getFromLocation() != null && tour.getToLocation() != null && tour.getTransportType() != null) {
+                // Stored geometry, only re-routed by the service if the tour's route fields changed
+                request = tourService.getTourRouteAsync(tour.getId());
             } else {
-                logger.warning("No route or coordinates found for map. Showing error message.");
-                WebEngine engine = mapView.getEngine();
-                engine.loadContent("<html><body><div style='color:red;font-size:16px;padding:20px;'>Could not load route map. No route or coordinates found for these locations. Check your OpenRouteService API key, internet connection, or try different locations.</div></body></html>");
-                mapView.setVisible(true);
-                mapImage.setVisible(false);
+                logger.info(String.format("Requesting route for map: %s -> %s by %s", fromLocation, toLocation, transportType));
+                request = routeService.getRouteDataAsync(fromLocation, toLocation, transportType,
+                        coordinates(tour.getFromLatitude(), tour.getFromLongitude()),
+                        coordinates(tour.getToLatitude(), tour.getToLongitude()));
+            }
+            if (!request.isDone()) {
+                showMapMessage("<div style='color:gray;font-size:16px;padding:20px;'>Loading route...</div>");
             }
+            pendingRoute = request;
+            request.whenComplete((route, error) -> Platform.runLater(() -> {
+                // Only the route of the most recently selected tour is shown
+                if (pendingRoute != request) {
+                    return;
+                }
+                pendingRoute = null;
+                if (error != null) {
+                    logger.log(Level.WARNING, "Failed to load interactive map", error);
+                    showMapMessage("<div style='color:red;font-size:16px;padding:20px;'>Could not load route map due to an error. Check your OpenRouteService API key and internet connection.</div>");
+                } else {
+                    showRoute(tour, route);
+                }
+            }));
         } catch (Exception e) {
             logger.log(Level.WARNING, "Failed to load interactive map", e);
-            WebEngine engine = mapView.getEngine();
-            engine.loadContent("<html><body><div style='color:red;font-size:16px;padding:20px;'>Could not load route map due to an error. Check your OpenRouteService API key and internet connection.</div></body></html>");
-            mapView.setVisible(true);
-            mapImage.setVisible(false);
+            showMapMessage("<div style='color:red;font-size:16px;padding:20px;'>Could not load route map due to an error. Check your OpenRouteService API key and internet connection.</div>");
+        }
+    }
+
+    // Stored endpoint coordinates of the tour, null if it has none
+    private static GeoCode coordinates(Double latitude, Double longitude) {
+        return latitude != null && longitude != null ? new GeoCode(longitude, latitude) : null;
+    }
+
+    private void showRoute(TourDTO tour, RouteData route) {
+        currentRoute = route;
+        if (currentRoute != null && currentRoute.getPointCount() > 0) {
+            logger.info(String.format("RouteData received: %d coordinates", currentRoute.getPointCount()));
+            // Held here because the page only keeps a weak reference to Java objects
+            RouteLevels levels = new RouteLevels(currentRoute.getLevels());
+            String points = encodePoints(levels.levels.forZoom(initialZoom(levels.levels)));
+            String from = route.getFromLocation();
+            String to = route.getToLocation();
+            long selected = selectedAt;
+            updateMap(() -> {
+                JSObject window = (JSObject) mapView.getEngine().executeScript("window");
+                // Leaflet comes from the tile server or the internet; without it the page can only show messages
+                if (!Boolean.TRUE.equals(mapView.getEngine().executeScript("typeof L !== 'undefined'"))) {
+                    logger.warning("Leaflet is not loaded, the route cannot be drawn");
+                    window.call("showMessage", ROUTE_UNAVAILABLE);
+                    return;
+                }
+                Runtime runtime = Runtime.getRuntime();
+                long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+                long start = System.nanoTime();
+                routeLevels = levels;
+                window.setMember("routeLevels", levels);
+                window.call("showRoute", points, from != null ? from : "", to != null ? to : "");
+                if (logger.isLoggable(Level.FINE)) {
+                    logger.fine(String.format("Route of %s rendered in %.1f ms (%.1f ms after selection, %d KB payload), heap %d -> %d MB",
+                            tour.getName(), (System.nanoTime() - start) / 1e6, (System.nanoTime() - selected) / 1e6,
+                            points.length() / 1024, heapBefore >> 20, (runtime.totalMemory() - runtime.freeMemory()) >> 20));
+                }
+            });
+            logger.info(String.format("Map loaded successfully for tour: %s", tour.getName()));
+        } else {
+            logger.warning("No route or coordinates found for map. Showing error message.");
+            showMapMessage(ROUTE_UNAVAILABLE);
         }
     }
 
-    // Build Leaflet HTML for interactive map.
-    private String buildLeafletHtml(RouteData route) {
-        StringBuilder coords = new StringBuilder();
-        for (RouteData.Coordinate c : route.getCoordinates()) {
-            coords.append("[").append(c.getLatitude()).append(",").append(c.getLongitude()).append("],");
+    // Covers the map with a message until the next route is shown
+    private void showMapMessage(String message) {
+        updateMap(() -> {
+            JSObject window = (JSObject) mapView.getEngine().executeScript("window");
+            window.call("showMessage", message);
+        });
+    }
+
+    // Runs the update against the map page, loading the page first if this is the first map shown
+    private void updateMap(Runnable update) {
+        mapView.setVisible(true);
+        mapImage.setVisible(false);
+        if (mapPageLoaded) {
+            runMapUpdate(update);
+            return;
         }
-        if (coords.length() > 0) {
-            coords.setLength(coords.length() - 1); // remove last comma
+        pendingMapUpdate = update;
+        if (!mapPageRequested) {
+            mapPageRequested = true;
+            mapView.getEngine().loadContent(buildMapPage());
         }
-        
+    }
+
+    // A script error on the page shows the route as unavailable instead of reaching the FX thread
+    private void runMapUpdate(Runnable update) {
+        try {
+            update.run();
+        } catch (JSException e) {
+            logger.log(Level.WARNING, "Map page could not show the update", e);
+            try {
+                ((JSObject) mapView.getEngine().executeScript("window")).call("showMessage", ROUTE_UNAVAILABLE);
+            } catch (JSException messageError) {
+                logger.log(Level.WARNING, "Map page could not show a message either", messageError);
+            }
+        }
+    }
+
+    // Drops the route request of the previously selected tour, if it is still running
+    private void cancelPendingRoute() {
+        if (pendingRoute != null) {
+            pendingRoute.cancel(true);
+            pendingRoute = null;
+        }
+    }
+
+    // Zoom at which the whole route fits the map view, the resolution the route is first sent in
+    private int initialZoom(MultiResolutionPolyline levels) {
+        int width = mapView.getWidth() > 0 ? (int) mapView.getWidth() : MAP_WIDTH;
+        int height = mapView.getHeight() > 0 ? (int) mapView.getHeight() : MAP_HEIGHT;
+        return Math.min(MAX_MAP_ZOOM, levels.fittingZoom(width, height));
+    }
+
+    // The map page, loaded once. Routes come in through showRoute(points, from, to), with the points base64 encoded
+    // as little-endian int32 pairs in 1e-5 degrees (8 bytes per point, read into an Int32Array on the page), and
+    // messages through showMessage(html), which also works if Leaflet did not load. Other resolutions are fetched from
+    // routeLevels when the user zooms.
+    private String buildMapPage() {
+        String base = tileServer != null ? tileServer.getBaseUrl() : null;
+        String leaflet = base != null ? base + "/leaflet/" : "https://unpkg.com/leaflet/dist/";
+        String tiles = base != null ? base + "/tiles/{z}/{x}/{y}.png" : "https://{s}.tile.openstreetmap.org/{z}/{x}/{y}.png";
+
         return "<!DOCTYPE html>" +
                "<html>" +
                "<head>" +
                "<meta charset='utf-8'/>" +
                "<meta name='viewport' content='width=device-width, initial-scale=1.0'>" +
-               "<link rel='stylesheet' href='https://unpkg.com/leaflet/dist/leaflet.css'/>" +
-               "<style>#map { height: 100%; width: 100%; min-height: 400px; } body { margin: 0; padding: 0; }</style>" +
+               "<link rel='stylesheet' href='" + leaflet + "leaflet.css'/>" +
+               "<style>#map { height: 100%; width: 100%; min-height: 400px; } body { margin: 0; padding: 0; }" +
+               " #message { display: none; position: absolute; top: 0; left: 0; right: 0; bottom: 0; z-index: 1000; background: white; }</style>" +
                "</head>" +
                "<body>" +
                "<div id='map'></div>" +
-               "<script src='https://unpkg.com/leaflet/dist/leaflet.js'></script>" +
+               "<div id='message'></div>" +
+               "<script src='" + leaflet + "leaflet.js'></script>" +
                "<script>" +
-               "var map = L.map('map').setView([" + route.getCoordinates().get(0).getLatitude() + ", " + route.getCoordinates().get(0).getLongitude() + "], 10);" +
-               "L.tileLayer('https://{s}.tile.openstreetmap.org/{z}/{x}/{y}.png', { maxZoom: 18 }).addTo(map);" +
-               "var latlngs = [" + coords + "];" +
-               "var polyline = L.polyline(latlngs, {color: 'blue', weight: 3}).addTo(map);" +
-               "map.fitBounds(polyline.getBounds());" +
-               "L.marker(latlngs[0]).addTo(map).bindPopup('Start: " + route.getFromLocation() + "');" +
-               "L.marker(latlngs[latlngs.length-1]).addTo(map).bindPopup('End: " + route.getToLocation() + "');" +
+               "var message = document.getElementById('message');" +
+               "function showMessage(html) { message.innerHTML = html; message.style.display = 'block'; }" +
+               "var map, polyline, markers;" +
+               "if (typeof L !== 'undefined') {" +
+               "  map = L.map('map').setView([47.5, 13.5], 7);" +
+               "  L.tileLayer('" + tiles + "', { maxZoom: " + MAX_MAP_ZOOM + " }).addTo(map);" +
+               "  polyline = L.polyline([], {color: 'blue', weight: 3}).addTo(map);" +
+               "  markers = L.layerGroup().addTo(map);" +
+               "  map.on('zoomend', function() {" +
+               "    if (window.routeLevels) { polyline.setLatLngs(decode(window.routeLevels.forZoom(map.getZoom()))); }" +
+               "  });" +
+               "}" +
+               "function decode(points) {" +
+               "  var text = atob(points), bytes = new Uint8Array(text.length);" +
+               "  for (var i = 0; i < text.length; i++) { bytes[i] = text.charCodeAt(i); }" +
+               "  var ints = new Int32Array(bytes.buffer), latlngs = new Array(ints.length / 2);" +
+               "  for (var j = 0; j < latlngs.length; j++) { latlngs[j] = [ints[2 * j] / 1e5, ints[2 * j + 1] / 1e5]; }" +
+               "  return latlngs;" +
+               "}" +
+               "function label(text) { var span = document.createElement('span'); span.textContent = text; return span; }" +
+               "function showRoute(points, from, to) {" +
+               "  message.style.display = 'none';" +
+               "  var latlngs = decode(points);" +
+               "  polyline.setLatLngs(latlngs);" +
+               "  markers.clearLayers();" +
+               "  markers.addLayer(L.marker(latlngs[0]).bindPopup(label('Start: ' + from)));" +
+               "  markers.addLayer(L.marker(latlngs[latlngs.length - 1]).bindPopup(label('End: ' + to)));" +
+               "  map.invalidateSize();" +
+               "  map.fitBounds(polyline.getBounds());" +
+               "}" +
                "</script>" +
                "</body>" +
                "</html>";
     }
+
+    // Points as base64 of little-endian int32 pairs (latitude, longitude) in 1e-5 degrees, the page's wire format
+    static String encodePoints(PackedPolyline polyline) {
+        ByteBuffer buffer = ByteBuffer.allocate(polyline.size() * 8).order(ByteOrder.LITTLE_ENDIAN);
+        polyline.forEach((lat, lon) -> {
+            buffer.putInt((int) Math.round(lat * PackedPolyline.SCALE));
+            buffer.putInt((int) Math.round(lon * PackedPolyline.SCALE));
+        });
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    // Called from the map page on zoom changes, hands out the route at the resolution of that zoom level
+    public static class RouteLevels {
+        private final MultiResolutionPolyline levels;
+
+        RouteLevels(MultiResolutionPolyline levels) {
+            this.levels = levels;
+        }
+
+        public String forZoom(int zoom) {
+            return encodePoints(levels.forZoom(Math.min(MAX_MAP_ZOOM, zoom)));
+        }
+    }
 }
@@ -5,8 +5,7 @@ import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
 import com.tourplanner.backend.service.MapService;
-import javafx.application.Platform;
-import javafx.scene.input.KeyEvent;
+import com.tourplanner.ui.viewmodel.SuggestionPipeline;
 
 import java.io.IOException;
 import java.net.URL;
@@ -30,56 +29,62 @@ public class TourEditorDialog extends Dialog<TourDTO> {
     private ContextMenu fromSuggestions = new ContextMenu();
     private ContextMenu toSuggestions = new ContextMenu();
 
+    // One pipeline for all editor dialogs, so its prefix cache and metrics outlive a single dialog
+    private static SuggestionPipeline sharedPipeline;
+    private static MapService sharedPipelineService;
+
     public void setMapService(MapService mapService) {
         this.mapService = mapService;
         setupAutocomplete();
     }
 
+    private static synchronized SuggestionPipeline pipelineFor(MapService mapService) {
+        if (sharedPipeline == null || sharedPipelineService != mapService) {
+            sharedPipeline = new SuggestionPipeline(mapService);
+            sharedPipelineService = mapService;
+        }
+        return sharedPipeline;
+    }
+
     private void setupAutocomplete() {
-        fromField.addEventHandler(KeyEvent.KEY_RELEASED, event -> {
-            String text = fromField.getText();
-            if (text.length() < 2 || mapService == null) {
-                fromSuggestions.hide();
-                return;
-            }
-            mapService.geocodeSuggestions(text).thenAccept(suggestions -> {
-                Platform.runLater(() -> {
-                    fromSuggestions.getItems().clear();
-                    if (suggestions != null && !suggestions.isEmpty()) {
-                        for (var geo : suggestions) {
-                            String label = geo.getLabel() != null ? geo.getLabel() : text;
-                            MenuItem item = new MenuItem(label);
-                            item.setOnAction(e -> fromField.setText(label));
-                            fromSuggestions.getItems().add(item);
-                        }
-                        fromSuggestions.show(fromField, javafx.geometry.Side.BOTTOM, 0, 0);
-                    } else {
-                        fromSuggestions.hide();
-                    }
-                });
-            });
+        if (mapService == null) {
+            return;
+        }
+        SuggestionPipeline pipeline = pipelineFor(mapService);
+        SuggestionPipeline.Channel fromChannel = pipeline.newChannel();
+        SuggestionPipeline.Channel toChannel = pipeline.newChannel();
+        bindSuggestions(fromField, fromSuggestions, fromChannel);
+        bindSuggestions(toField, toSuggestions, toChannel);
+        // Nothing may reach the menus once the dialog is closed
+        setOnHidden(e -> {
+            fromChannel.cancel();
+            toChannel.cancel();
+            logger.fine("Suggestion pipeline stats: " + pipeline.getStats());
         });
-        toField.addEventHandler(KeyEvent.KEY_RELEASED, event -> {
-            String text = toField.getText();
-            if (text.length() < 2 || mapService == null) {
-                toSuggestions.hide();
-                return;
-            }
-            mapService.geocodeSuggestions(text).thenAccept(suggestions -> {
-                Platform.runLater(() -> {
-                    toSuggestions.getItems().clear();
-                    if (suggestions != null && !suggestions.isEmpty()) {
-                        for (var geo : suggestions) {
-                            String label = geo.getLabel() != null ? geo.getLabel() : text;
-                            MenuItem item = new MenuItem(label);
-                            item.setOnAction(e -> toField.setText(label));
-                            toSuggestions.getItems().add(item);
-                        }
-                        toSuggestions.show(toField, javafx.geometry.Side.BOTTOM, 0, 0);
-                    } else {
-                        toSuggestions.hide();
-                    }
-                });
+    }
+
+    // Reacts to text changes only (not every key release), and lets the pipeline decide what reaches the menu
+    private void bindSuggestions(TextField field, ContextMenu menu, SuggestionPipeline.Channel channel) {
+        field.textProperty().addListener((obs, oldText, text) -> {
+            channel.submit(text, suggestions -> {
+                menu.getItems().clear();
+                if (suggestions == null || suggestions.isEmpty()) {
+                    menu.hide();
+                    return;
+                }
+                for (var geo : suggestions) {
+                    String label = geo.getLabel() != null ? geo.getLabel() : field.getText();
+                    MenuItem item = new MenuItem(label);
+                    item.setOnAction(e -> {
+                        field.setText(label);
+                        channel.cancel(); // setText submitted the chosen label again, drop that lookup
+                        menu.hide();
+                    });
+                    menu.getItems().add(item);
+                }
+                if (!menu.isShowing()) {
+                    menu.show(field, javafx.geometry.Side.BOTTOM, 0, 0);
+                }
             });
         });
     }
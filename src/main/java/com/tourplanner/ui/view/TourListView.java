@@ -160,6 +160,11 @@ public class TourListView {
         viewModel.refresh();
     }
 
+    @FXML
+    private void onUpdateRoutes() {
+        viewModel.refreshRoutes();
+    }
+
     @FXML
     private void onGeneratePdf() {
         TourDTO selectedTour = viewModel.getSelectedTour();
@@ -198,11 +203,14 @@ public class TourListView {
         if (file != null && importExportService != null) {
             java.util.List<com.tourplanner.backend.dto.TourDTO> importedTours = importExportService.importToursFromJson(file.getAbsolutePath());
             if (importedTours != null && !importedTours.isEmpty()) {
-                for (com.tourplanner.backend.dto.TourDTO tour : importedTours) {
-                    viewModel.addTour(tour);
-                }
-                showInfo("Tours imported successfully!");
-                viewModel.refresh();
+                // The routes of all tours are requested as one batch, the tours are added to the list once saved
+                viewModel.addTours(importedTours).whenComplete((savedTours, error) -> {
+                    if (error != null) {
+                        showError("Failed to import tours: " + error.getMessage());
+                    } else {
+                        showInfo(savedTours.size() + " tours imported successfully!");
+                    }
+                });
             } else {
                 showError("Failed to import tours or file is empty.");
             }
@@ -13,6 +13,7 @@ import com.tourplanner.backend.service.PdfGenerator;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Function;
 import javafx.scene.control.Tooltip;
 import javafx.beans.binding.Bindings;
 
@@ -47,21 +48,29 @@ public class TourLogView {
     @FXML
     private void initialize() {
         // Table column bindings (static, do not depend on viewModel)
-        dateCol.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getFormattedDateTime()));
-        commentCol.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getComment()));
-        difficultyCol.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getDifficultyDescription()));
-        distanceCol.setCellValueFactory(cell -> new SimpleStringProperty(String.valueOf(cell.getValue().getTotalDistance())));
-        timeCol.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getFormattedTotalTime()));
-        ratingCol.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().getRatingDescription()));
+        // The rows come from a paged list that reads rows past the real end as null (see PagedList)
+        dateCol.setCellValueFactory(cell -> text(cell.getValue(), TourLogDTO::getFormattedDateTime));
+        commentCol.setCellValueFactory(cell -> text(cell.getValue(), TourLogDTO::getComment));
+        difficultyCol.setCellValueFactory(cell -> text(cell.getValue(), TourLogDTO::getDifficultyDescription));
+        distanceCol.setCellValueFactory(cell -> text(cell.getValue(), log -> String.valueOf(log.getTotalDistance())));
+        timeCol.setCellValueFactory(cell -> text(cell.getValue(), TourLogDTO::getFormattedTotalTime));
+        ratingCol.setCellValueFactory(cell -> text(cell.getValue(), TourLogDTO::getRatingDescription));
+        // Not the default policy, which would copy every row of the paged list to sort it
+        logTable.setSortPolicy(table -> viewModel == null || viewModel.sortTourLogs(table.getComparator()));
 
         if (viewModel != null) {
             bindToViewModel();
         }
     }
 
+    private static SimpleStringProperty text(TourLogDTO log, Function<TourLogDTO, String> value) {
+        return new SimpleStringProperty(log != null ? value.apply(log) : "");
+    }
+
     private void bindToViewModel() {
         if (viewModel == null) return;
-        // Bind to the observable list directly
+        // Bind to the observable list directly; the table only asks it for the rows on screen, so pages are read
+        // as the user scrolls
         logTable.setItems(viewModel.getTourLogs());
         // Bind error message
         errorLabel.textProperty().bind(viewModel.errorMessageProperty());
@@ -71,6 +80,7 @@ public class TourLogView {
     private void updateTourInfo() {
         if (viewModel != null && viewModel.getSelectedTour() != null) {
             TourDTO tour = viewModel.getSelectedTour();
+            // From the tour's stored log count, not from loaded rows
             int logCount = viewModel.getTourLogs().size();
             tourInfoLabel.setText("Tour: " + tour.getName() + " (" + logCount + " logs)");
             if (logCount == 0) {
@@ -42,7 +42,7 @@ public class TourStatisticsView {
             avgDistLabel.setText(String.format("Average Tour Distance: %.2f km", viewModel.getAverageDistance()));
             avgRatingLabel.setText(String.format("Average Tour Rating: %.2f", viewModel.getAverageRating()));
             mostPopularLabel.setText(viewModel.getMostPopularTour() != null ?
-                    "Most Popular Tour: " + viewModel.getMostPopularTour().getName() +
+                    "Most Popular Tour: " + viewModel.getMostPopularTour().name() +
                             " (" + viewModel.getMostPopularTourLogCount() + " logs)" :
                     "Most Popular Tour: N/A");
             errorLabel.setText(viewModel.getErrorMessage());
@@ -64,11 +64,8 @@ public class TourStatisticsView {
         // Function to update the bar chart with all tours
         Runnable updateChart = () -> {
             series.getData().clear();
-            var tourStats = viewModel.getTourStats();
-            for (var entry : tourStats.entrySet()) {
-                String tourName = entry.getKey().getName();
-                int logCount = viewModel.getTourLogCount(entry.getKey().getId());
-                series.getData().add(new XYChart.Data<>(tourName, logCount));
+            for (var stats : viewModel.getTourStats()) {
+                series.getData().add(new XYChart.Data<>(stats.name(), stats.logCount()));
             }
         };
         
@@ -85,7 +82,7 @@ public class TourStatisticsView {
             File file = fileChooser.showSaveDialog(stage);
             if (file != null) {
                 try {
-                    PdfGenerator.generateSummaryReport(file, viewModel.getTourStats());
+                    PdfGenerator.generateSummaryReport(file, viewModel.getStatisticsSummary(), viewModel.getTourStats());
                 } catch (Exception ex) {
                     errorLabel.setText("Failed to generate summary report: " + ex.getMessage());
                 }
@@ -0,0 +1,287 @@
+package com.tourplanner.ui.viewmodel;
+
+import com.tourplanner.backend.dto.PageDTO;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+// Observable list over a keyset-paginated source, for TableViews over more rows than should be in memory. size()
+// comes from the source's count, and get(i) reads the page holding row i on first access, so a TableView (which
+// only asks for the rows it shows) fetches pages as the user scrolls. Pages are read with the cursor of the page
+// before, or, after a jump to a page never reached (dragging the scroll bar), with one the source walks to from the
+// nearest page whose cursor is known, or back from the end when that is nearer. Pages and cursors are kept in small
+// LRU caches, so memory stays the same however far the user scrolls.
+//
+// Pages are read on the caller's thread, for a TableView the FX thread. A row not cached costs one page read of
+// pageSize rows and, after a jump, one seek: a key walk over at most half the rows (from the nearest known cursor,
+// or back from the count when that is nearer), plus a walk from the cursor if the walk back finds fewer rows than the
+// count. The walks only read keys (TourLogServiceImpl.walkKeys), so page sizes of a few hundred rows keep a jump to
+// the middle of a million logs short of a visible pause; a source much slower than that needs a background reader.
+//
+// Without a source it is a plain list (setAll, e.g. for search results). With one, rows added or removed directly
+// only change the size; the rows themselves always come from the source, and reload() re-reads it after a change.
+// Rows beyond the real end of the source (a count that is too high) read as null once the last page has been read;
+// until then a jump near the end, which walks back from the count, shows the rows shifted by the difference.
+public class PagedList<T> extends ObservableListBase<T> {
+
+    private static final Logger logger = Logger.getLogger(PagedList.class.getName());
+    static final int MAX_CACHED_PAGES = 10;
+    static final int MAX_CACHED_CURSORS = 1000;
+
+    // Where the rows come from
+    public interface Source<T> {
+        long count();
+
+        // Up to size rows after the cursor (null: from the start)
+        PageDTO<T> page(String cursor, int size);
+
+        // Cursor rows (> 0) rows on from the cursor (null: the start), null if there are not that many rows
+        String cursorAfter(String cursor, long rows);
+
+        // Cursor after which only the last rows (> 0) rows come, null if there are not more rows than that
+        String cursorBeforeLast(long rows);
+    }
+
+    private final int pageSize;
+    private final Map<Integer, List<T>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    // Cursor that page n starts after, for the pages whose start is known
+    private final Map<Integer, String> cursors = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return size() > MAX_CACHED_CURSORS;
+        }
+    };
+    private final List<T> items = new ArrayList<>();
+    private Source<T> source;
+    private int size;
+    // Real number of rows, once the last page was read (-1 before)
+    private long end = -1;
+    private long pageLoads;
+
+    public PagedList(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.pageSize = pageSize;
+    }
+
+    // Shows the rows of the source, starting with its count
+    public void setSource(Source<T> source) {
+        int oldSize = size();
+        this.source = source;
+        items.clear();
+        dropPages();
+        size = (int) Math.min(Integer.MAX_VALUE, source.count());
+        fireReset(oldSize);
+    }
+
+    // Re-reads the count and drops the cached pages, after rows were changed in the source
+    public void reload() {
+        if (source != null) {
+            setSource(source);
+        }
+    }
+
+    public boolean isPaged() {
+        return source != null;
+    }
+
+    // Pages read from the source so far
+    public long getPageLoads() {
+        return pageLoads;
+    }
+
+    int cachedPages() {
+        return pages.size();
+    }
+
+    @Override
+    public int size() {
+        return source != null ? size : items.size();
+    }
+
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size());
+        if (source == null) {
+            return items.get(index);
+        }
+        if (end >= 0 && index >= end) {
+            return null;
+        }
+        int page = index / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null) {
+            rows = load(page);
+        }
+        int offset = index % pageSize;
+        return offset < rows.size() ? rows.get(offset) : null;
+    }
+
+    private List<T> load(int page) {
+        String cursor = null;
+        if (page > 0) {
+            cursor = cursors.get(page);
+            if (cursor == null) {
+                cursor = seek(page);
+                if (cursor == null) {
+                    // The source has fewer rows than its count said
+                    pages.put(page, List.of());
+                    return List.of();
+                }
+                cursors.put(page, cursor);
+            }
+        }
+        PageDTO<T> result = source.page(cursor, pageSize);
+        pageLoads++;
+        List<T> rows = result.getItems();
+        pages.put(page, rows);
+        if (result.hasNext()) {
+            cursors.put(page + 1, result.getNextCursor());
+        } else {
+            end = (long) page * pageSize + rows.size();
+        }
+        logger.fine("Loaded page " + page + " (" + rows.size() + " rows)");
+        return rows;
+    }
+
+    // Cursor of a page (> 0) not reached by scrolling, walked to over as few rows as the cached cursors allow
+    private String seek(int page) {
+        int from = 0;
+        String fromCursor = null;
+        for (Map.Entry<Integer, String> known : cursors.entrySet()) {
+            if (known.getKey() < page && known.getKey() > from) {
+                from = known.getKey();
+                fromCursor = known.getValue();
+            }
+        }
+        long ahead = (long) (page - from) * pageSize;
+        long toEnd = (end >= 0 ? end : size) - (long) page * pageSize;
+        if (toEnd < ahead) {
+            String cursor = source.cursorBeforeLast(toEnd);
+            if (cursor != null) {
+                return cursor;
+            }
+        }
+        return source.cursorAfter(fromCursor, ahead);
+    }
+
+    @Override
+    public void add(int index, T element) {
+        Objects.checkIndex(index, size() + 1);
+        if (source == null) {
+            items.add(index, element);
+        } else {
+            size++;
+            dropPages();
+        }
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    // With a source, the row is replaced in its page (read first if it is not cached), which lasts while the page
+    // stays cached: for a row the source now holds the same way (an updated row in place), otherwise reload()
+    @Override
+    public T set(int index, T element) {
+        Objects.checkIndex(index, size());
+        if (source == null) {
+            T old = items.set(index, element);
+            beginChange();
+            nextSet(index, old);
+            endChange();
+            return old;
+        }
+        T old = get(index);
+        if (!replace(index, element)) {
+            throw new UnsupportedOperationException("Row " + index + " is past the end of the source ("
+                    + "its count was too high); reload() instead");
+        }
+        return old;
+    }
+
+    // Replaces a row of the source in its cached page, as set() does, without reading anything. Returns false and
+    // changes nothing if the page is not cached or the row is past the end of the source; reload() then.
+    public boolean replace(int index, T element) {
+        Objects.checkIndex(index, size());
+        int page = index / pageSize;
+        List<T> cached = source != null ? pages.get(page) : null;
+        if (cached == null || index % pageSize >= cached.size()) {
+            return false;
+        }
+        List<T> rows = new ArrayList<>(cached);
+        T old = rows.set(index % pageSize, element);
+        pages.put(page, rows);
+        beginChange();
+        nextSet(index, old);
+        endChange();
+        return true;
+    }
+
+    @Override
+    public T remove(int index) {
+        Objects.checkIndex(index, size());
+        T old;
+        if (source == null) {
+            old = items.remove(index);
+        } else {
+            old = get(index);
+            size--;
+            dropPages();
+        }
+        beginChange();
+        nextRemove(index, old);
+        endChange();
+        return old;
+    }
+
+    // Leaves the source and shows the elements as a plain list
+    @Override
+    public boolean setAll(Collection<? extends T> elements) {
+        int oldSize = size();
+        source = null;
+        dropPages();
+        items.clear();
+        items.addAll(elements);
+        fireReset(oldSize);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        setAll(List.of());
+    }
+
+    private void dropPages() {
+        pages.clear();
+        cursors.clear();
+        end = -1;
+    }
+
+    // The whole content changed; the removed rows are reported as nulls so they need not be read
+    private void fireReset(int oldSize) {
+        if (oldSize == 0 && size() == 0) {
+            return;
+        }
+        beginChange();
+        if (oldSize > 0) {
+            nextRemove(0, Collections.nCopies(oldSize, null));
+        }
+        if (size() > 0) {
+            nextAdd(0, size());
+        }
+        endChange();
+    }
+}
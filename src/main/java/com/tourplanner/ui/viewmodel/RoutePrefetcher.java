@@ -0,0 +1,216 @@
+package com.tourplanner.ui.viewmodel;
+
+import com.tourplanner.backend.dto.TourDTO;
+import com.tourplanner.backend.model.RouteData;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+// Loads the routes of the tours next to the selected one in the list ahead of time, so browsing with the arrow keys
+// shows each route without waiting. After a selection change the tours within `radius` positions are fetched one
+// at a time on a low-priority thread, closest first. Requests for tours that left that window (the selection jumped)
+// are cancelled, and a prefetch only starts while the rate limit has headroom (spareCapacity), so it never delays
+// a route the user is waiting for. Finished routes are kept per tour in a small LRU cache.
+public class RoutePrefetcher {
+
+    private static final Logger logger = Logger.getLogger(RoutePrefetcher.class.getName());
+    private static final int CACHE_SIZE = 50;
+    private static final int MAX_IN_FLIGHT = 2;
+    private static final long RETRY_MILLIS = 1000;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "route-prefetch");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    // A tour's route is only reused while its locations and transport type are unchanged
+    private record Key(Long tourId, String fromLocation, String toLocation, String transportType) {
+        static Key of(TourDTO tour) {
+            return new Key(tour.getId(), tour.getFromLocation(), tour.getToLocation(), tour.getTransportType());
+        }
+    }
+
+    private final Function<Long, CompletableFuture<RouteData>> source;
+    private final BooleanSupplier spareCapacity;
+    private final int radius;
+    private final Executor background;
+    private final Map<Key, RouteData> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, RouteData> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private final Map<Key, CompletableFuture<RouteData>> inFlight = new HashMap<>();
+    private final Deque<TourDTO> queue = new ArrayDeque<>();
+    private ScheduledFuture<?> retry;
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong prefetched = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    public RoutePrefetcher(Function<Long, CompletableFuture<RouteData>> source, BooleanSupplier spareCapacity, int radius) {
+        this(source, spareCapacity, radius, scheduler);
+    }
+
+    RoutePrefetcher(Function<Long, CompletableFuture<RouteData>> source, BooleanSupplier spareCapacity, int radius,
+                    Executor background) {
+        this.source = source;
+        this.spareCapacity = spareCapacity;
+        this.radius = Math.max(0, radius);
+        this.background = background;
+    }
+
+    // Whether the route of the tour can go through the prefetcher: a stored tour with both locations and a transport type
+    public static boolean supports(TourDTO tour) {
+        return tour != null && tour.getId() != null && tour.getFromLocation() != null
+                && tour.getToLocation() != null && tour.getTransportType() != null;
+    }
+
+    // Route of the selected tour: from the cache, from a prefetch that is already running, or requested now.
+    // Cancelling the returned future does not stop the request, it is kept while the tour stays in the window.
+    public synchronized CompletableFuture<RouteData> route(TourDTO tour) {
+        Key key = Key.of(tour);
+        RouteData cached = cache.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return CompletableFuture.completedFuture(cached);
+        }
+        misses.incrementAndGet();
+        queue.removeIf(queued -> Key.of(queued).equals(key));
+        CompletableFuture<RouteData> running = inFlight.get(key);
+        if (running == null) {
+            // Requested on the caller's thread right away, like without prefetching
+            running = start(key, source.apply(tour.getId()));
+        }
+        return running.thenApply(route -> route);
+    }
+
+    // The selection moved to `selected` in `tours`: cancels requests for tours no longer around it and queues
+    // the neighbours that are not loaded yet, the closest first.
+    public synchronized void prefetchAround(List<TourDTO> tours, int selected) {
+        Set<Key> window = new HashSet<>();
+        List<TourDTO> wanted = new ArrayList<>();
+        if (selected >= 0 && selected < tours.size()) {
+            window.add(Key.of(tours.get(selected)));
+            for (int distance = 1; distance <= radius; distance++) {
+                addNeighbour(tours, selected + distance, window, wanted);
+                addNeighbour(tours, selected - distance, window, wanted);
+            }
+        }
+        // Removed before cancelling, as a cancelled request completes (and reports back) right away
+        List<Key> stale = inFlight.keySet().stream().filter(key -> !window.contains(key)).toList();
+        for (Key key : stale) {
+            inFlight.remove(key).cancel(true);
+            cancelled.incrementAndGet();
+            logger.fine("Cancelled route request for tour " + key.tourId());
+        }
+        queue.clear();
+        for (TourDTO tour : wanted) {
+            Key key = Key.of(tour);
+            if (!cache.containsKey(key) && !inFlight.containsKey(key)) {
+                queue.add(tour);
+            }
+        }
+        pump();
+    }
+
+    // Cancels everything that is still running or queued
+    public synchronized void dispose() {
+        prefetchAround(List.of(), -1);
+        if (retry != null) {
+            retry.cancel(false);
+            retry = null;
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.get(), misses.get(), prefetched.get(), cancelled.get());
+    }
+
+    private static void addNeighbour(List<TourDTO> tours, int index, Set<Key> window, List<TourDTO> wanted) {
+        if (index >= 0 && index < tours.size() && supports(tours.get(index))) {
+            window.add(Key.of(tours.get(index)));
+            wanted.add(tours.get(index));
+        }
+    }
+
+    // Starts queued prefetches while there is room; without rate limit headroom it tries again a bit later
+    private synchronized void pump() {
+        while (!queue.isEmpty() && inFlight.size() < MAX_IN_FLIGHT) {
+            if (!spareCapacity.getAsBoolean()) {
+                if (retry == null || retry.isDone()) {
+                    retry = scheduler.schedule(this::pump, RETRY_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            TourDTO tour = queue.poll();
+            Key key = Key.of(tour);
+            CompletableFuture<RouteData> request = new CompletableFuture<>();
+            start(key, request);
+            prefetched.incrementAndGet();
+            // Even a stored route means a database read, which stays off the calling (FX) thread
+            background.execute(() -> {
+                if (request.isDone()) {
+                    return;
+                }
+                CompletableFuture<RouteData> loading = source.apply(tour.getId());
+                request.whenComplete((route, error) -> {
+                    if (request.isCancelled()) {
+                        loading.cancel(true);
+                    }
+                });
+                loading.whenComplete((route, error) -> {
+                    if (error != null) {
+                        request.completeExceptionally(error);
+                    } else {
+                        request.complete(route);
+                    }
+                });
+            });
+        }
+    }
+
+    private CompletableFuture<RouteData> start(Key key, CompletableFuture<RouteData> request) {
+        inFlight.put(key, request);
+        request.whenComplete((route, error) -> finished(key, request, route));
+        return request;
+    }
+
+    // Estimated routes are not kept, they are retried the next time the tour is shown
+    private synchronized void finished(Key key, CompletableFuture<RouteData> request, RouteData route) {
+        if (!inFlight.remove(key, request)) {
+            return;
+        }
+        if (route != null && !route.isApproximate() && Objects.equals(route.getFromLocation(), key.fromLocation())
+                && Objects.equals(route.getToLocation(), key.toLocation())) {
+            cache.put(key, route);
+        }
+        pump();
+    }
+
+    // hits: routes shown straight from the cache; misses: routes the user had to wait for (possibly already
+    // prefetching); prefetched: prefetches started; cancelled: requests dropped because the selection moved away
+    public record Stats(long hits, long misses, long prefetched, long cancelled) { }
+}
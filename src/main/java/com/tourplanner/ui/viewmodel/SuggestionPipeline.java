@@ -0,0 +1,225 @@
+package com.tourplanner.ui.viewmodel;
+
+import com.tourplanner.backend.model.GeoCode;
+import com.tourplanner.backend.service.MapService;
+import javafx.application.Platform;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Location autocomplete pipeline shared by several text fields (e.g. from and to of the tour editor).
+// Keystrokes are debounced, superseded lookups are cancelled, and results are cached per prefix so a
+// longer prefix can be answered by filtering an earlier result locally. Each field gets its own Channel,
+// and only the result of a channel's latest input is ever handed to the UI.
+public class SuggestionPipeline {
+
+    private static final Logger logger = Logger.getLogger(SuggestionPipeline.class.getName());
+    private static final int CACHE_SIZE = 200;
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "suggestion-debounce");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Function<String, CompletableFuture<List<GeoCode>>> source;
+    private final Executor debounceTimer;
+    private final int minLength;
+    private final Executor uiExecutor;
+    private final Map<String, List<GeoCode>> prefixCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<GeoCode>> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    // Metrics
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong debounced = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong prefixHits = new AtomicLong();
+    private final AtomicLong networkRequests = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    public SuggestionPipeline(MapService mapService) {
+        this(mapService::geocodeSuggestions, Duration.ofMillis(250), 2, Platform::runLater);
+    }
+
+    public SuggestionPipeline(Function<String, CompletableFuture<List<GeoCode>>> source, Duration debounce,
+                              int minLength, Executor uiExecutor) {
+        this(source, CompletableFuture.delayedExecutor(debounce.toMillis(), TimeUnit.MILLISECONDS, scheduler),
+                minLength, uiExecutor);
+    }
+
+    // debounceTimer runs a lookup once the debounce time has passed
+    SuggestionPipeline(Function<String, CompletableFuture<List<GeoCode>>> source, Executor debounceTimer,
+                       int minLength, Executor uiExecutor) {
+        this.source = source;
+        this.debounceTimer = debounceTimer;
+        this.minLength = minLength;
+        this.uiExecutor = uiExecutor;
+    }
+
+    // Creates a new input channel, one per text field
+    public Channel newChannel() {
+        return new Channel();
+    }
+
+    public Stats getStats() {
+        long requests = networkRequests.get();
+        return new Stats(submitted.get(), debounced.get(), cacheHits.get(), prefixHits.get(), requests,
+                cancelled.get(), requests > 0 ? totalLatencyMillis.get() / requests : 0, maxLatencyMillis.get());
+    }
+
+    // Looks up text in the prefix cache: exact hit first, then the longest cached prefix filtered locally
+    private List<GeoCode> lookupCache(String key) {
+        synchronized (prefixCache) {
+            List<GeoCode> exact = prefixCache.get(key);
+            if (exact != null) {
+                cacheHits.incrementAndGet();
+                return exact;
+            }
+            for (int len = key.length() - 1; len >= minLength; len--) {
+                List<GeoCode> shorter = prefixCache.get(key.substring(0, len));
+                if (shorter == null) {
+                    continue;
+                }
+                List<GeoCode> filtered = new ArrayList<>();
+                for (GeoCode geo : shorter) {
+                    if (geo.getLabel() != null && geo.getLabel().toLowerCase(Locale.ROOT).contains(key)) {
+                        filtered.add(geo);
+                    }
+                }
+                // An empty filter result is not trusted, the provider may know matches the shorter prefix did not return
+                if (!filtered.isEmpty()) {
+                    prefixHits.incrementAndGet();
+                    prefixCache.put(key, filtered);
+                    return filtered;
+                }
+                return null;
+            }
+            return null;
+        }
+    }
+
+    private void remember(String key, List<GeoCode> results) {
+        synchronized (prefixCache) {
+            prefixCache.put(key, List.copyOf(results));
+        }
+    }
+
+    private void recordLatency(long millis) {
+        totalLatencyMillis.addAndGet(millis);
+        maxLatencyMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // Input of a single text field. All methods are meant to be called from the FX thread.
+    public class Channel {
+        private final AtomicLong generation = new AtomicLong();
+        private CompletableFuture<Void> pending;
+        private CompletableFuture<List<GeoCode>> inFlight;
+
+        // Submits the current text; the consumer runs on the UI thread, and only if no newer text was submitted
+        public void submit(String text, Consumer<List<GeoCode>> onResult) {
+            submitted.incrementAndGet();
+            long gen = cancelPending();
+            String key = normalize(text);
+            if (key.length() < minLength) {
+                deliver(gen, List.of(), onResult);
+                return;
+            }
+            synchronized (this) {
+                pending = CompletableFuture.runAsync(() -> lookup(gen, key, onResult), debounceTimer);
+            }
+        }
+
+        // Drops any pending or in-flight lookup of this channel
+        public void cancel() {
+            cancelPending();
+        }
+
+        private synchronized long cancelPending() {
+            long gen = generation.incrementAndGet();
+            if (pending != null && pending.cancel(false)) {
+                debounced.incrementAndGet();
+            }
+            pending = null;
+            if (inFlight != null && inFlight.cancel(true)) {
+                cancelled.incrementAndGet();
+            }
+            inFlight = null;
+            return gen;
+        }
+
+        private void lookup(long gen, String key, Consumer<List<GeoCode>> onResult) {
+            if (gen != generation.get()) {
+                return;
+            }
+            List<GeoCode> cached = lookupCache(key);
+            if (cached != null) {
+                deliver(gen, cached, onResult);
+                return;
+            }
+
+            networkRequests.incrementAndGet();
+            long start = System.nanoTime();
+            CompletableFuture<List<GeoCode>> future = source.apply(key);
+            synchronized (this) {
+                if (gen != generation.get()) {
+                    future.cancel(true);
+                    cancelled.incrementAndGet();
+                    return;
+                }
+                inFlight = future;
+            }
+            future.whenComplete((results, error) -> {
+                if (future.isCancelled()) {
+                    return;
+                }
+                recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                if (error != null) {
+                    logger.log(Level.FINE, "Suggestion lookup failed for '" + key + "'", error);
+                    deliver(gen, List.of(), onResult);
+                    return;
+                }
+                List<GeoCode> list = results != null ? results : List.of();
+                remember(key, list);
+                deliver(gen, list, onResult);
+            });
+        }
+
+        private void deliver(long gen, List<GeoCode> results, Consumer<List<GeoCode>> onResult) {
+            uiExecutor.execute(() -> {
+                // Latest wins: a result is dropped if newer input arrived while it was on its way
+                if (gen == generation.get()) {
+                    onResult.accept(results);
+                }
+            });
+        }
+    }
+
+    // submitted: inputs, debounced: inputs replaced before their lookup started, cacheHits/prefixHits: answered locally,
+    // networkRequests: lookups sent to the MapService, cancelled: superseded in-flight lookups
+    public record Stats(long submitted, long debounced, long cacheHits, long prefixHits, long networkRequests,
+                        long cancelled, long averageLatencyMillis, long maxLatencyMillis) { }
+}
@@ -2,21 +2,37 @@ package com.tourplanner.ui.viewmodel;
 
 import com.tourplanner.backend.dto.TourDTO;
 import com.tourplanner.backend.service.TourService;
+import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 // ViewModel for the Tour List view following MVVM pattern. Manages the list of tours and provides data binding for the UI.
 public class TourListViewModel extends BaseViewModel {
+    static final int SEARCH_LIMIT = 500;
 
     private final TourService tourService;
     private final ObservableList<TourDTO> tours = FXCollections.observableArrayList();
     private final ObjectProperty<TourDTO> selectedTour = new SimpleObjectProperty<>();
+    // Results of asynchronous saves are applied through this executor (the FX thread in the application)
+    private final Executor uiExecutor;
+    private int pendingSaves;
 
     public TourListViewModel(TourService tourService) {
+        this(tourService, Platform::runLater);
+    }
+
+    public TourListViewModel(TourService tourService, Executor uiExecutor) {
         this.tourService = tourService;
+        this.uiExecutor = uiExecutor;
         setTitle("Tour List");
     }
 
@@ -53,32 +69,107 @@ public class TourListViewModel extends BaseViewModel {
         }
     }
 
-    // Add a new tour to the list.
+    // Add a new tour to the list. The route is computed in the background, the tour appears once it is saved.
     public void addTour(TourDTO tour) {
         if (tour != null) {
-            try {
-                TourDTO savedTour = tourService.createTour(tour);
+            save(() -> tourService.createTourAsync(tour), (savedTour, error) -> {
+                if (error != null) {
+                    setError("Failed to add tour: " + error.getMessage());
+                    logger.log(Level.SEVERE, "Error adding tour", error);
+                    return;
+                }
                 tours.add(savedTour);
                 logger.fine("Added tour: " + savedTour.getName());
-            } catch (Exception e) {
-                setError("Failed to add tour: " + e.getMessage());
-                logger.log(Level.SEVERE, "Error adding tour", e);
-            }
+            });
         }
     }
 
-    // Update an existing tour in the list.
+    // Update an existing tour in the list. The route is recomputed in the background if its locations changed.
     public void updateTour(int index, TourDTO updatedTour) {
         if (index >= 0 && index < tours.size() && updatedTour != null) {
-            try {
-                TourDTO savedTour = tourService.updateTour(updatedTour);
-                tours.set(index, savedTour);
+            TourDTO original = tours.get(index);
+            save(() -> tourService.updateTourAsync(updatedTour), (savedTour, error) -> {
+                if (error != null) {
+                    setError("Failed to update tour: " + error.getMessage());
+                    logger.log(Level.SEVERE, "Error updating tour", error);
+                    return;
+                }
+                // The list may have been reloaded or reordered while the route was computed
+                int current = tours.indexOf(original);
+                if (current >= 0) {
+                    tours.set(current, savedTour);
+                }
                 logger.fine("Updated tour: " + savedTour.getName());
-            } catch (Exception e) {
-                setError("Failed to update tour: " + e.getMessage());
-                logger.log(Level.SEVERE, "Error updating tour", e);
+            });
+        }
+    }
+
+    // Add many tours at once (e.g. an import). Their routes are requested as one batch and the tours appear once all are saved.
+    // Completes on the UI thread once the tours are saved and listed, or with the error once the save failed
+    public CompletableFuture<List<TourDTO>> addTours(List<TourDTO> newTours) {
+        if (newTours == null || newTours.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        CompletableFuture<List<TourDTO>> added = new CompletableFuture<>();
+        save(() -> tourService.createToursAsync(newTours), (savedTours, error) -> {
+            if (error != null) {
+                setError("Failed to add tours: " + error.getMessage());
+                logger.log(Level.SEVERE, "Error adding tours", error);
+                added.completeExceptionally(error);
+                return;
             }
+            tours.addAll(savedTours);
+            logger.fine("Added " + savedTours.size() + " tours");
+            added.complete(savedTours);
+        });
+        return added;
+    }
+
+    // Recompute distance and time of all listed tours in one batch request
+    public void refreshRoutes() {
+        List<Long> ids = tours.stream().map(TourDTO::getId).toList();
+        if (ids.isEmpty()) {
+            return;
         }
+        save(() -> tourService.refreshRoutesAsync(ids), (refreshedTours, error) -> {
+            if (error != null) {
+                setError("Failed to refresh routes: " + error.getMessage());
+                logger.log(Level.SEVERE, "Error refreshing routes", error);
+                return;
+            }
+            // Replaced by id, the list may have changed while the routes were computed
+            for (TourDTO refreshed : refreshedTours) {
+                for (int i = 0; i < tours.size(); i++) {
+                    if (refreshed.getId().equals(tours.get(i).getId())) {
+                        tours.set(i, refreshed);
+                        break;
+                    }
+                }
+            }
+            logger.fine("Refreshed routes of " + refreshedTours.size() + " tours");
+        });
+    }
+
+    // Runs an asynchronous save and hands its result (or unwrapped error) to the callback on the UI executor
+    private <T> void save(Supplier<CompletableFuture<T>> action, BiConsumer<T, Throwable> callback) {
+        clearError();
+        CompletableFuture<T> future;
+        try {
+            future = action.get();
+        } catch (Exception e) {
+            callback.accept(null, e);
+            return;
+        }
+        pendingSaves++;
+        setLoading(true);
+        future.whenComplete((savedTour, error) -> uiExecutor.execute(() -> {
+            pendingSaves--;
+            if (pendingSaves == 0) {
+                setLoading(false);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            callback.accept(savedTour, cause);
+        }));
     }
 
     // Delete a tour from the list.
@@ -102,7 +193,13 @@ public class TourListViewModel extends BaseViewModel {
         clearError();
         
         try {
-            var searchResults = tourService.searchTours(searchText);
+            // Ranked by name, description and log comments; an empty search shows every tour again. Until the stored
+            // texts are indexed, the plain name search answers, so the UI thread does not wait for the index.
+            var searchResults = searchText == null || searchText.isBlank()
+                    ? tourService.getAllTours()
+                    : tourService.prepareTextSearch()
+                    ? tourService.searchToursWithLogs(searchText, SEARCH_LIMIT)
+                    : tourService.searchTours(searchText);
             tours.clear();
             tours.addAll(searchResults);
             logger.fine("Search completed with " + tours.size() + " results");
@@ -1,5 +1,6 @@
 package com.tourplanner.ui.viewmodel;
 
+import com.tourplanner.backend.dto.PageDTO;
 import com.tourplanner.backend.dto.TourLogDTO;
 import com.tourplanner.backend.dto.TourDTO;
 import com.tourplanner.backend.service.TourLogService;
@@ -10,11 +11,17 @@ import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 
 public class TourLogViewModel extends BaseViewModel {
+    static final int PAGE_SIZE = 100;
+    static final int SEARCH_LIMIT = 500;
+
     private final TourLogService tourLogService;
-    private final ObservableList<TourLogDTO> tourLogs = FXCollections.observableArrayList();
+    // Paged from the service as the table asks for rows (see PagedList); search results are a plain list
+    private final PagedList<TourLogDTO> tourLogs = new PagedList<>(PAGE_SIZE);
     private final ObjectProperty<TourDTO> selectedTourProperty = new SimpleObjectProperty<>();
     private TourDTO selectedTour;
     private TourLogDTO selectedTourLog;
@@ -51,10 +58,8 @@ public class TourLogViewModel extends BaseViewModel {
         setLoading(true);
         clearError();
         try {
-            tourLogs.clear();
-            List<TourLogDTO> logs = tourLogService.getTourLogsByTourId(tourId);
-            tourLogs.addAll(logs);
-            if (logs.isEmpty()) {
+            tourLogs.setSource(logSource(tourId));
+            if (tourLogs.isEmpty()) {
                 setError("No tour logs found for this tour. You can add logs using the 'Add Log' button.");
             }
         } catch (Exception e) {
@@ -66,8 +71,7 @@ public class TourLogViewModel extends BaseViewModel {
 
     public boolean hasAnyTourLogs() {
         try {
-            List<TourLogDTO> allLogs = tourLogService.getAllTourLogs();
-            return !allLogs.isEmpty();
+            return tourLogService.getTourLogCount() > 0;
         } catch (Exception e) {
             return false;
         }
@@ -86,9 +90,10 @@ public class TourLogViewModel extends BaseViewModel {
             
             TourLogDTO saved = tourLogService.createTourLog(log);
             
-            // Only add to the current list if it's for the currently selected tour
+            // Only re-read the current list if it's for the currently selected tour; where the log lands in the
+            // date order is up to the source
             if (selectedTour == null || selectedTour.getId().equals(saved.getTourId())) {
-                tourLogs.add(saved);
+                showAdded(saved);
             }
             
             // Refresh statistics after adding a log
@@ -115,8 +120,14 @@ public class TourLogViewModel extends BaseViewModel {
                 log.setTourId(selectedTour.getId());
             }
             
+            TourLogDTO old = tourLogs.get(index);
             TourLogDTO updated = tourLogService.updateTourLog(log);
-            tourLogs.set(index, updated);
+            if (!tourLogs.isPaged()) {
+                tourLogs.set(index, updated);
+            } else if (old == null || !sameTourAndTime(old, updated) || !tourLogs.replace(index, updated)) {
+                // Moved in the date order or to another tour, or not where the (stale) count put it
+                tourLogs.reload();
+            }
             
             // Refresh statistics after updating a log
             if (statisticsViewModel != null) {
@@ -133,7 +144,11 @@ public class TourLogViewModel extends BaseViewModel {
         try {
             TourLogDTO log = tourLogs.get(index);
             tourLogService.deleteTourLog(log.getId());
-            tourLogs.remove(index);
+            if (tourLogs.isPaged()) {
+                tourLogs.reload();
+            } else {
+                tourLogs.remove(index);
+            }
             
             // Refresh statistics after deleting a log
             if (statisticsViewModel != null) {
@@ -150,15 +165,13 @@ public class TourLogViewModel extends BaseViewModel {
         setLoading(true);
         clearError();
         try {
-            if (selectedTour != null) {
-                tourLogs.clear();
-                List<TourLogDTO> searchResults = tourLogService.searchTourLogs(searchText);
-                searchResults.stream()
-                    .filter(log -> selectedTour.getId().equals(log.getTourId()))
-                    .forEach(tourLogs::add);
+            if (searchText == null || searchText.isBlank()) {
+                // Back to all logs of the selection, paged
+                loadData();
             } else {
-                tourLogs.clear();
-                tourLogs.addAll(tourLogService.searchTourLogs(searchText));
+                // Ranked, and only within the selected tour (all tours without one)
+                Long tourId = selectedTour != null ? selectedTour.getId() : null;
+                tourLogs.setAll(tourLogService.searchTourLogsRanked(tourId, searchText, SEARCH_LIMIT));
             }
         } catch (Exception e) {
             setError("Failed to search tour logs: " + e.getMessage());
@@ -167,6 +180,59 @@ public class TourLogViewModel extends BaseViewModel {
         }
     }
 
+    // Sort policy of the log table. Search results are sorted in place; the paged list is not, as sorting it in memory
+    // would read every page and replace it with a plain copy. Returns false then, so the table keeps the date order
+    // and rolls back its sort indicator.
+    public boolean sortTourLogs(Comparator<TourLogDTO> comparator) {
+        if (tourLogs.isPaged()) {
+            return false;
+        }
+        if (comparator != null) {
+            FXCollections.sort(tourLogs, comparator);
+        }
+        return true;
+    }
+
+    // Logs of one tour, or of all tours for null, counted from the tour aggregates
+    private PagedList.Source<TourLogDTO> logSource(Long tourId) {
+        return new PagedList.Source<>() {
+            @Override
+            public long count() {
+                return tourId != null ? tourLogService.getTourLogCountByTourId(tourId) : tourLogService.getTourLogCount();
+            }
+
+            @Override
+            public PageDTO<TourLogDTO> page(String cursor, int size) {
+                return tourId != null
+                        ? tourLogService.getTourLogsPageByTourId(tourId, cursor, size)
+                        : tourLogService.getTourLogsPage(cursor, size);
+            }
+
+            @Override
+            public String cursorAfter(String cursor, long rows) {
+                return tourLogService.getTourLogsCursorAfter(tourId, cursor, rows);
+            }
+
+            @Override
+            public String cursorBeforeLast(long rows) {
+                return tourLogService.getTourLogsCursorBeforeLast(tourId, rows);
+            }
+        };
+    }
+
+    private void showAdded(TourLogDTO saved) {
+        if (tourLogs.isPaged()) {
+            tourLogs.reload();
+        } else {
+            tourLogs.add(saved);
+        }
+    }
+
+    private static boolean sameTourAndTime(TourLogDTO a, TourLogDTO b) {
+        return Objects.equals(a.getTourId(), b.getTourId())
+                && Objects.equals(a.getDateTime(), b.getDateTime());
+    }
+
     public void refresh(Long tourId) {
         if (tourId != null) {
             loadLogsForTour(tourId);
@@ -212,11 +278,9 @@ public class TourLogViewModel extends BaseViewModel {
             if (selectedTour != null) {
                 loadLogsForTour(selectedTour.getId());
             } else {
-                // When no tour is selected, show all logs or clear the list
-                tourLogs.clear();
-                List<TourLogDTO> allLogs = tourLogService.getAllTourLogs();
-                tourLogs.addAll(allLogs);
-                if (allLogs.isEmpty()) {
+                // When no tour is selected, show all logs, paged like a tour's
+                tourLogs.setSource(logSource(null));
+                if (tourLogs.isEmpty()) {
                     setError("No tour logs found. Please select a tour or add some tour logs.");
                 }
             }
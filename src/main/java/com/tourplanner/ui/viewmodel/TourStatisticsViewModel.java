@@ -1,7 +1,7 @@
 package com.tourplanner.ui.viewmodel;
 
-import com.tourplanner.backend.dto.TourDTO;
-import com.tourplanner.backend.dto.TourLogDTO;
+import com.tourplanner.backend.dto.StatisticsSummaryDTO;
+import com.tourplanner.backend.dto.TourStatisticsDTO;
 import com.tourplanner.backend.service.TourLogService;
 import com.tourplanner.backend.service.TourService;
 import javafx.beans.property.DoubleProperty;
@@ -13,10 +13,7 @@ import javafx.beans.property.SimpleObjectProperty;
 
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.HashMap;
 
 public class TourStatisticsViewModel extends BaseViewModel {
     private final TourService tourService;
@@ -26,8 +23,10 @@ public class TourStatisticsViewModel extends BaseViewModel {
     private final IntegerProperty totalLogs = new SimpleIntegerProperty(0);
     private final DoubleProperty averageDistance = new SimpleDoubleProperty(0.0);
     private final DoubleProperty averageRating = new SimpleDoubleProperty(0.0);
-    private final ObjectProperty<TourDTO> mostPopularTour = new SimpleObjectProperty<>();
+    private final ObjectProperty<TourStatisticsDTO> mostPopularTour = new SimpleObjectProperty<>();
     private final IntegerProperty mostPopularTourLogCount = new SimpleIntegerProperty(0);
+    private List<TourStatisticsDTO> tourStats = List.of();
+    private StatisticsSummaryDTO summary;
 
     public TourStatisticsViewModel(TourService tourService, TourLogService tourLogService) {
         this.tourService = tourService;
@@ -44,20 +43,21 @@ public class TourStatisticsViewModel extends BaseViewModel {
         setLoading(true);
         clearError();
         try {
-            List<TourDTO> tours = tourService.getAllTours();
-            List<TourLogDTO> logs = tourLogService.getAllTourLogs();
+            // Two grouped queries; no tour or log entities are loaded
+            summary = tourService.getStatisticsSummary();
+            tourStats = tourService.getTourStatistics();
             
-            totalTours.set(tours.size());
-            totalLogs.set(logs.size());
-            averageDistance.set(tours.stream().mapToDouble(TourDTO::getDistance).average().orElse(0.0));
-            averageRating.set(logs.stream().mapToDouble(l -> l.getRating() != null ? l.getRating() : 0.0).average().orElse(0.0));
+            totalTours.set((int) summary.tourCount());
+            totalLogs.set((int) summary.logCount());
+            averageDistance.set(summary.averageTourDistance());
+            averageRating.set(summary.averageRating());
             
-            Optional<TourDTO> mostPopular = tours.stream()
-                .max(Comparator.comparingInt(t -> tourLogService.getTourLogCountByTourId(t.getId()).intValue()));
+            Optional<TourStatisticsDTO> mostPopular = tourStats.stream()
+                .max(Comparator.comparingLong(TourStatisticsDTO::logCount));
             
             if (mostPopular.isPresent()) {
                 mostPopularTour.set(mostPopular.get());
-                mostPopularTourLogCount.set(tourLogService.getTourLogCountByTourId(mostPopular.get().getId()).intValue());
+                mostPopularTourLogCount.set((int) mostPopular.get().logCount());
             } else {
                 mostPopularTour.set(null);
                 mostPopularTourLogCount.set(0);
@@ -82,8 +82,8 @@ public class TourStatisticsViewModel extends BaseViewModel {
     public double getAverageRating() { return averageRating.get(); }
     public DoubleProperty averageRatingProperty() { return averageRating; }
     
-    public TourDTO getMostPopularTour() { return mostPopularTour.get(); }
-    public ObjectProperty<TourDTO> mostPopularTourProperty() { return mostPopularTour; }
+    public TourStatisticsDTO getMostPopularTour() { return mostPopularTour.get(); }
+    public ObjectProperty<TourStatisticsDTO> mostPopularTourProperty() { return mostPopularTour; }
     
     public int getMostPopularTourLogCount() { return mostPopularTourLogCount.get(); }
     public IntegerProperty mostPopularTourLogCountProperty() { return mostPopularTourLogCount; }
@@ -104,6 +104,8 @@ public class TourStatisticsViewModel extends BaseViewModel {
         averageRating.set(0.0);
         mostPopularTour.set(null);
         mostPopularTourLogCount.set(0);
+        tourStats = List.of();
+        summary = null;
     }
 
     // Method to refresh statistics when tour logs change
@@ -111,31 +113,13 @@ public class TourStatisticsViewModel extends BaseViewModel {
         loadData();
     }
 
-    // Returns a map from TourDTO to a stats object for each tour.
-    public Map<TourDTO, TourStats> getTourStats() {
-        List<TourDTO> tours = tourService.getAllTours();
-        List<TourLogDTO> logs = tourLogService.getAllTourLogs();
-        Map<Long, List<TourLogDTO>> logsByTour = logs.stream().collect(Collectors.groupingBy(TourLogDTO::getTourId));
-        Map<TourDTO, TourStats> stats = new HashMap<>();
-
-        for (TourDTO tour : tours) {
-            List<TourLogDTO> tourLogs = logsByTour.getOrDefault(tour.getId(), List.of());
-            double avgTime = tourLogs.stream().mapToDouble(l -> l.getTotalTime() != null ? l.getTotalTime() : 0.0).average().orElse(0.0);
-            double avgDistance = tourLogs.stream().mapToDouble(l -> l.getTotalDistance() != null ? l.getTotalDistance() : 0.0).average().orElse(0.0);
-            double avgRating = tourLogs.stream().mapToDouble(l -> l.getRating() != null ? l.getRating() : 0.0).average().orElse(0.0);
-            stats.put(tour, new TourStats(avgTime, avgDistance, avgRating));
-        }
-        return stats;
+    // Statistics per tour as of the last loadData, ordered by tour name
+    public List<TourStatisticsDTO> getTourStats() {
+        return tourStats;
     }
 
-    public static class TourStats {
-        public final double avgTime;
-        public final double avgDistance;
-        public final double avgRating;
-        public TourStats(double avgTime, double avgDistance, double avgRating) {
-            this.avgTime = avgTime;
-            this.avgDistance = avgDistance;
-            this.avgRating = avgRating;
-        }
+    // Totals as of the last loadData, null before it succeeded
+    public StatisticsSummaryDTO getStatisticsSummary() {
+        return summary;
     }
-} 
\ No newline at end of file
+}
@@ -3,12 +3,14 @@ module com.tourplanner {
     requires javafx.controls;
     requires javafx.fxml;
     requires javafx.web;
+    requires jdk.jsobject;            // for calls from the map page into Java
 
     // Java SE APIs
     requires java.sql;
     requires java.desktop;
     requires java.logging;
     requires java.net.http;
+    requires jdk.httpserver;          // local tile server for the map page
 
     // JSON + Logging
     requires com.fasterxml.jackson.databind;
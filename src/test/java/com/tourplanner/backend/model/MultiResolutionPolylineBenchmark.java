@@ -0,0 +1,94 @@
+package com.tourplanner.backend.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Simplification cost on a 50k point route: precomputing all levels, extracting one level, and what the
+// map page receives (JS array text) raw versus at the fitting zoom.
+// Not run by surefire; start main() from the IDE after mvn test-compile.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiResolutionPolylineBenchmark {
+
+    @Param({"50000"})
+    private int points;
+
+    @Param({"10", "14"})
+    private int zoom;
+
+    private PackedPolyline route;
+    private MultiResolutionPolyline levels;
+
+    @Setup
+    public void setUp() {
+        route = sampleRoute(points);
+        levels = new MultiResolutionPolyline(route);
+    }
+
+    @Benchmark
+    public MultiResolutionPolyline precompute() {
+        return new MultiResolutionPolyline(route);
+    }
+
+    @Benchmark
+    public PackedPolyline extractLevel() {
+        return levels.simplify(MultiResolutionPolyline.toleranceForZoom(zoom));
+    }
+
+    @Benchmark
+    public int rawLatLngs() {
+        return latLngs(route).length();
+    }
+
+    @Benchmark
+    public int simplifiedLatLngs() {
+        return latLngs(levels.simplify(MultiResolutionPolyline.toleranceForZoom(zoom))).length();
+    }
+
+    private static String latLngs(PackedPolyline polyline) {
+        StringBuilder out = new StringBuilder(polyline.size() * 24);
+        polyline.forEach((lat, lon) -> out.append('[').append(lat).append(',').append(lon).append("],"));
+        return out.toString();
+    }
+
+    // Cycling-like route: about 5 m steps with a slowly drifting heading, quantized like ORS routes
+    static PackedPolyline sampleRoute(int points) {
+        Random random = new Random(42);
+        double[] lats = new double[points];
+        double[] lons = new double[points];
+        double lat = 47.8;
+        double lon = 13.0;
+        double heading = 0.3;
+        for (int i = 0; i < points; i++) {
+            heading += random.nextGaussian() * 0.08;
+            lat += Math.cos(heading) * 0.000045;
+            lon += Math.sin(heading) * 0.000067;
+            lats[i] = lat;
+            lons[i] = lon;
+        }
+        return PackedPolyline.quantized(lats, lons);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MultiResolutionPolylineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
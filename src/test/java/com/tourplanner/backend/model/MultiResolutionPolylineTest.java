@@ -0,0 +1,75 @@
+package com.tourplanner.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiResolutionPolylineTest {
+
+    @Test
+    void testStraightLineCollapsesToEndpoints() {
+        // Given
+        double[] lats = new double[100];
+        double[] lons = new double[100];
+        for (int i = 0; i < 100; i++) {
+            lats[i] = 48.0 + i * 0.001;
+            lons[i] = 16.0 + i * 0.001;
+        }
+        // When
+        MultiResolutionPolyline levels = new MultiResolutionPolyline(PackedPolyline.of(lats, lons));
+        PackedPolyline simplified = levels.forZoom(18);
+        // Then
+        assertEquals(2, simplified.size());
+        assertEquals(48.0, simplified.latitude(0), 1e-9);
+        assertEquals(48.099, simplified.latitude(1), 1e-9);
+    }
+
+    @Test
+    void testDetourIsKeptOnlyWhenVisible() {
+        // Given: a 10 km line with a 50 m spike in the middle
+        double[] lats = {48.0, 48.00045, 48.0};
+        double[] lons = {16.0, 16.0675, 16.135};
+        MultiResolutionPolyline levels = new MultiResolutionPolyline(PackedPolyline.of(lats, lons));
+        // When
+        PackedPolyline coarse = levels.forZoom(8);
+        PackedPolyline fine = levels.forZoom(16);
+        // Then
+        assertEquals(2, coarse.size());
+        assertEquals(3, fine.size());
+        assertEquals(48.00045, fine.latitude(1), 1e-9);
+    }
+
+    @Test
+    void testLevelsNest() {
+        // Given
+        int n = 5000;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = 47.0 + Math.sin(i / 40.0) * 0.02 + i * 1e-4;
+            lons[i] = 13.0 + i * 2e-4;
+        }
+        MultiResolutionPolyline levels = new MultiResolutionPolyline(PackedPolyline.quantized(lats, lons));
+        // When / Then
+        int previous = 0;
+        for (int zoom = 0; zoom <= MultiResolutionPolyline.MAX_ZOOM; zoom++) {
+            int count = levels.pointCount(zoom);
+            assertTrue(count >= previous, "zoom " + zoom);
+            assertEquals(count, levels.forZoom(zoom).size());
+            previous = count;
+        }
+        assertTrue(levels.pointCount(10) < n / 10);
+    }
+
+    @Test
+    void testFittingZoom() {
+        // Given: Vienna to Salzburg
+        double[] lats = {48.20849, 47.79941};
+        double[] lons = {16.37208, 13.04399};
+        MultiResolutionPolyline levels = new MultiResolutionPolyline(PackedPolyline.of(lats, lons));
+        // When
+        int zoom = levels.fittingZoom(600, 400);
+        // Then
+        assertEquals(7, zoom);
+    }
+}
@@ -0,0 +1,70 @@
+package com.tourplanner.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedPolylineTest {
+
+    private static final double[] LATITUDES = {48.20849, 48.30639, 47.79941, -33.86882};
+    private static final double[] LONGITUDES = {16.37208, 14.28611, 13.04399, 151.20929};
+
+    @Test
+    void testBinaryRoundTrip() {
+        // Given
+        PackedPolyline polyline = PackedPolyline.of(LATITUDES, LONGITUDES);
+        // When
+        byte[] bytes = polyline.toBytes();
+        PackedPolyline decoded = PackedPolyline.fromBytes(bytes);
+        // Then
+        assertEquals(4, decoded.size());
+        assertTrue(decoded.isQuantized());
+        for (int i = 0; i < LATITUDES.length; i++) {
+            assertEquals(LATITUDES[i], decoded.latitude(i), 1e-9);
+            assertEquals(LONGITUDES[i], decoded.longitude(i), 1e-9);
+        }
+        assertTrue(bytes.length < 4 * 10);
+    }
+
+    @Test
+    void testSliceSharesPoints() {
+        // Given
+        PackedPolyline polyline = PackedPolyline.quantized(LATITUDES, LONGITUDES);
+        // When
+        PackedPolyline slice = polyline.slice(1, 3);
+        // Then
+        assertEquals(2, slice.size());
+        assertEquals(48.30639, slice.latitude(0), 1e-9);
+        assertEquals(13.04399, slice.longitude(1), 1e-9);
+        assertThrows(IndexOutOfBoundsException.class, () -> slice.latitude(2));
+        assertEquals(2, PackedPolyline.fromBytes(slice.toBytes()).size());
+    }
+
+    @Test
+    void testForEachAndCoordinateView() {
+        // Given
+        PackedPolyline polyline = PackedPolyline.of(LATITUDES, LONGITUDES);
+        double[] sum = new double[1];
+        // When
+        polyline.forEach((lat, lon) -> sum[0] += lat);
+        List<RouteData.Coordinate> coordinates = polyline.asCoordinates();
+        // Then
+        assertEquals(LATITUDES[0] + LATITUDES[1] + LATITUDES[2] + LATITUDES[3], sum[0], 1e-9);
+        assertEquals(4, coordinates.size());
+        assertEquals(151.20929, coordinates.get(3).getLongitude(), 1e-9);
+    }
+
+    @Test
+    void testQuantizeHalvesMemory() {
+        // Given
+        PackedPolyline polyline = PackedPolyline.of(LATITUDES, LONGITUDES);
+        // When
+        PackedPolyline quantized = polyline.quantize();
+        // Then
+        assertEquals(polyline.memoryBytes() / 2, quantized.memoryBytes());
+        assertEquals(47.79941, quantized.latitude(2), 1e-9);
+        assertSame(quantized, quantized.quantize());
+    }
+}
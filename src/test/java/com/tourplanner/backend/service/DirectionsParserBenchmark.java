@@ -0,0 +1,92 @@
+package com.tourplanner.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tourplanner.backend.model.RouteData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Streaming DirectionsParser against the former JsonNode tree path on synthetic ORS responses.
+// Not run by surefire; start main() from the IDE after mvn test-compile, add -prof gc for allocation rates.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectionsParserBenchmark {
+
+    @Param({"1000", "20000", "100000"})
+    private int points;
+
+    private byte[] response;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Setup
+    public void setUp() {
+        response = sampleResponse(points).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public DirectionsParser.Result streaming() throws IOException {
+        return DirectionsParser.parse(new ByteArrayInputStream(response));
+    }
+
+    // The parsing RouteServiceImpl did before: whole body as String, JsonNode tree, one Coordinate per point
+    @Benchmark
+    public RouteData tree() throws IOException {
+        JsonNode root = objectMapper.readTree(new String(response, StandardCharsets.UTF_8));
+        double distance = root.at("/features/0/properties/segments/0/distance").asDouble() / 1000.0;
+        double duration = root.at("/features/0/properties/segments/0/duration").asDouble() / 3600.0;
+        List<RouteData.Coordinate> coords = new ArrayList<>();
+        for (JsonNode coord : root.at("/features/0/geometry/coordinates")) {
+            coords.add(new RouteData.Coordinate(coord.get(1).asDouble(), coord.get(0).asDouble()));
+        }
+        RouteData data = new RouteData("from", "to", "bicycle", distance, duration, coords);
+        data.setSummary(root.at("/features/0/properties/summary").toString());
+        return data;
+    }
+
+    // ORS-shaped directions response with a wiggly line of the given number of points
+    static String sampleResponse(int points) {
+        StringBuilder json = new StringBuilder(points * 24 + 512);
+        json.append("{\"type\":\"FeatureCollection\",\"features\":[{\"type\":\"Feature\",\"properties\":{")
+                .append("\"segments\":[{\"distance\":123456.7,\"duration\":23456.7,\"steps\":[]}],")
+                .append("\"summary\":{\"distance\":123456.7,\"duration\":23456.7},\"way_points\":[0,")
+                .append(points - 1).append("]},\"geometry\":{\"type\":\"LineString\",\"coordinates\":[");
+        for (int i = 0; i < points; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            double lon = 13.0 + i * 0.00005;
+            double lat = 47.8 + Math.sin(i / 50.0) * 0.01;
+            json.append(String.format(Locale.US, "[%.6f,%.6f]", lon, lat));
+        }
+        json.append("]}}],\"metadata\":{\"attribution\":\"openrouteservice.org\"}}");
+        return json.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DirectionsParserBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,66 @@
+package com.tourplanner.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectionsParserTest {
+
+    private static final String RESPONSE = "{\"type\":\"FeatureCollection\",\"bbox\":[16.37,47.8,13.04,48.2],"
+            + "\"features\":[{\"bbox\":[16.37,47.8,13.04,48.2],\"type\":\"Feature\","
+            + "\"properties\":{\"segments\":[{\"distance\":295123.4,\"duration\":10800.0,\"steps\":[{\"distance\":1.0,\"name\":\"A1\"}]},"
+            + "{\"distance\":1.0,\"duration\":1.0}],\"way_points\":[0,2],\"summary\":{\"distance\":295123.4,\"duration\":10800.0}},"
+            + "\"geometry\":{\"coordinates\":[[16.37208,48.20849,170.0],[14.28611,48.30639],[13.04399,47.79941]],\"type\":\"LineString\"}},"
+            + "{\"type\":\"Feature\",\"geometry\":{\"coordinates\":[[0.0,0.0]],\"type\":\"LineString\"}}],"
+            + "\"metadata\":{\"attribution\":\"openrouteservice.org\",\"query\":{\"coordinates\":[[16.37,48.2],[13.04,47.8]]}}}";
+
+    @Test
+    void testParsesFirstRoute() throws IOException {
+        // When
+        DirectionsParser.Result result = DirectionsParser.parse(
+                new ByteArrayInputStream(RESPONSE.getBytes(StandardCharsets.UTF_8)));
+        // Then
+        assertEquals(295123.4, result.distance(), 1e-9);
+        assertEquals(10800.0, result.duration(), 1e-9);
+        assertEquals("{\"distance\":295123.4,\"duration\":10800.0}", result.summary());
+        assertEquals(3, result.pointCount());
+        assertEquals(48.20849, result.latitudes()[0], 1e-9);
+        assertEquals(16.37208, result.longitudes()[0], 1e-9);
+        assertEquals(47.79941, result.latitudes()[2], 1e-9);
+        assertEquals(13.04399, result.longitudes()[2], 1e-9);
+    }
+
+    @Test
+    void testBufferIsResetBetweenCalls() throws IOException {
+        // Given
+        DirectionsParser.parse(RESPONSE.getBytes(StandardCharsets.UTF_8));
+        // When
+        DirectionsParser.Result result = DirectionsParser.parse(
+                "{\"features\":[{\"geometry\":{\"coordinates\":[[1.5,2.5]]}}]}".getBytes(StandardCharsets.UTF_8));
+        // Then
+        assertEquals(1, result.pointCount());
+        assertEquals(2.5, result.latitudes()[0], 1e-9);
+        assertNull(result.summary());
+    }
+
+    @Test
+    void testParseDoubleMatchesJdk() {
+        // Given
+        String[] values = {"16.37208", "-81.548460", "0", "-0.5", "48.208490000000001", "1.5e3", "123456789.123456", "0.000001"};
+        for (String value : values) {
+            // When
+            double parsed = DirectionsParser.parseDouble(value.toCharArray(), 0, value.length());
+            // Then
+            assertEquals(Double.parseDouble(value), parsed, 0.0, value);
+        }
+    }
+
+    @Test
+    void testRejectsNonObject() {
+        assertThrows(IOException.class, () -> DirectionsParser.parse("[]".getBytes(StandardCharsets.UTF_8)));
+    }
+}
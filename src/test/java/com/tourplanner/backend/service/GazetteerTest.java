@@ -0,0 +1,143 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.GeoCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GazetteerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Gazetteer gazetteer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String rows = String.join("\n",
+                row(2761369, "Vienna", "Vienna", 48.20849, 16.37208, "AT", 1691468),
+                row(4804532, "Vienna", "Vienna", 39.32424, -81.54846, "US", 10513),
+                row(2761367, "Vienne", "Vienne", 45.52569, 4.87484, "FR", 29306),
+                row(2766824, "Salzburg", "Salzburg", 47.79941, 13.04399, "AT", 150938),
+                row(2772400, "Linz", "Linz", 48.30639, 14.28611, "AT", 181162),
+                row(2778067, "Graz", "Graz", 47.06667, 15.45, "AT", 222326),
+                row(2782067, "Wörgl", "Worgl", 47.48906, 12.06174, "AT", 13609),
+                row(2988507, "Paris", "Paris", 48.85341, 2.3488, "FR", "11", 2138551),
+                row(4717560, "Paris", "Paris", 33.66094, -95.55551, "US", "TX", 24782),
+                row(4246659, "Paris", "Paris", 39.61115, -87.69614, "US", "IL", 8837),
+                row(4791160, "Vienna", "Vienna", 38.90122, -77.26526, "US", "VA", 16489)) + "\n";
+        Path file = tempDir.resolve("places.tsv");
+        Files.writeString(file, rows, StandardCharsets.UTF_8);
+        gazetteer = new Gazetteer();
+        gazetteer.load(file);
+    }
+
+    @Test
+    void testSuggestOrdersByPopulation() {
+        // When
+        List<GeoCode> result = gazetteer.suggest("vien", 10);
+        // Then
+        assertEquals(4, result.size());
+        assertEquals("Vienna, AT", result.get(0).getLabel());
+        assertEquals("Vienne, FR", result.get(1).getLabel());
+        assertEquals("Vienna, VA, US", result.get(2).getLabel());
+        assertEquals("Vienna, US", result.get(3).getLabel());
+    }
+
+    @Test
+    void testLookupPrefersExactMatch() {
+        // When
+        GeoCode result = gazetteer.lookup("Vienna, Austria");
+        // Then
+        assertNotNull(result);
+        assertEquals(48.20849, result.getLatitude(), 1e-4);
+        assertEquals(16.37208, result.getLongitude(), 1e-4);
+    }
+
+    @Test
+    void testLookupFiltersByQualifier() {
+        // When / Then: country codes and names, admin1 codes, and the labels suggestions carry
+        assertEquals("Paris, FR", gazetteer.lookup("Paris").getLabel());
+        assertEquals("Paris, TX, US", gazetteer.lookup("Paris, TX").getLabel());
+        assertEquals("Paris, TX, US", gazetteer.lookup("Paris, United States").getLabel());
+        assertEquals("Paris, IL, US", gazetteer.lookup("Paris, IL, USA").getLabel());
+        assertEquals("Vienna, VA, US", gazetteer.lookup("Vienna, VA, US").getLabel());
+        assertEquals("Vienna, AT", gazetteer.lookup("Vienna, Österreich").getLabel());
+        assertEquals(2, gazetteer.suggest("Paris, US", 10).size());
+    }
+
+    @Test
+    void testUnknownQualifierHasNoMatch() {
+        // Texas is no country and longer than any admin1 code: the online geocoder has to answer this one
+        assertNull(gazetteer.lookup("Paris, Texas"));
+        assertNull(gazetteer.lookup("Vienna, Virginia"));
+        assertNull(gazetteer.lookup("Linz, FR"));
+        assertNull(gazetteer.lookup("Vienna, WV"));
+        assertTrue(gazetteer.suggest("Par, Texas", 5).isEmpty());
+    }
+
+    @Test
+    void testLookupOnlyTakesExactNames() {
+        // When / Then
+        assertNull(gazetteer.lookup("Vienn"));
+        assertEquals("Vienna, AT", gazetteer.lookupClosest("Vienn").getLabel());
+        assertEquals("Vienna, VA, US", gazetteer.lookupClosest("Vienn, VA").getLabel());
+    }
+
+    @Test
+    void testRanksAllCandidatesOfLongRange(@TempDir Path dir) throws Exception {
+        // Given: far more places starting with "a" than a bounded scan would look at, the largest sorted last
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            rows.append(row(i, "Aa" + i, "Aa" + i, 47.0, 13.0, "AT", 100 + i % 1000)).append('\n');
+        }
+        rows.append(row(60_000, "Azur", "Azur", 43.0, 7.0, "FR", 50_000)).append('\n');
+        rows.append(row(60_001, "Aa", "Aa", 47.0, 13.0, "AT", 10)).append('\n');
+        Path file = dir.resolve("many.tsv");
+        Files.writeString(file, rows.toString(), StandardCharsets.UTF_8);
+        Gazetteer many = new Gazetteer();
+        many.load(file);
+        // When
+        List<GeoCode> best = many.suggest("a", 3);
+        // Then
+        assertEquals("Azur, FR", best.get(0).getLabel());
+        assertEquals(3, best.size());
+        assertEquals("Aa, AT", many.lookup("aa").getLabel());
+        assertNull(many.lookup("a, France"));
+        assertEquals("Azur, FR", many.lookupClosest("a, France").getLabel());
+    }
+
+    @Test
+    void testLookupIgnoresDiacritics() {
+        // When
+        GeoCode result = gazetteer.lookup("Wörgl");
+        // Then
+        assertNotNull(result);
+        assertEquals("Wörgl, AT", result.getLabel());
+    }
+
+    @Test
+    void testNoMatch() {
+        assertNull(gazetteer.lookup("Atlantis"));
+        assertTrue(gazetteer.suggest("zz", 5).isEmpty());
+        assertEquals(11, gazetteer.size());
+    }
+
+    // GeoNames column layout, unused columns are left empty
+    private static String row(long id, String name, String ascii, double lat, double lon, String country, long population) {
+        return row(id, name, ascii, lat, lon, country, "", population);
+    }
+
+    private static String row(long id, String name, String ascii, double lat, double lon, String country, String admin1,
+                              long population) {
+        return id + "\t" + name + "\t" + ascii + "\t\t" + lat + "\t" + lon + "\tP\tPPL\t" + country
+                + "\t\t" + admin1 + "\t\t\t\t" + population + "\t\t\tEurope/Vienna\t2024-01-01";
+    }
+}
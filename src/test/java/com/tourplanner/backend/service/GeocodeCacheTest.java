@@ -0,0 +1,95 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.GeoCode;
+import com.tourplanner.backend.repository.GeocodeCacheRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GeocodeCacheTest {
+
+    @Autowired
+    private GeocodeCacheRepository repository;
+
+    private GeocodeCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        cache = new GeocodeCache(repository, 2, 60, 100, 30, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void testMissThenHit() {
+        // Given
+        assertNull(cache.get("Vienna, Austria").join());
+        // When
+        cache.put("Vienna, Austria", List.of(new GeoCode(16.37, 48.21, "Vienna, Austria")));
+        List<GeoCode> result = cache.get("  vienna,   AUSTRIA ").join();
+        // Then
+        assertNotNull(result);
+        assertEquals(48.21, result.get(0).getLatitude());
+        assertEquals("Vienna, Austria", result.get(0).getLabel());
+        assertEquals(1, cache.getStats().hits());
+        assertEquals(1, cache.getStats().misses());
+    }
+
+    @Test
+    void testDiskTierSurvivesMemoryClear() {
+        // Given
+        cache.commit("Salzburg", List.of(new GeoCode(13.04, 47.80, "Salzburg, Austria")));
+        cache.clearMemory();
+        // When
+        assertNull(cache.peek("Salzburg"));
+        List<GeoCode> result = cache.get("Salzburg").join();
+        // Then
+        assertNotNull(result);
+        assertEquals(13.04, result.get(0).getLongitude());
+        assertEquals(1, cache.getStats().diskHits());
+        assertNotNull(cache.peek("Salzburg"));
+    }
+
+    @Test
+    void testOnlyCommittedResultsArePersisted() {
+        // Given: an autocomplete prefix, a lookup without results, and a committed lookup whose result is
+        // committed again
+        cache.put("Salz", List.of(new GeoCode(13.04, 47.80, "Salzburg, Austria")));
+        cache.commit("Nowhere", List.of());
+        cache.commit("Linz", List.of(new GeoCode(14.29, 48.31, "Linz, Austria")));
+        cache.commit("Linz", cache.peek("Linz"));
+        // When
+        cache.clearMemory();
+        // Then
+        assertNull(cache.get("Salz").join());
+        assertNull(cache.get("Nowhere").join());
+        assertNotNull(cache.get("Linz").join());
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void testLruEviction() {
+        // Given
+        cache.put("Graz", List.of(new GeoCode(15.43, 47.07)));
+        cache.put("Linz", List.of(new GeoCode(14.29, 48.31)));
+        cache.peek("Graz"); // Graz is now the most recently used
+        // When
+        cache.put("Innsbruck", List.of(new GeoCode(11.40, 47.26)));
+        // Then
+        assertEquals(2, cache.getStats().size());
+        assertEquals(1, cache.getStats().evictions());
+    }
+}
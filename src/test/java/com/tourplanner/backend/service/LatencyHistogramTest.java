@@ -0,0 +1,38 @@
+package com.tourplanner.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentiles() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(20, false);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(800, true);
+        }
+        // When
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        // Then
+        assertEquals(100, snapshot.count());
+        assertEquals(10, snapshot.errors());
+        assertEquals(98, snapshot.averageMillis());
+        assertEquals(25, snapshot.p50Millis());
+        assertEquals(800, snapshot.p95Millis());
+        assertEquals(800, snapshot.maxMillis());
+    }
+
+    @Test
+    void testEmpty() {
+        // When
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        // Then
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.p99Millis());
+    }
+}
@@ -0,0 +1,79 @@
+package com.tourplanner.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrsCircuitBreakerTest {
+
+    private final OrsCircuitBreaker breaker = new OrsCircuitBreaker(3, 1, 4);
+
+    @AfterEach
+    void tearDown() {
+        breaker.shutdown();
+    }
+
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        // Given
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+        // When
+        breaker.recordFailure();
+        // Then
+        assertEquals(OrsCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(1, breaker.getStats().opened());
+        assertEquals(1, breaker.getStats().shortCircuited());
+    }
+
+    @Test
+    void testProbeClosesBreaker() throws Exception {
+        // Given
+        List<OrsCircuitBreaker.State> changes = new CopyOnWriteArrayList<>();
+        breaker.addListener(changes::add);
+        breaker.setProbe(() -> CompletableFuture.completedFuture(true));
+        // When
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        waitFor(OrsCircuitBreaker.State.CLOSED);
+        // Then
+        assertEquals(List.of(OrsCircuitBreaker.State.OPEN, OrsCircuitBreaker.State.HALF_OPEN,
+                OrsCircuitBreaker.State.CLOSED), changes);
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void testFailedProbeKeepsBreakerOpen() throws Exception {
+        // Given
+        List<OrsCircuitBreaker.State> changes = new CopyOnWriteArrayList<>();
+        breaker.addListener(changes::add);
+        breaker.setProbe(() -> CompletableFuture.completedFuture(false));
+        // When
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        Thread.sleep(1500);
+        // Then
+        assertEquals(OrsCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(List.of(OrsCircuitBreaker.State.OPEN, OrsCircuitBreaker.State.HALF_OPEN,
+                OrsCircuitBreaker.State.OPEN), changes);
+    }
+
+    private void waitFor(OrsCircuitBreaker.State state) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (breaker.getState() != state && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.tourplanner.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrsRateLimiterTest {
+
+    private final OrsRateLimiter limiter = new OrsRateLimiter(40, 100, 40, 3, 500, 60);
+
+    @Test
+    void testRetryAfterIsHonored() {
+        // Given
+        HttpHeaders headers = HttpHeaders.of(Map.of("Retry-After", List.of("7")), (k, v) -> true);
+        // When & Then
+        assertEquals(7000, limiter.retryDelay(1, 429, headers));
+        assertEquals(-1, limiter.retryDelay(4, 429, headers));
+        assertEquals(-1, limiter.retryDelay(1, 404, headers));
+    }
+
+    @Test
+    void testBackoffGrowsWithJitter() {
+        // Given
+        HttpHeaders none = HttpHeaders.of(Map.of(), (k, v) -> true);
+        // When
+        long first = limiter.retryDelay(1, 503, none);
+        long third = limiter.retryDelay(3, 503, none);
+        // Then
+        assertTrue(first >= 250 && first <= 500);
+        assertTrue(third >= 1000 && third <= 2000);
+        assertTrue(limiter.retryDelay(1, new IOException("reset")) >= 250);
+        assertEquals(-1, limiter.retryDelay(1, new IllegalStateException()));
+    }
+
+    @Test
+    void testParseRetryAfterDate() {
+        // Given
+        Instant now = Instant.parse("2024-05-01T10:00:00Z");
+        // When & Then
+        assertEquals(30000, OrsRateLimiter.parseRetryAfter("Wed, 01 May 2024 10:00:30 GMT", now));
+        assertEquals(-1, OrsRateLimiter.parseRetryAfter("soon", now));
+    }
+
+    @Test
+    void testEndpointsShareTheirApiLimit() {
+        // When & Then
+        assertSame(limiter.forEndpoint("directions/driving-car"), limiter.forEndpoint("directions/foot-walking"));
+        assertNotSame(limiter.forEndpoint("directions/driving-car"), limiter.forEndpoint("geocode/search"));
+        assertEquals(100, limiter.getStats().get("geocode").permitsPerMinute());
+    }
+}
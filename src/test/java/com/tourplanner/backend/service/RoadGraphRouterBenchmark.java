@@ -0,0 +1,120 @@
+package com.tourplanner.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Query time of the offline router on synthetic city grids (about 100 m blocks, arterials every tenth street,
+// some one-way streets): bidirectional A* against a plain Dijkstra over the same CSR arrays, random node pairs.
+// Not run by surefire; start main() from the IDE after mvn test-compile.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoadGraphRouterBenchmark {
+
+    @Param({"100", "500"})
+    private int size;
+
+    private RoadGraphRouter router;
+    private int[][] pairs;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RoadGraph graph = grid(size, 42);
+        router = new RoadGraphRouter(graph);
+        Random random = new Random(7);
+        pairs = new int[1024][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new int[]{random.nextInt(graph.nodeCount()), random.nextInt(graph.nodeCount())};
+        }
+    }
+
+    @Benchmark
+    public long bidirectionalAStar() {
+        int[] pair = pairs[next++ & (pairs.length - 1)];
+        RoadGraphRouter.Path path = router.route(pair[0], pair[1], RoadGraphRouter.Profile.CAR);
+        return path != null ? path.millis() : -1;
+    }
+
+    @Benchmark
+    public long dijkstra() {
+        int[] pair = pairs[next++ & (pairs.length - 1)];
+        return dijkstra(router.graph(), pair[0], pair[1], RoadGraphRouter.Profile.CAR);
+    }
+
+    // size x size nodes around Vienna, streets in both directions except every seventh one
+    static RoadGraph grid(int size, long seed) {
+        Random random = new Random(seed);
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                double jitter = (random.nextDouble() - 0.5) * 0.0002;
+                builder.addNode(48.1 + row * 0.0009 + jitter, 16.2 + col * 0.00135 + jitter);
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int node = row * size + col;
+                if (col + 1 < size) {
+                    builder.addRoad(node, node + 1, row % 10 == 0 ? 1 : 4, RoadGraph.ALL, row % 7 == 3);
+                }
+                if (row + 1 < size) {
+                    builder.addRoad(node, node + size, col % 10 == 0 ? 1 : 4, RoadGraph.ALL, col % 7 == 3);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    // Reference: plain Dijkstra from the source, travel time in ms or -1 if unreachable
+    static long dijkstra(RoadGraph graph, int source, int target, RoadGraphRouter.Profile profile) {
+        long[] distance = new long[graph.nodeCount()];
+        Arrays.fill(distance, Long.MAX_VALUE);
+        distance[source] = 0;
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        queue.add(new long[]{0, source});
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int u = (int) entry[1];
+            if (entry[0] != distance[u]) {
+                continue;
+            }
+            if (u == target) {
+                return entry[0];
+            }
+            for (int arc = graph.firstOut(u), end = graph.firstOut(u + 1); arc < end; arc++) {
+                int cost = RoadGraphRouter.arcMillis(graph, arc, profile);
+                int v = graph.target(arc);
+                if (cost >= 0 && entry[0] + cost < distance[v]) {
+                    distance[v] = entry[0] + cost;
+                    queue.add(new long[]{distance[v], v});
+                }
+            }
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RoadGraphRouterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.tourplanner.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadGraphRouterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMatchesDijkstra() {
+        // Given
+        RoadGraph graph = RoadGraphRouterBenchmark.grid(40, 1);
+        RoadGraphRouter router = new RoadGraphRouter(graph);
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            int source = random.nextInt(graph.nodeCount());
+            int target = random.nextInt(graph.nodeCount());
+            RoadGraphRouter.Profile profile = RoadGraphRouter.Profile.values()[i % 3];
+            // When
+            RoadGraphRouter.Path path = router.route(source, target, profile);
+            // Then
+            assertEquals(RoadGraphRouterBenchmark.dijkstra(graph, source, target, profile), path.millis());
+            assertEquals(source, path.nodes()[0]);
+            assertEquals(target, path.nodes()[path.nodes().length - 1]);
+        }
+    }
+
+    @Test
+    void testOnewayAndAccess() {
+        // Given: a one-way road 0 -> 1 and a footpath 1 -> 2 -> 0 back
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        int a = builder.addNode(48.20, 16.37);
+        int b = builder.addNode(48.21, 16.37);
+        int c = builder.addNode(48.21, 16.38);
+        builder.addRoad(a, b, 4, RoadGraph.ALL, true);
+        builder.addRoad(b, c, 7, RoadGraph.FOOT, false);
+        builder.addRoad(c, a, 7, RoadGraph.FOOT, false);
+        RoadGraphRouter router = new RoadGraphRouter(builder.build());
+        // When
+        RoadGraphRouter.Path carForward = router.route(a, b, RoadGraphRouter.Profile.CAR);
+        RoadGraphRouter.Path carBack = router.route(b, a, RoadGraphRouter.Profile.CAR);
+        RoadGraphRouter.Path walkBack = router.route(b, a, RoadGraphRouter.Profile.FOOT);
+        // Then
+        assertNotNull(carForward);
+        assertEquals(1112, carForward.meters(), 2);
+        assertNull(carBack);
+        // Walking may use the one-way street against its direction, which is shorter than the footpath
+        assertArrayEquals(new int[]{b, a}, walkBack.nodes());
+    }
+
+    @Test
+    void testWriteAndLoadMapped() throws IOException {
+        // Given
+        RoadGraph built = RoadGraphRouterBenchmark.grid(20, 5);
+        Path file = tempDir.resolve("grid.tprg");
+        // When
+        built.write(file);
+        RoadGraph loaded = RoadGraph.load(file);
+        // Then
+        assertEquals(built.nodeCount(), loaded.nodeCount());
+        assertEquals(built.arcCount(), loaded.arcCount());
+        assertEquals(Files.size(file), loaded.byteSize());
+        RoadGraphRouter.Path expected = new RoadGraphRouter(built).route(0, 399, RoadGraphRouter.Profile.BICYCLE);
+        RoadGraphRouter.Path actual = new RoadGraphRouter(loaded).route(0, 399, RoadGraphRouter.Profile.BICYCLE);
+        assertArrayEquals(expected.nodes(), actual.nodes());
+        assertEquals(expected.millis(), actual.millis());
+    }
+
+    @Test
+    void testLoadRejectsOtherFiles() throws IOException {
+        // Given
+        Path file = tempDir.resolve("places.tsv");
+        Files.writeString(file, "1\tWien\tWien\t\t48.2\t16.37\n");
+        // When / Then
+        assertThrows(IOException.class, () -> RoadGraph.load(file));
+    }
+
+    @Test
+    void testNearestNodeRespectsProfileAndDistance() {
+        // Given: a motorway node (no bicycles) next to the query point and a residential node 300 m away
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        int motorway = builder.addNode(48.2000, 16.3700);
+        int motorwayEnd = builder.addNode(48.2100, 16.3700);
+        int street = builder.addNode(48.2027, 16.3700);
+        int streetEnd = builder.addNode(48.2027, 16.3800);
+        builder.addRoad(motorway, motorwayEnd, 0, RoadGraph.CAR, false);
+        builder.addRoad(street, streetEnd, 4, RoadGraph.ALL, false);
+        RoadGraph graph = builder.build();
+        // When / Then
+        assertEquals(motorway, graph.nearestNode(48.2001, 16.3700, RoadGraph.CAR, 5000));
+        assertEquals(street, graph.nearestNode(48.2001, 16.3700, RoadGraph.BICYCLE, 5000));
+        assertEquals(-1, graph.nearestNode(48.2001, 16.3700, RoadGraph.BICYCLE, 100));
+    }
+
+    @Test
+    void testProfileNamesMatchRouteService() {
+        assertEquals(RoadGraphRouter.Profile.FOOT, RoadGraphRouter.Profile.of(RouteServiceImpl.getProfile("Foot")));
+        assertEquals(RoadGraphRouter.Profile.BICYCLE, RoadGraphRouter.Profile.of(RouteServiceImpl.getProfile("bicycle")));
+        assertEquals(RoadGraphRouter.Profile.CAR, RoadGraphRouter.Profile.of(RouteServiceImpl.getProfile("public transport")));
+    }
+}
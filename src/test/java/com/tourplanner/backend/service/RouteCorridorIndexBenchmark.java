@@ -0,0 +1,113 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.MultiResolutionPolyline;
+import com.tourplanner.backend.model.PackedPolyline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Corridor queries ("tours passing within 2 km") over 5000 stored routes of 400 points each (2M points, about
+// 40 km per route, all within 1 x 1.5 degrees around Graz): the segment index against a scan of every route.
+// Not run by surefire; start main() from the IDE after mvn test-compile.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class RouteCorridorIndexBenchmark {
+
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * 6_371_000;
+
+    @Param({"5000"})
+    private int routes;
+
+    private RouteCorridorIndex index;
+    private PackedPolyline[] polylines;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        index = new RouteCorridorIndex(0.05, MultiResolutionPolyline.MAX_ZOOM);
+        Random random = new Random(42);
+        polylines = new PackedPolyline[routes];
+        for (int id = 0; id < routes; id++) {
+            polylines[id] = randomWalk(random, 400);
+            index.put(id, polylines[id]);
+        }
+        queries = new double[1024][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new double[]{47.0 + random.nextDouble(), 15.0 + random.nextDouble() * 1.5};
+        }
+    }
+
+    @Benchmark
+    public int index() {
+        double[] q = queries[next++ & (queries.length - 1)];
+        return index.near(q[0], q[1], 2000, 100).size();
+    }
+
+    @Benchmark
+    public int linearScan() {
+        double[] q = queries[next++ & (queries.length - 1)];
+        int found = 0;
+        for (PackedPolyline polyline : polylines) {
+            if (distanceMeters(polyline, q[0], q[1]) <= 2000) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // Road-like route of about 100 m steps with a slowly turning heading, starting inside the query area
+    static PackedPolyline randomWalk(Random random, int points) {
+        double[] lats = new double[points];
+        double[] lons = new double[points];
+        lats[0] = 47.0 + random.nextDouble();
+        lons[0] = 15.0 + random.nextDouble() * 1.5;
+        double heading = random.nextDouble() * 2 * Math.PI;
+        for (int i = 1; i < points; i++) {
+            heading += (random.nextDouble() - 0.5) * 0.6;
+            lats[i] = lats[i - 1] + Math.cos(heading) * 0.0009;
+            lons[i] = lons[i - 1] + Math.sin(heading) * 0.00135;
+        }
+        return PackedPolyline.quantized(lats, lons);
+    }
+
+    // Reference: distance in meters from the point to the nearest segment of the polyline, in the plane tangent at
+    // the point like the index
+    static double distanceMeters(PackedPolyline polyline, double latitude, double longitude) {
+        double cos = Math.cos(Math.toRadians(latitude));
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < Math.max(1, polyline.size() - 1); i++) {
+            int b = Math.min(i + 1, polyline.size() - 1);
+            double ax = (polyline.longitude(i) - longitude) * cos, ay = polyline.latitude(i) - latitude;
+            double dx = (polyline.longitude(b) - polyline.longitude(i)) * cos;
+            double dy = polyline.latitude(b) - polyline.latitude(i);
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared > 0 ? Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared)) : 0;
+            double x = ax + t * dx, y = ay + t * dy;
+            best = Math.min(best, x * x + y * y);
+        }
+        return Math.sqrt(best) * METERS_PER_DEGREE;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RouteCorridorIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
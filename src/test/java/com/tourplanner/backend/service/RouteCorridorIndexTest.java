@@ -0,0 +1,151 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.MultiResolutionPolyline;
+import com.tourplanner.backend.model.PackedPolyline;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteCorridorIndexTest {
+
+    private static PackedPolyline line(double... latLon) {
+        double[] lats = new double[latLon.length / 2];
+        double[] lons = new double[latLon.length / 2];
+        for (int i = 0; i < lats.length; i++) {
+            lats[i] = latLon[2 * i];
+            lons[i] = latLon[2 * i + 1];
+        }
+        return PackedPolyline.quantized(lats, lons);
+    }
+
+    @Test
+    void testNearestPointAlongRoute() {
+        // Given: a straight route 10 km east along 48°N, the point 500 m north of its middle
+        RouteCorridorIndex index = new RouteCorridorIndex(0.05, MultiResolutionPolyline.MAX_ZOOM);
+        index.put(1, line(48.0, 16.0, 48.0, 16.1341));
+        index.put(2, line(47.0, 15.0, 47.1, 15.1));
+        // When
+        List<RouteCorridorIndex.Match> matches = index.near(48.0045, 16.0670, 1000, 10);
+        // Then
+        assertEquals(1, matches.size());
+        RouteCorridorIndex.Match match = matches.get(0);
+        assertEquals(1, match.tourId());
+        assertEquals(500, match.distanceMeters(), 2);
+        assertEquals(48.0, match.latitude(), 1e-5);
+        assertEquals(16.0670, match.longitude(), 1e-5);
+        assertEquals(4985, match.metersAlong(), 10);
+        assertTrue(index.near(48.0045, 16.0670, 400, 10).isEmpty());
+    }
+
+    @Test
+    void testMatchesLinearScan() {
+        // Given: 300 random walks of 200 points, about 100 m steps
+        RouteCorridorIndex index = new RouteCorridorIndex(0.05, MultiResolutionPolyline.MAX_ZOOM);
+        Random random = new Random(17);
+        PackedPolyline[] routes = new PackedPolyline[300];
+        for (int id = 0; id < routes.length; id++) {
+            routes[id] = RouteCorridorIndexBenchmark.randomWalk(random, 200);
+            index.put(id, routes[id]);
+        }
+        for (int query = 0; query < 50; query++) {
+            double lat = 47.0 + random.nextDouble();
+            double lon = 15.0 + random.nextDouble() * 1.5;
+            // When
+            List<RouteCorridorIndex.Match> matches = index.near(lat, lon, 3000, Integer.MAX_VALUE);
+            // Then
+            long expected = 0;
+            for (PackedPolyline route : routes) {
+                if (RouteCorridorIndexBenchmark.distanceMeters(route, lat, lon) <= 3000) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, matches.size());
+            for (int i = 0; i < matches.size(); i++) {
+                RouteCorridorIndex.Match match = matches.get(i);
+                assertEquals(RouteCorridorIndexBenchmark.distanceMeters(routes[(int) match.tourId()], lat, lon),
+                        match.distanceMeters(), 0.01);
+                assertTrue(i == 0 || matches.get(i - 1).distanceMeters() <= match.distanceMeters());
+            }
+        }
+    }
+
+    @Test
+    void testPutReplacesAndRemoveDrops() {
+        // Given
+        RouteCorridorIndex index = new RouteCorridorIndex(0.05, 14);
+        index.put(1, line(48.0, 16.0, 48.0, 16.1));
+        index.put(2, line(48.01, 16.0, 48.01, 16.1));
+        // When: tour 1 gets a route 100 km further south, tour 2 is deleted
+        index.put(1, line(47.1, 16.0, 47.1, 16.1));
+        index.remove(2);
+        // Then
+        assertTrue(index.near(48.0, 16.05, 2000, 10).isEmpty());
+        assertEquals(1, index.near(47.1, 16.05, 2000, 10).get(0).tourId());
+        assertEquals(1, index.size());
+        assertEquals(1, index.segmentCount());
+    }
+
+    @Test
+    void testLimitKeepsNearestAndSinglePointRoutes() {
+        // Given: 100 parallel routes 100 m apart north of the point, one route of a single point on it
+        RouteCorridorIndex index = new RouteCorridorIndex(0.05, 14);
+        for (int id = 1; id <= 100; id++) {
+            double lat = 48.0 + id * 0.0009;
+            index.put(id, line(lat, 16.0, lat, 16.2));
+        }
+        index.put(0, line(48.0, 16.1));
+        // When
+        List<RouteCorridorIndex.Match> matches = index.near(48.0, 16.1, 20_000, 3);
+        // Then
+        assertEquals(List.of(0L, 1L, 2L), matches.stream().map(RouteCorridorIndex.Match::tourId).toList());
+        assertEquals(0, matches.get(0).distanceMeters(), 1e-6);
+        assertEquals(0, matches.get(0).metersAlong(), 1e-6);
+    }
+
+    @Test
+    void testWritesDuringLoadWinOverStoredRows() {
+        // Given: while the stored routes are read, tour 1 gets a new route 100 km further south and tour 2 is deleted
+        RouteCorridorIndex index = new RouteCorridorIndex(null, 0.05, 14, false) {
+            @Override
+            List<Object[]> readGeometries() {
+                put(1, line(47.1, 16.0, 47.1, 16.1));
+                remove(2);
+                return List.of(new Object[]{1L, line(48.0, 16.0, 48.0, 16.1).toBytes(), null},
+                        new Object[]{2L, line(48.01, 16.0, 48.01, 16.1).toBytes(), null},
+                        new Object[]{3L, line(47.5, 16.0, 47.5, 16.1).toBytes(), null});
+            }
+        };
+        // When
+        List<RouteCorridorIndex.Match> nearOld = index.near(48.0, 16.05, 2000, 10);
+        // Then
+        assertTrue(nearOld.isEmpty());
+        assertEquals(1, index.near(47.1, 16.05, 2000, 10).get(0).tourId());
+        assertEquals(3, index.near(47.5, 16.05, 2000, 10).get(0).tourId());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testFailedLoadLeavesIndexEmptyForNextQuery() {
+        // Given: the first read fails after a route was put meanwhile
+        int[] reads = {0};
+        RouteCorridorIndex index = new RouteCorridorIndex(null, 0.05, 14, false) {
+            @Override
+            List<Object[]> readGeometries() {
+                if (reads[0]++ == 0) {
+                    put(1, line(48.0, 16.0, 48.0, 16.1));
+                    throw new IllegalStateException("database unavailable");
+                }
+                return List.<Object[]>of(new Object[]{1L, line(48.0, 16.0, 48.0, 16.1).toBytes(), null});
+            }
+        };
+        // When
+        assertThrows(IllegalStateException.class, () -> index.near(48.0, 16.05, 2000, 10));
+        // Then
+        assertEquals(0, index.size());
+        assertEquals(1, index.near(48.0, 16.05, 2000, 10).get(0).tourId());
+        assertEquals(2, reads[0]);
+    }
+}
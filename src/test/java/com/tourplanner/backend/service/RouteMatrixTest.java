@@ -0,0 +1,63 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.model.GeoCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteMatrixTest {
+
+    @Test
+    void testPlanSharesRowsAndColumns() {
+        // Given
+        int[][] routes = {{0, 1}, {0, 2}, {3, 1}};
+        // When
+        List<RouteMatrix.Chunk> chunks = RouteMatrix.plan(routes, List.of(0, 1, 2), 100);
+        // Then
+        assertEquals(1, chunks.size());
+        RouteMatrix.Chunk chunk = chunks.get(0);
+        assertEquals(2, chunk.sourceCount());
+        assertEquals(2, chunk.destinationCount());
+        assertArrayEquals(new int[]{0, 1}, chunk.cell(1));
+        assertArrayEquals(new int[]{1, 0}, chunk.cell(2));
+    }
+
+    @Test
+    void testPlanSplitsAtCellLimit() {
+        // Given
+        int[][] routes = {{0, 1}, {2, 3}, {4, 5}, {6, 7}, {8, 9}};
+        // When
+        List<RouteMatrix.Chunk> chunks = RouteMatrix.plan(routes, List.of(0, 1, 2, 3, 4), 4);
+        // Then
+        assertEquals(3, chunks.size());
+        assertEquals(List.of(0, 1), chunks.get(0).routes());
+        assertEquals(List.of(4), chunks.get(2).routes());
+        chunks.forEach(chunk -> assertTrue(chunk.sourceCount() * chunk.destinationCount() <= 4));
+    }
+
+    @Test
+    void testRequestBody() {
+        // Given
+        GeoCode[] coordinates = {new GeoCode(16.37, 48.21, "Wien"), new GeoCode(14.29, 48.31, "Linz")};
+        RouteMatrix.Chunk chunk = RouteMatrix.plan(new int[][]{{0, 1}}, List.of(0), 10).get(0);
+        // When
+        String body = chunk.requestBody(coordinates);
+        // Then
+        assertEquals("{\"locations\":[[16.370000,48.210000],[14.290000,48.310000]],\"sources\":[0],\"destinations\":[1],"
+                + "\"metrics\":[\"distance\",\"duration\"],\"units\":\"km\"}", body);
+    }
+
+    @Test
+    void testParseUnroutableCell() throws Exception {
+        // Given
+        String json = "{\"distances\":[[184.2,null]],\"durations\":[[6512.5,null]]}";
+        // When
+        RouteMatrix.Table table = RouteMatrix.parse(json, 1, 2);
+        // Then
+        assertEquals(184.2, table.distance(0, 0));
+        assertEquals(6512.5, table.duration(0, 0));
+        assertTrue(Double.isNaN(table.distance(0, 1)));
+    }
+}
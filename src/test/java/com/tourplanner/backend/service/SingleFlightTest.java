@@ -0,0 +1,88 @@
+package com.tourplanner.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private SingleFlight<String, String> singleFlight;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        singleFlight = new SingleFlight<>();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testConcurrentCallsShareOneLoad() {
+        // Given
+        CompletableFuture<String> source = new CompletableFuture<>();
+        // When
+        CompletableFuture<String> first = singleFlight.execute("vienna", () -> load(source));
+        CompletableFuture<String> second = singleFlight.execute("vienna", () -> load(source));
+        source.complete("48.21,16.37");
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals("48.21,16.37", first.join());
+        assertEquals("48.21,16.37", second.join());
+        assertEquals(1, singleFlight.getStats().coalesced());
+        assertEquals(0, singleFlight.getStats().inFlight());
+    }
+
+    @Test
+    void testFailureIsSharedButNotRemembered() {
+        // Given
+        CompletableFuture<String> failing = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("graz", () -> load(failing));
+        CompletableFuture<String> second = singleFlight.execute("graz", () -> load(failing));
+        // When
+        failing.completeExceptionally(new IllegalStateException("HTTP 503"));
+        CompletableFuture<String> retry = singleFlight.execute("graz", () -> load(CompletableFuture.completedFuture("ok")));
+        // Then
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, second::join);
+        assertEquals("ok", retry.join());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testCancellingOneCallerKeepsTheOthers() {
+        // Given
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("linz", () -> load(source));
+        CompletableFuture<String> second = singleFlight.execute("linz", () -> load(source));
+        // When
+        first.cancel(true);
+        source.complete("done");
+        // Then
+        assertFalse(source.isCancelled());
+        assertTrue(first.isCancelled());
+        assertEquals("done", second.join());
+    }
+
+    @Test
+    void testCancellingAllCallersCancelsTheLoad() {
+        // Given
+        CompletableFuture<String> source = new CompletableFuture<>();
+        CompletableFuture<String> first = singleFlight.execute("salzburg", () -> load(source));
+        CompletableFuture<String> second = singleFlight.execute("salzburg", () -> load(source));
+        // When
+        first.cancel(true);
+        second.cancel(true);
+        // Then
+        assertTrue(source.isCancelled());
+        assertEquals(0, singleFlight.getStats().inFlight());
+    }
+
+    private CompletableFuture<String> load(CompletableFuture<String> result) {
+        loads.incrementAndGet();
+        return result;
+    }
+}
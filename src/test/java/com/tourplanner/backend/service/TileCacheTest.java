@@ -0,0 +1,63 @@
+package com.tourplanner.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        // Given: room for three 1 KB tiles
+        TileCache cache = new TileCache(tempDir, 3 * 1024);
+        cache.put(10, 1, 1, new byte[1024]);
+        cache.put(10, 1, 2, new byte[1024]);
+        cache.put(10, 1, 3, new byte[1024]);
+        // When: the first tile is used again, then a fourth one comes in
+        assertNotNull(cache.get(10, 1, 1));
+        cache.put(10, 1, 4, new byte[1024]);
+        // Then
+        assertNull(cache.get(10, 1, 2));
+        assertFalse(Files.exists(tempDir.resolve("10/1/2.png")));
+        assertNotNull(cache.get(10, 1, 1));
+        assertNotNull(cache.get(10, 1, 4));
+        assertEquals(3 * 1024, cache.totalBytes());
+        assertEquals(1, cache.getStats().evictions());
+    }
+
+    @Test
+    void testReopenKeepsTilesAndDropsPartialWrites() throws IOException {
+        // Given
+        TileCache cache = new TileCache(tempDir, 1024 * 1024);
+        cache.put(12, 2200, 1420, new byte[]{1, 2, 3});
+        Files.writeString(tempDir.resolve("12/2200/1421-123.tmp"), "partial");
+        // When
+        TileCache reopened = new TileCache(tempDir, 1024 * 1024);
+        // Then
+        assertArrayEquals(new byte[]{1, 2, 3}, reopened.get(12, 2200, 1420));
+        assertEquals(1, reopened.size());
+        assertFalse(Files.exists(tempDir.resolve("12/2200/1421-123.tmp")));
+    }
+
+    @Test
+    void testReopenShrinksToNewLimit() throws IOException {
+        // Given
+        TileCache cache = new TileCache(tempDir, 1024 * 1024);
+        for (int y = 0; y < 10; y++) {
+            cache.put(14, 8900, y, new byte[1000]);
+        }
+        // When
+        TileCache smaller = new TileCache(tempDir, 4000);
+        // Then
+        assertEquals(4, smaller.size());
+        assertTrue(smaller.totalBytes() <= 4000);
+    }
+}
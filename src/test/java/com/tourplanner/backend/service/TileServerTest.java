@@ -0,0 +1,111 @@
+package com.tourplanner.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TileServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private TileServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private HttpResponse<byte[]> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(server.getBaseUrl() + path)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Test
+    void testSeededTilesWorkWithoutUpstream() throws Exception {
+        // Given
+        Path seed = tempDir.resolve("seed");
+        Files.createDirectories(seed.resolve("8/139"));
+        Files.write(seed.resolve("8/139/90.png"), new byte[]{(byte) 0x89, 'P', 'N', 'G'});
+        server = new TileServer(new TileCache(tempDir.resolve("cache"), 1024 * 1024), TileSource.directory(seed), null,
+                tempDir.resolve("leaflet"), null);
+        // When
+        HttpResponse<byte[]> seeded = get("/tiles/8/139/90.png");
+        HttpResponse<byte[]> missing = get("/tiles/8/139/91.png");
+        // Then
+        assertEquals(200, seeded.statusCode());
+        assertEquals("image/png", seeded.headers().firstValue("Content-Type").orElse(null));
+        assertArrayEquals(new byte[]{(byte) 0x89, 'P', 'N', 'G'}, seeded.body());
+        assertEquals(404, missing.statusCode());
+    }
+
+    @Test
+    void testUpstreamTilesAreCached() throws Exception {
+        // Given
+        AtomicInteger fetches = new AtomicInteger();
+        TileSource upstream = (zoom, x, y) -> {
+            fetches.incrementAndGet();
+            return new byte[]{(byte) zoom, (byte) x, (byte) y};
+        };
+        TileCache cache = new TileCache(tempDir.resolve("cache"), 1024 * 1024);
+        server = new TileServer(cache, null, upstream, tempDir.resolve("leaflet"), null);
+        // When
+        HttpResponse<byte[]> first = get("/tiles/3/4/5.png");
+        HttpResponse<byte[]> second = get("/tiles/3/4/5.png");
+        // Then
+        assertArrayEquals(new byte[]{3, 4, 5}, first.body());
+        assertArrayEquals(first.body(), second.body());
+        assertEquals(1, fetches.get());
+        assertTrue(Files.exists(tempDir.resolve("cache/3/4/5.png")));
+        assertEquals(1, server.getCacheStats().hits());
+    }
+
+    @Test
+    void testRejectsInvalidPaths() throws Exception {
+        // Given
+        Files.createDirectories(tempDir.resolve("leaflet"));
+        Files.writeString(tempDir.resolve("leaflet/leaflet.css"), ".leaflet-container {}");
+        Files.writeString(tempDir.resolve("secret.txt"), "secret");
+        server = new TileServer(new TileCache(tempDir.resolve("cache"), 1024 * 1024), null, (zoom, x, y) -> new byte[1],
+                tempDir.resolve("leaflet"), null);
+        // When / Then
+        HttpResponse<byte[]> css = get("/leaflet/leaflet.css");
+        assertEquals(200, css.statusCode());
+        assertEquals("text/css", css.headers().firstValue("Content-Type").orElse(null));
+        assertEquals(404, get("/leaflet/../secret.txt").statusCode());
+        assertEquals(404, get("/leaflet/%2e%2e/secret.txt").statusCode());
+        assertEquals(404, get("/tiles/2/4/0.png").statusCode());
+        assertEquals(404, get("/tiles/21/0/0.png").statusCode());
+    }
+
+    @Test
+    void testBundledLeafletIsServedFromTheJar() throws Exception {
+        // Given: no asset directory content and no upstream, as on the first run without network
+        Path vendored = Path.of("src/main/resources/com/tourplanner/leaflet/leaflet.js");
+        assumeTrue(Files.exists(vendored), "Leaflet is not checked in under src/main/resources/com/tourplanner/leaflet");
+        server = new TileServer(new TileCache(tempDir.resolve("cache"), 1024 * 1024), null, null,
+                tempDir.resolve("leaflet"), null);
+        // When
+        HttpResponse<byte[]> script = get("/leaflet/leaflet.js");
+        // Then: read from the classpath, which only has it if the resource includes copy .js files
+        assertEquals(200, script.statusCode());
+        assertEquals("application/javascript", script.headers().firstValue("Content-Type").orElse(null));
+        assertArrayEquals(Files.readAllBytes(vendored), script.body());
+        assertFalse(Files.exists(tempDir.resolve("leaflet/leaflet.js")));
+    }
+}
@@ -0,0 +1,81 @@
+package com.tourplanner.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private long now = 0;
+
+    @Test
+    void testBurstThenSpacedReservations() {
+        // Given
+        TokenBucket bucket = new TokenBucket(60, 2, () -> now);
+        // When
+        long first = bucket.reserve();
+        long second = bucket.reserve();
+        long third = bucket.reserve();
+        long fourth = bucket.reserve();
+        // Then
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertEquals(TimeUnit.SECONDS.toNanos(1), third, 1000);
+        assertEquals(TimeUnit.SECONDS.toNanos(2), fourth, 1000);
+    }
+
+    @Test
+    void testRefillOverTime() {
+        // Given
+        TokenBucket bucket = new TokenBucket(60, 1, () -> now);
+        bucket.reserve();
+        // When
+        now += TimeUnit.SECONDS.toNanos(5);
+        // Then
+        assertEquals(0, bucket.reserve());
+        assertTrue(bucket.reserve() > 0);
+    }
+
+    @Test
+    void testThrottlePausesAndHalvesRate() {
+        // Given
+        TokenBucket bucket = new TokenBucket(60, 5, () -> now);
+        // When
+        bucket.throttle(TimeUnit.SECONDS.toNanos(10));
+        long first = bucket.reserve();
+        long second = bucket.reserve();
+        // Then
+        assertEquals(30, bucket.getPermitsPerMinute(), 1e-9);
+        assertEquals(TimeUnit.SECONDS.toNanos(10), first, 1000);
+        assertEquals(TimeUnit.SECONDS.toNanos(12), second, 1000);
+    }
+
+    @Test
+    void testRecoversAfterSuccesses() {
+        // Given
+        TokenBucket bucket = new TokenBucket(60, 1, () -> now);
+        bucket.throttle(0);
+        // When
+        for (int i = 0; i < 20; i++) {
+            bucket.succeeded();
+        }
+        // Then
+        assertEquals(60, bucket.getPermitsPerMinute(), 1e-9);
+    }
+
+    @Test
+    void testAvailableDoesNotTakeTokens() {
+        // Given
+        TokenBucket bucket = new TokenBucket(60, 4, () -> now);
+        bucket.reserve();
+        // When / Then
+        assertEquals(3, bucket.available(), 1e-9);
+        assertEquals(3, bucket.available(), 1e-9);
+        bucket.throttle(TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0, bucket.available(), 1e-9);
+        now += TimeUnit.SECONDS.toNanos(6);
+        assertEquals(1.5, bucket.available(), 1e-9);
+    }
+}
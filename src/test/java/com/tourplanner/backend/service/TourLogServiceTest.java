@@ -0,0 +1,285 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.backend.dto.PageDTO;
+import com.tourplanner.backend.dto.StatisticsSummaryDTO;
+import com.tourplanner.backend.dto.TourDTO;
+import com.tourplanner.backend.dto.TourLogDTO;
+import com.tourplanner.backend.dto.TourStatisticsDTO;
+import com.tourplanner.backend.model.Tour;
+import com.tourplanner.backend.model.TourLog;
+import com.tourplanner.backend.repository.TourLogRepository;
+import com.tourplanner.backend.repository.TourRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class TourLogServiceTest {
+
+    @Autowired
+    private TourLogService tourLogService;
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private TourLogRepository tourLogRepository;
+
+    @Autowired
+    private TourAggregateRepair aggregateRepair;
+
+    private TourDTO tour1;
+    private TourDTO tour2;
+
+    @BeforeEach
+    void setUp() {
+        tourLogRepository.deleteAll();
+        tourRepository.deleteAll();
+        tour1 = tourService.createTour(new TourDTO("Tour 1", "Description 1", 5.0, "1h 30min"));
+        tour2 = tourService.createTour(new TourDTO("Tour 2", "Description 2", 8.0, "2h 15min"));
+    }
+
+    @Test
+    void testCreateAndDeleteUpdateAggregates() {
+        // Given
+        tourLogService.createTourLog(log(tour1.getId(), 4.0, 2.0, 10.0, 3.0));
+        TourLogDTO second = tourLogService.createTourLog(log(tour1.getId(), 2.0, 4.0, 20.0, 5.0));
+
+        // When
+        TourDTO afterCreate = tourService.getTourById(tour1.getId());
+        tourLogService.deleteTourLog(second.getId());
+        TourDTO afterDelete = tourService.getTourById(tour1.getId());
+
+        // Then
+        assertEquals(2, afterCreate.getLogCount());
+        assertEquals(3.0, afterCreate.getAverageRating(), 1e-9);
+        assertEquals(3.0, afterCreate.getAverageDifficulty(), 1e-9);
+        assertEquals(15.0, afterCreate.getAverageDistance(), 1e-9);
+        assertEquals(4.0, afterCreate.getAverageTime(), 1e-9);
+        assertEquals(1, afterDelete.getLogCount());
+        assertEquals(4.0, afterDelete.getAverageRating(), 1e-9);
+        assertEquals(10.0, afterDelete.getAverageDistance(), 1e-9);
+    }
+
+    @Test
+    void testUpdateMovesLogBetweenTours() {
+        // Given
+        TourLogDTO created = tourLogService.createTourLog(log(tour1.getId(), 4.0, 2.0, 10.0, 3.0));
+        tourLogService.createTourLog(log(tour2.getId(), 2.0, 2.0, 10.0, 3.0));
+
+        // When
+        created.setRating(5.0);
+        tourLogService.updateTourLog(created);
+        TourDTO ratingChanged = tourService.getTourById(tour1.getId());
+        created.setTourId(tour2.getId());
+        tourLogService.updateTourLog(created);
+
+        // Then
+        assertEquals(1, ratingChanged.getLogCount());
+        assertEquals(5.0, ratingChanged.getAverageRating(), 1e-9);
+        TourDTO from = tourService.getTourById(tour1.getId());
+        TourDTO to = tourService.getTourById(tour2.getId());
+        assertEquals(0, from.getLogCount());
+        assertEquals(0.0, from.getAverageRating(), 1e-9);
+        assertEquals(2, to.getLogCount());
+        assertEquals(3.5, to.getAverageRating(), 1e-9);
+    }
+
+    @Test
+    void testRepairRecomputesFromLogs() {
+        // Given: logs stored directly, bypassing the service
+        Tour tour = tourRepository.findById(tour1.getId()).orElseThrow();
+        tourLogRepository.save(new TourLog(tour, LocalDateTime.now(), "a", 3.0, 12.0, 2.0, 5.0));
+        tourLogRepository.save(new TourLog(tour, LocalDateTime.now(), "b", 1.0, 8.0, 4.0, 3.0));
+        assertEquals(0, tourService.getTourById(tour1.getId()).getLogCount());
+        assertTrue(aggregateRepair.needsRepair());
+
+        // When
+        int repaired = aggregateRepair.repair();
+
+        // Then
+        assertEquals(2, repaired);
+        assertFalse(aggregateRepair.needsRepair());
+        TourDTO result = tourService.getTourById(tour1.getId());
+        assertEquals(2, result.getLogCount());
+        assertEquals(4.0, result.getAverageRating(), 1e-9);
+        assertEquals(2.0, result.getAverageDifficulty(), 1e-9);
+        assertEquals(10.0, result.getAverageDistance(), 1e-9);
+        assertEquals(3.0, result.getAverageTime(), 1e-9);
+        assertEquals(0, tourService.getTourById(tour2.getId()).getLogCount());
+    }
+
+    @Test
+    void testStatisticsQueries() {
+        // Given
+        tourLogService.createTourLog(log(tour1.getId(), 4.0, 2.0, 10.0, 3.0));
+        tourLogService.createTourLog(log(tour1.getId(), 2.0, 4.0, 20.0, 5.0));
+        tourLogService.createTourLog(log(tour2.getId(), 3.0, 3.0, 30.0, 1.0));
+
+        // When
+        List<TourStatisticsDTO> stats = tourService.getTourStatistics();
+        StatisticsSummaryDTO summary = tourService.getStatisticsSummary();
+
+        // Then
+        assertEquals(2, stats.size());
+        TourStatisticsDTO first = stats.get(0);
+        assertEquals("Tour 1", first.name());
+        assertEquals(2, first.logCount());
+        assertEquals(3.0, first.averageRating(), 1e-9);
+        assertEquals(15.0, first.averageDistance(), 1e-9);
+        assertEquals(3.0, first.minTime(), 1e-9);
+        assertEquals(5.0, first.maxTime(), 1e-9);
+        assertNotNull(first.lastLog());
+        assertEquals(1, stats.get(1).logCount());
+        assertEquals(2, summary.tourCount());
+        assertEquals(3, summary.logCount());
+        assertEquals(3.0, summary.averageRating(), 1e-9);
+        assertEquals(20.0, summary.averageDistance(), 1e-9);
+    }
+
+    @Test
+    void testStatisticsOfTourWithoutLogs() {
+        // When
+        List<TourStatisticsDTO> stats = tourService.getTourStatistics();
+        StatisticsSummaryDTO summary = tourService.getStatisticsSummary();
+
+        // Then
+        assertEquals(2, stats.size());
+        assertEquals(0, stats.get(0).logCount());
+        assertEquals(0.0, stats.get(0).averageRating(), 1e-9);
+        assertNull(stats.get(0).lastLog());
+        assertEquals(0, summary.logCount());
+        assertEquals(6.5, summary.averageTourDistance(), 1e-9);
+    }
+
+    @Test
+    void testStoredStatisticsFollowLogChanges() {
+        // Given: the longest and latest log deleted, the shortest made longer, and a log moved to the other tour
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 10, 0);
+        TourLogDTO shortest = tourLogService.createTourLog(new TourLogDTO(null, tour1.getId(), time, "a", 2.0, 10.0, 1.0, 4.0));
+        tourLogService.createTourLog(new TourLogDTO(null, tour1.getId(), time.plusDays(1), "b", 2.0, 10.0, 4.0, 2.0));
+        TourLogDTO latest = tourLogService.createTourLog(new TourLogDTO(null, tour1.getId(), time.plusDays(2), "c", 2.0, 10.0, 6.0, 2.0));
+        TourLogDTO moved = tourLogService.createTourLog(new TourLogDTO(null, tour1.getId(), time, "d", 2.0, 10.0, 0.5, 5.0));
+        tourLogService.deleteTourLog(latest.getId());
+        shortest.setTotalTime(3.0);
+        tourLogService.updateTourLog(shortest);
+        moved.setTourId(tour2.getId());
+        tourLogService.updateTourLog(moved);
+
+        // When
+        List<TourStatisticsDTO> stats = tourService.getTourStatistics();
+        StatisticsSummaryDTO summary = tourService.getStatisticsSummary();
+
+        // Then: the same as recomputed from the logs
+        assertEquals(2, stats.get(0).logCount());
+        assertEquals(3.0, stats.get(0).averageRating(), 1e-9);
+        assertEquals(3.0, stats.get(0).minTime(), 1e-9);
+        assertEquals(4.0, stats.get(0).maxTime(), 1e-9);
+        assertEquals(time.plusDays(1), stats.get(0).lastLog());
+        assertEquals(0.5, stats.get(1).minTime(), 1e-9);
+        assertEquals(time, stats.get(1).lastLog());
+        assertEquals(3, summary.logCount());
+        assertEquals(11.0 / 3, summary.averageRating(), 1e-9);
+        aggregateRepair.repair();
+        assertEquals(stats, tourService.getTourStatistics());
+        assertEquals(summary, tourService.getStatisticsSummary());
+    }
+
+    @Test
+    void testTourLogPagesByDateThenId() {
+        // Given: two logs at the same time, one earlier, one for another tour
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 10, 0);
+        TourLogDTO later1 = tourLogService.createTourLog(log(tour1.getId(), time, "later 1"));
+        TourLogDTO earlier = tourLogService.createTourLog(log(tour1.getId(), time.minusDays(1), "earlier"));
+        TourLogDTO later2 = tourLogService.createTourLog(log(tour1.getId(), time, "later 2"));
+        tourLogService.createTourLog(log(tour2.getId(), time, "other tour"));
+
+        // When
+        PageDTO<TourLogDTO> first = tourLogService.getTourLogsPageByTourId(tour1.getId(), null, 2);
+        PageDTO<TourLogDTO> second = tourLogService.getTourLogsPageByTourId(tour1.getId(), first.getNextCursor(), 2);
+        PageDTO<TourLogDTO> all = tourLogService.getTourLogsPage(null, 10);
+
+        // Then
+        assertEquals(List.of(earlier.getId(), later1.getId()), first.getItems().stream().map(TourLogDTO::getId).toList());
+        assertEquals(List.of(later2.getId()), second.getItems().stream().map(TourLogDTO::getId).toList());
+        assertFalse(second.hasNext());
+        assertEquals(4, all.getItems().size());
+        assertFalse(all.hasNext());
+    }
+
+    @Test
+    void testCursorWalksAndStoredCounts() {
+        // Given
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 10, 0);
+        for (int i = 0; i < 5; i++) {
+            tourLogService.createTourLog(log(tour1.getId(), time.plusHours(i), "log " + i));
+        }
+        tourLogService.createTourLog(log(tour2.getId(), time, "other tour"));
+
+        // When
+        String cursor = tourLogService.getTourLogsCursorAfter(tour1.getId(), null, 2);
+        String further = tourLogService.getTourLogsCursorAfter(tour1.getId(), cursor, 1);
+        String fromEnd = tourLogService.getTourLogsCursorBeforeLast(tour1.getId(), 2);
+        String allLogs = tourLogService.getTourLogsCursorBeforeLast(null, 1);
+
+        // Then
+        assertEquals(List.of("log 3", "log 4"), comments(tourLogService.getTourLogsPageByTourId(tour1.getId(), further, 10)));
+        assertEquals(List.of("log 3", "log 4"), comments(tourLogService.getTourLogsPageByTourId(tour1.getId(), fromEnd, 10)));
+        assertEquals(List.of("log 4"), comments(tourLogService.getTourLogsPage(allLogs, 10)));
+        assertNull(tourLogService.getTourLogsCursorAfter(tour1.getId(), further, 3));
+        assertNull(tourLogService.getTourLogsCursorBeforeLast(tour1.getId(), 5));
+        assertEquals(5, tourLogService.getTourLogCountByTourId(tour1.getId()));
+        assertEquals(6, tourLogService.getTourLogCount());
+    }
+
+    @Test
+    void testRankedSearchFollowsWrites() {
+        // Given
+        TourLogDTO muddy = tourLogService.createTourLog(log(tour1.getId(), LocalDateTime.now(), "Muddy trail"));
+        tourLogService.createTourLog(log(tour2.getId(), LocalDateTime.now(), "Muddy but sunny"));
+        TourDTO renamed = tourService.getTourById(tour2.getId());
+        renamed.setDescription("Lakeside trail");
+        tourService.updateTour(renamed);
+
+        // When
+        List<TourLogDTO> inTour1 = tourLogService.searchTourLogsRanked(tour1.getId(), "mud", 10);
+        List<TourLogDTO> everywhere = tourLogService.searchTourLogsRanked(null, "muddy", 10);
+        List<TourDTO> byText = tourService.searchToursRanked("trail", 10);
+        List<TourDTO> withLogs = tourService.searchToursWithLogs("trail", 10);
+        muddy.setComment("Dry");
+        tourLogService.updateTourLog(muddy);
+
+        // Then
+        assertEquals(List.of(muddy.getId()), inTour1.stream().map(TourLogDTO::getId).toList());
+        assertEquals(2, everywhere.size());
+        assertEquals(List.of(tour2.getId()), byText.stream().map(TourDTO::getId).toList());
+        assertEquals(List.of(tour2.getId(), tour1.getId()), withLogs.stream().map(TourDTO::getId).toList());
+        assertTrue(tourLogService.searchTourLogsRanked(tour1.getId(), "muddy", 10).isEmpty());
+        assertEquals(1, tourLogService.searchTourLogsRanked(tour1.getId(), "dry", 10).size());
+    }
+
+    private static List<String> comments(PageDTO<TourLogDTO> page) {
+        return page.getItems().stream().map(TourLogDTO::getComment).toList();
+    }
+
+    private static TourLogDTO log(Long tourId, LocalDateTime dateTime, String comment) {
+        return new TourLogDTO(null, tourId, dateTime, comment, 3.0, 10.0, 2.0, 4.0);
+    }
+
+    private static TourLogDTO log(Long tourId, double rating, double difficulty, double distance, double time) {
+        return new TourLogDTO(null, tourId, LocalDateTime.now(), "comment", difficulty, distance, time, rating);
+    }
+}
@@ -1,16 +1,28 @@
 package com.tourplanner.backend.service;
 
+import com.tourplanner.backend.dto.PageDTO;
+import com.tourplanner.backend.dto.RouteMatchDTO;
 import com.tourplanner.backend.dto.TourDTO;
+import com.tourplanner.backend.model.GeoCode;
+import com.tourplanner.backend.model.PackedPolyline;
+import com.tourplanner.backend.model.RouteData;
+import com.tourplanner.backend.model.RouteGeometry;
+import com.tourplanner.backend.model.RouteRequest;
 import com.tourplanner.backend.model.Tour;
+import com.tourplanner.backend.repository.RouteGeometryRepository;
 import com.tourplanner.backend.repository.TourRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,12 +37,25 @@ class TourServiceTest {
     @Autowired
     private TourRepository tourRepository;
 
+    @Autowired
+    private RouteCorridorIndex corridorIndex;
+
+    @Autowired
+    private RouteGeometryRepository routeGeometryRepository;
+
+    @Autowired
+    private TourSpatialIndex spatialIndex;
+
+    @Autowired
+    private TourTextIndex textIndex;
+
     private TourDTO testTour1;
     private TourDTO testTour2;
 
     @BeforeEach
     void setUp() {
         // Clear the database before each test
+        routeGeometryRepository.deleteAll();
         tourRepository.deleteAll();
         
         testTour1 = new TourDTO("Test Tour 1", "Description 1", 5.0, "1h 30min");
@@ -93,6 +118,17 @@ class TourServiceTest {
         assertEquals("1h 30min", result.getEstimatedTime());
     }
 
+    @Test
+    void testCreateToursAsync() {
+        // When
+        List<TourDTO> result = tourService.createToursAsync(List.of(testTour1, testTour2)).join();
+        // Then
+        assertEquals(2, result.size());
+        assertNotNull(result.get(0).getId());
+        assertEquals("Test Tour 2", result.get(1).getName());
+        assertEquals(2, tourService.getAllTours().size());
+    }
+
     @Test
     void testUpdateTour() {
         // Given
@@ -108,6 +144,256 @@ class TourServiceTest {
         assertEquals("2h 30min", result.getEstimatedTime());
     }
 
+    @Test
+    void testUpdateKeepsCoordinatesOfUnchangedLocation() {
+        // Given
+        TourDTO tour = new TourDTO(null, "Danube", "Along the river", 5.0, "1h", null, "Wien", "Tulln");
+        tour.setFromLatitude(48.21);
+        tour.setFromLongitude(16.37);
+        tour.setToLatitude(48.33);
+        tour.setToLongitude(16.06);
+        TourDTO savedTour = tourService.createTour(tour);
+        // When: the editor sends no coordinates, and only the destination changed
+        TourDTO edited = new TourDTO(savedTour.getId(), "Danube", "Along the river", 5.0, "1h", null, "Wien", "Krems");
+        TourDTO result = tourService.updateTour(edited);
+        // Then
+        assertEquals(48.21, result.getFromLatitude());
+        assertEquals(16.37, result.getFromLongitude());
+        assertNull(result.getToLatitude());
+        assertNull(result.getToLongitude());
+    }
+
+    @Test
+    void testFindToursNearAndInArea() {
+        // Given
+        TourDTO vienna = tourWithCoordinates("Prater", 48.2167, 16.3958, 48.2100, 16.4200);
+        TourDTO graz = tourWithCoordinates("Schlossberg", 47.0760, 15.4370, 47.0700, 15.4400);
+        TourDTO savedVienna = tourService.createTour(vienna);
+        tourService.createTour(graz);
+        // When
+        List<TourDTO> near = tourService.findToursNear(48.2082, 16.3738, 5, 10);
+        List<TourDTO> inArea = tourService.findToursInArea(46.5, 15.0, 47.5, 16.0);
+        // Then
+        assertEquals(List.of("Prater"), near.stream().map(TourDTO::getName).toList());
+        assertEquals(List.of("Schlossberg"), inArea.stream().map(TourDTO::getName).toList());
+        // Moved and deleted tours are no longer found at their old place
+        TourDTO moved = tourWithCoordinates("Prater", 47.0700, 15.4400, 47.0710, 15.4410);
+        moved.setId(savedVienna.getId());
+        moved.setFromLocation("Graz");
+        tourService.updateTour(moved);
+        assertTrue(tourService.findToursNear(48.2082, 16.3738, 5, 10).isEmpty());
+        assertEquals(2, tourService.findToursInArea(46.5, 15.0, 47.5, 16.0).size());
+        tourService.deleteTour(savedVienna.getId());
+        assertEquals(1, tourService.findToursInArea(46.5, 15.0, 47.5, 16.0).size());
+    }
+
+    @Test
+    void testFindToursPassingNear() {
+        // Given: a stored route through the point, then its tour is deleted
+        TourDTO saved = tourService.createTour(testTour1);
+        corridorIndex.put(saved.getId(), PackedPolyline.quantized(new double[]{48.0, 48.0}, new double[]{16.0, 16.1}));
+        // When
+        List<RouteMatchDTO> matches = tourService.findToursPassingNear(48.001, 16.05, 1, 10);
+        // Then
+        assertEquals(1, matches.size());
+        assertEquals("Test Tour 1", matches.get(0).getTour().getName());
+        assertEquals(0.111, matches.get(0).getDistanceKm(), 0.001);
+        assertEquals(16.05, matches.get(0).getLongitude(), 1e-5);
+        tourService.deleteTour(saved.getId());
+        assertTrue(tourService.findToursPassingNear(48.001, 16.05, 1, 10).isEmpty());
+    }
+
+    private static TourDTO tourWithCoordinates(String name, double fromLat, double fromLon, double toLat, double toLon) {
+        TourDTO tour = new TourDTO(null, name, "Description", 5.0, "1h", null, "From", "To");
+        tour.setFromLatitude(fromLat);
+        tour.setFromLongitude(fromLon);
+        tour.setToLatitude(toLat);
+        tour.setToLongitude(toLon);
+        return tour;
+    }
+
+    // Route service that answers every request right away and records it, approximate routes if asked to
+    private static class RecordingRouteService implements RouteService {
+        private final List<String> requests = new ArrayList<>();
+        private final List<String> threads = new ArrayList<>();
+        private boolean approximate;
+
+        @Override
+        public synchronized RouteData getRouteData(String fromLocation, String toLocation, String transportType) {
+            requests.add(fromLocation + "-" + toLocation + "-" + transportType);
+            threads.add(Thread.currentThread().getName());
+            RouteData route = new RouteData(fromLocation, toLocation, transportType, 10.0 * requests.size(), 1.5,
+                    PackedPolyline.quantized(new double[]{48.0, 48.1}, new double[]{16.0, 16.1}));
+            route.setApproximate(approximate);
+            return route;
+        }
+
+        @Override
+        public CompletableFuture<RouteData> getRouteDataAsync(String fromLocation, String toLocation, String transportType) {
+            return CompletableFuture.completedFuture(getRouteData(fromLocation, toLocation, transportType));
+        }
+
+        @Override
+        public CompletableFuture<RouteData> getRouteDataAsync(String fromLocation, String toLocation, String transportType,
+                                                              GeoCode fromCoordinates, GeoCode toCoordinates) {
+            return getRouteDataAsync(fromLocation, toLocation, transportType);
+        }
+
+        @Override
+        public CompletableFuture<List<RouteData>> getRouteDataBatch(List<RouteRequest> requests) {
+            return CompletableFuture.completedFuture(requests.stream()
+                    .map(r -> getRouteData(r.fromLocation(), r.toLocation(), r.transportType()))
+                    .toList());
+        }
+
+        @Override
+        public double[] geocode(String address) {
+            return new double[]{48.0, 16.0};
+        }
+    }
+
+    private TourService serviceWith(RouteService routeService) {
+        return new TourServiceImpl(tourRepository, routeService, routeGeometryRepository, spatialIndex, corridorIndex,
+                textIndex, 1);
+    }
+
+    private static TourDTO routedTour(String from, String to, String transportType) {
+        return new TourDTO(null, "Routed", "Description", 5.0, "1h", transportType, from, to);
+    }
+
+    @Test
+    void testGetTourRouteReusesStoredGeometry() {
+        // Given: the route stored when the tour was created
+        RecordingRouteService routes = new RecordingRouteService();
+        TourService service = serviceWith(routes);
+        TourDTO saved = service.createTour(routedTour("Wien", "Graz", "Car"));
+        // When
+        RouteData first = service.getTourRoute(saved.getId());
+        RouteData second = service.getTourRoute(saved.getId());
+        // Then
+        assertEquals(1, routes.requests.size());
+        assertEquals(10.0, first.getDistance(), 1e-9);
+        assertEquals(10.0, second.getDistance(), 1e-9);
+        assertEquals(2, first.getGeometry().size());
+    }
+
+    @Test
+    void testGetTourRouteReroutesWhenRouteFieldsChanged() {
+        // Given: the stored tour changed behind the stored route, first its destination, then its transport type
+        RecordingRouteService routes = new RecordingRouteService();
+        TourService service = serviceWith(routes);
+        TourDTO saved = service.createTour(routedTour("Wien", "Graz", "Car"));
+        Tour tour = tourRepository.findById(saved.getId()).orElseThrow();
+        tour.setToLocation("Linz");
+        tourRepository.save(tour);
+        // When
+        RouteData moved = service.getTourRoute(saved.getId());
+        tour.setTransportType("Bike");
+        tourRepository.save(tour);
+        RouteData cycled = service.getTourRoute(saved.getId());
+        // Then
+        assertEquals(List.of("Wien-Graz-Car", "Wien-Linz-Car", "Wien-Linz-Bike"), routes.requests);
+        assertEquals(20.0, moved.getDistance(), 1e-9);
+        assertEquals(30.0, cycled.getDistance(), 1e-9);
+        RouteGeometry stored = routeGeometryRepository.findByTourId(saved.getId()).orElseThrow();
+        assertTrue(stored.matches("Wien", "Linz", "Bike"));
+        assertEquals(30.0, stored.getDistance(), 1e-9);
+        assertEquals(1, routeGeometryRepository.count());
+        assertEquals(30.0, service.getTourRoute(saved.getId()).getDistance(), 1e-9);
+        assertEquals(3, routes.requests.size());
+    }
+
+    @Test
+    void testGetTourRouteDoesNotStoreApproximateRoute() {
+        // Given: the route service can only estimate the route
+        RecordingRouteService routes = new RecordingRouteService();
+        routes.approximate = true;
+        TourService service = serviceWith(routes);
+        TourDTO saved = service.createTour(routedTour("Wien", "Graz", "Car"));
+        // When
+        RouteData route = service.getTourRoute(saved.getId());
+        // Then: each request asks again, as ORS may be back
+        assertTrue(route.isApproximate());
+        assertTrue(routeGeometryRepository.findByTourId(saved.getId()).isEmpty());
+        service.getTourRoute(saved.getId());
+        assertEquals(3, routes.requests.size());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // the worker threads only see committed tours
+    void testGetTourRouteAsyncReadsOnWorkerThread() {
+        RecordingRouteService routes = new RecordingRouteService();
+        TourService service = serviceWith(routes);
+        try {
+            // Given: a tour whose stored route is out of date
+            TourDTO saved = service.createTour(routedTour("Wien", "Graz", "Car"));
+            Tour tour = tourRepository.findById(saved.getId()).orElseThrow();
+            tour.setTransportType("Bike");
+            tourRepository.save(tour);
+            // When
+            RouteData rerouted = service.getTourRouteAsync(saved.getId()).join();
+            RouteData stored = service.getTourRouteAsync(saved.getId()).join();
+            // Then
+            assertEquals(List.of("Wien-Graz-Car", "Wien-Graz-Bike"), routes.requests);
+            assertTrue(routes.threads.get(1).startsWith("tour-worker-"));
+            assertEquals(20.0, rerouted.getDistance(), 1e-9);
+            assertEquals(20.0, stored.getDistance(), 1e-9);
+            assertNull(service.getTourRouteAsync(999L).join());
+        } finally {
+            routeGeometryRepository.deleteAll();
+            tourRepository.deleteAll();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // the worker threads only see committed tours
+    void testUpdateTourAsyncReadsOnWorkerThread() {
+        RecordingRouteService routes = new RecordingRouteService();
+        TourService service = serviceWith(routes);
+        try {
+            // Given
+            TourDTO saved = service.createTour(routedTour("Wien", "Graz", "Car"));
+            saved.setToLocation("Linz");
+            TourDTO missing = routedTour("Wien", "Graz", "Car");
+            missing.setId(999L);
+            // When
+            TourDTO updated = service.updateTourAsync(saved).join();
+            CompletableFuture<TourDTO> notFound = service.updateTourAsync(missing);
+            // Then: the tour was read and rerouted on the executor, a missing tour fails the future
+            assertEquals(List.of("Wien-Graz-Car", "Wien-Linz-Car"), routes.requests);
+            assertTrue(routes.threads.get(1).startsWith("tour-worker-"));
+            assertEquals(20.0, updated.getDistance(), 1e-9);
+            CompletionException error = assertThrows(CompletionException.class, notFound::join);
+            assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        } finally {
+            routeGeometryRepository.deleteAll();
+            tourRepository.deleteAll();
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // the worker threads only see committed tours
+    void testRefreshRoutesAsyncReadsOnWorkerThread() {
+        RecordingRouteService routes = new RecordingRouteService();
+        TourService service = serviceWith(routes);
+        try {
+            // Given
+            TourDTO first = service.createTour(routedTour("Wien", "Graz", "Car"));
+            TourDTO second = service.createTour(routedTour("Linz", "Salzburg", "Bike"));
+            // When
+            List<TourDTO> refreshed = service.refreshRoutesAsync(List.of(first.getId(), second.getId())).join();
+            // Then: both tours were read on the executor and routed in one batch from there
+            assertEquals(4, routes.requests.size());
+            assertEquals(List.of("Linz-Salzburg-Bike", "Wien-Graz-Car"), routes.requests.subList(2, 4).stream().sorted().toList());
+            assertTrue(routes.threads.get(2).startsWith("tour-worker-"));
+            assertTrue(routes.threads.get(3).startsWith("tour-worker-"));
+            assertEquals(2, refreshed.size());
+        } finally {
+            routeGeometryRepository.deleteAll();
+            tourRepository.deleteAll();
+        }
+    }
+
     @Test
     void testUpdateTourNotFound() {
         // Given
@@ -140,4 +426,81 @@ class TourServiceTest {
         assertEquals("Test Tour 1", result.get(0).getName());
     }
 
+    @Test
+    void testSearchToursRankedAfterUpdateAndDelete() {
+        // Given
+        TourDTO alpine = tourService.createTour(new TourDTO("Alpine crossing", "Over the pass", 5.0, "1h"));
+        TourDTO lake = tourService.createTour(new TourDTO("Lake loop", "Ends at an alpine hut", 5.0, "1h"));
+        // When
+        List<TourDTO> before = tourService.searchToursRanked("alpine", 10);
+        alpine.setName("Glacier crossing");
+        tourService.updateTour(alpine);
+        tourService.deleteTour(lake.getId());
+        // Then
+        assertEquals(List.of(alpine.getId(), lake.getId()), before.stream().map(TourDTO::getId).toList());
+        assertTrue(tourService.searchToursRanked("alpine", 10).isEmpty());
+        assertEquals(1, tourService.searchToursRanked("glac", 10).size());
+    }
+
+    @Test
+    void testSearchToursRankedFallsBackToNameSubstring() {
+        // Given
+        TourDTO salzburg = tourService.createTour(new TourDTO("Salzburg loop", "Old town", 5.0, "1h"));
+        tourService.createTour(new TourDTO("Graz loop", "Burgtor and Schlossberg", 5.0, "1h"));
+        // When: "burg" starts no word of Salzburg's, but a word of the other tour's description
+        List<TourDTO> prefix = tourService.searchToursRanked("burg", 10);
+        List<TourDTO> inside = tourService.searchToursRanked("zbur", 10);
+        // Then: ranked matches come first, the name substring only when there are none
+        assertEquals(1, prefix.size());
+        assertEquals("Graz loop", prefix.get(0).getName());
+        assertEquals(List.of(salzburg.getId()), inside.stream().map(TourDTO::getId).toList());
+        assertTrue(tourService.searchToursWithLogs("xyz", 10).isEmpty());
+        assertTrue(tourService.prepareTextSearch());
+    }
+
+    @Test
+    void testGetToursPageWalksAllToursOnce() {
+        // Given: duplicate names, ordered by id among themselves
+        for (String name : List.of("b", "a", "c", "b", "a", "b", "d")) {
+            tourService.createTour(new TourDTO(name, "", 1.0, "1h"));
+        }
+
+        // When
+        List<TourDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            PageDTO<TourDTO> page = tourService.getToursPage(cursor, 3);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertEquals(3, pages);
+        assertEquals(List.of("a", "a", "b", "b", "b", "c", "d"), seen.stream().map(TourDTO::getName).toList());
+        assertTrue(seen.get(2).getId() < seen.get(3).getId() && seen.get(3).getId() < seen.get(4).getId());
+    }
+
+    @Test
+    void testSearchToursPage() {
+        // Given
+        tourService.createTour(new TourDTO("Alpine 100%", "", 1.0, "1h"));
+        tourService.createTour(new TourDTO("alpine lakes", "", 1.0, "1h"));
+        tourService.createTour(new TourDTO("Coast", "", 1.0, "1h"));
+
+        // When
+        PageDTO<TourDTO> first = tourService.searchToursPage("ALPINE", null, 1);
+        PageDTO<TourDTO> second = tourService.searchToursPage("ALPINE", first.getNextCursor(), 1);
+        PageDTO<TourDTO> literal = tourService.searchToursPage("100%", null, 10);
+
+        // Then
+        assertEquals("Alpine 100%", first.getItems().get(0).getName());
+        assertTrue(first.hasNext());
+        assertEquals("alpine lakes", second.getItems().get(0).getName());
+        assertFalse(second.hasNext());
+        assertEquals(1, literal.getItems().size());
+        assertThrows(IllegalArgumentException.class, () -> tourService.getToursPage("not a cursor", 10));
+    }
+
 } 
\ No newline at end of file
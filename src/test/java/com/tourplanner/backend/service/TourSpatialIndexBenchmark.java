@@ -0,0 +1,90 @@
+package com.tourplanner.backend.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Lookups in the tour endpoint index with 1M tours (2M points) spread over Austria, half of them clustered
+// around the big cities: the 100 nearest tours within 5 km and 25 km, and all tours in a city-sized map viewport,
+// at random places. Near the cities these match thousands of tours (about 5.7k, 85k and 9.4k on average).
+// Not run by surefire; start main() from the IDE after mvn test-compile (needs about 1 GB of heap).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TourSpatialIndexBenchmark {
+
+    private static final double[][] CITIES = {{48.21, 16.37}, {47.07, 15.44}, {48.31, 14.29}, {47.80, 13.04}, {47.27, 11.40}};
+
+    @Param({"1000000"})
+    private int tours;
+
+    @Param({"0.0625"})
+    private double cellDegrees;
+
+    private TourSpatialIndex index;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        index = new TourSpatialIndex(cellDegrees);
+        Random random = new Random(42);
+        for (int id = 0; id < tours; id++) {
+            double[] from = samplePoint(random);
+            double[] to = samplePoint(random);
+            index.update(id, TourSpatialIndex.Endpoints.NONE, new TourSpatialIndex.Endpoints(from[0], from[1], to[0], to[1]));
+        }
+        queries = new double[1024][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = samplePoint(random);
+        }
+    }
+
+    @Benchmark
+    public int radius5km() {
+        double[] q = queries[next++ & (queries.length - 1)];
+        return index.withinRadius(q[0], q[1], 5_000, 100).length;
+    }
+
+    @Benchmark
+    public int radius25km() {
+        double[] q = queries[next++ & (queries.length - 1)];
+        return index.withinRadius(q[0], q[1], 25_000, 100).length;
+    }
+
+    @Benchmark
+    public int viewport() {
+        double[] q = queries[next++ & (queries.length - 1)];
+        return index.withinBox(q[0] - 0.05, q[1] - 0.08, q[0] + 0.05, q[1] + 0.08).length;
+    }
+
+    // Half uniform over Austria's bounding box, half within about 20 km of a city
+    private static double[] samplePoint(Random random) {
+        if (random.nextBoolean()) {
+            return new double[]{46.4 + random.nextDouble() * 2.6, 9.5 + random.nextDouble() * 7.7};
+        }
+        double[] city = CITIES[random.nextInt(CITIES.length)];
+        return new double[]{city[0] + random.nextGaussian() * 0.1, city[1] + random.nextGaussian() * 0.15};
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TourSpatialIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,126 @@
+package com.tourplanner.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TourSpatialIndexTest {
+
+    private static TourSpatialIndex.Endpoints endpoints(double fromLat, double fromLon, double toLat, double toLon) {
+        return new TourSpatialIndex.Endpoints(fromLat, fromLon, toLat, toLon);
+    }
+
+    @Test
+    void testRadiusNearestFirst() {
+        // Given
+        TourSpatialIndex index = new TourSpatialIndex(0.0625);
+        index.update(1, TourSpatialIndex.Endpoints.NONE, endpoints(48.30, 16.37, 48.31, 16.38));  // ~10 km north
+        index.update(2, TourSpatialIndex.Endpoints.NONE, endpoints(47.07, 15.44, 48.21, 16.38));  // ends next to the point
+        index.update(3, TourSpatialIndex.Endpoints.NONE, endpoints(47.80, 13.04, 47.81, 13.05));  // Salzburg
+        // When
+        long[] near = index.withinRadius(48.2082, 16.3738, 12_000, 10);
+        // Then
+        assertArrayEquals(new long[]{2, 1}, near);
+        assertArrayEquals(new long[]{2}, index.withinRadius(48.2082, 16.3738, 5_000, 10));
+        assertArrayEquals(new long[]{2}, index.withinRadius(48.2082, 16.3738, 12_000, 1));
+    }
+
+    @Test
+    void testMatchesLinearScan() {
+        // Given
+        TourSpatialIndex index = new TourSpatialIndex(0.0625);
+        Random random = new Random(11);
+        double[][] points = new double[2000][];
+        for (int id = 0; id < points.length; id++) {
+            points[id] = new double[]{46.5 + random.nextDouble() * 2.5, 9.5 + random.nextDouble() * 7.5};
+            index.update(id, TourSpatialIndex.Endpoints.NONE, new TourSpatialIndex.Endpoints(points[id][0], points[id][1], null, null));
+        }
+        // When
+        long[] inBox = index.withinBox(47.0, 13.0, 47.5, 14.0);
+        // Then
+        long expected = java.util.Arrays.stream(points)
+                .filter(p -> p[0] >= 47.0 && p[0] <= 47.5 && p[1] >= 13.0 && p[1] <= 14.0)
+                .count();
+        assertEquals(expected, inBox.length);
+        for (long id : inBox) {
+            double[] p = points[(int) id];
+            assertTrue(p[0] >= 47.0 && p[0] <= 47.5 && p[1] >= 13.0 && p[1] <= 14.0);
+        }
+    }
+
+    @Test
+    void testLimitKeepsNearest() {
+        // Given: 500 tours along a line east of the point, both endpoints 100 m apart
+        TourSpatialIndex index = new TourSpatialIndex(0.0625);
+        for (int id = 0; id < 500; id++) {
+            double lon = 16.0 + id * 0.001;
+            index.update(id, TourSpatialIndex.Endpoints.NONE, endpoints(48.0, lon + 0.0013, 48.0, lon));
+        }
+        // When
+        long[] nearest = index.withinRadius(48.0, 16.0, 100_000, 20);
+        // Then
+        assertEquals(20, nearest.length);
+        for (int i = 0; i < nearest.length; i++) {
+            assertEquals(i, nearest[i]);
+        }
+    }
+
+    @Test
+    void testUpdateMovesAndRemoveDeletes() {
+        // Given
+        TourSpatialIndex index = new TourSpatialIndex(0.0625);
+        TourSpatialIndex.Endpoints wien = endpoints(48.21, 16.37, 48.22, 16.38);
+        TourSpatialIndex.Endpoints linz = endpoints(48.31, 14.29, 48.30, 14.28);
+        index.update(7, TourSpatialIndex.Endpoints.NONE, wien);
+        // When
+        index.update(7, wien, linz);
+        index.update(7, linz, linz);
+        // Then
+        assertEquals(2, index.size());
+        assertEquals(0, index.withinRadius(48.21, 16.37, 5_000, 10).length);
+        assertArrayEquals(new long[]{7}, index.withinRadius(48.31, 14.29, 5_000, 10));
+        index.remove(7, linz);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testWritesDuringLoadAppliedAfterStoredRows() {
+        // Given: stored rows read after one tour moved and another was deleted, while the load is under way
+        TourSpatialIndex.Endpoints wien = endpoints(48.21, 16.37, 48.21, 16.37);
+        TourSpatialIndex.Endpoints linz = endpoints(48.31, 14.29, 48.31, 14.29);
+        TourSpatialIndex.Endpoints graz = endpoints(47.07, 15.44, 47.07, 15.44);
+        TourSpatialIndex index = new TourSpatialIndex(null, 0.0625) {
+            @Override
+            List<Object[]> readEndpoints() {
+                update(1, wien, linz);
+                remove(2, graz);
+                return List.of(new Object[]{1L, 48.21, 16.37, 48.21, 16.37}, new Object[]{2L, 47.07, 15.44, 47.07, 15.44},
+                        new Object[]{3L, 47.80, 13.04, 47.80, 13.04});
+            }
+        };
+        // When
+        long[] nearWien = index.withinRadius(48.21, 16.37, 5_000, 10);
+        // Then
+        assertEquals(0, nearWien.length);
+        assertArrayEquals(new long[]{1}, index.withinRadius(48.31, 14.29, 5_000, 10));
+        assertEquals(0, index.withinRadius(47.07, 15.44, 5_000, 10).length);
+        assertArrayEquals(new long[]{3}, index.withinRadius(47.80, 13.04, 5_000, 10));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testAntimeridian() {
+        // Given: Fiji on both sides of 180 degrees
+        TourSpatialIndex index = new TourSpatialIndex(0.0625);
+        index.update(1, TourSpatialIndex.Endpoints.NONE, endpoints(-16.80, 179.95, -16.80, 179.96));
+        index.update(2, TourSpatialIndex.Endpoints.NONE, endpoints(-16.80, -179.95, -16.80, -179.96));
+        // When / Then
+        long[] inBox = index.withinBox(-17, 179.9, -16.5, -179.9);
+        java.util.Arrays.sort(inBox);
+        assertArrayEquals(new long[]{1, 2}, inBox);
+        assertArrayEquals(new long[]{1, 2}, index.withinRadius(-16.80, 179.99, 10_000, 10));
+    }
+}
@@ -0,0 +1,135 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.SpringConfig;
+import com.tourplanner.backend.dto.StatisticsSummaryDTO;
+import com.tourplanner.backend.dto.TourStatisticsDTO;
+import com.tourplanner.backend.model.Tour;
+import com.tourplanner.backend.model.TourLog;
+import com.tourplanner.backend.repository.TourLogRepository;
+import com.tourplanner.backend.repository.TourRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Statistics dashboard over 10k tours with 1M logs in an in-memory H2: the statistics and summary queries over the
+// aggregates stored on the tours against loading every tour and log entity and grouping in Java, as
+// TourStatisticsViewModel did before.
+// Not run by surefire; start main() from the IDE after mvn test-compile.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TourStatisticsBenchmark {
+
+    @Param({"10000"})
+    private int tours;
+
+    @Param({"100"})
+    private int logsPerTour;
+
+    private ConfigurableApplicationContext context;
+    private TourService tourService;
+    private TourRepository tourRepository;
+    private TourLogRepository tourLogRepository;
+
+    @Setup
+    public void setUp() {
+        // Arguments, as they take precedence over application.properties and its file database. Without the query
+        // cache, which would hand back the result of the last identical query.
+        context = new SpringApplicationBuilder(SpringConfig.class)
+                .run("--spring.datasource.url=jdbc:h2:mem:statistics;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=0",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.file.name=",
+                        "--logging.level.com.tourplanner=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.org.hibernate=WARN");
+        tourService = context.getBean(TourService.class);
+        tourRepository = context.getBean(TourRepository.class);
+        tourLogRepository = context.getBean(TourLogRepository.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> tourRows = new ArrayList<>(tours);
+        for (int i = 1; i <= tours; i++) {
+            tourRows.add(new Object[]{(long) i, "Tour " + i, 5 + random.nextDouble() * 200, "2h 0m", now, now});
+        }
+        jdbc.batchUpdate("INSERT INTO tours (id, name, distance, estimated_time, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", tourRows);
+        List<Object[]> logRows = new ArrayList<>(10_000);
+        for (int i = 1; i <= tours; i++) {
+            for (int j = 0; j < logsPerTour; j++) {
+                logRows.add(new Object[]{(long) i, now, 1 + random.nextInt(5), random.nextDouble() * 200,
+                        random.nextDouble() * 10, 1 + random.nextInt(5), now, now});
+                if (logRows.size() == 10_000) {
+                    insertLogs(jdbc, logRows);
+                }
+            }
+        }
+        insertLogs(jdbc, logRows);
+        context.getBean(TourAggregateRepair.class).repair();
+    }
+
+    private static void insertLogs(JdbcTemplate jdbc, List<Object[]> rows) {
+        jdbc.batchUpdate("INSERT INTO tour_logs (tour_id, date_time, difficulty, total_distance, total_time, rating, "
+                + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int storedAggregates() {
+        StatisticsSummaryDTO summary = tourService.getStatisticsSummary();
+        List<TourStatisticsDTO> stats = tourService.getTourStatistics();
+        return (int) summary.logCount() + stats.size();
+    }
+
+    @Benchmark
+    public int loadAndGroup() {
+        List<Tour> allTours = tourRepository.findAll();
+        List<TourLog> logs = tourLogRepository.findAll();
+        Map<Long, List<TourLog>> logsByTour = logs.stream().collect(Collectors.groupingBy(l -> l.getTour().getId()));
+        double checksum = logs.stream().mapToDouble(TourLog::getRating).average().orElse(0.0);
+        for (Tour tour : allTours) {
+            List<TourLog> tourLogs = logsByTour.getOrDefault(tour.getId(), List.of());
+            checksum += tourLogs.stream().mapToDouble(TourLog::getTotalTime).average().orElse(0.0);
+            checksum += tourLogs.stream().mapToDouble(TourLog::getTotalDistance).average().orElse(0.0);
+            checksum += tourLogs.stream().mapToDouble(TourLog::getRating).average().orElse(0.0);
+        }
+        return (int) checksum + logs.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TourStatisticsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
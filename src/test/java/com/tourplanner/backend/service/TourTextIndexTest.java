@@ -0,0 +1,210 @@
+package com.tourplanner.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TourTextIndexTest {
+
+    private static TourTextIndex.TourText tour(String name, String description) {
+        return new TourTextIndex.TourText(name, description);
+    }
+
+    private static TourTextIndex.LogText log(long tourId, String comment) {
+        return new TourTextIndex.LogText(tourId, comment);
+    }
+
+    @Test
+    void testNameRanksAboveDescriptionAndPrefixes() {
+        // Given
+        TourTextIndex index = new TourTextIndex();
+        index.updateTour(1, TourTextIndex.TourText.NONE, tour("Lake loop", "Easy walk, ends at the alpine hut"));
+        index.updateTour(2, TourTextIndex.TourText.NONE, tour("Alpine crossing", "Three days over the pass"));
+        index.updateTour(3, TourTextIndex.TourText.NONE, tour("Alpinist training", "Steep"));
+        index.updateTour(4, TourTextIndex.TourText.NONE, tour("City tour", "Museums"));
+        // When
+        long[] alpine = index.searchTours("alpine", 10);
+        long[] prefix = index.searchTours("ALP", 10);
+        // Then
+        assertArrayEquals(new long[]{2, 1}, alpine);
+        assertEquals(Set.of(1L, 2L, 3L), Arrays.stream(prefix).boxed().collect(Collectors.toSet()));
+        assertArrayEquals(new long[]{2}, index.searchTours("alpine", 1));
+    }
+
+    @Test
+    void testEveryWordMustMatch() {
+        // Given
+        TourTextIndex index = new TourTextIndex();
+        index.updateTour(1, TourTextIndex.TourText.NONE, tour("Alpine hiking", null));
+        index.updateTour(2, TourTextIndex.TourText.NONE, tour("Alpine skiing", null));
+        // Then
+        assertArrayEquals(new long[]{1}, index.searchTours("alp hik", 10));
+        assertArrayEquals(new long[0], index.searchTours("alpine biking", 10));
+        assertArrayEquals(new long[0], index.searchTours("  ,. ", 10));
+    }
+
+    @Test
+    void testCaseAndAccentsIgnored() {
+        // Given
+        TourTextIndex index = new TourTextIndex();
+        index.updateTour(1, TourTextIndex.TourText.NONE, tour("Café Crème", "Zürich"));
+        // Then
+        assertArrayEquals(new long[]{1}, index.searchTours("cafe creme", 10));
+        assertArrayEquals(new long[]{1}, index.searchTours("ZURICH", 10));
+    }
+
+    @Test
+    void testUpdateReplacesOldWords() {
+        // Given
+        TourTextIndex index = new TourTextIndex();
+        index.updateTour(1, TourTextIndex.TourText.NONE, tour("Danube bike path", null));
+        // When
+        index.updateTour(1, tour("Danube bike path", null), tour("Rhine bike path", null));
+        // Then
+        assertArrayEquals(new long[0], index.searchTours("danube", 10));
+        assertArrayEquals(new long[]{1}, index.searchTours("rhine", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testLogsScopedToTourAndRemovedWithIt() {
+        // Given
+        TourTextIndex index = new TourTextIndex();
+        index.updateTour(1, TourTextIndex.TourText.NONE, tour("Morning run", null));
+        index.updateTour(2, TourTextIndex.TourText.NONE, tour("Evening run", null));
+        index.updateLog(10, TourTextIndex.LogText.NONE, log(1, "Muddy trail after rain"));
+        index.updateLog(11, TourTextIndex.LogText.NONE, log(1, "Dry and fast"));
+        index.updateLog(12, TourTextIndex.LogText.NONE, log(2, "Muddy again"));
+        // When
+        long[] inTour = index.searchLogs("muddy", 1L, 10);
+        long[] anywhere = index.searchLogs("muddy", null, 10);
+        index.removeTour(1, tour("Morning run", null));
+        // Then
+        assertArrayEquals(new long[]{10}, inTour);
+        assertEquals(2, anywhere.length);
+        assertArrayEquals(new long[]{12}, index.searchLogs("muddy", null, 10));
+        assertArrayEquals(new long[0], index.searchLogs("dry", null, 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void testLogMovedToOtherTour() {
+        // Given
+        TourTextIndex index = new TourTextIndex();
+        index.updateLog(10, TourTextIndex.LogText.NONE, log(1, "Great views"));
+        // When
+        index.updateLog(10, log(1, "Great views"), log(2, "Great views"));
+        // Then
+        assertArrayEquals(new long[0], index.searchLogs("views", 1L, 10));
+        assertArrayEquals(new long[]{10}, index.searchLogs("views", 2L, 10));
+    }
+
+    @Test
+    void testToursFoundThroughLogs() {
+        // Given
+        TourTextIndex index = new TourTextIndex();
+        index.updateTour(1, TourTextIndex.TourText.NONE, tour("Waterfall hike", null));
+        index.updateTour(2, TourTextIndex.TourText.NONE, tour("Waterfall hike", null));
+        index.updateTour(3, TourTextIndex.TourText.NONE, tour("Ridge walk", null));
+        index.updateLog(10, TourTextIndex.LogText.NONE, log(2, "Saw the waterfall frozen"));
+        index.updateLog(11, TourTextIndex.LogText.NONE, log(3, "Waterfall visible from the ridge"));
+        // When
+        long[] combined = index.searchToursWithLogs("waterfall", 10);
+        // Then: its log puts tour 2 ahead of tour 1, tour 3 only matches through its log
+        assertArrayEquals(new long[]{2, 1, 3}, combined);
+        assertArrayEquals(new long[]{1, 2}, index.searchTours("waterfall", 10));
+    }
+
+    @Test
+    void testManyToursFoundOnlyThroughLogs() {
+        // Given
+        TourTextIndex index = new TourTextIndex();
+        index.updateTour(0, TourTextIndex.TourText.NONE, tour("Scree slope", null));
+        for (int id = 1; id <= 300; id++) {
+            index.updateTour(id, TourTextIndex.TourText.NONE, tour("Tour " + id, null));
+            index.updateLog(1000 + id, TourTextIndex.LogText.NONE, log(id, "Loose scree"));
+        }
+        // When
+        long[] combined = index.searchToursWithLogs("scree", 1000);
+        // Then: the tour named after it first
+        assertEquals(301, combined.length);
+        assertEquals(0, combined[0]);
+    }
+
+    @Test
+    void testMatchesLinearScan() {
+        // Given: 2000 logs of random words over 20 tours
+        String[] vocabulary = {"alpine", "alps", "lake", "lakeside", "forest", "rain", "rainy", "sunny", "steep", "trail"};
+        TourTextIndex index = new TourTextIndex();
+        Random random = new Random(5);
+        List<String> comments = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            StringBuilder comment = new StringBuilder();
+            for (int w = 0; w < 1 + random.nextInt(6); w++) {
+                comment.append(vocabulary[random.nextInt(vocabulary.length)]).append(' ');
+            }
+            comments.add(comment.toString());
+            index.updateLog(id, TourTextIndex.LogText.NONE, log(id % 20, comment.toString()));
+        }
+        for (String query : List.of("alp", "lake rain", "rainy steep trail", "sun")) {
+            // When
+            long[] hits = index.searchLogs(query, 7L, 2000);
+            // Then
+            Set<Long> expected = new java.util.HashSet<>();
+            for (int id = 0; id < comments.size(); id++) {
+                List<String> words = List.of(comments.get(id).split(" "));
+                boolean all = Arrays.stream(query.toLowerCase(Locale.ROOT).split(" "))
+                        .allMatch(q -> words.stream().anyMatch(w -> w.startsWith(q)));
+                if (all && id % 20 == 7) {
+                    expected.add((long) id);
+                }
+            }
+            assertEquals(expected, Arrays.stream(hits).boxed().collect(Collectors.toSet()), query);
+            assertEquals(expected.size(), hits.length, query);
+        }
+    }
+
+    @Test
+    void testWritesDuringLoadAppliedAfterStoredRows() {
+        // Given: stored rows read before a log is changed and another deleted, while the load is under way
+        TourTextIndex index = new TourTextIndex(null, null, false) {
+            @Override
+            List<Object[]> readTours() {
+                return List.<Object[]>of(new Object[]{1L, "Forest loop", null});
+            }
+
+            @Override
+            List<Object[]> readLogs(long after, int limit) {
+                if (after > 0) {
+                    return List.of();
+                }
+                updateLog(10, log(1, "Icy path"), log(1, "Dry path"));
+                removeLog(11, log(1, "Icy bridge"));
+                updateTour(2, TourTextIndex.TourText.NONE, tour("Coast walk", null));
+                return List.of(new Object[]{10L, 1L, "Icy path"}, new Object[]{11L, 1L, "Icy bridge"},
+                        new Object[]{12L, 1L, "Icy steps"});
+            }
+        };
+        // When
+        long[] icy = index.searchLogs("icy", null, 10);
+        // Then
+        assertArrayEquals(new long[]{12}, icy);
+        assertArrayEquals(new long[]{10}, index.searchLogs("dry", null, 10));
+        assertArrayEquals(new long[]{2}, index.searchTours("coast", 10));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testInvalidLimit() {
+        TourTextIndex index = new TourTextIndex();
+        assertThrows(IllegalArgumentException.class, () -> index.searchTours("x", 0));
+    }
+}
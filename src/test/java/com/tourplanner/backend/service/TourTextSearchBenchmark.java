@@ -0,0 +1,177 @@
+package com.tourplanner.backend.service;
+
+import com.tourplanner.SpringConfig;
+import com.tourplanner.backend.dto.TourDTO;
+import com.tourplanner.backend.dto.TourLogDTO;
+import com.tourplanner.backend.repository.TourRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Search over 10k tours with 1M logs in an in-memory H2, the words drawn from a vocabulary of 5000 so a query word
+// occurs in about 1 of 500 texts: TourTextIndex (ranked, best 50, entities loaded for them) against the LIKE queries,
+// including searching the logs of one tour the way TourLogViewModel did (all matches, then filtered in Java).
+// The indexOnly methods leave out loading the entities. The time to read all texts into the index on the first
+// query is printed at setup.
+// Not run by surefire; start main() from the IDE after mvn test-compile.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TourTextSearchBenchmark {
+
+    private static final int VOCABULARY = 5000;
+    private static final int LIMIT = 50;
+
+    @Param({"10000"})
+    private int tours;
+
+    @Param({"100"})
+    private int logsPerTour;
+
+    private ConfigurableApplicationContext context;
+    private TourService tourService;
+    private TourLogService tourLogService;
+    private TourRepository tourRepository;
+    private TourTextIndex textIndex;
+    private final Random random = new Random(7);
+
+    @Setup
+    public void setUp() {
+        // Arguments, as they take precedence over application.properties and its file database
+        context = new SpringApplicationBuilder(SpringConfig.class)
+                .run("--spring.datasource.url=jdbc:h2:mem:textsearch;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        // Loaded on the first query below, after the rows are inserted
+                        "--app.text-index.load-on-startup=false",
+                        "--logging.file.name=",
+                        "--logging.level.com.tourplanner=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.org.hibernate=WARN");
+        tourService = context.getBean(TourService.class);
+        tourLogService = context.getBean(TourLogService.class);
+        tourRepository = context.getBean(TourRepository.class);
+        textIndex = context.getBean(TourTextIndex.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+        Random text = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> tourRows = new ArrayList<>(tours);
+        for (int i = 1; i <= tours; i++) {
+            tourRows.add(new Object[]{(long) i, words(text, 3), words(text, 20), 10.0, "2h 0m", now, now});
+        }
+        jdbc.batchUpdate("INSERT INTO tours (id, name, description, distance, estimated_time, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", tourRows);
+        List<Object[]> logRows = new ArrayList<>(10_000);
+        for (int i = 1; i <= tours; i++) {
+            for (int j = 0; j < logsPerTour; j++) {
+                logRows.add(new Object[]{(long) i, now, words(text, 10), now, now});
+                if (logRows.size() == 10_000) {
+                    insertLogs(jdbc, logRows);
+                }
+            }
+        }
+        insertLogs(jdbc, logRows);
+
+        long start = System.nanoTime();
+        tourService.searchToursRanked(word(), 1);
+        System.out.printf("%nIndexed %d tours and %d logs in %d ms%n", tours, tours * logsPerTour,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void insertLogs(JdbcTemplate jdbc, List<Object[]> rows) {
+        jdbc.batchUpdate("INSERT INTO tour_logs (tour_id, date_time, comment, difficulty, total_distance, total_time, "
+                + "rating, created_at, updated_at) VALUES (?, ?, ?, 3, 10, 2, 4, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i > 0 ? " " : "").append("w").append(random.nextInt(VOCABULARY));
+        }
+        return text.toString();
+    }
+
+    // A whole word, so LIKE and the index look for the same thing (as a substring "w12" also finds "w1234")
+    private String word() {
+        return "w" + (1000 + random.nextInt(VOCABULARY - 1000));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<TourDTO> indexTours() {
+        return tourService.searchToursRanked(word(), LIMIT);
+    }
+
+    // Ids only, without loading the entities
+    @Benchmark
+    public long[] indexOnlyTours() {
+        return textIndex.searchTours(word(), LIMIT);
+    }
+
+    @Benchmark
+    public int likeTours() {
+        return tourRepository.findByNameContainingIgnoreCase(word()).size();
+    }
+
+    @Benchmark
+    public List<TourDTO> indexToursWithLogs() {
+        return tourService.searchToursWithLogs(word(), LIMIT);
+    }
+
+    @Benchmark
+    public List<TourLogDTO> indexLogsOfTour() {
+        return tourLogService.searchTourLogsRanked(1L + random.nextInt(tours), word(), LIMIT);
+    }
+
+    @Benchmark
+    public List<TourLogDTO> likeLogsOfTour() {
+        Long tourId = 1L + random.nextInt(tours);
+        return tourLogService.searchTourLogs(word()).stream()
+                .filter(log -> tourId.equals(log.getTourId()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<TourLogDTO> indexLogs() {
+        return tourLogService.searchTourLogsRanked(null, word(), LIMIT);
+    }
+
+    @Benchmark
+    public long[] indexOnlyLogs() {
+        return textIndex.searchLogs(word(), null, LIMIT);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TourTextSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
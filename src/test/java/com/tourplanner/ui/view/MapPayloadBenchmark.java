@@ -0,0 +1,80 @@
+package com.tourplanner.ui.view;
+
+import com.tourplanner.backend.model.PackedPolyline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Java side of handing a route to the map page: the former JavaScript array literal ([lat,lon],... inside a freshly
+// built page) against the base64 int32 payload passed to showRoute. The WebView side (parsing, Leaflet redraw)
+// needs a display and is logged by TourDetailsView at FINE instead.
+// Not run by surefire; start main() from the IDE after mvn test-compile.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapPayloadBenchmark {
+
+    @Param({"1000", "20000"})
+    private int points;
+
+    private PackedPolyline route;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        double[] lats = new double[points];
+        double[] lons = new double[points];
+        lats[0] = 48.2;
+        lons[0] = 16.37;
+        double heading = random.nextDouble() * 2 * Math.PI;
+        for (int i = 1; i < points; i++) {
+            heading += (random.nextDouble() - 0.5) * 0.6;
+            lats[i] = lats[i - 1] + Math.cos(heading) * 0.0009;
+            lons[i] = lons[i - 1] + Math.sin(heading) * 0.00135;
+        }
+        route = PackedPolyline.quantized(lats, lons);
+        System.out.printf("%n%d points: literal %d chars, base64 %d chars%n",
+                points, literal(route).length(), TourDetailsView.encodePoints(route).length());
+    }
+
+    @Benchmark
+    public String literal() {
+        return literal(route);
+    }
+
+    @Benchmark
+    public String base64() {
+        return TourDetailsView.encodePoints(route);
+    }
+
+    // How the points were embedded in the page before it was reused
+    private static String literal(PackedPolyline polyline) {
+        StringBuilder coords = new StringBuilder(polyline.size() * 24);
+        polyline.forEach((lat, lon) -> coords.append("[").append(lat).append(",").append(lon).append("],"));
+        if (coords.length() > 0) {
+            coords.setLength(coords.length() - 1);
+        }
+        return coords.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MapPayloadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
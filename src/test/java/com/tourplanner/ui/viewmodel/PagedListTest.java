@@ -0,0 +1,196 @@
+package com.tourplanner.ui.viewmodel;
+
+import com.tourplanner.backend.dto.PageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedListTest {
+
+    @Test
+    void testScrollingReadsEachPageOnceWithBoundedCache() {
+        // Given
+        NumberSource source = new NumberSource(10_000, 10_000);
+        PagedList<Integer> list = new PagedList<>(100);
+        list.setSource(source);
+
+        // When
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(i, list.get(i));
+        }
+
+        // Then
+        assertEquals(10_000, list.size());
+        assertEquals(100, list.getPageLoads());
+        assertEquals(0, source.keysWalked);
+        assertTrue(list.cachedPages() <= PagedList.MAX_CACHED_PAGES);
+    }
+
+    @Test
+    void testJumpNearEndWalksBackFromEnd() {
+        // Given
+        NumberSource source = new NumberSource(10_000, 10_000);
+        PagedList<Integer> list = new PagedList<>(100);
+        list.setSource(source);
+
+        // When
+        Integer far = list.get(9_550);
+        Integer next = list.get(9_650);
+
+        // Then: the page after a jump continues with the cursor it returned
+        assertEquals(9_550, far);
+        assertEquals(9_650, next);
+        assertEquals(501, source.keysWalked);
+        assertEquals(2, list.getPageLoads());
+    }
+
+    @Test
+    void testJumpWalksFromNearestKnownCursor() {
+        // Given: the first five pages scrolled through
+        NumberSource source = new NumberSource(10_000, 10_000);
+        PagedList<Integer> list = new PagedList<>(100);
+        list.setSource(source);
+        for (int i = 0; i < 500; i++) {
+            list.get(i);
+        }
+
+        // When
+        Integer middle = list.get(4_050);
+        Integer before = list.get(3_050);
+
+        // Then: from the start of page 5, then from the cursor found for page 40
+        assertEquals(4_050, middle);
+        assertEquals(3_050, before);
+        assertEquals(3_500 + 2_500, source.keysWalked);
+    }
+
+    @Test
+    void testRowsPastRealEndAreNull() {
+        // Given: a count higher than the rows there are
+        PagedList<Integer> list = new PagedList<>(100);
+        list.setSource(new NumberSource(150, 250));
+
+        // Then
+        assertEquals(250, list.size());
+        assertEquals(149, list.get(149));
+        assertNull(list.get(150));
+        assertNull(list.get(249));
+    }
+
+    @Test
+    void testSetReplacesRowInItsPage() {
+        // Given
+        PagedList<Integer> list = new PagedList<>(100);
+        list.setSource(new NumberSource(150, 250));
+
+        // When: a row on a page not read yet
+        Integer old = list.set(120, -1);
+
+        // Then
+        assertEquals(120, old);
+        assertEquals(-1, list.get(120));
+        assertEquals(121, list.get(121));
+        assertEquals(250, list.size());
+        assertThrows(UnsupportedOperationException.class, () -> list.set(200, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(250, -1));
+        assertFalse(list.replace(200, -1));
+        assertTrue(list.replace(121, -2));
+        assertEquals(-2, list.get(121));
+    }
+
+    @Test
+    void testUncachedRowCostsOnePageReadAndOneBoundedSeek() {
+        // Given
+        NumberSource source = new NumberSource(100_000, 100_000);
+        PagedList<Integer> list = new PagedList<>(100);
+        list.setSource(source);
+        Random random = new Random(7);
+
+        for (int jump = 0; jump < 200; jump++) {
+            // When: a jump to a random row, as dragging the scroll bar does
+            int index = random.nextInt(list.size());
+            long pageLoads = list.getPageLoads();
+            long seeks = source.seeks;
+            long walked = source.keysWalked;
+            assertEquals(index, list.get(index));
+
+            // Then: at most one page and one walk over half the rows
+            assertTrue(list.getPageLoads() - pageLoads <= 1);
+            assertTrue(source.seeks - seeks <= 1);
+            assertTrue(source.keysWalked - walked <= list.size() / 2 + 1);
+        }
+    }
+
+    @Test
+    void testSetAllLeavesSourceAndReloadRereadsCount() {
+        // Given
+        NumberSource source = new NumberSource(500, 500);
+        PagedList<Integer> list = new PagedList<>(100);
+        list.setSource(source);
+
+        // When
+        list.setAll(List.of(7, 8));
+        list.add(9);
+        list.remove(0);
+
+        // Then
+        assertFalse(list.isPaged());
+        assertEquals(List.of(8, 9), List.copyOf(list));
+
+        // When
+        list.setSource(source);
+        source.count = 600;
+        source.rows = 600;
+        list.reload();
+
+        // Then
+        assertTrue(list.isPaged());
+        assertEquals(600, list.size());
+        assertEquals(599, list.get(599));
+    }
+
+    // Numbers 0..rows-1, with the last number of a page as its cursor
+    private static class NumberSource implements PagedList.Source<Integer> {
+        int rows;
+        long count;
+        long keysWalked;
+        long seeks;
+
+        NumberSource(int rows, long count) {
+            this.rows = rows;
+            this.count = count;
+        }
+
+        @Override
+        public long count() {
+            return count;
+        }
+
+        @Override
+        public PageDTO<Integer> page(String cursor, int size) {
+            int from = cursor == null ? 0 : Integer.parseInt(cursor) + 1;
+            int to = Math.min(rows, from + size);
+            List<Integer> items = IntStream.range(from, to).boxed().toList();
+            return new PageDTO<>(items, to < rows ? String.valueOf(to - 1) : null);
+        }
+
+        @Override
+        public String cursorAfter(String cursor, long rows) {
+            seeks++;
+            keysWalked += rows;
+            long last = (cursor == null ? -1 : Integer.parseInt(cursor)) + rows;
+            return last < this.rows ? String.valueOf(last) : null;
+        }
+
+        @Override
+        public String cursorBeforeLast(long rows) {
+            seeks++;
+            keysWalked += rows + 1;
+            return rows < this.rows ? String.valueOf(this.rows - rows - 1) : null;
+        }
+    }
+}
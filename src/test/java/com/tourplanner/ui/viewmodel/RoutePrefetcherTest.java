@@ -0,0 +1,120 @@
+package com.tourplanner.ui.viewmodel;
+
+import com.tourplanner.backend.dto.TourDTO;
+import com.tourplanner.backend.model.RouteData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutePrefetcherTest {
+
+    private final Map<Long, CompletableFuture<RouteData>> requests = new HashMap<>();
+    private final List<TourDTO> tours = new ArrayList<>();
+    private boolean spareCapacity = true;
+    private boolean answerRightAway = true;
+    private RoutePrefetcher prefetcher;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 0; id < 20; id++) {
+            tours.add(new TourDTO(id, "Tour " + id, "Description", 10.0, "1h", "Car", "From " + id, "To " + id));
+        }
+        prefetcher = new RoutePrefetcher(this::request, () -> spareCapacity, 2, Runnable::run);
+    }
+
+    private CompletableFuture<RouteData> request(Long tourId) {
+        CompletableFuture<RouteData> request = answerRightAway
+                ? CompletableFuture.completedFuture(route(tourId))
+                : new CompletableFuture<>();
+        requests.put(tourId, request);
+        return request;
+    }
+
+    private static RouteData route(long tourId) {
+        return new RouteData("From " + tourId, "To " + tourId, "Car", 10.0, 0.2);
+    }
+
+    @Test
+    void testNeighboursAreServedFromCache() {
+        // Given
+        prefetcher.route(tours.get(5));
+        prefetcher.prefetchAround(tours, 5);
+        // When
+        CompletableFuture<RouteData> next = prefetcher.route(tours.get(6));
+        CompletableFuture<RouteData> previous = prefetcher.route(tours.get(4));
+        // Then
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L), requests.keySet().stream().sorted().toList());
+        assertTrue(next.isDone());
+        assertEquals("From 4", previous.join().getFromLocation());
+        assertEquals(2, prefetcher.getStats().hits());
+        assertEquals(1, prefetcher.getStats().misses());
+    }
+
+    @Test
+    void testJumpCancelsStalePrefetches() {
+        // Given: the selected route and one prefetch are still loading
+        answerRightAway = false;
+        CompletableFuture<RouteData> shown = prefetcher.route(tours.get(0));
+        prefetcher.prefetchAround(tours, 0);
+        assertEquals(2, requests.size());
+        // When
+        shown.cancel(true);
+        prefetcher.route(tours.get(15));
+        prefetcher.prefetchAround(tours, 15);
+        // Then
+        assertTrue(requests.get(0L).isCancelled());
+        assertTrue(requests.get(1L).isCancelled());
+        assertFalse(requests.get(15L).isCancelled());
+        assertTrue(requests.containsKey(16L));
+        assertFalse(requests.containsKey(14L));
+        // The next prefetch starts once one of the two running requests is done
+        requests.get(15L).complete(route(15));
+        assertTrue(requests.containsKey(14L));
+        assertEquals(2, prefetcher.getStats().cancelled());
+    }
+
+    @Test
+    void testWaitsForRateLimitHeadroom() {
+        // Given
+        spareCapacity = false;
+        prefetcher.route(tours.get(5));
+        // When
+        prefetcher.prefetchAround(tours, 5);
+        // Then
+        assertEquals(List.of(5L), List.copyOf(requests.keySet()));
+        assertEquals(0, prefetcher.getStats().prefetched());
+        prefetcher.dispose();
+    }
+
+    @Test
+    void testEstimatedAndChangedRoutesAreRequestedAgain() {
+        // Given
+        prefetcher.prefetchAround(tours, 5);
+        requests.clear();
+        TourDTO edited = tours.get(6);
+        edited.setToLocation("Somewhere else");
+        // When
+        prefetcher.route(edited);
+        // Then
+        assertTrue(requests.containsKey(6L));
+        // An estimated route is shown but not kept
+        requests.clear();
+        answerRightAway = false;
+        CompletableFuture<RouteData> first = prefetcher.route(tours.get(10));
+        RouteData estimated = route(10);
+        estimated.setApproximate(true);
+        CompletableFuture<RouteData> firstRequest = requests.get(10L);
+        firstRequest.complete(estimated);
+        assertTrue(first.join().isApproximate());
+        prefetcher.route(tours.get(10));
+        assertNotSame(firstRequest, requests.get(10L));
+        assertEquals(3, prefetcher.getStats().misses());
+    }
+}
@@ -0,0 +1,183 @@
+package com.tourplanner.ui.viewmodel;
+
+import com.tourplanner.backend.model.GeoCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionPipelineTest {
+
+    // Lookups whose debounce time has passed once run, and tasks handed to the UI thread, both run by the test
+    private final Queue<Runnable> timer = new ArrayDeque<>();
+    private final Queue<Runnable> ui = new ArrayDeque<>();
+    private final Map<String, CompletableFuture<List<GeoCode>>> requests = new LinkedHashMap<>();
+    private final List<List<GeoCode>> shown = new ArrayList<>();
+    private SuggestionPipeline pipeline;
+    private SuggestionPipeline.Channel channel;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new SuggestionPipeline(this::request, timer::add, 2, ui::add);
+        channel = pipeline.newChannel();
+    }
+
+    private CompletableFuture<List<GeoCode>> request(String text) {
+        CompletableFuture<List<GeoCode>> request = new CompletableFuture<>();
+        requests.put(text, request);
+        return request;
+    }
+
+    private void type(String text) {
+        channel.submit(text, shown::add);
+    }
+
+    private static void runAll(Queue<Runnable> tasks) {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    private static List<String> labels(List<GeoCode> results) {
+        return results.stream().map(GeoCode::getLabel).toList();
+    }
+
+    private static List<GeoCode> places(String... labels) {
+        List<GeoCode> places = new ArrayList<>();
+        for (String label : labels) {
+            places.add(new GeoCode(16.37, 48.21, label));
+        }
+        return places;
+    }
+
+    @Test
+    void testDebounceCollapsesKeystrokes() {
+        // Given
+        type("Wi");
+        type("Wie");
+        type("Wien");
+        // When
+        runAll(timer);
+        requests.get("wien").complete(places("Wien"));
+        runAll(ui);
+        // Then
+        assertEquals(List.of("wien"), List.copyOf(requests.keySet()));
+        assertEquals(1, shown.size());
+        assertEquals(List.of("Wien"), labels(shown.get(0)));
+        assertEquals(3, pipeline.getStats().submitted());
+        assertEquals(2, pipeline.getStats().debounced());
+        assertEquals(1, pipeline.getStats().networkRequests());
+    }
+
+    @Test
+    void testLateResultOfOlderInputIsDropped() {
+        // Given: the result for "Gr" is on its way to the UI thread when "Gra" is typed
+        type("Gr");
+        runAll(timer);
+        requests.get("gr").complete(places("Graz", "Grein"));
+        type("Gra");
+        // When
+        runAll(ui);
+        // Then
+        assertTrue(shown.isEmpty());
+        runAll(timer);
+        runAll(ui);
+        assertEquals(List.of("Graz"), labels(shown.get(0)));
+        assertEquals(1, shown.size());
+        assertEquals(1, pipeline.getStats().prefixHits());
+    }
+
+    @Test
+    void testPrefixCacheAnswersLongerAndRepeatedInput() {
+        // Given
+        type("Wie");
+        runAll(timer);
+        requests.get("wie").complete(places("Wien", "Wiener Neustadt", "Wiesbaden"));
+        runAll(ui);
+        // When
+        type("Wien");
+        runAll(timer);
+        runAll(ui);
+        type("Wie");
+        runAll(timer);
+        runAll(ui);
+        // Then
+        assertEquals(List.of("wie"), List.copyOf(requests.keySet()));
+        assertEquals(List.of("Wien", "Wiener Neustadt"), labels(shown.get(1)));
+        assertEquals(3, labels(shown.get(2)).size());
+        assertEquals(1, pipeline.getStats().prefixHits());
+        assertEquals(1, pipeline.getStats().cacheHits());
+    }
+
+    @Test
+    void testEmptyPrefixFilterAsksTheSource() {
+        // Given
+        type("Li");
+        runAll(timer);
+        requests.get("li").complete(places("Linz"));
+        runAll(ui);
+        // When
+        type("Lie");
+        runAll(timer);
+        // Then
+        assertTrue(requests.containsKey("lie"));
+        assertEquals(0, pipeline.getStats().prefixHits());
+    }
+
+    @Test
+    void testNewerInputCancelsInFlightLookup() {
+        // Given
+        type("Sa");
+        runAll(timer);
+        CompletableFuture<List<GeoCode>> inFlight = requests.get("sa");
+        // When
+        type("Sal");
+        // Then
+        assertTrue(inFlight.isCancelled());
+        assertEquals(1, pipeline.getStats().cancelled());
+        runAll(timer);
+        requests.get("sal").complete(places("Salzburg"));
+        runAll(ui);
+        assertEquals(List.of("Salzburg"), labels(shown.get(0)));
+        assertEquals(1, shown.size());
+    }
+
+    @Test
+    void testCancelDropsPendingAndInFlightLookups() {
+        // Given: one lookup waiting for its debounce time, on another channel one waiting for the source
+        SuggestionPipeline.Channel other = pipeline.newChannel();
+        other.submit("Ba", shown::add);
+        runAll(timer);
+        type("Kl");
+        // When
+        channel.cancel();
+        other.cancel();
+        runAll(timer);
+        requests.get("ba").complete(places("Bad Ischl"));
+        runAll(ui);
+        // Then
+        assertEquals(List.of("ba"), List.copyOf(requests.keySet()));
+        assertTrue(requests.get("ba").isCancelled());
+        assertTrue(shown.isEmpty());
+        assertEquals(1, pipeline.getStats().debounced());
+        assertEquals(1, pipeline.getStats().cancelled());
+    }
+
+    @Test
+    void testShortInputClearsRightAway() {
+        // When
+        type("W");
+        runAll(ui);
+        // Then
+        assertTrue(timer.isEmpty());
+        assertEquals(List.of(List.of()), shown);
+    }
+}
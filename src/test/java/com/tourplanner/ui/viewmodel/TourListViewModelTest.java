@@ -1,6 +1,10 @@
 package com.tourplanner.ui.viewmodel;
 
+import com.tourplanner.backend.dto.PageDTO;
+import com.tourplanner.backend.dto.RouteMatchDTO;
+import com.tourplanner.backend.dto.StatisticsSummaryDTO;
 import com.tourplanner.backend.dto.TourDTO;
+import com.tourplanner.backend.dto.TourStatisticsDTO;
 import com.tourplanner.backend.service.TourService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,7 +24,7 @@ class TourListViewModelTest {
     @BeforeEach
     void setUp() {
         tourService = new TestTourService();
-        viewModel = new TourListViewModel(tourService);
+        viewModel = new TourListViewModel(tourService, Runnable::run);
     }
 
     @Test
@@ -58,6 +63,33 @@ class TourListViewModelTest {
         assertEquals("New Tour", viewModel.getTours().get(0).getName());
     }
 
+    @Test
+    void testAddTours() {
+        // Given
+        List<TourDTO> imported = Arrays.asList(
+                new TourDTO("Imported 1", "Description 1", 5.0, "1h 30min"),
+                new TourDTO("Imported 2", "Description 2", 8.0, "2h 15min"));
+        // When
+        CompletableFuture<List<TourDTO>> added = viewModel.addTours(imported);
+        // Then
+        assertEquals(2, added.join().size());
+        assertEquals(2, viewModel.getTours().size());
+        assertEquals("Imported 2", viewModel.getTours().get(1).getName());
+        assertFalse(viewModel.isLoading());
+    }
+
+    @Test
+    void testAddToursFailureCompletesWithError() {
+        // Given
+        tourService.setShouldThrowException(true);
+        // When
+        CompletableFuture<List<TourDTO>> added = viewModel.addTours(List.of(new TourDTO("Imported", "Description", 5.0, "1h")));
+        // Then
+        assertTrue(added.isCompletedExceptionally());
+        assertTrue(viewModel.getTours().isEmpty());
+        assertEquals("Failed to add tours: Save error", viewModel.getErrorMessage());
+    }
+
     @Test
     void testUpdateTour() {
         // Given
@@ -72,6 +104,18 @@ class TourListViewModelTest {
         assertEquals("Updated Tour", viewModel.getTours().get(0).getName());
     }
 
+    @Test
+    void testAddTourFailure() {
+        // Given
+        tourService.setShouldThrowException(true);
+        // When
+        viewModel.addTour(new TourDTO("New Tour", "New Description", 6.0, "2h 00min"));
+        // Then
+        assertTrue(viewModel.getTours().isEmpty());
+        assertEquals("Failed to add tour: Save error", viewModel.getErrorMessage());
+        assertFalse(viewModel.isLoading());
+    }
+
     @Test
     void testDeleteTour() {
         // Given
@@ -92,6 +136,19 @@ class TourListViewModelTest {
         // Then
         assertEquals(1, viewModel.getTours().size());
         assertEquals("Search Result", viewModel.getTours().get(0).getName());
+        assertEquals(1, tourService.rankedSearches);
+    }
+
+    @Test
+    void testSearchWhileIndexLoadsUsesPlainSearch() {
+        // Given: the ranked search is still reading the stored texts
+        tourService.addTestTour(new TourDTO(1L, "Salzburg loop", "Description", 5.0, "1h 30min"));
+        tourService.textSearchReady = false;
+        // When
+        viewModel.searchTours("burg");
+        // Then
+        assertEquals(1, viewModel.getTours().size());
+        assertEquals(0, tourService.rankedSearches);
     }
 
     @Test
@@ -116,6 +173,8 @@ class TourListViewModelTest {
     private static class TestTourService implements TourService {
         private final List<TourDTO> testTours = new ArrayList<>();
         private boolean shouldThrowException = false;
+        private boolean textSearchReady = true;
+        private int rankedSearches;
 
         public void addTestTour(TourDTO tour) {
             testTours.add(tour);
@@ -197,5 +256,104 @@ class TourListViewModelTest {
                     .filter(tour -> tour.getName().toLowerCase().contains(searchText.toLowerCase()))
                     .collect(java.util.stream.Collectors.toList());
         }
+
+        @Override
+        public List<TourDTO> searchToursRanked(String query, int limit) {
+            return searchTours(query).stream().limit(limit).collect(java.util.stream.Collectors.toList());
+        }
+
+        @Override
+        public List<TourDTO> searchToursWithLogs(String query, int limit) {
+            rankedSearches++;
+            return searchToursRanked(query, limit);
+        }
+
+        @Override
+        public boolean prepareTextSearch() {
+            return textSearchReady;
+        }
+
+        @Override
+        public com.tourplanner.backend.model.RouteData getTourRoute(Long tourId) {
+            return null;
+        }
+
+        @Override
+        public CompletableFuture<TourDTO> createTourAsync(TourDTO tourDTO) {
+            try {
+                return CompletableFuture.completedFuture(createTour(tourDTO));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        @Override
+        public CompletableFuture<TourDTO> updateTourAsync(TourDTO tourDTO) {
+            try {
+                return CompletableFuture.completedFuture(updateTour(tourDTO));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        @Override
+        public CompletableFuture<com.tourplanner.backend.model.RouteData> getTourRouteAsync(Long tourId) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<List<TourDTO>> createToursAsync(List<TourDTO> tourDTOs) {
+            try {
+                List<TourDTO> saved = new ArrayList<>();
+                for (TourDTO tourDTO : tourDTOs) {
+                    saved.add(createTour(tourDTO));
+                }
+                return CompletableFuture.completedFuture(saved);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        @Override
+        public CompletableFuture<List<TourDTO>> refreshRoutesAsync(List<Long> tourIds) {
+            return CompletableFuture.completedFuture(testTours.stream()
+                    .filter(tour -> tourIds.contains(tour.getId()))
+                    .collect(java.util.stream.Collectors.toList()));
+        }
+
+        @Override
+        public List<TourDTO> findToursNear(double latitude, double longitude, double radiusKm, int limit) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<TourDTO> findToursInArea(double south, double west, double north, double east) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public List<RouteMatchDTO> findToursPassingNear(double latitude, double longitude, double radiusKm, int limit) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public PageDTO<TourDTO> getToursPage(String cursor, int size) {
+            return new PageDTO<>(getAllTours(), null);
+        }
+
+        @Override
+        public PageDTO<TourDTO> searchToursPage(String searchText, String cursor, int size) {
+            return new PageDTO<>(searchTours(searchText), null);
+        }
+
+        @Override
+        public List<TourStatisticsDTO> getTourStatistics() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public StatisticsSummaryDTO getStatisticsSummary() {
+            return new StatisticsSummaryDTO(testTours.size(), 0, 0, 0, 0, 0, 0);
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.tourplanner.ui.viewmodel;
+
+import com.tourplanner.SpringConfig;
+import com.tourplanner.backend.dto.TourDTO;
+import com.tourplanner.backend.dto.TourLogDTO;
+import com.tourplanner.backend.service.TourAggregateRepair;
+import com.tourplanner.backend.service.TourLogService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// The log table of a tour with 1M logs in an in-memory H2: opening it and scrolling through every row of the paged
+// list, opening it at the last row (scroll bar dragged to the end), and opening it at a random row in the middle and
+// then dragging a little further, against loading every log into a list as TourLogViewModel did before. H2's
+// statement cache is off, as it would otherwise hand back the result of a query repeated unchanged. Heap used after
+// each is printed once at setup.
+// Not run by surefire; start main() from the IDE after mvn test-compile.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TourLogPagingBenchmark {
+
+    @Param({"1000000"})
+    private int logs;
+
+    private ConfigurableApplicationContext context;
+    private TourLogService tourLogService;
+    private TourDTO tour;
+    private final Random random = new Random(7);
+
+    @Setup
+    public void setUp() {
+        // Arguments, as they take precedence over application.properties and its file database
+        context = new SpringApplicationBuilder(SpringConfig.class)
+                .run("--spring.datasource.url=jdbc:h2:mem:paging;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=0",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--logging.file.name=",
+                        "--logging.level.com.tourplanner=WARN",
+                        "--logging.level.org.springframework=WARN",
+                        "--logging.level.org.hibernate=WARN");
+        tourLogService = context.getBean(TourLogService.class);
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbc.update("INSERT INTO tours (id, name, distance, estimated_time, created_at, updated_at) "
+                + "VALUES (1, 'Tour 1', 10.0, '2h 0m', ?, ?)", now, now);
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Object[]> rows = new ArrayList<>(10_000);
+        for (int i = 0; i < logs; i++) {
+            rows.add(new Object[]{Timestamp.valueOf(start.plusMinutes(random.nextInt(logs))), "Log " + i,
+                    1 + random.nextInt(5), random.nextDouble() * 200, random.nextDouble() * 10,
+                    1 + random.nextInt(5), now, now});
+            if (rows.size() == 10_000 || i == logs - 1) {
+                jdbc.batchUpdate("INSERT INTO tour_logs (tour_id, date_time, comment, difficulty, total_distance, "
+                        + "total_time, rating, created_at, updated_at) VALUES (1, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        context.getBean(TourAggregateRepair.class).repair();
+        tour = new TourDTO(1L, "Tour 1", "", 10.0, "2h 0m");
+
+        long base = usedHeap();
+        TourLogViewModel viewModel = new TourLogViewModel(tourLogService);
+        viewModel.setSelectedTour(tour);
+        scroll(viewModel.getTourLogs());
+        System.out.printf("%nPaged, after scrolling %d rows: %d MB more heap%n", logs, (usedHeap() - base) >> 20);
+        List<TourLogDTO> all = tourLogService.getTourLogsByTourId(1L);
+        System.out.printf("Loaded into a list: %d MB more heap (%d rows)%n", (usedHeap() - base) >> 20, all.size());
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long scroll(List<TourLogDTO> rows) {
+        long checksum = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            checksum += rows.get(i).getId();
+        }
+        return checksum;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long pagedScrollAll() {
+        TourLogViewModel viewModel = new TourLogViewModel(tourLogService);
+        viewModel.setSelectedTour(tour);
+        return scroll(viewModel.getTourLogs());
+    }
+
+    @Benchmark
+    public long pagedJumpToEnd() {
+        TourLogViewModel viewModel = new TourLogViewModel(tourLogService);
+        viewModel.setSelectedTour(tour);
+        List<TourLogDTO> rows = viewModel.getTourLogs();
+        return rows.get(rows.size() - 1).getId();
+    }
+
+    @Benchmark
+    public long pagedJumpToMiddle() {
+        TourLogViewModel viewModel = new TourLogViewModel(tourLogService);
+        viewModel.setSelectedTour(tour);
+        List<TourLogDTO> rows = viewModel.getTourLogs();
+        int middle = rows.size() * 2 / 5 + random.nextInt(rows.size() / 5);
+        return rows.get(middle).getId() + rows.get(middle + 10_000).getId();
+    }
+
+    @Benchmark
+    public int loadAll() {
+        return tourLogService.getTourLogsByTourId(tour.getId()).size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TourLogPagingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
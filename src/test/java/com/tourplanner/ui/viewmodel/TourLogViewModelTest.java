@@ -1,5 +1,6 @@
 package com.tourplanner.ui.viewmodel;
 
+import com.tourplanner.backend.dto.PageDTO;
 import com.tourplanner.backend.dto.TourDTO;
 import com.tourplanner.backend.dto.TourLogDTO;
 import com.tourplanner.backend.service.TourLogService;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -98,6 +100,54 @@ class TourLogViewModelTest {
         assertEquals(1, viewModel.getTourLogs().size());
     }
 
+    @Test
+    void testSortDoesNotReadPagedLogs() {
+        // Given
+        for (long id = 1; id <= 250; id++) {
+            tourLogService.addTestLog(new TourLogDTO(id, 1L, LocalDateTime.now(), "Log " + id, 3.0, 10.5, 2.5, 4.0));
+        }
+        viewModel.setSelectedTour(testTour);
+        PagedList<TourLogDTO> logs = (PagedList<TourLogDTO>) viewModel.getTourLogs();
+        // When
+        boolean sorted = viewModel.sortTourLogs(Comparator.comparing(TourLogDTO::getComment));
+        // Then
+        assertFalse(sorted);
+        assertTrue(logs.isPaged());
+        assertEquals(0, logs.getPageLoads());
+        assertEquals(250, logs.size());
+    }
+
+    @Test
+    void testUpdateWithStaleCountReloads() {
+        // Given: the last of three logs deleted elsewhere after the count was read
+        for (long id = 1; id <= 3; id++) {
+            tourLogService.addTestLog(new TourLogDTO(id, 1L, LocalDateTime.now(), "Log " + id, 3.0, 10.5, 2.5, 4.0));
+        }
+        viewModel.setSelectedTour(testTour);
+        tourLogService.deleteTourLog(3L);
+        TourLogDTO edited = viewModel.getTourLogs().get(0);
+        edited.setComment("Edited");
+        // When: the table still shows a third row
+        viewModel.updateTourLog(2, edited);
+        // Then
+        assertEquals("", viewModel.getErrorMessage());
+        assertEquals(2, viewModel.getTourLogs().size());
+        assertEquals("Edited", viewModel.getTourLogs().get(0).getComment());
+    }
+
+    @Test
+    void testSortSearchResults() {
+        // Given
+        tourLogService.addTestLog(new TourLogDTO(1L, 1L, LocalDateTime.now(), "Test b", 3.0, 10.5, 2.5, 4.0));
+        tourLogService.addTestLog(new TourLogDTO(2L, 1L, LocalDateTime.now(), "Test a", 3.0, 10.5, 2.5, 4.0));
+        viewModel.searchTourLogs("test");
+        // When
+        boolean sorted = viewModel.sortTourLogs(Comparator.comparing(TourLogDTO::getComment));
+        // Then
+        assertTrue(sorted);
+        assertEquals("Test a", viewModel.getTourLogs().get(0).getComment());
+    }
+
     @Test
     void testDispose() {
         // Given
@@ -218,6 +268,24 @@ class TourLogViewModelTest {
                     .collect(java.util.stream.Collectors.toList());
         }
 
+        @Override
+        public List<TourLogDTO> searchTourLogsRanked(Long tourId, String query, int limit) {
+            return searchTourLogs(query).stream()
+                    .filter(log -> tourId == null || tourId.equals(log.getTourId()))
+                    .limit(limit)
+                    .collect(java.util.stream.Collectors.toList());
+        }
+
+        @Override
+        public PageDTO<TourLogDTO> getTourLogsPage(String cursor, int size) {
+            return new PageDTO<>(getAllTourLogs(), null);
+        }
+
+        @Override
+        public PageDTO<TourLogDTO> getTourLogsPageByTourId(Long tourId, String cursor, int size) {
+            return new PageDTO<>(getTourLogsByTourId(tourId), null);
+        }
+
         @Override
         public Long getTourLogCountByTourId(Long tourId) {
             if (shouldThrowException) {
@@ -227,5 +295,23 @@ class TourLogViewModelTest {
                     .filter(log -> log.getTourId().equals(tourId))
                     .count();
         }
+
+        @Override
+        public Long getTourLogCount() {
+            if (shouldThrowException) {
+                throw new RuntimeException("Database error");
+            }
+            return (long) testLogs.size();
+        }
+
+        @Override
+        public String getTourLogsCursorAfter(Long tourId, String cursor, long rows) {
+            return null;
+        }
+
+        @Override
+        public String getTourLogsCursorBeforeLast(Long tourId, long rows) {
+            return null;
+        }
     }
 } 
\ No newline at end of file